@@ -319,7 +319,10 @@ public class FeatureClassCreateActivity extends AppCompatActivity {
                                 Toast.makeText(this, "创建成功", Toast.LENGTH_SHORT).show();
                                 this.finish();
                             }
+                        } else if (CustomGeoPackageManager.getInstance(this).isOpening()) {
+                            Toast.makeText(this, "数据正在打开，请稍后再试", Toast.LENGTH_SHORT).show();
                         } else {
+                            Toast.makeText(this, "没有打开的数据库", Toast.LENGTH_SHORT).show();
 //                            CustomGeoPackageManager.getInstance(this).createEmptDatabase(new File(""));
 //                            CustomGeoPackageManager.getInstance(this).createFeatureClass(layer);
                         }
@@ -22,7 +22,9 @@ import com.zhjf.osmdroid.common.SerializableMap;
 import com.zhjf.osmdroid.fileexplorer.FileSelectActivity;
 import com.zhjf.osmdroid.fileexplorer.FileSelectConstant;
 import com.zhjf.osmdroid.geopackage.CustomGeoPackageManager;
+import com.zhjf.osmdroid.geopackage.EditJournal;
 import com.zhjf.osmdroid.geopackage.FilePathManage;
+import com.zhjf.osmdroid.overlay.TileLayer;
 import com.zhjf.osmdroid.overlay.VectorLayer;
 import com.zhjf.osmdroid.permission.PermissionManager;
 import com.zhjf.osmdroid.tile.CustomTileSource;
@@ -58,7 +60,6 @@ import org.osmdroid.views.overlay.Overlay;
 import org.osmdroid.views.overlay.OverlayWithIW;
 import org.osmdroid.views.overlay.Polyline;
 import org.osmdroid.views.overlay.ScaleBarOverlay;
-import org.osmdroid.views.overlay.TilesOverlay;
 import org.osmdroid.views.overlay.compass.CompassOverlay;
 import org.osmdroid.views.overlay.compass.InternalCompassOrientationProvider;
 import org.osmdroid.views.overlay.mylocation.GpsMyLocationProvider;
@@ -214,6 +215,15 @@ public class MainActivity extends AppCompatActivity {
         return true;
     }
 
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        //矢量数据打开完成前不能创建要素类或再次选择工作空间
+        boolean opening = CustomGeoPackageManager.getInstance(this).isOpening();
+        menu.findItem(R.id.action_create_featureclass).setEnabled(!opening);
+        menu.findItem(R.id.action_select_workspace).setEnabled(!opening);
+        return super.onPrepareOptionsMenu(menu);
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         Intent intent = null;
@@ -271,12 +281,16 @@ public class MainActivity extends AppCompatActivity {
                         utils.createCache4(new File(mapName).getName(), pdfInfo.envelope, 15, 16, pdfInfo.bitmap);
                     }
                     CustomTileSource source = new CustomTileSource(targetCacheFile.getAbsolutePath(), 15, 16, 256, ".png");
-                    MapTileModuleProviderBase moduleProvider = new MapTileFileProvider(source);
+                    MapTileFileProvider moduleProvider = new MapTileFileProvider(source);
                     SimpleRegisterReceiver simpleReceiver = new SimpleRegisterReceiver(getApplicationContext());
                     MapTileProviderArray tileProviderArray = new MapTileProviderArray(source, simpleReceiver, new MapTileModuleProviderBase[]{moduleProvider});
-                    TilesOverlay tilesOverlay = new TilesOverlay(tileProviderArray, getApplicationContext());
+                    TileLayer tileLayer = new TileLayer(mapView, getApplicationContext(), tileProviderArray);
+                    //按可视范围安排瓦片解码顺序
+                    tileLayer.addViewportListener(moduleProvider);
+                    //离线瓦片读取开销小，预取运动前方及上下一级的瓦片
+                    tileLayer.setPrefetchEnabled(true);
 
-                    mapView.getOverlays().add(tilesOverlay);
+                    mapView.getOverlays().add(tileLayer);
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -458,7 +472,9 @@ public class MainActivity extends AppCompatActivity {
             if (currentLayer != null && (currentLayer.getGeometryType() == GeometryType.POINT || currentLayer.getGeometryType() == GeometryType.POLYGON)) {
                 if (editMode == EditMode.DELETE) {
                     List<OverlayWithIW> deletedList = currentLayer.hitTest(e, mapView);
-                    currentLayer.getItems().removeAll(deletedList);
+                    for (OverlayWithIW deleted : deletedList) {
+                        currentLayer.removeFeature(deleted);
+                    }
                     return true;
                 } else if (editMode == EditMode.SELECT) {
                     List<OverlayWithIW> selectList = currentLayer.hitTest(e, mapView);
@@ -492,7 +508,9 @@ public class MainActivity extends AppCompatActivity {
                 } else if (currentLayer.getGeometryType() == GeometryType.LINESTRING) {
                     if (editMode == EditMode.DELETE) {
                         List<OverlayWithIW> deletedList = currentLayer.hitTestLine(p, mapView);
-                        currentLayer.getItems().removeAll(deletedList);
+                        for (OverlayWithIW deleted : deletedList) {
+                            currentLayer.removeFeature(deleted);
+                        }
                     } else if (editMode == EditMode.DRAW) {
                         if (mapShape != null) mapView.getOverlays().remove(mapShape.getShape());
                         if (lineString == null) {
@@ -570,12 +588,25 @@ public class MainActivity extends AppCompatActivity {
                         FilePathManage.getInstance().setRootPath(wp);
                         try {
                             CustomGeoPackageManager.getInstance(this).setMapView(mapView);
-                            CustomGeoPackageManager.getInstance(this).initMap();
-                            findViewById(R.id.bg_view).setVisibility(View.GONE);
+                            //打开完成后才隐藏背景，打开期间不能创建要素类
+                            CustomGeoPackageManager.getInstance(this).initMap(new CustomGeoPackageManager.OpenCallback() {
+                                @Override
+                                public void onOpened() {
+                                    findViewById(R.id.bg_view).setVisibility(View.GONE);
+                                    invalidateOptionsMenu();
+                                }
+
+                                @Override
+                                public void onFailed(Exception error) {
+                                    Toast.makeText(MainActivity.this, error.getMessage(), Toast.LENGTH_SHORT).show();
+                                    invalidateOptionsMenu();
+                                }
+                            });
                         } catch (Exception e) {
                             e.printStackTrace();
                             Toast.makeText(this, e.getMessage(), Toast.LENGTH_SHORT).show();
                         }
+                        invalidateOptionsMenu();
                         mapView.setMaxZoomLevel(18.0);
                         mapView.setMinZoomLevel(0.0);
                         mapView.getController().setZoom(12);
@@ -587,6 +618,19 @@ public class MainActivity extends AppCompatActivity {
                     String name = (String) bundle.get(FeatureClassCreateActivity.CREATED_TABLE_NAME);
                     Toast.makeText(this, "要素类：" + name + "创建成功", Toast.LENGTH_SHORT).show();
                     break;
+                case SELECTOR_FEATURE_REQUEST_CODE:
+                    //修改已有要素的属性，按要素id写入编辑日志
+                    bundle = data.getExtras();
+                    SerializableMap editedMap = (SerializableMap) bundle.get("map");
+                    if (currentLayer != null && currentFeature != null && editedMap != null) {
+                        try {
+                            currentLayer.update(Long.parseLong(currentFeature.getId()), null, editedMap.getMap());
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                            Toast.makeText(this, e.getMessage(), Toast.LENGTH_SHORT).show();
+                        }
+                    }
+                    break;
                 case ATTR_EDIT_CODE:
                     bundle = data.getExtras();
                     SerializableMap serializableMap = (SerializableMap) bundle.get("map");
@@ -609,6 +653,13 @@ public class MainActivity extends AppCompatActivity {
         super.onResume();
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        //进入后台前尽快写入未保存的编辑
+        EditJournal.getInstance(this).requestFlush();
+    }
+
     @Override
     public void onDestroy() {
         super.onDestroy();
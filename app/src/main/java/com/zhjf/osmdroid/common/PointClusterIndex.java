@@ -0,0 +1,310 @@
+package com.zhjf.osmdroid.common;
+
+import org.osmdroid.util.TileSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 点要素的多级格网聚合索引。点按墨卡托坐标的Morton编码（线性四叉树）排序保存，
+ * 任一缩放级别下同一聚合格网内的点在数组中连续，格网边长为瓦片的1/4（256像素瓦片时为64像素），
+ * 下一级格网恰好是上一级格网的四分之一，构成层次结构。
+ * 查询时从根格网向下只进入与范围相交且非空的格网，耗时与可见聚合数量相关而与点总数无关；
+ * 插入、删除只移动数组元素，不需要重建。
+ * 非线程安全，由调用方保证同步。
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class PointClusterIndex {
+    //Morton编码每个坐标轴的位数
+    private static final int BITS = 31;
+    //聚合格网比瓦片细分的级数，2表示格网为瓦片的1/4
+    private static final int CELL_LEVELS = 2;
+
+    private final int maxZoom;
+    private int size;
+    private long[] codes = new long[16];
+    private long[] ids = new long[16];
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    //xs、ys的前缀和，sumX[i]为前i个点之和，用于计算聚合中心
+    private double[] sumX = new double[17];
+    private double[] sumY = new double[17];
+    private final Map<Long, Long> codeById = new HashMap<>();
+
+    /**
+     * @param maxZoom 聚合的最大缩放级别，查询更大级别时按该级别聚合
+     */
+    public PointClusterIndex(int maxZoom) {
+        if (maxZoom < 0 || maxZoom + CELL_LEVELS > BITS) {
+            throw new IllegalArgumentException("maxZoom must be between 0 and " + (BITS - CELL_LEVELS));
+        }
+        this.maxZoom = maxZoom;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(long id) {
+        return codeById.containsKey(id);
+    }
+
+    /**
+     * 清空后批量加载，排序一次，比逐个插入快
+     *
+     * @param ids
+     * @param longitudes
+     * @param latitudes
+     */
+    public void load(long[] ids, double[] longitudes, double[] latitudes) {
+        clear();
+        final int count = ids.length;
+        ensureCapacity(count);
+        final long[] pointCodes = new long[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            pointCodes[i] = encode(x01(longitudes[i]), y01(latitudes[i]));
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(pointCodes[a], pointCodes[b]);
+            }
+        });
+        for (int i = 0; i < count; i++) {
+            int j = order[i];
+            if (codeById.containsKey(ids[j])) continue;
+            codes[size] = pointCodes[j];
+            this.ids[size] = ids[j];
+            xs[size] = x01(longitudes[j]);
+            ys[size] = y01(latitudes[j]);
+            codeById.put(ids[j], pointCodes[j]);
+            size++;
+        }
+        updateSums(0);
+    }
+
+    /**
+     * 插入点，已存在时更新其位置
+     */
+    public void insert(long id, double longitude, double latitude) {
+        remove(id);
+        double x = x01(longitude), y = y01(latitude);
+        long code = encode(x, y);
+        ensureCapacity(size + 1);
+        int position = upperBound(code, 0, size);
+        System.arraycopy(codes, position, codes, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        System.arraycopy(xs, position, xs, position + 1, size - position);
+        System.arraycopy(ys, position, ys, position + 1, size - position);
+        codes[position] = code;
+        ids[position] = id;
+        xs[position] = x;
+        ys[position] = y;
+        size++;
+        codeById.put(id, code);
+        updateSums(position);
+    }
+
+    public boolean remove(long id) {
+        Long code = codeById.remove(id);
+        if (code == null) {
+            return false;
+        }
+        int position = lowerBound(code, 0, size);
+        while (position < size && ids[position] != id) {
+            position++;
+        }
+        System.arraycopy(codes, position + 1, codes, position, size - position - 1);
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        System.arraycopy(xs, position + 1, xs, position, size - position - 1);
+        System.arraycopy(ys, position + 1, ys, position, size - position - 1);
+        size--;
+        updateSums(position);
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+        codeById.clear();
+    }
+
+    /**
+     * 查询与给定经纬度范围相交的聚合格网
+     *
+     * @param zoom 缩放级别，大于maxZoom时按maxZoom聚合
+     * @return 每个非空格网一个聚合，只含一个点的聚合可通过getId得到要素id
+     */
+    public List<Cluster> getClusters(double west, double south, double east, double north, int zoom) {
+        List<Cluster> result = new ArrayList<>();
+        if (size == 0) return result;
+        int level = Math.max(0, Math.min(zoom, maxZoom)) + CELL_LEVELS;
+        collect(0, 0, 0, 0, size, level, x01(west), y01(north), x01(east), y01(south), result);
+        return result;
+    }
+
+    /**
+     * 从根格网向下查找，空格网和范围外的格网不再细分
+     */
+    private void collect(int level, long cellX, long cellY, int from, int to, int targetLevel,
+                         double minX, double minY, double maxX, double maxY, List<Cluster> result) {
+        double cellSize = 1.0 / (1L << level);
+        if (cellX * cellSize > maxX || (cellX + 1) * cellSize < minX
+                || cellY * cellSize > maxY || (cellY + 1) * cellSize < minY) {
+            return;
+        }
+        if (level == targetLevel) {
+            result.add(createCluster(from, to));
+            return;
+        }
+        int childLevel = level + 1;
+        long prefix = interleave(cellX, cellY) << 2;
+        int start = from;
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            int end = quadrant == 3 ? to : lowerBound((prefix + quadrant + 1) << (2 * (BITS - childLevel)), start, to);
+            if (end > start) {
+                collect(childLevel, cellX * 2 + (quadrant & 1), cellY * 2 + (quadrant >> 1), start, end, targetLevel,
+                        minX, minY, maxX, maxY, result);
+            }
+            start = end;
+        }
+    }
+
+    private Cluster createCluster(int from, int to) {
+        int count = to - from;
+        double x = (sumX[to] - sumX[from]) / count;
+        double y = (sumY[to] - sumY[from]) / count;
+        //首尾两点编码的公共前缀决定了它们在哪一级格网分开
+        int commonLevels = codes[from] == codes[to - 1] ? BITS
+                : (Long.numberOfLeadingZeros(codes[from] ^ codes[to - 1]) - (64 - 2 * BITS)) / 2;
+        int expansionZoom = Math.min(commonLevels + 1 - CELL_LEVELS, maxZoom + 1);
+        return new Cluster(TileSystem.getLongitudeFromX01(x, true), TileSystem.getLatitudeFromY01(y, true),
+                count, count == 1 ? ids[from] : -1, expansionZoom);
+    }
+
+    private void updateSums(int from) {
+        for (int i = from; i < size; i++) {
+            sumX[i + 1] = sumX[i] + xs[i];
+            sumY[i + 1] = sumY[i] + ys[i];
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= codes.length) return;
+        int length = Math.max(capacity, codes.length * 2);
+        codes = Arrays.copyOf(codes, length);
+        ids = Arrays.copyOf(ids, length);
+        xs = Arrays.copyOf(xs, length);
+        ys = Arrays.copyOf(ys, length);
+        sumX = Arrays.copyOf(sumX, length + 1);
+        sumY = Arrays.copyOf(sumY, length + 1);
+    }
+
+    private int lowerBound(long code, int from, int to) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (codes[middle] < code) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private int upperBound(long code, int from, int to) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (codes[middle] <= code) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private static double x01(double longitude) {
+        return TileSystem.getX01FromLongitude(longitude, true);
+    }
+
+    private static double y01(double latitude) {
+        return TileSystem.getY01FromLatitude(latitude, true);
+    }
+
+    private static long encode(double x, double y) {
+        long max = (1L << BITS) - 1;
+        long cellX = Math.max(0, Math.min(max, (long) (x * (1L << BITS))));
+        long cellY = Math.max(0, Math.min(max, (long) (y * (1L << BITS))));
+        return interleave(cellX, cellY);
+    }
+
+    /**
+     * x占偶数位，y占奇数位
+     */
+    private static long interleave(long x, long y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static long spread(long value) {
+        value &= 0xffffffffL;
+        value = (value | (value << 16)) & 0x0000ffff0000ffffL;
+        value = (value | (value << 8)) & 0x00ff00ff00ff00ffL;
+        value = (value | (value << 4)) & 0x0f0f0f0f0f0f0f0fL;
+        value = (value | (value << 2)) & 0x3333333333333333L;
+        value = (value | (value << 1)) & 0x5555555555555555L;
+        return value;
+    }
+
+    /**
+     * 一个聚合格网：点数量及其中心
+     */
+    public static final class Cluster {
+        private final double longitude;
+        private final double latitude;
+        private final int count;
+        private final long id;
+        private final int expansionZoom;
+
+        private Cluster(double longitude, double latitude, int count, long id, int expansionZoom) {
+            this.longitude = longitude;
+            this.latitude = latitude;
+            this.count = count;
+            this.id = id;
+            this.expansionZoom = expansionZoom;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return 只含一个点时为要素id，否则为-1
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * @return 聚合开始分开的缩放级别，点击聚合时放大到该级别
+         */
+        public int getExpansionZoom() {
+            return expansionZoom;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.zhjf.osmdroid.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于规则格网的外包矩形空间索引，支持增量插入、删除和矩形范围查询。
+ * 跨越格网过多的大对象单独存放，查询时逐个比较外包矩形。
+ * 非线程安全，由调用方保证同步。
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class SpatialGridIndex<T> {
+    //单个对象最多登记的格网数，超过则放入大对象列表
+    private static final int MAX_CELLS_PER_ITEM = 64;
+
+    private final double cellSize;
+    private final Map<Long, List<T>> cells = new HashMap<>();
+    private final Map<T, double[]> envelopes = new HashMap<>();
+    private final Set<T> oversized = new HashSet<>();
+
+    /**
+     * @param cellSize 格网边长，与坐标同单位
+     */
+    public SpatialGridIndex(double cellSize) {
+        if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+            throw new IllegalArgumentException("cellSize must be a positive number");
+        }
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * 根据数据范围和对象数量估算格网大小，使每个格网平均约有一个对象
+     *
+     * @param minX
+     * @param minY
+     * @param maxX
+     * @param maxY
+     * @param count 对象数量
+     * @return
+     */
+    public static double suggestCellSize(double minX, double minY, double maxX, double maxY, int count) {
+        double extent = Math.max(maxX - minX, maxY - minY);
+        if (!(extent > 0)) {
+            return 1e-6;
+        }
+        return extent / Math.max(1, Math.ceil(Math.sqrt(count)));
+    }
+
+    public int size() {
+        return envelopes.size();
+    }
+
+    public boolean contains(T item) {
+        return envelopes.containsKey(item);
+    }
+
+    /**
+     * @return 对象的外包矩形 {minX, minY, maxX, maxY}，不存在时返回null
+     */
+    public double[] getEnvelope(T item) {
+        return envelopes.get(item);
+    }
+
+    /**
+     * 插入对象，已存在时更新其外包矩形
+     */
+    public void insert(T item, double minX, double minY, double maxX, double maxY) {
+        if (envelopes.containsKey(item)) {
+            remove(item);
+        }
+        envelopes.put(item, new double[]{minX, minY, maxX, maxY});
+        long x0 = cell(minX), y0 = cell(minY), x1 = cell(maxX), y1 = cell(maxY);
+        if ((x1 - x0 + 1) * (y1 - y0 + 1) > MAX_CELLS_PER_ITEM) {
+            oversized.add(item);
+            return;
+        }
+        for (long x = x0; x <= x1; x++) {
+            for (long y = y0; y <= y1; y++) {
+                List<T> items = cells.get(key(x, y));
+                if (items == null) {
+                    items = new ArrayList<>(2);
+                    cells.put(key(x, y), items);
+                }
+                items.add(item);
+            }
+        }
+    }
+
+    public boolean remove(T item) {
+        double[] envelope = envelopes.remove(item);
+        if (envelope == null) {
+            return false;
+        }
+        if (oversized.remove(item)) {
+            return true;
+        }
+        long x0 = cell(envelope[0]), y0 = cell(envelope[1]), x1 = cell(envelope[2]), y1 = cell(envelope[3]);
+        for (long x = x0; x <= x1; x++) {
+            for (long y = y0; y <= y1; y++) {
+                List<T> items = cells.get(key(x, y));
+                if (items != null) {
+                    items.remove(item);
+                    if (items.isEmpty()) {
+                        cells.remove(key(x, y));
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        cells.clear();
+        envelopes.clear();
+        oversized.clear();
+    }
+
+    /**
+     * 查询外包矩形与给定矩形相交的对象
+     *
+     * @return 结果不重复
+     */
+    public List<T> query(double minX, double minY, double maxX, double maxY) {
+        Set<T> result = new LinkedHashSet<>();
+        long x0 = cell(minX), y0 = cell(minY), x1 = cell(maxX), y1 = cell(maxY);
+        if ((x1 - x0 + 1) * (y1 - y0 + 1) > cells.size()) {
+            //查询范围比已用格网还多时，直接遍历全部对象
+            for (Map.Entry<T, double[]> entry : envelopes.entrySet()) {
+                if (intersects(entry.getValue(), minX, minY, maxX, maxY)) {
+                    result.add(entry.getKey());
+                }
+            }
+            return new ArrayList<>(result);
+        }
+        for (long x = x0; x <= x1; x++) {
+            for (long y = y0; y <= y1; y++) {
+                List<T> items = cells.get(key(x, y));
+                if (items == null) continue;
+                for (T item : items) {
+                    if (intersects(envelopes.get(item), minX, minY, maxX, maxY)) {
+                        result.add(item);
+                    }
+                }
+            }
+        }
+        for (T item : oversized) {
+            if (intersects(envelopes.get(item), minX, minY, maxX, maxY)) {
+                result.add(item);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static boolean intersects(double[] envelope, double minX, double minY, double maxX, double maxY) {
+        return envelope[0] <= maxX && envelope[2] >= minX && envelope[1] <= maxY && envelope[3] >= minY;
+    }
+
+    private long cell(double value) {
+        return (long) Math.floor(value / cellSize);
+    }
+
+    private static long key(long x, long y) {
+        return (x << 32) ^ (y & 0xffffffffL);
+    }
+}
@@ -32,6 +32,8 @@ import org.osmdroid.views.overlay.Polyline;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import mil.nga.geopackage.BoundingBox;
 import mil.nga.geopackage.GeoPackage;
@@ -52,6 +54,10 @@ import mil.nga.wkb.geom.GeometryType;
 import mil.nga.wkb.geom.Point;
 
 public class CustomGeoPackageManager {
+    //要素数量超过此值的线、面图层栅格化显示
+    private static final long RASTER_FEATURE_COUNT = 20000;
+    //打开矢量数据的后台线程
+    private static final ExecutorService openExecutor = Executors.newSingleThreadExecutor();
     private static GeoPackageManager geoPackageManager;
     private Context context;
     private MapView mapView;
@@ -59,6 +65,18 @@ public class CustomGeoPackageManager {
     private GeoPackage geoPackage;
     private boolean hasDb = false;
     private File vectorMapFilePath;
+    private boolean openedInPlace = false;
+    //矢量数据是否正在后台线程中打开，只在UI线程中访问
+    private boolean opening = false;
+
+    /**
+     * 打开地图的结果，在UI线程中调用
+     */
+    public interface OpenCallback {
+        void onOpened();
+
+        void onFailed(Exception error);
+    }
 
     private CustomGeoPackageManager(Context context) {
         this.context = context;
@@ -91,6 +109,7 @@ public class CustomGeoPackageManager {
         if (!geoPackageManager.exists(dbName)) {
             if (geoPackageManager.createAtPath(dbName, dbPath)) {
                 geoPackage = geoPackageManager.open(dbName);
+                EditJournal.getInstance(context).attach(geoPackage, new File(dbPath, dbName).getAbsolutePath());
                 created = true;
             }
         }
@@ -147,7 +166,18 @@ public class CustomGeoPackageManager {
         return false;
     }
 
-    public void initMap() throws Exception {
+    public void initMap(OpenCallback callback) throws Exception {
+        initMap(false, callback);
+    }
+
+    /**
+     * 矢量数据在后台线程中打开，打开完成或失败后通过callback通知，期间isOpening返回true
+     *
+     * @param copyVectorMap 是否把矢量数据复制到应用内部存储后再打开；默认直接打开原文件
+     * @param callback      打开结果，可为null
+     * @throws Exception 瓦片地图或矢量数据文件不存在
+     */
+    public void initMap(boolean copyVectorMap, OpenCallback callback) throws Exception {
         //第一步扫描出包含的内容
         String tileMapFile = FilePathManage.getInstance().getMap();
         if (!tileMapFile.isEmpty()) {
@@ -158,46 +188,141 @@ public class CustomGeoPackageManager {
 
         String vectorMapFile = FilePathManage.getInstance().getVector();
         if (!vectorMapFile.isEmpty()) {
-            initVectorMap(new File(vectorMapFile));
+            initVectorMap(new File(vectorMapFile), copyVectorMap, callback);
         } else {
             createEmptDatabase(new File(FilePathManage.getInstance().getRootDir()), "data");
+            if (callback != null) {
+                callback.onOpened();
+            }
         }
     }
 
-    private void initVectorMap(File vectorMapFilePath) throws Exception {
+    /**
+     * 在后台线程中先写完原数据库尚未写入的编辑，再删除同名记录、导入并打开新数据库，完成后在UI线程中添加图层并通知callback
+     */
+    private void initVectorMap(final File vectorMapFilePath, final boolean copy, final OpenCallback callback) throws Exception {
         if (!vectorMapFilePath.exists()) {
             throw new Exception("文件不存在");
         }
         this.vectorMapFilePath = vectorMapFilePath;
-        geoPackageManager.deleteAll();
-        String dbName = vectorMapFilePath.getName().substring(0, vectorMapFilePath.getName().indexOf("."));
-        if (geoPackageManager.importGeoPackage(dbName, vectorMapFilePath)) {
-            geoPackage = geoPackageManager.open(dbName);
-            if (geoPackage != null) {
-                List<String> features = geoPackage.getFeatureTables();
+        final String dbName = vectorMapFilePath.getName().substring(0, vectorMapFilePath.getName().indexOf("."));
+        //切换期间不再接受对原数据库的编辑
+        EditJournal.getInstance(context).detach();
+        geoPackage = null;
+        hasDb = false;
+        opening = true;
+        openExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    openVectorMap(vectorMapFilePath, dbName, copy, callback);
+                } catch (final Exception e) {
+                    e.printStackTrace();
+                    mapView.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            openedInPlace = false;
+                            opening = false;
+                            if (callback != null) {
+                                callback.onFailed(e);
+                            }
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * 后台线程：导入并打开矢量数据，读取要素表信息并建立要素外包矩形索引
+     */
+    private void openVectorMap(final File vectorMapFilePath, String dbName, final boolean copy, final OpenCallback callback) throws Exception {
+        //原数据库的编辑写完后才能删除其记录，否则复制模式下会写入已删除的文件
+        EditJournal.getInstance(context).flush();
+        //已链接到同一文件时直接打开，保留元数据库中的要素索引
+        boolean linked = !copy && geoPackageManager.exists(dbName) && geoPackageManager.isExternal(dbName)
+                && vectorMapFilePath.getAbsolutePath().equals(geoPackageManager.getPath(dbName));
+        //只删除同名的记录；外部链接的数据库删除时只解除链接，不会删除原文件
+        if (!linked && geoPackageManager.exists(dbName)) {
+            geoPackageManager.delete(dbName);
+        }
+        final boolean imported;
+        if (linked) {
+            imported = true;
+        } else if (copy) {
+            imported = geoPackageManager.importGeoPackage(dbName, vectorMapFilePath);
+        } else {
+            //直接链接原文件，不复制，编辑结果直接写入原文件
+            imported = geoPackageManager.importGeoPackageAsExternalLink(vectorMapFilePath, dbName);
+        }
+        //重新导入后原有的栅格化瓦片缓存失效
+        final File rasterCacheDirectory = new File(context.getCacheDir(), "vector_tiles/" + dbName);
+        FileUtil.deleteByParentPath(rasterCacheDirectory);
+        if (!imported) {
+            throw new Exception("导入矢量数据失败");
+        }
+        final GeoPackage opened = geoPackageManager.open(dbName);
+        if (opened == null) {
+            throw new Exception("打开矢量数据失败");
+        }
+        final List<GeometryColumns> geometryColumnsList = new ArrayList<>();
+        final List<Integer> featureCounts = new ArrayList<>();
+        //重放上次未写入的编辑
+        EditJournal.getInstance(context).attach(opened, vectorMapFilePath.getAbsolutePath());
+        //一次查询gpkg_geometry_columns得到所有要素表及几何类型，字段信息在图层使用时再读取
+        geometryColumnsList.addAll(opened.getGeometryColumnsDao().queryForAll());
+        for (GeometryColumns geometryColumns : geometryColumnsList) {
+            //外包矩形索引保存在元数据库中，只在第一次打开或要素表被外部修改后扫描要素表
+            FeatureEnvelopeIndex envelopeIndex = new FeatureEnvelopeIndex(context, opened.getFeatureDao(geometryColumns.getTableName()));
+            try {
+                envelopeIndex.index();
+                //要素数取自索引，不查询要素表
+                featureCounts.add(GeometryType.POINT == geometryColumns.getGeometryType() ? 0 : envelopeIndex.count());
+            } finally {
+                envelopeIndex.close();
+            }
+        }
+        mapView.post(new Runnable() {
+            @Override
+            public void run() {
+                openedInPlace = !copy;
+                geoPackage = opened;
                 hasDb = true;
-                for (String tableName : features) {
-                    VectorLayer vectorLayer = new VectorLayer(mapView, context, tableName);
-                    vectorLayer.setName(tableName);
-                    FeatureDao featureDao = geoPackage.getFeatureDao(tableName);
-                    vectorLayer.setColumns(featureDao.getTable().getColumns());
-                    if (GeometryType.POINT == featureDao.getGeometryType()) {
-                        vectorLayer.setGeometryType(GeometryType.POINT);
-                        vectorLayer.setLabeledColumn(featureDao.getTable().getColumn("name"));
-                        vectorLayer.buildOverlays();
-                    } else if (GeometryType.LINESTRING == featureDao.getGeometryType()) {
-                        vectorLayer.setGeometryType(GeometryType.LINESTRING);
-                        vectorLayer.buildOverlays();
-                    } else if (GeometryType.POLYGON == featureDao.getGeometryType()) {
-                        vectorLayer.setGeometryType(GeometryType.POLYGON);
-                        vectorLayer.buildOverlays();
-                    }
-                    mapView.getOverlays().add(vectorLayer);
-                    vectorLayer.setEnabled(true);
-                    vectorLayer.setEdit(false);
+                opening = false;
+                addVectorLayers(geometryColumnsList, featureCounts, rasterCacheDirectory);
+                if (callback != null) {
+                    callback.onOpened();
                 }
             }
+        });
+    }
+
+    private void addVectorLayers(List<GeometryColumns> geometryColumnsList, List<Integer> featureCounts, File rasterCacheDirectory) {
+        for (int i = 0; i < geometryColumnsList.size(); i++) {
+            GeometryColumns geometryColumns = geometryColumnsList.get(i);
+            String tableName = geometryColumns.getTableName();
+            VectorLayer vectorLayer = new VectorLayer(mapView, context, tableName);
+            vectorLayer.setName(tableName);
+            GeometryType geometryType = geometryColumns.getGeometryType();
+            if (GeometryType.POINT == geometryType) {
+                vectorLayer.setGeometryType(GeometryType.POINT);
+                vectorLayer.setLabeledColumnName("name");
+                vectorLayer.setClustering(true);
+                vectorLayer.buildOverlays();
+            } else if (GeometryType.LINESTRING == geometryType || GeometryType.POLYGON == geometryType) {
+                vectorLayer.setGeometryType(geometryType);
+                //要素过多的线、面图层栅格化显示
+                if (featureCounts.get(i) > RASTER_FEATURE_COUNT) {
+                    vectorLayer.buildRasterTiles(rasterCacheDirectory);
+                } else {
+                    vectorLayer.buildOverlays();
+                }
+            }
+            mapView.getOverlays().add(vectorLayer);
+            vectorLayer.setEnabled(true);
+            vectorLayer.setEdit(false);
         }
+        mapView.invalidate();
     }
 
     private void initTileMap(File mapTileFilePath) throws Exception {
@@ -217,6 +342,13 @@ public class CustomGeoPackageManager {
         return hasDb;
     }
 
+    /**
+     * @return 矢量数据是否正在打开，打开完成前不能创建要素类
+     */
+    public boolean isOpening() {
+        return opening;
+    }
+
     public void setHasDb(boolean hasDb) {
         this.hasDb = hasDb;
     }
@@ -329,9 +461,15 @@ public class CustomGeoPackageManager {
 
 
     public void exportGeopackage() {
+        //直接打开的原文件，编辑已经写入，不需要再导出（导出到原目录会覆盖原文件自身）
+        if (openedInPlace) return;
         geoPackageManager.exportGeoPackage("data", new File(FilePathManage.getInstance().getMap()).getParentFile().getAbsoluteFile());
     }
 
+    public boolean isOpenedInPlace() {
+        return openedInPlace;
+    }
+
     public VectorLayer getFeatureLayerByName(String name) {
         if (mapView != null) {
             List<Overlay> overlays = mapView.getOverlays();
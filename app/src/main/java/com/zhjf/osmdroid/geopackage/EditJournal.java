@@ -0,0 +1,754 @@
+package com.zhjf.osmdroid.geopackage;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCantOpenDatabaseException;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDatabaseLockedException;
+import android.database.sqlite.SQLiteDiskIOException;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteFullException;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteReadOnlyDatabaseException;
+import android.util.Base64;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import mil.nga.geopackage.GeoPackage;
+import mil.nga.geopackage.features.user.FeatureColumn;
+import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.features.user.FeatureRow;
+import mil.nga.geopackage.features.user.FeatureTable;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+
+/**
+ * 要素编辑的延迟写入日志。编辑先合并到内存中（同一要素的多次编辑合并为一条），
+ * 同时写入应用内部存储的日志表，调用方立即返回；后台线程每隔FLUSH_DELAY_MS把积累的编辑
+ * 分批在一个事务中写入GeoPackage，写入成功后删除对应日志。
+ * 程序异常退出后，下次打开同一个GeoPackage时重放日志中尚未写入的编辑。
+ * 字段名和值类型在调用线程中检查，不合法时与直接写入一样抛出异常；
+ * 写入时才发现的错误（非空、唯一约束等）只移出出错的编辑，日志中标记为失败，通过FlushListener通知。
+ * 新增要素的id从attach时读取的主键最大值起依次分配，写入时id已被其他途径占用则作为失败处理，不会覆盖已有要素。
+ * 编辑时不查询GeoPackage，要素是否存在由调用方判断，修改不存在的要素在写入时失败。
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class EditJournal {
+    private static final String TAG = "EditJournal";
+    //第一条编辑到写入GeoPackage的延迟，期间的连续编辑合并写入
+    private static final long FLUSH_DELAY_MS = 500;
+    //数据库暂时不可写时的重试间隔
+    private static final long RETRY_DELAY_MS = 5000;
+    //每个事务写入的最大要素数
+    private static final int BATCH_SIZE = 200;
+
+    private static final int OPERATION_INSERT = 0;
+    private static final int OPERATION_UPDATE = 1;
+
+    private static EditJournal editJournal;
+
+    private final JournalOpenHelper openHelper;
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor();
+    //写入GeoPackage时持有，保证同一时间只有一个线程写入
+    private final Object flushLock = new Object();
+    private final List<FlushListener> flushListeners = new CopyOnWriteArrayList<>();
+    //以下由this同步
+    private GeoPackage geoPackage;
+    private String database;
+    private final Map<String, PendingEdit> pending = new LinkedHashMap<>();
+    //当前GeoPackage各要素表下一个可分配的id
+    private final Map<String, Long> nextIds = new HashMap<>();
+    private boolean flushScheduled = false;
+    private long version = 0;
+
+    /**
+     * 编辑写入结果的回调，在写入线程中调用，只通知当前GeoPackage的编辑
+     */
+    public interface FlushListener {
+        void onFlushed(String tableName, List<Long> featureIds);
+
+        /**
+         * 编辑无法写入，已从待写入的编辑中移出，不再重试
+         *
+         * @param insert 是否为新增要素
+         */
+        void onFailed(String tableName, long featureId, boolean insert, RuntimeException error);
+    }
+
+    private EditJournal(Context context) {
+        openHelper = new JournalOpenHelper(context.getApplicationContext());
+    }
+
+    public static synchronized EditJournal getInstance(Context context) {
+        if (editJournal == null) {
+            editJournal = new EditJournal(context);
+        }
+        return editJournal;
+    }
+
+    /**
+     * 切换要写入的GeoPackage，重放其日志中未写入的编辑，并读取各要素表的主键最大值用于分配新增要素的id。
+     * 不等待写入，但需要查询GeoPackage，不要在UI线程中调用。
+     * 上一个GeoPackage尚未写入的编辑仍由后台线程写入原GeoPackage
+     *
+     * @param geoPackage
+     * @param database   数据的唯一标识，一般为原文件路径
+     */
+    public synchronized void attach(GeoPackage geoPackage, String database) {
+        this.geoPackage = geoPackage;
+        this.database = database;
+        int replayed = 0;
+        Cursor cursor = openHelper.getReadableDatabase().query(JournalOpenHelper.TABLE,
+                new String[]{"table_name", "feature_id", "operation", "edit_values", "sequence"},
+                "database = ? AND failed = 0", new String[]{database}, null, null, "sequence");
+        try {
+            while (cursor.moveToNext()) {
+                String tableName = cursor.getString(0);
+                long featureId = cursor.getLong(1);
+                version = Math.max(version, cursor.getLong(4));
+                String key = key(database, tableName, featureId);
+                if (pending.containsKey(key)) continue;
+                try {
+                    Map<String, Object> values = fromJson(cursor.getString(3));
+                    pending.put(key, new PendingEdit(geoPackage, database, tableName, featureId,
+                            cursor.getInt(2), values, ++version));
+                    replayed++;
+                } catch (JSONException e) {
+                    Log.e(TAG, "skip broken journal entry " + tableName + "/" + featureId, e);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        if (replayed > 0) {
+            Log.i(TAG, "replay " + replayed + " edits of " + database);
+        }
+        nextIds.clear();
+        for (String tableName : geoPackage.getFeatureTables()) {
+            nextIds.put(tableName, maxId(geoPackage.getFeatureDao(tableName)) + 1);
+        }
+        for (PendingEdit edit : pending.values()) {
+            Long next = nextIds.get(edit.tableName);
+            if (edit.target == geoPackage && next != null && edit.featureId >= next) {
+                nextIds.put(edit.tableName, edit.featureId + 1);
+            }
+        }
+        if (!pending.isEmpty()) {
+            scheduleFlush(0);
+        }
+    }
+
+    /**
+     * 不再接受编辑，用于删除或替换当前GeoPackage之前。已接受的编辑仍会写入，需要时调用flush等待写完
+     */
+    public synchronized void detach() {
+        geoPackage = null;
+        database = null;
+        nextIds.clear();
+    }
+
+    /**
+     * 新增要素，立即分配id并写入日志
+     *
+     * @param values 字段名到值，几何字段的值为GeoPackageGeometryData
+     * @return 新要素的id
+     * @throws RuntimeException 字段不存在或值类型与字段不符
+     */
+    public synchronized long insert(FeatureDao featureDao, Map<String, Object> values) {
+        checkAttached();
+        validate(featureDao, values);
+        long featureId = nextId(featureDao);
+        record(new PendingEdit(geoPackage, database, featureDao.getTableName(), featureId, OPERATION_INSERT,
+                toStorage(values), ++version));
+        return featureId;
+    }
+
+    /**
+     * 修改要素，与尚未写入的编辑合并后写入日志。不查询要素是否存在，要素不存在时写入失败并通知FlushListener
+     *
+     * @param values 只包含要修改的字段，几何字段的值为GeoPackageGeometryData
+     * @return 修改的要素数
+     * @throws RuntimeException 字段不存在或值类型与字段不符
+     */
+    public synchronized int update(FeatureDao featureDao, long featureId, Map<String, Object> values) {
+        checkAttached();
+        validate(featureDao, values);
+        String tableName = featureDao.getTableName();
+        PendingEdit previous = pending.get(key(database, tableName, featureId));
+        Map<String, Object> merged = new LinkedHashMap<>();
+        int operation = OPERATION_UPDATE;
+        if (previous != null) {
+            merged.putAll(previous.values);
+            operation = previous.operation;
+        }
+        merged.putAll(toStorage(values));
+        record(new PendingEdit(geoPackage, database, tableName, featureId, operation, merged, ++version));
+        return 1;
+    }
+
+    /**
+     * @return 要素是否为尚未写入GeoPackage的新增要素
+     */
+    public synchronized boolean isPendingInsert(String tableName, long featureId) {
+        PendingEdit edit = pending.get(key(database, tableName, featureId));
+        return edit != null && edit.operation == OPERATION_INSERT;
+    }
+
+    /**
+     * 把尚未写入的编辑应用到从GeoPackage读出的行上，值转换为字段对应的Java类型
+     *
+     * @return 是否有尚未写入的编辑
+     */
+    public boolean applyPending(FeatureDao featureDao, long featureId, FeatureRow row) {
+        PendingEdit edit;
+        synchronized (this) {
+            edit = pending.get(key(database, featureDao.getTableName(), featureId));
+        }
+        if (edit == null) return false;
+        String geometryColumn = featureDao.getGeometryColumns().getColumnName();
+        FeatureTable table = featureDao.getTable();
+        for (Map.Entry<String, Object> entry : edit.values.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(geometryColumn)) {
+                row.setGeometry(entry.getValue() == null ? null : new GeoPackageGeometryData((byte[]) entry.getValue()));
+            } else {
+                row.setValue(entry.getKey(), toColumnType(table.getColumn(entry.getKey()), entry.getValue()));
+            }
+        }
+        return true;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public void addFlushListener(FlushListener listener) {
+        flushListeners.add(listener);
+    }
+
+    public void removeFlushListener(FlushListener listener) {
+        flushListeners.remove(listener);
+    }
+
+    /**
+     * 尽快在后台写入，用于程序进入后台时
+     */
+    public synchronized void requestFlush() {
+        if (!pending.isEmpty()) {
+            scheduleFlush(0);
+        }
+    }
+
+    /**
+     * 立即在当前线程写入所有编辑，写入完成后返回。读取要素表前调用以读到最新数据，不要在UI线程中调用
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<GeoPackage, List<PendingEdit>> editsByTarget = new LinkedHashMap<>();
+            GeoPackage current;
+            synchronized (this) {
+                flushScheduled = false;
+                current = geoPackage;
+                for (PendingEdit edit : pending.values()) {
+                    List<PendingEdit> edits = editsByTarget.get(edit.target);
+                    if (edits == null) {
+                        edits = new ArrayList<>();
+                        editsByTarget.put(edit.target, edits);
+                    }
+                    edits.add(edit);
+                }
+            }
+            boolean retry = false;
+            for (Map.Entry<GeoPackage, List<PendingEdit>> entry : editsByTarget.entrySet()) {
+                List<PendingEdit> edits = entry.getValue();
+                for (int start = 0; start < edits.size(); start += BATCH_SIZE) {
+                    if (flushBatch(entry.getKey(), edits.subList(start, Math.min(edits.size(), start + BATCH_SIZE)),
+                            entry.getKey() == current)) {
+                        continue;
+                    }
+                    if (entry.getKey() == current) {
+                        //编辑仍保留在内存和日志中，稍后重试
+                        retry = true;
+                    } else {
+                        //已切换走的GeoPackage不再重试，编辑保留在日志中，下次打开时重放
+                        forget(edits.subList(start, edits.size()));
+                    }
+                    break;
+                }
+            }
+            if (retry) {
+                synchronized (this) {
+                    scheduleFlush(RETRY_DELAY_MS);
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入一批编辑。整批失败时逐个写入，只移出无法写入的编辑，不影响其后的编辑
+     *
+     * @param current 是否为当前GeoPackage，已切换走的GeoPackage可能已被关闭
+     * @return 数据库暂时不可写（存储空间不足、IO错误等）时返回false，编辑保留待重试
+     */
+    private boolean flushBatch(GeoPackage target, List<PendingEdit> batch, boolean current) {
+        try {
+            write(target, batch);
+            complete(batch);
+            return true;
+        } catch (RuntimeException e) {
+            //已关闭的GeoPackage抛出IllegalStateException，编辑保留在日志中，下次打开时重放
+            if (isTransient(e) || (!current && e instanceof IllegalStateException)) {
+                Log.e(TAG, "flush of " + (current ? "current" : "previous") + " GeoPackage failed", e);
+                return false;
+            }
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return true;
+            }
+        }
+        for (PendingEdit edit : batch) {
+            if (!flushBatch(target, Collections.singletonList(edit), current)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 在一个事务中写入一批编辑。新增要素按普通INSERT写入，主键冲突时只有已有行与编辑内容一致
+     * （上次写入后未来得及删除日志）才视为已写入，否则抛出异常
+     */
+    private void write(GeoPackage target, List<PendingEdit> batch) {
+        SQLiteDatabase db = target.getConnection().getDb();
+        Map<String, String> pkColumns = new HashMap<>();
+        db.beginTransaction();
+        try {
+            for (PendingEdit edit : batch) {
+                String pkColumn = pkColumns.get(edit.tableName);
+                if (pkColumn == null) {
+                    pkColumn = target.getFeatureDao(edit.tableName).getTable().getPkColumn().getName();
+                    pkColumns.put(edit.tableName, pkColumn);
+                }
+                ContentValues values = toContentValues(edit.values);
+                if (edit.operation == OPERATION_INSERT) {
+                    values.put(pkColumn, edit.featureId);
+                    try {
+                        db.insertOrThrow(edit.tableName, null, values);
+                    } catch (SQLiteConstraintException e) {
+                        if (!isWritten(db, edit, pkColumn)) throw e;
+                    }
+                } else if (values.size() > 0 && db.update(edit.tableName, values, pkColumn + " = ?",
+                        new String[]{String.valueOf(edit.featureId)}) == 0) {
+                    throw new SQLiteException("feature " + edit.featureId + " of " + edit.tableName + " does not exist");
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @return 要素表中是否已有与新增编辑内容完全一致的行
+     */
+    private static boolean isWritten(SQLiteDatabase db, PendingEdit edit, String pkColumn) {
+        List<String> columns = new ArrayList<>(edit.values.keySet());
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "\"" : ", \"").append(columns.get(i)).append('"');
+        }
+        if (columns.isEmpty()) {
+            sql.append('"').append(pkColumn).append('"');
+        }
+        sql.append(" FROM \"").append(edit.tableName).append("\" WHERE \"").append(pkColumn).append("\" = ?");
+        Cursor cursor = db.rawQuery(sql.toString(), new String[]{String.valueOf(edit.featureId)});
+        try {
+            if (!cursor.moveToFirst()) return false;
+            for (int i = 0; i < columns.size(); i++) {
+                if (!isStored(cursor, i, edit.values.get(columns.get(i)))) return false;
+            }
+            return true;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static boolean isStored(Cursor cursor, int index, Object value) {
+        int type = cursor.getType(index);
+        if (value == null) return type == Cursor.FIELD_TYPE_NULL;
+        if (value instanceof byte[]) return type == Cursor.FIELD_TYPE_BLOB && Arrays.equals((byte[]) value, cursor.getBlob(index));
+        if (value instanceof Number) {
+            return (type == Cursor.FIELD_TYPE_INTEGER || type == Cursor.FIELD_TYPE_FLOAT)
+                    && cursor.getDouble(index) == ((Number) value).doubleValue();
+        }
+        return type != Cursor.FIELD_TYPE_NULL && type != Cursor.FIELD_TYPE_BLOB && value.toString().equals(cursor.getString(index));
+    }
+
+    /**
+     * 存储空间不足、IO错误、数据库被锁定或不可写时可以稍后重试，其余错误由编辑本身引起
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof SQLiteFullException || e instanceof SQLiteDiskIOException
+                || e instanceof SQLiteDatabaseLockedException || e instanceof SQLiteCantOpenDatabaseException
+                || e instanceof SQLiteReadOnlyDatabaseException;
+    }
+
+    /**
+     * 移除已写入的编辑及其日志。写入期间又被修改的编辑保留到下一次写入，其中已写入的新增要素
+     * 在日志中改为更新，重放时不再重复新增
+     */
+    private void complete(List<PendingEdit> batch) {
+        Map<String, List<Long>> flushed = new LinkedHashMap<>();
+        SQLiteDatabase journal = openHelper.getWritableDatabase();
+        synchronized (this) {
+            journal.beginTransaction();
+            try {
+                for (PendingEdit edit : batch) {
+                    String key = key(edit.database, edit.tableName, edit.featureId);
+                    String[] whereArgs = {edit.database, edit.tableName, String.valueOf(edit.featureId)};
+                    PendingEdit current = pending.get(key);
+                    if (current != null && current.version == edit.version) {
+                        pending.remove(key);
+                        journal.delete(JournalOpenHelper.TABLE, JournalOpenHelper.WHERE_FEATURE, whereArgs);
+                    } else if (current != null && current.operation == OPERATION_INSERT) {
+                        pending.put(key, current.asUpdate());
+                        ContentValues values = new ContentValues();
+                        values.put("operation", OPERATION_UPDATE);
+                        journal.update(JournalOpenHelper.TABLE, values, JournalOpenHelper.WHERE_FEATURE, whereArgs);
+                    }
+                    if (edit.target != geoPackage) continue;
+                    List<Long> ids = flushed.get(edit.tableName);
+                    if (ids == null) {
+                        ids = new ArrayList<>();
+                        flushed.put(edit.tableName, ids);
+                    }
+                    ids.add(edit.featureId);
+                }
+                journal.setTransactionSuccessful();
+            } finally {
+                journal.endTransaction();
+            }
+        }
+        for (Map.Entry<String, List<Long>> entry : flushed.entrySet()) {
+            for (FlushListener listener : flushListeners) {
+                listener.onFlushed(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * 移出无法写入的编辑，日志中标记为失败，不再重放。写入期间又被修改的编辑保留，下次写入时再判断
+     */
+    private void fail(PendingEdit edit, RuntimeException error) {
+        Log.e(TAG, "edit of " + edit.tableName + "/" + edit.featureId + " rejected", error);
+        boolean notify;
+        synchronized (this) {
+            String key = key(edit.database, edit.tableName, edit.featureId);
+            PendingEdit current = pending.get(key);
+            if (current == null || current.version != edit.version) return;
+            pending.remove(key);
+            ContentValues values = new ContentValues();
+            values.put("failed", 1);
+            openHelper.getWritableDatabase().update(JournalOpenHelper.TABLE, values, JournalOpenHelper.WHERE_FEATURE,
+                    new String[]{edit.database, edit.tableName, String.valueOf(edit.featureId)});
+            notify = edit.target == geoPackage;
+        }
+        if (notify) {
+            for (FlushListener listener : flushListeners) {
+                listener.onFailed(edit.tableName, edit.featureId, edit.operation == OPERATION_INSERT, error);
+            }
+        }
+    }
+
+    /**
+     * 只从内存中移除，日志保留
+     */
+    private synchronized void forget(List<PendingEdit> edits) {
+        for (PendingEdit edit : edits) {
+            String key = key(edit.database, edit.tableName, edit.featureId);
+            PendingEdit current = pending.get(key);
+            if (current != null && current.version == edit.version) {
+                pending.remove(key);
+            }
+        }
+    }
+
+    private void checkAttached() {
+        if (geoPackage == null) {
+            throw new IllegalStateException("no GeoPackage attached");
+        }
+    }
+
+    private void record(PendingEdit edit) {
+        pending.put(key(edit.database, edit.tableName, edit.featureId), edit);
+        ContentValues values = new ContentValues();
+        values.put("database", edit.database);
+        values.put("table_name", edit.tableName);
+        values.put("feature_id", edit.featureId);
+        values.put("operation", edit.operation);
+        values.put("edit_values", toJson(edit.values));
+        values.put("sequence", edit.version);
+        values.put("failed", 0);
+        openHelper.getWritableDatabase().insertWithOnConflict(JournalOpenHelper.TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        if (!flushScheduled) {
+            scheduleFlush(FLUSH_DELAY_MS);
+        }
+    }
+
+    private void scheduleFlush(long delay) {
+        flushScheduled = true;
+        flushExecutor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 用要素表在同一个FeatureRow上设置各字段的值，字段不存在或类型不符时抛出与直接写入相同的异常
+     */
+    private static void validate(FeatureDao featureDao, Map<String, Object> values) {
+        if (values == null) return;
+        String geometryColumn = featureDao.getGeometryColumns().getColumnName();
+        FeatureRow row = featureDao.newRow();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(geometryColumn)) {
+                if (entry.getValue() != null && !(entry.getValue() instanceof GeoPackageGeometryData)) {
+                    throw new IllegalArgumentException("value of geometry column " + geometryColumn + " must be GeoPackageGeometryData");
+                }
+            } else {
+                row.setValue(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * attach之后新建的要素表第一次新增要素时才读取主键最大值
+     */
+    private long nextId(FeatureDao featureDao) {
+        String tableName = featureDao.getTableName();
+        Long next = nextIds.get(tableName);
+        if (next == null) {
+            next = maxId(featureDao) + 1;
+        }
+        nextIds.put(tableName, next + 1);
+        return next;
+    }
+
+    private long maxId(FeatureDao featureDao) {
+        String pkColumn = featureDao.getTable().getPkColumn().getName();
+        Cursor cursor = geoPackage.getConnection().getDb().rawQuery(
+                "SELECT MAX(\"" + pkColumn + "\") FROM \"" + featureDao.getTableName() + "\"", null);
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private static String key(String database, String tableName, long featureId) {
+        return database + "/" + tableName + "/" + featureId;
+    }
+
+    /**
+     * 几何转为GeoPackage二进制，其余值按SQLite存储类型保存
+     */
+    private static Map<String, Object> toStorage(Map<String, Object> values) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (values == null) return result;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof GeoPackageGeometryData) {
+                try {
+                    value = ((GeoPackageGeometryData) value).toBytes();
+                } catch (Exception e) {
+                    throw new IllegalArgumentException("can not encode geometry of " + entry.getKey(), e);
+                }
+            } else if (value instanceof Boolean) {
+                value = (Boolean) value ? 1L : 0L;
+            } else if (value instanceof Float || value instanceof Double) {
+                value = ((Number) value).doubleValue();
+            } else if (value instanceof Number) {
+                value = ((Number) value).longValue();
+            } else if (value != null && !(value instanceof String) && !(value instanceof byte[])) {
+                value = value.toString();
+            }
+            result.put(entry.getKey(), value);
+        }
+        return result;
+    }
+
+    /**
+     * 把按SQLite存储类型保存的值转换为字段数据类型对应的Java类型，FeatureRow.setValue按该类型检查
+     */
+    private static Object toColumnType(FeatureColumn column, Object value) {
+        if (value == null || column == null || column.getDataType() == null) return value;
+        Class<?> type = column.getDataType().getClassType();
+        if (type == null || type.isInstance(value)) return value;
+        if (type == String.class) return value.toString();
+        if (value instanceof String) {
+            try {
+                value = ((String) value).contains(".") ? Double.valueOf((String) value) : (Object) Long.valueOf((String) value);
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        if (!(value instanceof Number)) return value;
+        Number number = (Number) value;
+        if (type == Boolean.class) return number.longValue() != 0;
+        if (type == Byte.class) return number.byteValue();
+        if (type == Short.class) return number.shortValue();
+        if (type == Integer.class) return number.intValue();
+        if (type == Long.class) return number.longValue();
+        if (type == Float.class) return number.floatValue();
+        if (type == Double.class) return number.doubleValue();
+        return value;
+    }
+
+    private static ContentValues toContentValues(Map<String, Object> values) {
+        ContentValues contentValues = new ContentValues();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                contentValues.putNull(entry.getKey());
+            } else if (value instanceof Long) {
+                contentValues.put(entry.getKey(), (Long) value);
+            } else if (value instanceof Double) {
+                contentValues.put(entry.getKey(), (Double) value);
+            } else if (value instanceof byte[]) {
+                contentValues.put(entry.getKey(), (byte[]) value);
+            } else {
+                contentValues.put(entry.getKey(), value.toString());
+            }
+        }
+        return contentValues;
+    }
+
+    /**
+     * 每个值保存为[类型, 值]，类型为l（整数）、d（实数）、s（文本）、b（Base64二进制）、n（空）
+     */
+    private static String toJson(Map<String, Object> values) {
+        JSONObject json = new JSONObject();
+        try {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                Object value = entry.getValue();
+                JSONArray typed = new JSONArray();
+                if (value == null) {
+                    typed.put("n");
+                } else if (value instanceof Long) {
+                    typed.put("l").put(value.toString());
+                } else if (value instanceof Double) {
+                    typed.put("d").put(value.toString());
+                } else if (value instanceof byte[]) {
+                    typed.put("b").put(Base64.encodeToString((byte[]) value, Base64.NO_WRAP));
+                } else {
+                    typed.put("s").put(value.toString());
+                }
+                json.put(entry.getKey(), typed);
+            }
+        } catch (JSONException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return json.toString();
+    }
+
+    private static Map<String, Object> fromJson(String text) throws JSONException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        JSONObject json = new JSONObject(text);
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            JSONArray typed = json.getJSONArray(key);
+            String type = typed.getString(0);
+            if ("l".equals(type)) {
+                values.put(key, Long.parseLong(typed.getString(1)));
+            } else if ("d".equals(type)) {
+                values.put(key, Double.parseDouble(typed.getString(1)));
+            } else if ("b".equals(type)) {
+                values.put(key, Base64.decode(typed.getString(1), Base64.NO_WRAP));
+            } else if ("s".equals(type)) {
+                values.put(key, typed.getString(1));
+            } else {
+                values.put(key, null);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 一个要素尚未写入的编辑，合并后替换为新对象，写入线程持有的旧对象不受影响
+     */
+    private static final class PendingEdit {
+        //编辑所属的GeoPackage，切换GeoPackage后仍写入原GeoPackage
+        private final GeoPackage target;
+        private final String database;
+        private final String tableName;
+        private final long featureId;
+        private final int operation;
+        private final Map<String, Object> values;
+        private final long version;
+
+        PendingEdit(GeoPackage target, String database, String tableName, long featureId, int operation,
+                    Map<String, Object> values, long version) {
+            this.target = target;
+            this.database = database;
+            this.tableName = tableName;
+            this.featureId = featureId;
+            this.operation = operation;
+            this.values = values;
+            this.version = version;
+        }
+
+        /**
+         * @return 新增已写入后，同一内容改为按更新写入
+         */
+        PendingEdit asUpdate() {
+            return new PendingEdit(target, database, tableName, featureId, OPERATION_UPDATE, values, version);
+        }
+    }
+
+    /**
+     * 日志保存在应用内部存储，不受外部存储卡速度影响
+     */
+    private static final class JournalOpenHelper extends SQLiteOpenHelper {
+        private static final String NAME = "edit_journal.db";
+        private static final int VERSION = 1;
+        static final String TABLE = "edit_journal";
+        static final String WHERE_FEATURE = "database = ? AND table_name = ? AND feature_id = ?";
+
+        JournalOpenHelper(Context context) {
+            super(context, NAME, null, VERSION);
+            setWriteAheadLoggingEnabled(true);
+        }
+
+        @Override
+        public void onCreate(SQLiteDatabase db) {
+            //failed为1表示编辑无法写入，不再重放
+            db.execSQL("CREATE TABLE " + TABLE + " (database TEXT NOT NULL, table_name TEXT NOT NULL, "
+                    + "feature_id INTEGER NOT NULL, operation INTEGER NOT NULL, edit_values TEXT NOT NULL, "
+                    + "sequence INTEGER NOT NULL, failed INTEGER NOT NULL DEFAULT 0, "
+                    + "PRIMARY KEY (database, table_name, feature_id))");
+        }
+
+        @Override
+        public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.zhjf.osmdroid.geopackage;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import mil.nga.geopackage.BoundingBox;
+import mil.nga.geopackage.db.metadata.GeoPackageMetadataDb;
+import mil.nga.geopackage.db.metadata.GeometryMetadata;
+import mil.nga.geopackage.db.metadata.GeometryMetadataDataSource;
+import mil.nga.geopackage.features.index.FeatureIndexer;
+import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.features.user.FeatureRow;
+import mil.nga.geopackage.projection.Projection;
+import mil.nga.geopackage.projection.ProjectionConstants;
+import mil.nga.geopackage.projection.ProjectionFactory;
+import mil.nga.geopackage.projection.ProjectionTransform;
+
+/**
+ * 要素外包矩形索引。使用NGA的元数据索引（FeatureIndexer），索引保存在应用内部的元数据库中，
+ * 不修改GeoPackage文件，要素表内容变化后才需要重建。
+ * 按范围查询是对外包矩形的SQL范围查询，只读取相交要素的id和外包矩形，不解析几何。
+ * 查询范围和返回的外包矩形都是WGS84经纬度，索引按要素表的坐标系保存，转换在内部完成。
+ * 建立索引需要扫描整个要素表，不要在UI线程中调用index；查询可在多个线程中同时调用
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class FeatureEnvelopeIndex {
+    private final FeatureDao featureDao;
+    private final FeatureIndexer indexer;
+    private final GeoPackageMetadataDb metadataDb;
+    private final GeometryMetadataDataSource metadataDataSource;
+    private final Projection wgs84;
+    //要素表坐标系到WGS84的转换，要素表本身是WGS84时为null
+    private final ProjectionTransform toWgs84;
+
+    public FeatureEnvelopeIndex(Context context, FeatureDao featureDao) {
+        this.featureDao = featureDao;
+        this.indexer = new FeatureIndexer(context, featureDao);
+        this.metadataDb = new GeoPackageMetadataDb(context);
+        this.metadataDb.open();
+        this.metadataDataSource = new GeometryMetadataDataSource(metadataDb);
+        this.wgs84 = ProjectionFactory.getProjection(ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+        Projection projection = featureDao.getProjection();
+        this.toWgs84 = projection.getEpsg() == ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM ? null
+                : projection.getTransformation(wgs84);
+    }
+
+    /**
+     * 索引不存在或要素表在建立索引后被修改时重新扫描要素表建立索引
+     *
+     * @return 是否重新建立了索引
+     */
+    public boolean index() {
+        if (indexer.isIndexed()) return false;
+        indexer.index(true);
+        return true;
+    }
+
+    /**
+     * 查询外包矩形与范围相交的要素
+     *
+     * @return 要素id到外包矩形 {minX, minY, maxX, maxY}（WGS84）的映射
+     */
+    public Map<Long, double[]> query(double west, double south, double east, double north) {
+        Map<Long, double[]> result = new LinkedHashMap<>();
+        Cursor cursor = indexer.query(new BoundingBox(west, east, south, north), wgs84);
+        try {
+            while (cursor.moveToNext()) {
+                GeometryMetadata metadata = indexer.getGeometryMetadata(cursor);
+                result.put(metadata.getId(), toWgs84(metadata));
+            }
+        } finally {
+            cursor.close();
+        }
+        return result;
+    }
+
+    /**
+     * @return 要素的外包矩形 {minX, minY, maxX, maxY}（WGS84），未建立索引时返回null
+     */
+    public double[] getEnvelope(long featureId) {
+        GeometryMetadata metadata = metadataDataSource.get(featureDao.getDatabase(), featureDao.getTableName(), featureId);
+        return metadata == null ? null : toWgs84(metadata);
+    }
+
+    /**
+     * 要素写入GeoPackage后更新其索引
+     *
+     * @param featureId
+     * @param featureRow 要素当前的行，为null表示要素已删除
+     */
+    public void update(long featureId, FeatureRow featureRow) {
+        if (featureRow == null || featureRow.getGeometry() == null || featureRow.getGeometry().getGeometry() == null) {
+            indexer.deleteIndex(featureId);
+        } else {
+            indexer.index(featureRow);
+        }
+    }
+
+    /**
+     * @return 已建立索引的要素数
+     */
+    public int count() {
+        return indexer.count();
+    }
+
+    public void close() {
+        indexer.close();
+        metadataDb.close();
+    }
+
+    private double[] toWgs84(GeometryMetadata metadata) {
+        if (toWgs84 == null) {
+            return new double[]{metadata.getMinX(), metadata.getMinY(), metadata.getMaxX(), metadata.getMaxY()};
+        }
+        BoundingBox boundingBox = toWgs84.transform(new BoundingBox(metadata.getMinX(), metadata.getMaxX(),
+                metadata.getMinY(), metadata.getMaxY()));
+        return new double[]{boundingBox.getMinLongitude(), boundingBox.getMinLatitude(),
+                boundingBox.getMaxLongitude(), boundingBox.getMaxLatitude()};
+    }
+}
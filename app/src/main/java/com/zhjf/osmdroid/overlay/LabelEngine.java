@@ -0,0 +1,320 @@
+package com.zhjf.osmdroid.overlay;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Point;
+
+import com.zhjf.osmdroid.common.DensityUtil;
+
+import org.osmdroid.util.GeoPoint;
+import org.osmdroid.util.TileSystem;
+import org.osmdroid.views.Projection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 标注避让：按优先级从高到低放置标注，每个标注依次尝试若干候选位置，
+ * 用像素格网检测与已放置标注是否重叠，都重叠时只能挤掉优先级更低的标注，否则不显示。
+ * 放置结果按整数缩放级别缓存在世界像素坐标中，平移时只为新加入的标注计算位置；
+ * 同一级别内放大时标注间距只会变大，缓存的结果仍然不重叠。
+ * 只在UI线程中访问。
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class LabelEngine {
+    //标注放在点符号四周
+    public static final int ANCHOR_POINT = 0;
+    //标注以锚点为中心，用于线、面
+    public static final int ANCHOR_CENTER = 1;
+
+    //碰撞格网边长（像素）
+    private static final int CELL_SIZE = 64;
+    //点符号半径（dp），符号按底部锚定，中心在锚点上方一个半径处
+    private static final float SYMBOL_RADIUS_DIP = 12;
+    private static final float TEXT_SIZE_DIP = 12;
+    //标注之间的最小间距（dp）
+    private static final float PADDING_DIP = 2;
+    private static final float HALO_WIDTH_DIP = 3;
+    //点标注的候选位置：右、左、上、下、右上、右下、左上、左下，{水平方向, 竖直方向}
+    private static final int[][] POINT_CANDIDATES = {{1, 0}, {-1, 0}, {0, -1}, {0, 1}, {1, -1}, {1, 1}, {-1, -1}, {-1, 1}};
+    private static final int[][] CENTER_CANDIDATES = {{0, 0}};
+    //优先级高的在前，相同时id小的在前，保证顺序唯一
+    private static final Comparator<Label> PRIORITY_ORDER = new Comparator<Label>() {
+        @Override
+        public int compare(Label a, Label b) {
+            int result = Double.compare(b.priority, a.priority);
+            return result != 0 ? result : Long.compare(a.id, b.id);
+        }
+    };
+
+    private final Map<Long, Label> labels = new HashMap<>();
+    //碰撞格网，只登记已放置的标注
+    private final Map<Long, List<Label>> cells = new HashMap<>();
+    //等待放置的标注
+    private final PriorityQueue<Label> pending = new PriorityQueue<>(16, PRIORITY_ORDER);
+    //没有位置可放的标注，有标注移除后重试
+    private final Set<Label> rejected = new HashSet<>();
+    //放置结果对应的缩放级别
+    private int placedZoom = Integer.MIN_VALUE;
+    private double mapSize;
+    private final Paint textPaint;
+    private final Paint haloPaint;
+    private final float symbolRadius;
+    private final float padding;
+    private final float textAscent;
+    private final float textHeight;
+    private final Point pixel = new Point();
+
+    public LabelEngine(Context context) {
+        textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setColor(Color.BLACK);
+        textPaint.setTextSize(DensityUtil.dip2px(context, TEXT_SIZE_DIP));
+        haloPaint = new Paint(textPaint);
+        haloPaint.setColor(Color.WHITE);
+        haloPaint.setStyle(Paint.Style.STROKE);
+        haloPaint.setStrokeWidth(DensityUtil.dip2px(context, HALO_WIDTH_DIP));
+        symbolRadius = DensityUtil.dip2px(context, SYMBOL_RADIUS_DIP);
+        padding = DensityUtil.dip2px(context, PADDING_DIP);
+        Paint.FontMetrics fontMetrics = textPaint.getFontMetrics();
+        textAscent = -fontMetrics.ascent;
+        textHeight = fontMetrics.descent - fontMetrics.ascent;
+    }
+
+    public int size() {
+        return labels.size();
+    }
+
+    public boolean contains(long id) {
+        return labels.containsKey(id);
+    }
+
+    public Set<Long> getIds() {
+        return new HashSet<>(labels.keySet());
+    }
+
+    /**
+     * 加入标注，同一id已存在时替换
+     */
+    public void add(Label label) {
+        remove(label.id);
+        labels.put(label.id, label);
+        pending.add(label);
+    }
+
+    public void remove(long id) {
+        Label label = labels.remove(id);
+        if (label == null) return;
+        pending.remove(label);
+        rejected.remove(label);
+        if (label.placed) {
+            unplace(label);
+            //腾出了位置，之前放不下的标注重试
+            pending.addAll(rejected);
+            rejected.clear();
+        }
+    }
+
+    public void clear() {
+        labels.clear();
+        cells.clear();
+        pending.clear();
+        rejected.clear();
+        placedZoom = Integer.MIN_VALUE;
+    }
+
+    /**
+     * 绘制当前视野内已放置的标注。缩放级别变化时重新放置全部标注，否则只放置新加入的标注
+     */
+    public void draw(Canvas canvas, Projection projection, double zoomLevel) {
+        int zoom = (int) Math.floor(zoomLevel);
+        if (zoom != placedZoom) {
+            placedZoom = zoom;
+            mapSize = TileSystem.MapSize((double) zoom);
+            cells.clear();
+            pending.clear();
+            rejected.clear();
+            for (Label label : labels.values()) {
+                label.placed = false;
+                pending.add(label);
+            }
+        }
+        placePending();
+        int width = canvas.getWidth();
+        int height = canvas.getHeight();
+        for (Label label : labels.values()) {
+            if (!label.placed) continue;
+            projection.toPixels(label.anchor, pixel);
+            float left = pixel.x + label.left;
+            float top = pixel.y + label.top;
+            if (left > width || top > height || left + label.width < 0 || top + textHeight < 0) continue;
+            canvas.drawText(label.text, left, top + textAscent, haloPaint);
+            canvas.drawText(label.text, left, top + textAscent, textPaint);
+        }
+    }
+
+    private void placePending() {
+        Label label;
+        while ((label = pending.poll()) != null) {
+            if (Float.isNaN(label.width)) {
+                label.width = textPaint.measureText(label.text);
+            }
+            label.worldX = TileSystem.getX01FromLongitude(label.anchor.getLongitude(), true) * mapSize;
+            label.worldY = TileSystem.getY01FromLatitude(label.anchor.getLatitude(), true) * mapSize;
+            if (!place(label)) {
+                rejected.add(label);
+            }
+        }
+    }
+
+    /**
+     * 依次尝试候选位置，都重叠时在首选位置挤掉优先级更低的标注
+     *
+     * @return 是否放置成功
+     */
+    private boolean place(Label label) {
+        int[][] candidates = label.anchorType == ANCHOR_POINT ? POINT_CANDIDATES : CENTER_CANDIDATES;
+        for (int[] candidate : candidates) {
+            setPosition(label, candidate);
+            if (getCollisions(label).isEmpty()) {
+                insert(label);
+                return true;
+            }
+        }
+        setPosition(label, candidates[0]);
+        List<Label> collisions = getCollisions(label);
+        for (Label collision : collisions) {
+            if (PRIORITY_ORDER.compare(label, collision) > 0) {
+                return false;
+            }
+        }
+        for (Label collision : collisions) {
+            unplace(collision);
+            pending.add(collision);
+        }
+        insert(label);
+        return true;
+    }
+
+    /**
+     * 按候选位置计算标注左上角相对锚点的屏幕偏移，斜向位置离符号近一些
+     */
+    private void setPosition(Label label, int[] candidate) {
+        if (label.anchorType == ANCHOR_CENTER) {
+            label.left = -label.width / 2;
+            label.top = -textHeight / 2;
+            return;
+        }
+        float distance = candidate[0] != 0 && candidate[1] != 0 ? symbolRadius * 0.7f : symbolRadius;
+        float centerY = -symbolRadius;
+        label.left = candidate[0] > 0 ? distance : candidate[0] < 0 ? -distance - label.width : -label.width / 2;
+        label.top = candidate[1] > 0 ? centerY + distance : candidate[1] < 0 ? centerY - distance - textHeight : centerY - textHeight / 2;
+    }
+
+    private List<Label> getCollisions(Label label) {
+        List<Label> result = new ArrayList<>();
+        double minX = label.worldX + label.left - padding, minY = label.worldY + label.top - padding;
+        double maxX = minX + label.width + padding * 2, maxY = minY + textHeight + padding * 2;
+        for (long x = cell(minX); x <= cell(maxX); x++) {
+            for (long y = cell(minY); y <= cell(maxY); y++) {
+                List<Label> items = cells.get(key(x, y));
+                if (items == null) continue;
+                for (Label item : items) {
+                    if (!result.contains(item) && item.intersects(minX, minY, maxX, maxY, textHeight)) {
+                        result.add(item);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private void insert(Label label) {
+        label.placed = true;
+        for (long x = cell(label.worldX + label.left); x <= cell(label.worldX + label.left + label.width); x++) {
+            for (long y = cell(label.worldY + label.top); y <= cell(label.worldY + label.top + textHeight); y++) {
+                List<Label> items = cells.get(key(x, y));
+                if (items == null) {
+                    items = new ArrayList<>(2);
+                    cells.put(key(x, y), items);
+                }
+                items.add(label);
+            }
+        }
+    }
+
+    private void unplace(Label label) {
+        label.placed = false;
+        for (long x = cell(label.worldX + label.left); x <= cell(label.worldX + label.left + label.width); x++) {
+            for (long y = cell(label.worldY + label.top); y <= cell(label.worldY + label.top + textHeight); y++) {
+                List<Label> items = cells.get(key(x, y));
+                if (items != null) {
+                    items.remove(label);
+                    if (items.isEmpty()) {
+                        cells.remove(key(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    private static long cell(double value) {
+        return (long) Math.floor(value / CELL_SIZE);
+    }
+
+    private static long key(long x, long y) {
+        return (x << 32) ^ (y & 0xffffffffL);
+    }
+
+    /**
+     * 一个要素的标注，可在后台线程中创建
+     */
+    public static final class Label {
+        private final long id;
+        private final String text;
+        private final GeoPoint anchor;
+        private final double priority;
+        private final int anchorType;
+        private float width = Float.NaN;
+        //放置结果：锚点的世界像素坐标和标注左上角相对锚点的偏移
+        private double worldX;
+        private double worldY;
+        private float left;
+        private float top;
+        private boolean placed;
+
+        /**
+         * @param priority   越大越优先显示
+         * @param anchorType ANCHOR_POINT或ANCHOR_CENTER
+         */
+        public Label(long id, String text, GeoPoint anchor, double priority, int anchorType) {
+            this.id = id;
+            this.text = text;
+            this.anchor = anchor;
+            this.priority = priority;
+            this.anchorType = anchorType;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        private boolean intersects(double minX, double minY, double maxX, double maxY, float height) {
+            double x = worldX + left, y = worldY + top;
+            return x <= maxX && x + width >= minX && y <= maxY && y + height >= minY;
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.zhjf.osmdroid.overlay;
 
 import android.content.Context;
+import android.graphics.Canvas;
+
+import com.zhjf.osmdroid.tile.TileViewportListener;
 
 import org.osmdroid.tileprovider.MapTileProviderBase;
+import org.osmdroid.util.RectL;
 import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
 import org.osmdroid.views.overlay.TilesOverlay;
 
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Created by Administrator on 2017/11/11.
@@ -15,6 +22,11 @@ import java.io.File;
 public class TileLayer extends TilesOverlay {
     private File tilePath;
     private MapView mapView;
+    private final List<TileViewportListener> viewportListeners = new CopyOnWriteArrayList<>();
+    //上次通知的可视范围，未变化时不重复通知
+    private final RectL lastViewPort = new RectL();
+    private double lastZoomLevel = Double.NaN;
+    private TilePrefetcher prefetcher;
 
     public TileLayer(MapView mapView, Context aContext, MapTileProviderBase aTileProvider) {
         super(aTileProvider, aContext);
@@ -28,4 +40,65 @@ public class TileLayer extends TilesOverlay {
     public void setTilePath(File tilePath) {
         this.tilePath = tilePath;
     }
+
+    /**
+     * 添加可视范围监听，如MapTileFileProvider据此安排瓦片加载顺序
+     */
+    public void addViewportListener(TileViewportListener listener) {
+        if (listener != null && !viewportListeners.contains(listener)) {
+            viewportListeners.add(listener);
+        }
+    }
+
+    public void removeViewportListener(TileViewportListener listener) {
+        viewportListeners.remove(listener);
+    }
+
+    public boolean isPrefetchEnabled() {
+        return prefetcher != null;
+    }
+
+    /**
+     * 开启或关闭瓦片预取。开启时内存瓦片缓存额外预留预取预算的空间，避免预取的瓦片挤掉可见瓦片
+     */
+    public void setPrefetchEnabled(boolean enabled) {
+        if (enabled == (prefetcher != null)) {
+            return;
+        }
+        if (enabled) {
+            prefetcher = new TilePrefetcher(mTileProvider);
+            setOvershootTileCache(getOvershootTileCache() + prefetcher.getBudget());
+            addViewportListener(prefetcher);
+        } else {
+            removeViewportListener(prefetcher);
+            prefetcher.cancel();
+            setOvershootTileCache(getOvershootTileCache() - prefetcher.getBudget());
+            prefetcher = null;
+        }
+    }
+
+    @Override
+    public void drawTiles(Canvas c, Projection projection, double zoomLevel, RectL viewPort) {
+        if (!viewportListeners.isEmpty() && (zoomLevel != lastZoomLevel || !sameRect(viewPort, lastViewPort))) {
+            lastZoomLevel = zoomLevel;
+            lastViewPort.set(viewPort.left, viewPort.top, viewPort.right, viewPort.bottom);
+            for (TileViewportListener listener : viewportListeners) {
+                listener.onViewportChanged(zoomLevel, lastViewPort);
+            }
+        }
+        super.drawTiles(c, projection, zoomLevel, viewPort);
+    }
+
+    @Override
+    public void onDetach(MapView mapView) {
+        if (prefetcher != null) {
+            prefetcher.cancel();
+        }
+        viewportListeners.clear();
+        super.onDetach(mapView);
+    }
+
+    private static boolean sameRect(RectL a, RectL b) {
+        return a.left == b.left && a.top == b.top && a.right == b.right && a.bottom == b.bottom;
+    }
 }
@@ -0,0 +1,226 @@
+package com.zhjf.osmdroid.overlay;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.zhjf.osmdroid.tile.TileViewportListener;
+
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileProviderBase;
+import org.osmdroid.util.RectL;
+import org.osmdroid.util.TileSystem;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 瓦片预取器。
+ * 根据可视范围的连续变化估算平移速度和缩放速度，预测一段时间后的可视范围，
+ * 提前把运动前方的瓦片以及当前范围上下各一级的瓦片加载进内存瓦片缓存。
+ * 预取请求放在自己的队列中，每次只提交少量，且瓦片提供者还有较多待加载请求时暂停，优先保证可见瓦片。
+ * 只在UI线程使用。
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class TilePrefetcher implements TileViewportListener {
+    //每次可视范围变化最多预取的瓦片数
+    public static final int DEFAULT_BUDGET = 24;
+    //预测的时间长度，毫秒
+    private static final long LOOKAHEAD_MILLIS = 400;
+    //两次可视范围变化间隔超过该值时认为运动已停止，毫秒
+    private static final long MOTION_TIMEOUT_MILLIS = 200;
+    //速度平滑系数
+    private static final double SMOOTHING = 0.5;
+    //每批提交的预取请求数
+    private static final int BATCH_SIZE = 4;
+    //瓦片提供者待加载请求数超过该值时暂停预取
+    private static final int MAX_PROVIDER_QUEUE = 4;
+    //两批之间的间隔，毫秒
+    private static final long BATCH_DELAY_MILLIS = 16;
+
+    private final MapTileProviderBase tileProvider;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ArrayDeque<MapTile> queue = new ArrayDeque<>();
+    private final int budget;
+
+    //上次可视范围，坐标为[0,1]墨卡托空间
+    private long lastTime = -1;
+    private double lastZoomLevel;
+    private double lastCenterX;
+    private double lastCenterY;
+    //速度，单位为每毫秒
+    private double velocityX;
+    private double velocityY;
+    private double velocityZoom;
+    private boolean scheduled;
+
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            scheduled = false;
+            //可见瓦片优先，提供者忙时稍后再试
+            if (tileProvider.getQueueSize() <= MAX_PROVIDER_QUEUE) {
+                for (int i = 0; i < BATCH_SIZE && !queue.isEmpty(); i++) {
+                    //缓存中没有时getMapTile会发起异步加载，加载完成后进入缓存
+                    tileProvider.getMapTile(queue.poll());
+                }
+            }
+            schedule();
+        }
+    };
+
+    public TilePrefetcher(MapTileProviderBase tileProvider) {
+        this(tileProvider, DEFAULT_BUDGET);
+    }
+
+    /**
+     * @param budget 每次可视范围变化最多预取的瓦片数，内存瓦片缓存应能额外容纳这么多瓦片
+     */
+    public TilePrefetcher(MapTileProviderBase tileProvider, int budget) {
+        if (tileProvider == null) {
+            throw new IllegalArgumentException("tileProvider may not be null");
+        }
+        this.tileProvider = tileProvider;
+        this.budget = Math.max(0, budget);
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    @Override
+    public void onViewportChanged(double zoomLevel, RectL viewPort) {
+        double mapSize = TileSystem.MapSize(zoomLevel);
+        double centerX = (viewPort.left + viewPort.right) / 2.0 / mapSize;
+        double centerY = (viewPort.top + viewPort.bottom) / 2.0 / mapSize;
+        double halfWidth = Math.max(1, viewPort.right - viewPort.left) / 2.0 / mapSize;
+        double halfHeight = Math.max(1, viewPort.bottom - viewPort.top) / 2.0 / mapSize;
+
+        long now = SystemClock.uptimeMillis();
+        long elapsed = now - lastTime;
+        if (lastTime < 0 || elapsed > MOTION_TIMEOUT_MILLIS) {
+            velocityX = 0;
+            velocityY = 0;
+            velocityZoom = 0;
+        } else if (elapsed > 0) {
+            velocityX = smooth(velocityX, (centerX - lastCenterX) / elapsed);
+            velocityY = smooth(velocityY, (centerY - lastCenterY) / elapsed);
+            velocityZoom = smooth(velocityZoom, (zoomLevel - lastZoomLevel) / elapsed);
+        }
+        lastTime = now;
+        lastZoomLevel = zoomLevel;
+        lastCenterX = centerX;
+        lastCenterY = centerY;
+
+        //旧的预取目标已过期，按新的预测重新排队
+        queue.clear();
+        if (budget == 0) {
+            return;
+        }
+
+        int tileZoomLevel = TileSystem.getInputTileZoomLevel(zoomLevel);
+        Set<MapTile> visible = tiles(tileZoomLevel, centerX, centerY, halfWidth, halfHeight, Integer.MAX_VALUE, null);
+        Set<MapTile> targets = new LinkedHashSet<>();
+
+        //运动前方的瓦片
+        if (velocityX != 0 || velocityY != 0 || velocityZoom != 0) {
+            double predictedZoom = zoomLevel + velocityZoom * LOOKAHEAD_MILLIS;
+            predictedZoom = Math.max(tileProvider.getMinimumZoomLevel(), Math.min(tileProvider.getMaximumZoomLevel(), predictedZoom));
+            //缩放时可视范围在[0,1]空间中的大小按比例变化
+            double scale = Math.pow(2, zoomLevel - predictedZoom);
+            tiles(TileSystem.getInputTileZoomLevel(predictedZoom),
+                    centerX + velocityX * LOOKAHEAD_MILLIS,
+                    centerY + velocityY * LOOKAHEAD_MILLIS,
+                    halfWidth * scale,
+                    halfHeight * scale,
+                    budget,
+                    targets);
+            targets.removeAll(visible);
+        }
+
+        //上下各一级，正在放大时先取下一级，否则先取上一级
+        int first = velocityZoom > 0 ? tileZoomLevel + 1 : tileZoomLevel - 1;
+        int second = velocityZoom > 0 ? tileZoomLevel - 1 : tileZoomLevel + 1;
+        for (int z : new int[]{first, second}) {
+            if (targets.size() >= budget) {
+                break;
+            }
+            if (z >= tileProvider.getMinimumZoomLevel() && z <= tileProvider.getMaximumZoomLevel()) {
+                tiles(z, centerX, centerY, halfWidth, halfHeight, budget - targets.size(), targets);
+            }
+        }
+
+        for (MapTile tile : targets) {
+            if (queue.size() >= budget) {
+                break;
+            }
+            queue.add(tile);
+        }
+        schedule();
+    }
+
+    /**
+     * 停止预取并清空队列
+     */
+    public void cancel() {
+        queue.clear();
+        handler.removeCallbacks(drain);
+        scheduled = false;
+    }
+
+    private void schedule() {
+        if (!scheduled && !queue.isEmpty()) {
+            scheduled = true;
+            handler.postDelayed(drain, BATCH_DELAY_MILLIS);
+        }
+    }
+
+    private static double smooth(double previous, double current) {
+        return previous * (1 - SMOOTHING) + current * SMOOTHING;
+    }
+
+    /**
+     * 指定级别下与范围相交的瓦片，由中心向外排列
+     *
+     * @param limit  最多取的瓦片数
+     * @param result 结果集合，为null时新建
+     */
+    private static Set<MapTile> tiles(int zoomLevel, double centerX, double centerY, double halfWidth, double halfHeight,
+                                      int limit, Set<MapTile> result) {
+        if (result == null) {
+            result = new LinkedHashSet<>();
+        }
+        if (zoomLevel < 0 || zoomLevel > 30) {
+            return result;
+        }
+        int count = 1 << zoomLevel;
+        int x0 = clamp((int) Math.floor((centerX - halfWidth) * count), count);
+        int x1 = clamp((int) Math.floor((centerX + halfWidth) * count), count);
+        int y0 = clamp((int) Math.floor((centerY - halfHeight) * count), count);
+        int y1 = clamp((int) Math.floor((centerY + halfHeight) * count), count);
+        int cx = clamp((int) Math.floor(centerX * count), count);
+        int cy = clamp((int) Math.floor(centerY * count), count);
+
+        //按环从中心向外取，预算不足时保留离中心最近的瓦片
+        int maxRing = Math.max(Math.max(cx - x0, x1 - cx), Math.max(cy - y0, y1 - cy));
+        int added = 0;
+        for (int ring = 0; ring <= maxRing && added < limit; ring++) {
+            for (int x = cx - ring; x <= cx + ring && added < limit; x++) {
+                for (int y = cy - ring; y <= cy + ring && added < limit; y++) {
+                    boolean onRing = Math.abs(x - cx) == ring || Math.abs(y - cy) == ring;
+                    if (onRing && x >= x0 && x <= x1 && y >= y0 && y <= y1 && result.add(new MapTile(zoomLevel, x, y))) {
+                        added++;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int clamp(int value, int count) {
+        return Math.max(0, Math.min(count - 1, value));
+    }
+}
@@ -1,6 +1,7 @@
 package com.zhjf.osmdroid.overlay;
 
 import android.content.Context;
+import android.database.Cursor;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
@@ -12,8 +13,15 @@ import android.widget.Toast;
 
 import com.zhjf.osmdroid.R;
 import com.zhjf.osmdroid.common.DensityUtil;
+import com.zhjf.osmdroid.common.PointClusterIndex;
+import com.zhjf.osmdroid.common.SpatialGridIndex;
 import com.zhjf.osmdroid.entity.style.Style;
 import com.zhjf.osmdroid.geopackage.CustomGeoPackageManager;
+import com.zhjf.osmdroid.geopackage.EditJournal;
+import com.zhjf.osmdroid.geopackage.FeatureEnvelopeIndex;
+import com.zhjf.osmdroid.tile.CustomTileSource;
+import com.zhjf.osmdroid.tile.VectorTileProvider;
+import com.zhjf.osmdroid.tile.VectorTileRenderer;
 
 import org.osmdroid.api.IGeoPoint;
 import org.osmdroid.gpkg.overlay.OsmMapShapeConverter;
@@ -21,9 +29,13 @@ import org.osmdroid.gpkg.overlay.features.MarkerOptions;
 import org.osmdroid.gpkg.overlay.features.OsmDroidMapShape;
 import org.osmdroid.gpkg.overlay.features.PolygonOptions;
 import org.osmdroid.gpkg.overlay.features.PolylineOptions;
+import org.osmdroid.tileprovider.MapTileProviderArray;
+import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
+import org.osmdroid.tileprovider.util.SimpleRegisterReceiver;
 import org.osmdroid.util.BoundingBox;
 import org.osmdroid.util.GeoPoint;
 import org.osmdroid.views.MapView;
+import org.osmdroid.views.Projection;
 import org.osmdroid.views.overlay.FolderOverlay;
 import org.osmdroid.views.overlay.Marker;
 import org.osmdroid.views.overlay.Overlay;
@@ -34,15 +46,27 @@ import org.osmdroid.views.overlay.simplefastpoint.SimpleFastPointOverlay;
 import org.osmdroid.views.overlay.simplefastpoint.SimpleFastPointOverlayOptions;
 import org.osmdroid.views.overlay.simplefastpoint.SimplePointTheme;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import mil.nga.geopackage.GeoPackage;
 import mil.nga.geopackage.db.GeoPackageDataType;
 import mil.nga.geopackage.features.user.FeatureColumn;
-import mil.nga.geopackage.features.user.FeatureCursor;
 import mil.nga.geopackage.features.user.FeatureDao;
 import mil.nga.geopackage.features.user.FeatureRow;
 import mil.nga.geopackage.geom.GeoPackageGeometryData;
@@ -55,6 +79,9 @@ import mil.nga.wkb.geom.Point;
 import mil.nga.wkb.geom.Polygon;
 import mil.nga.wkb.util.GeometryEnvelopeBuilder;
 
+import rgi.geopackage.features.GeoPackageFeatures;
+import rgi.geopackage.features.geometry.GeometrySimplifier;
+
 import static mil.nga.tiff.FieldTagType.DateTime;
 
 /**
@@ -66,6 +93,7 @@ public class VectorLayer extends FolderOverlay {
     private boolean isEdit = false;
     private Style style;
     private FeatureColumn labeledColumn;
+    private String labeledColumnName;
     private List<FeatureColumn> columns;
     private MapView mapView;
     private Context context;
@@ -75,48 +103,703 @@ public class VectorLayer extends FolderOverlay {
     private PolylineOptions polylineOptions;
     private PolygonOptions polygonOptions;
 
+    //视野外扩比例，减少平移时的重复加载
+    private static final float VIEWPORT_SCALE = 1.5f;
+    //同时存在的要素覆盖物上限
+    private static final int MAX_LIVE_OVERLAYS = 2000;
+    //所有图层共用一个加载线程，按顺序访问数据库
+    private static final ExecutorService loadExecutor = Executors.newSingleThreadExecutor();
+
+    private boolean viewportLoading = false;
+    //要素外包矩形索引，只在加载线程中访问
+    private FeatureEnvelopeIndex envelopeIndex;
+    //已写入编辑日志但尚未写入数据库的要素外包矩形（WGS84），写入后更新索引并移除
+    private final Map<Long, double[]> editedEnvelopes = new ConcurrentHashMap<>();
+    //已从图层移除的要素id，视野重新加载时跳过，不修改GeoPackage
+    private final Set<Long> removedIds = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+    //以下只在UI线程中访问
+    private final Map<Long, OverlayWithIW> liveOverlays = new HashMap<>();
+    private BoundingBox loadedBoundingBox;
+    private Future<?> loadTask;
+    private int loadGeneration;
+    //覆盖物外包矩形索引，用于点击选择，只在UI线程中访问
+    private SpatialGridIndex<OverlayWithIW> overlayIndex;
+    //索引对应的图层覆盖物数，含聚合标记等不进入索引的覆盖物；与getItems().size()不同说明列表绕过add、remove被修改
+    private int indexedItemCount;
+    //线选择容差（像素）
+    private static final int LINE_TOLERANCE = 4;
+    //点选择容差（dp），与图标大小相当
+    private static final float MARKER_TOLERANCE_DIP = 48;
+    //抽稀容差（像素），偏移小于该值的顶点在屏幕上不可见
+    private static final double SIMPLIFY_TOLERANCE = 1.0;
+    //栅格化显示的缩放级别范围
+    private static final int RASTER_MIN_ZOOM = 0;
+    private static final int RASTER_MAX_ZOOM = 22;
+    //线、面要素的完整顶点及其重要度，按缩放级别抽稀，只在UI线程中访问
+    private final Map<Long, LevelOfDetail> levelsOfDetail = new HashMap<>();
+    //当前抽稀对应的缩放级别
+    private int detailZoom = -1;
+    //每次重新抽稀时递增，丢弃过期的后台抽稀结果
+    private volatile int detailGeneration;
+    //加载线程：GeoPackageFeatures.addLevelsOfDetail预先生成的抽稀伴随表，没有时为null
+    private String levelOfDetailTable;
+    private boolean levelOfDetailChecked;
+    //栅格化显示时的瓦片图层和瓦片提供者，为null时逐要素创建覆盖物
+    private TileLayer rasterLayer;
+    private VectorTileProvider rasterProvider;
+    //栅格化显示时已编辑但尚未写入数据库的要素外包矩形，写入后再重绘对应瓦片
+    private final Map<Long, GeometryEnvelope> rasterEdits = new ConcurrentHashMap<>();
+    private EditJournal.FlushListener journalListener;
+    //点聚合的最大缩放级别，更大的级别逐个显示点
+    private static final int MAX_CLUSTER_ZOOM = 16;
+    //聚合圆的最小半径（dp）
+    private static final float CLUSTER_RADIUS_DIP = 16;
+    private boolean clustering = false;
+    //以下只在UI线程中访问
+    private List<PointClusterIndex.Cluster> visibleClusters = Collections.emptyList();
+    private List<GeoPoint> clusterPositions = Collections.emptyList();
+    //已加载结果对应的聚合级别，-1表示未聚合
+    private int loadedClusterZoom = -1;
+    private Paint clusterPaint;
+    private Paint clusterTextPaint;
+    private final android.graphics.Point clusterPixel = new android.graphics.Point();
+    //标注优先级字段，为null时线、面按大小排序
+    private String labelPriorityColumnName;
+    //标注避让，只在UI线程中访问
+    private final LabelEngine labelEngine;
+
     public VectorLayer(MapView mapView, Context context, String name) {
         super();
         this.mapView = mapView;
         this.context = context;
         this.mName = name;
+        this.labelEngine = new LabelEngine(context);
     }
 
     public void setConverter(OsmMapShapeConverter converter) {
         this.converter = converter;
     }
 
+    /**
+     * 开启按视野加载：要素只在进入当前视野（外扩一定比例）后才在后台线程中创建覆盖物，
+     * 离开视野的覆盖物会被移除，同时存在的覆盖物数量不超过MAX_LIVE_OVERLAYS
+     */
     public void buildOverlays() {
         if (converter == null) buildDrawOptions();
-        FeatureDao featureDao;
-        FeatureCursor featureCursor = null;
-        try {
-            geoPackage = CustomGeoPackageManager.getInstance(context).getGeoPackage();
-            featureDao = geoPackage.getFeatureDao(getName());
-            featureCursor = featureDao.queryForAll();
-            while (featureCursor.moveToNext()) {
-                FeatureRow featureRow = featureCursor.getRow();
-                Geometry geometry = featureRow.getGeometry().getGeometry();
-                if (geometry instanceof Point) {
-                    Point geoPoint = (Point) featureRow.getGeometry().getGeometry();
-                    Marker marker = new Marker(mapView);
-                    marker.setPosition(new GeoPoint(geoPoint.getY(), geoPoint.getX()));
-                    add(marker);
-                } else if (geometry instanceof LineString) {
-                    LineString lineString = (LineString) geometry;
-                    add(converter.toPolyline(lineString));
-                } else if (geometry instanceof Polygon) {
-                    add(converter.toPolygon((Polygon) geometry));
+        geoPackage = CustomGeoPackageManager.getInstance(context).getGeoPackage();
+        viewportLoading = true;
+        loadedBoundingBox = null;
+        listenJournal();
+        mapView.postInvalidate();
+    }
+
+    /**
+     * 开启栅格化显示：要素在后台线程中按256像素瓦片绘制，经内存和磁盘缓存后显示，
+     * 每帧只绘制瓦片，耗时与要素数量无关。通过restore、update修改要素后只重绘受影响的瓦片。
+     * 栅格化显示时不为已有要素创建覆盖物，不能点击选择
+     *
+     * @param cacheDirectory 磁盘缓存目录，为null时只使用内存缓存
+     */
+    public void buildRasterTiles(File cacheDirectory) {
+        geoPackage = CustomGeoPackageManager.getInstance(context).getGeoPackage();
+        viewportLoading = false;
+        FeatureDao featureDao = geoPackage.getFeatureDao(getName());
+        VectorTileRenderer renderer = new VectorTileRenderer(context, featureDao, geometryType, style);
+        CustomTileSource tileSource = new CustomTileSource(getName(), RASTER_MIN_ZOOM, RASTER_MAX_ZOOM, VectorTileRenderer.TILE_SIZE, ".png");
+        rasterProvider = new VectorTileProvider(tileSource, renderer, cacheDirectory == null ? null : new File(cacheDirectory, getName()));
+        MapTileProviderArray providerArray = new MapTileProviderArray(tileSource, new SimpleRegisterReceiver(context),
+                new MapTileModuleProviderBase[]{rasterProvider});
+        //瓦片绘制完成后通知地图重绘
+        providerArray.setTileRequestCompleteHandler(mapView.getTileRequestCompleteHandler());
+        rasterLayer = new TileLayer(mapView, context, providerArray);
+        //未绘制完成的瓦片不显示占位格网
+        rasterLayer.setLoadingBackgroundColor(Color.TRANSPARENT);
+        rasterLayer.setLoadingLineColor(Color.TRANSPARENT);
+        rasterLayer.addViewportListener(rasterProvider);
+        listenJournal();
+        mapView.postInvalidate();
+    }
+
+    /**
+     * 监听编辑日志的写入结果：栅格化显示时编辑写入数据库后重绘受影响的瓦片；
+     * 编辑无法写入数据库时撤销其显示效果并提示
+     */
+    private void listenJournal() {
+        if (journalListener != null) return;
+        final String tableName = getName();
+        journalListener = new EditJournal.FlushListener() {
+            @Override
+            public void onFlushed(String flushedTable, List<Long> featureIds) {
+                if (!flushedTable.equals(tableName)) return;
+                if (viewportLoading) {
+                    updateIndex(featureIds);
+                }
+                VectorTileProvider provider = rasterProvider;
+                if (provider == null) return;
+                for (Long featureId : featureIds) {
+                    GeometryEnvelope envelope = rasterEdits.remove(featureId);
+                    if (envelope != null) {
+                        provider.featureChanged(featureId, envelope);
+                    }
+                }
+                mapView.postInvalidate();
+            }
+
+            @Override
+            public void onFailed(String failedTable, long featureId, boolean insert, RuntimeException error) {
+                if (!failedTable.equals(tableName)) return;
+                //栅格瓦片只在写入成功后重绘，不需要撤销
+                rasterEdits.remove(featureId);
+                revert(featureId, insert, error);
+            }
+        };
+        EditJournal.getInstance(context).addFlushListener(journalListener);
+    }
+
+    /**
+     * 编辑写入数据库后在加载线程中按写入的要素更新外包矩形索引
+     */
+    private void updateIndex(List<Long> featureIds) {
+        final List<Long> ids = new ArrayList<>(featureIds);
+        final String tableName = getName();
+        loadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                FeatureDao featureDao = geoPackage.getFeatureDao(tableName);
+                if (envelopeIndex == null) {
+                    envelopeIndex = new FeatureEnvelopeIndex(context, featureDao);
+                }
+                for (Long id : ids) {
+                    envelopeIndex.update(id, featureDao.queryForIdRow(id));
+                    deleteStoredLevels(id);
+                    editedEnvelopes.remove(id);
+                }
+            }
+        });
+    }
+
+    public boolean isRasterMode() {
+        return rasterLayer != null;
+    }
+
+    /**
+     * 点图层开启聚合：缩放级别不超过MAX_CLUSTER_ZOOM时，视野内同一格网的多个点显示为一个带数量的聚合圆，
+     * 点击聚合圆放大到其分开的级别，只含一个点的格网仍显示为可选择的点
+     *
+     * @param clustering
+     */
+    public void setClustering(boolean clustering) {
+        this.clustering = clustering;
+        refresh();
+    }
+
+    public boolean isClustering() {
+        return clustering;
+    }
+
+    @Override
+    public void draw(Canvas canvas, MapView mapView, boolean shadow) {
+        if (rasterLayer != null) {
+            rasterLayer.draw(canvas, mapView, shadow);
+        }
+        if (viewportLoading && !shadow && isEnabled()) {
+            BoundingBox viewport = mapView.getBoundingBox();
+            int zoom = (int) Math.floor(mapView.getZoomLevelDouble());
+            int clusterZoom = getClusterZoom(zoom);
+            if (zoom != detailZoom) {
+                detailZoom = zoom;
+                applyLevelOfDetail();
+            }
+            if (loadedBoundingBox == null || !covers(loadedBoundingBox, viewport) || clusterZoom != loadedClusterZoom) {
+                requestLoad(viewport.increaseByScale(VIEWPORT_SCALE), clusterZoom);
+            }
+        }
+        super.draw(canvas, mapView, shadow);
+        if (!shadow && labelEngine.size() > 0) {
+            labelEngine.draw(canvas, mapView.getProjection(), mapView.getZoomLevelDouble());
+        }
+        if (!shadow && !visibleClusters.isEmpty()) {
+            drawClusters(canvas, mapView.getProjection());
+        }
+    }
+
+    /**
+     * @return 当前缩放级别对应的聚合级别，不聚合时返回-1
+     */
+    private int getClusterZoom(int zoom) {
+        return clustering && geometryType == GeometryType.POINT && zoom <= MAX_CLUSTER_ZOOM ? Math.max(zoom, 0) : -1;
+    }
+
+    private void drawClusters(Canvas canvas, Projection projection) {
+        if (clusterPaint == null) {
+            clusterPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            clusterPaint.setColor(0xCC32B5EB);
+            clusterTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            clusterTextPaint.setColor(Color.WHITE);
+            clusterTextPaint.setTextAlign(Paint.Align.CENTER);
+            clusterTextPaint.setTextSize(DensityUtil.dip2px(context, 12));
+        }
+        float textOffset = (clusterTextPaint.getFontMetrics().ascent + clusterTextPaint.getFontMetrics().descent) / 2;
+        for (int i = 0; i < visibleClusters.size(); i++) {
+            projection.toPixels(clusterPositions.get(i), clusterPixel);
+            canvas.drawCircle(clusterPixel.x, clusterPixel.y, getClusterRadius(visibleClusters.get(i)), clusterPaint);
+            canvas.drawText(formatCount(visibleClusters.get(i).getCount()), clusterPixel.x, clusterPixel.y - textOffset, clusterTextPaint);
+        }
+    }
+
+    /**
+     * 聚合圆半径随点数量按对数增大
+     */
+    private float getClusterRadius(PointClusterIndex.Cluster cluster) {
+        return DensityUtil.dip2px(context, CLUSTER_RADIUS_DIP) * (1 + (float) Math.log10(cluster.getCount()) / 3);
+    }
+
+    private static String formatCount(int count) {
+        if (count < 1000) return String.valueOf(count);
+        if (count < 10000) return String.format(Locale.US, "%.1fk", count / 1000f);
+        return (count / 1000) + "k";
+    }
+
+    /**
+     * 点击聚合圆时以其中心放大到聚合分开的级别
+     */
+    @Override
+    public boolean onSingleTapConfirmed(MotionEvent event, MapView mapView) {
+        Projection projection = mapView.getProjection();
+        for (int i = visibleClusters.size() - 1; i >= 0; i--) {
+            projection.toPixels(clusterPositions.get(i), clusterPixel);
+            float dx = event.getX() - clusterPixel.x;
+            float dy = event.getY() - clusterPixel.y;
+            float radius = getClusterRadius(visibleClusters.get(i));
+            if (dx * dx + dy * dy <= radius * radius) {
+                mapView.getController().setCenter(clusterPositions.get(i));
+                mapView.getController().zoomTo(visibleClusters.get(i).getExpansionZoom());
+                return true;
+            }
+        }
+        return super.onSingleTapConfirmed(event, mapView);
+    }
+
+    @Override
+    public void onDetach(MapView mapView) {
+        if (loadTask != null) {
+            loadTask.cancel(true);
+        }
+        loadGeneration++;
+        liveOverlays.clear();
+        levelsOfDetail.clear();
+        visibleClusters = Collections.emptyList();
+        clusterPositions = Collections.emptyList();
+        labelEngine.clear();
+        if (journalListener != null) {
+            EditJournal.getInstance(context).removeFlushListener(journalListener);
+            journalListener = null;
+        }
+        loadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (envelopeIndex != null) {
+                    envelopeIndex.close();
+                    envelopeIndex = null;
+                }
+                levelOfDetailTable = null;
+                levelOfDetailChecked = false;
+            }
+        });
+        if (rasterLayer != null) {
+            rasterLayer.onDetach(mapView);
+            rasterLayer = null;
+            rasterProvider = null;
+        }
+        super.onDetach(mapView);
+    }
+
+    /**
+     * 重新按当前视野加载要素，用于数据被外部修改后刷新
+     */
+    public void refresh() {
+        loadedBoundingBox = null;
+        mapView.postInvalidate();
+    }
+
+    private void requestLoad(final BoundingBox area, final int clusterZoom) {
+        if (loadTask != null) {
+            loadTask.cancel(true);
+        }
+        loadedBoundingBox = area;
+        loadedClusterZoom = clusterZoom;
+        final int generation = ++loadGeneration;
+        final Set<Long> loaded = new HashSet<>(liveOverlays.keySet());
+        final String tableName = getName();
+        FeatureColumn column = getLabeledColumn();
+        final LabelSource labelSource = column == null ? null
+                : new LabelSource(column.getName(), labelPriorityColumnName, labelEngine.getIds());
+        final int zoom = detailZoom;
+        final double tolerance = getSimplifyTolerance();
+        final int detail = detailGeneration;
+        loadTask = loadExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                final Map<Long, LevelOfDetail> details = new HashMap<>();
+                final List<PointClusterIndex.Cluster> clusters = new ArrayList<>();
+                final Map<Long, LabelEngine.Label> labels = new HashMap<>();
+                final Map<Long, OverlayWithIW> result = loadViewport(tableName, area, clusterZoom, zoom, tolerance,
+                        loaded, labelSource, details, clusters, labels);
+                if (result == null) return;
+                mapView.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        applyViewport(generation, detail, result, details, clusters, labels);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 后台线程：按外包矩形索引查询视野内的要素，只为尚未加载的要素创建覆盖物。
+     * 聚合时对视野内的点聚合，只为单独成组的点创建覆盖物，其余点以聚合输出
+     *
+     * @param clusterZoom 聚合级别，-1表示不聚合
+     * @param zoom        新建线、面覆盖物按此缩放级别抽稀
+     * @param tolerance   抽稀容差，小于0表示保留全部顶点
+     * @param labelSource 标注字段，为null时不标注
+     * @param details     输出新建线、面覆盖物的多级细节
+     * @param clusters    输出视野内含多个点的聚合
+     * @param labels      输出新建覆盖物及尚无标注的已加载要素的标注
+     * @return 视野内要素id到新建覆盖物的映射，已加载的要素值为null；任务被取消时返回null
+     */
+    private Map<Long, OverlayWithIW> loadViewport(String tableName, BoundingBox area, int clusterZoom, int zoom,
+                                                  double tolerance, Set<Long> loaded,
+                                                  LabelSource labelSource, Map<Long, LevelOfDetail> details,
+                                                  List<PointClusterIndex.Cluster> clusters, Map<Long, LabelEngine.Label> labels) {
+        FeatureDao featureDao = geoPackage.getFeatureDao(tableName);
+        if (envelopeIndex == null) {
+            //打开GeoPackage时已建立索引，这里只在要素表被外部修改后重建
+            FeatureEnvelopeIndex index = new FeatureEnvelopeIndex(context, featureDao);
+            index.index();
+            envelopeIndex = index;
+        }
+        final Map<Long, double[]> envelopes = envelopeIndex.query(area.getLonWest(), area.getLatSouth(),
+                area.getLonEast(), area.getLatNorth());
+        //尚未写入数据库的编辑按编辑后的外包矩形判断是否在视野内
+        for (Map.Entry<Long, double[]> entry : editedEnvelopes.entrySet()) {
+            double[] envelope = entry.getValue();
+            if (envelope[0] <= area.getLonEast() && envelope[2] >= area.getLonWest()
+                    && envelope[1] <= area.getLatNorth() && envelope[3] >= area.getLatSouth()) {
+                envelopes.put(entry.getKey(), envelope);
+            } else {
+                envelopes.remove(entry.getKey());
+            }
+        }
+        envelopes.keySet().removeAll(removedIds);
+        if (Thread.currentThread().isInterrupted()) return null;
+        List<Long> ids;
+        if (clusterZoom >= 0) {
+            long[] pointIds = new long[envelopes.size()];
+            double[] longitudes = new double[envelopes.size()];
+            double[] latitudes = new double[envelopes.size()];
+            int i = 0;
+            for (Map.Entry<Long, double[]> entry : envelopes.entrySet()) {
+                pointIds[i] = entry.getKey();
+                longitudes[i] = entry.getValue()[0];
+                latitudes[i] = entry.getValue()[1];
+                i++;
+            }
+            PointClusterIndex clusterIndex = new PointClusterIndex(MAX_CLUSTER_ZOOM);
+            clusterIndex.load(pointIds, longitudes, latitudes);
+            ids = new ArrayList<>();
+            for (PointClusterIndex.Cluster cluster : clusterIndex.getClusters(area.getLonWest(), area.getLatSouth(),
+                    area.getLonEast(), area.getLatNorth(), clusterZoom)) {
+                if (cluster.getCount() == 1) {
+                    ids.add(cluster.getId());
                 } else {
+                    clusters.add(cluster);
                 }
             }
-        } catch (Exception ex) {
-            throw ex;
+        } else {
+            ids = new ArrayList<>(envelopes.keySet());
+        }
+        if (ids.size() > MAX_LIVE_OVERLAYS) {
+            //超过上限时优先保留离视野中心近的要素
+            final double centerX = area.getCenterLongitude();
+            final double centerY = area.getCenterLatitude();
+            Collections.sort(ids, new Comparator<Long>() {
+                @Override
+                public int compare(Long a, Long b) {
+                    return Double.compare(distanceToCenter(envelopes.get(a), centerX, centerY),
+                            distanceToCenter(envelopes.get(b), centerX, centerY));
+                }
+            });
+            ids = ids.subList(0, MAX_LIVE_OVERLAYS);
+        }
+        Map<Long, OverlayWithIW> result = new HashMap<>();
+        for (Long id : ids) {
+            if (Thread.currentThread().isInterrupted()) return null;
+            if (loaded.contains(id)) {
+                result.put(id, null);
+                if (labelSource != null && !labelSource.labeled.contains(id)) {
+                    //标注字段修改后只为已加载的要素补充标注
+                    FeatureRow featureRow = readRow(featureDao, id);
+                    LabelEngine.Label label = featureRow == null ? null : createLabel(id, featureRow, labelSource);
+                    if (label != null) {
+                        labels.put(id, label);
+                    }
+                }
+                continue;
+            }
+            FeatureRow featureRow = readRow(featureDao, id);
+            OverlayWithIW overlay = featureRow == null ? null : createOverlay(id, featureRow.getGeometry().getGeometry());
+            if (overlay != null) {
+                result.put(id, overlay);
+                LabelEngine.Label label = labelSource == null ? null : createLabel(id, featureRow, labelSource);
+                if (label != null) {
+                    labels.put(id, label);
+                }
+                LevelOfDetail detail = LevelOfDetail.create(getPoints(overlay));
+                if (detail != null) {
+                    //覆盖物尚未加入图层，在加载线程中直接抽稀
+                    detail.apply(overlay, selectPoints(id, detail, zoom, tolerance));
+                    details.put(id, detail);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 加载线程：选择线、面覆盖物在缩放级别下显示的顶点。
+     * 优先使用预先生成的抽稀几何，没有时按顶点重要度抽稀
+     *
+     * @param tolerance 抽稀容差，小于0表示保留全部顶点
+     */
+    private List<GeoPoint> selectPoints(long featureId, LevelOfDetail detail, int zoom, double tolerance) {
+        if (tolerance < 0) return detail.points;
+        List<GeoPoint> stored = readStoredLevel(featureId, zoom);
+        return stored != null ? stored : detail.select(tolerance);
+    }
+
+    /**
+     * 加载线程：读取伴随表中zoom_level不小于缩放级别的最精细一级抽稀几何。
+     * 没有伴随表、要素有尚未写入的编辑或该级别未保存时返回null
+     */
+    private List<GeoPoint> readStoredLevel(long featureId, int zoom) {
+        if (!levelOfDetailChecked) {
+            levelOfDetailChecked = true;
+            String table = getName() + GeoPackageFeatures.LevelOfDetailTableSuffix;
+            Cursor cursor = geoPackage.getConnection().getDb().rawQuery(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?", new String[]{table});
+            try {
+                levelOfDetailTable = cursor.moveToFirst() ? table : null;
+            } finally {
+                cursor.close();
+            }
+        }
+        if (levelOfDetailTable == null || editedEnvelopes.containsKey(featureId)) return null;
+        byte[] bytes;
+        Cursor cursor = geoPackage.getConnection().getDb().rawQuery(
+                "SELECT geom FROM \"" + levelOfDetailTable + "\" WHERE id = ? AND zoom_level >= ? ORDER BY zoom_level LIMIT 1",
+                new String[]{String.valueOf(featureId), String.valueOf(zoom)});
+        try {
+            bytes = cursor.moveToFirst() ? cursor.getBlob(0) : null;
         } finally {
-            if (featureCursor != null) {
-                featureCursor.close();
+            cursor.close();
+        }
+        if (bytes == null) return null;
+        Geometry geometry;
+        try {
+            geometry = new GeoPackageGeometryData(bytes).getGeometry();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+        LineString line = null;
+        if (geometry instanceof LineString) {
+            line = (LineString) geometry;
+        } else if (geometry instanceof Polygon && !((Polygon) geometry).getRings().isEmpty()) {
+            //面只抽稀外环
+            line = ((Polygon) geometry).getRings().get(0);
+        }
+        if (line == null) return null;
+        List<GeoPoint> points = new ArrayList<>(line.getPoints().size());
+        for (Point point : line.getPoints()) {
+            points.add(new GeoPoint(point.getY(), point.getX()));
+        }
+        return points;
+    }
+
+    /**
+     * 加载线程：要素写入数据库后伴随表中的抽稀几何已过期，删除后按顶点重要度抽稀
+     */
+    private void deleteStoredLevels(long featureId) {
+        if (levelOfDetailTable == null) return;
+        geoPackage.getConnection().getDb().delete(levelOfDetailTable, "id = ?", new String[]{String.valueOf(featureId)});
+    }
+
+    private static double distanceToCenter(double[] envelope, double centerX, double centerY) {
+        double dx = (envelope[0] + envelope[2]) / 2 - centerX;
+        double dy = (envelope[1] + envelope[3]) / 2 - centerY;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * 后台线程：读取要素并应用尚未写入数据库的编辑，尚未写入的新增要素由编辑内容构造
+     */
+    private FeatureRow readRow(FeatureDao featureDao, long featureId) {
+        EditJournal editJournal = EditJournal.getInstance(context);
+        FeatureRow featureRow = featureDao.queryForIdRow(featureId);
+        if (featureRow == null) {
+            if (!editJournal.isPendingInsert(featureDao.getTableName(), featureId)) return null;
+            featureRow = featureDao.newRow();
+        }
+        editJournal.applyPending(featureDao, featureId, featureRow);
+        return featureRow;
+    }
+
+    private static double[] toArray(GeometryEnvelope envelope) {
+        return new double[]{envelope.getMinX(), envelope.getMinY(), envelope.getMaxX(), envelope.getMaxY()};
+    }
+
+    private static GeometryEnvelope getEnvelope(GeoPackageGeometryData geometryData) {
+        if (geometryData == null || geometryData.getGeometry() == null) return null;
+        GeometryEnvelope envelope = geometryData.getEnvelope();
+        return envelope != null ? envelope : GeometryEnvelopeBuilder.buildEnvelope(geometryData.getGeometry());
+    }
+
+    /**
+     * UI线程：移除离开视野的覆盖物，添加新加载的覆盖物，替换聚合。过期的加载结果直接丢弃
+     */
+    private void applyViewport(int generation, int detail, Map<Long, OverlayWithIW> result,
+                               Map<Long, LevelOfDetail> details, List<PointClusterIndex.Cluster> clusters,
+                               Map<Long, LabelEngine.Label> labels) {
+        if (generation != loadGeneration) return;
+        List<GeoPoint> positions = new ArrayList<>(clusters.size());
+        for (PointClusterIndex.Cluster cluster : clusters) {
+            positions.add(new GeoPoint(cluster.getLatitude(), cluster.getLongitude()));
+        }
+        visibleClusters = clusters;
+        clusterPositions = positions;
+        Iterator<Map.Entry<Long, OverlayWithIW>> iterator = liveOverlays.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, OverlayWithIW> entry = iterator.next();
+            if (!result.containsKey(entry.getKey())) {
+                remove(entry.getValue());
+                entry.getValue().onDetach(mapView);
+                levelsOfDetail.remove(entry.getKey());
+                labelEngine.remove(entry.getKey());
+                iterator.remove();
+            }
+        }
+        for (LabelEngine.Label label : labels.values()) {
+            labelEngine.add(label);
+        }
+        for (Map.Entry<Long, OverlayWithIW> entry : result.entrySet()) {
+            if (entry.getValue() != null && !liveOverlays.containsKey(entry.getKey())) {
+                //新加载的覆盖物已在加载线程中抽稀
+                LevelOfDetail levelOfDetail = details.get(entry.getKey());
+                if (levelOfDetail != null) {
+                    levelsOfDetail.put(entry.getKey(), levelOfDetail);
+                }
+                add(entry.getValue());
+                liveOverlays.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (detail != detailGeneration) {
+            //加载期间缩放级别或编辑状态发生变化
+            applyLevelOfDetail();
+        }
+        mapView.invalidate();
+    }
+
+    /**
+     * UI线程：按当前缩放级别重新抽稀所有线、面覆盖物。
+     * 编辑时立即恢复完整顶点，否则在加载线程中选择顶点后回到UI线程替换
+     */
+    private void applyLevelOfDetail() {
+        final int generation = ++detailGeneration;
+        final double tolerance = getSimplifyTolerance();
+        if (tolerance < 0) {
+            for (Map.Entry<Long, LevelOfDetail> entry : levelsOfDetail.entrySet()) {
+                OverlayWithIW overlay = liveOverlays.get(entry.getKey());
+                if (overlay != null && entry.getValue().apply(overlay, entry.getValue().points)) {
+                    reindex(overlay);
+                }
             }
+            return;
         }
+        final int zoom = detailZoom;
+        final Map<Long, LevelOfDetail> details = new HashMap<>(levelsOfDetail);
+        loadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Map<Long, List<GeoPoint>> selected = new HashMap<>();
+                for (Map.Entry<Long, LevelOfDetail> entry : details.entrySet()) {
+                    if (generation != detailGeneration) return;
+                    selected.put(entry.getKey(), selectPoints(entry.getKey(), entry.getValue(), zoom, tolerance));
+                }
+                mapView.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        applySelectedPoints(generation, details, selected);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * UI线程：替换覆盖物的顶点。过期的结果及期间被替换或移除的覆盖物直接跳过
+     */
+    private void applySelectedPoints(int generation, Map<Long, LevelOfDetail> details,
+                                     Map<Long, List<GeoPoint>> selected) {
+        if (generation != detailGeneration) return;
+        for (Map.Entry<Long, List<GeoPoint>> entry : selected.entrySet()) {
+            LevelOfDetail detail = details.get(entry.getKey());
+            OverlayWithIW overlay = liveOverlays.get(entry.getKey());
+            if (overlay != null && levelsOfDetail.get(entry.getKey()) == detail
+                    && detail.apply(overlay, entry.getValue())) {
+                reindex(overlay);
+            }
+        }
+        mapView.invalidate();
+    }
+
+    /**
+     * 当前缩放级别下一个像素对应的经纬度距离乘以SIMPLIFY_TOLERANCE。
+     * 纬度方向按视野中心纬度换算，高纬度地区容差相应变小。编辑状态下不抽稀
+     *
+     * @return 抽稀容差（度），小于0表示保留全部顶点
+     */
+    private double getSimplifyTolerance() {
+        if (isEdit || detailZoom < 0) return -1;
+        double degreesPerPixel = 360.0 / (256 * Math.pow(2, detailZoom));
+        double latitude = Math.toRadians(mapView.getBoundingBox().getCenterLatitude());
+        return degreesPerPixel * Math.cos(latitude) * SIMPLIFY_TOLERANCE;
+    }
+
+    private static boolean covers(BoundingBox outer, BoundingBox inner) {
+        return outer.getLatNorth() >= inner.getLatNorth() && outer.getLatSouth() <= inner.getLatSouth()
+                && outer.getLonEast() >= inner.getLonEast() && outer.getLonWest() <= inner.getLonWest();
+    }
+
+    private OverlayWithIW createOverlay(long featureId, Geometry geometry) {
+        String id = String.valueOf(featureId);
+        if (geometry instanceof Point) {
+            Point geoPoint = (Point) geometry;
+            Marker marker = new Marker(mapView);
+            marker.setPosition(new GeoPoint(geoPoint.getY(), geoPoint.getX()));
+            marker.setId(id);
+            return marker;
+        } else if (geometry instanceof LineString) {
+            Polyline polyline = converter.toPolyline((LineString) geometry);
+            polyline.setId(id);
+            return polyline;
+        } else if (geometry instanceof Polygon) {
+            org.osmdroid.views.overlay.Polygon polygon = converter.toPolygon((Polygon) geometry);
+            polygon.setId(id);
+            return polygon;
+        }
+        return null;
     }
 
     private void buildDrawOptions() {
@@ -158,6 +841,12 @@ public class VectorLayer extends FolderOverlay {
     }
 
     public void setEdit(boolean edit) {
+        if (isEdit != edit) {
+            //编辑时需要完整顶点，丢弃尚未应用的抽稀结果
+            detailZoom = -1;
+            detailGeneration++;
+            mapView.postInvalidate();
+        }
         isEdit = edit;
     }
 
@@ -167,9 +856,21 @@ public class VectorLayer extends FolderOverlay {
 
     public void setStyle(Style style) {
         this.style = style;
+        if (rasterProvider != null) {
+            rasterProvider.getRenderer().setStyle(style);
+            rasterProvider.invalidateAll();
+            mapView.postInvalidate();
+        }
     }
 
     public List<FeatureColumn> getColumns() {
+        //按需读取字段信息，打开数据库时不必读取每张表的结构
+        if (columns == null && getName() != null) {
+            GeoPackage geoPackage = CustomGeoPackageManager.getInstance(context).getGeoPackage();
+            if (geoPackage != null && geoPackage.isFeatureTable(getName())) {
+                columns = geoPackage.getFeatureDao(getName()).getTable().getColumns();
+            }
+        }
         return columns;
     }
 
@@ -178,11 +879,140 @@ public class VectorLayer extends FolderOverlay {
     }
 
     public FeatureColumn getLabeledColumn() {
+        if (labeledColumn == null && labeledColumnName != null && getColumns() != null) {
+            for (FeatureColumn column : getColumns()) {
+                if (column.getName().equalsIgnoreCase(labeledColumnName)) {
+                    labeledColumn = column;
+                    break;
+                }
+            }
+            labeledColumnName = null;
+        }
         return labeledColumn;
     }
 
+    /**
+     * 按字段名设置标注字段，字段在首次使用时解析，不存在则不标注
+     *
+     * @param labeledColumnName
+     */
+    public void setLabeledColumnName(String labeledColumnName) {
+        this.labeledColumnName = labeledColumnName;
+        this.labeledColumn = null;
+        labelEngine.clear();
+        refresh();
+    }
+
     public void setLabeledColumn(FeatureColumn labeledColumn) {
         this.labeledColumn = labeledColumn;
+        labelEngine.clear();
+        refresh();
+    }
+
+    /**
+     * 按字段值确定标注优先级，值越大越优先显示；为null时线、面按外包矩形大小，点按要素id
+     *
+     * @param labelPriorityColumnName 数值字段名
+     */
+    public void setLabelPriorityColumnName(String labelPriorityColumnName) {
+        this.labelPriorityColumnName = labelPriorityColumnName;
+        labelEngine.clear();
+        refresh();
+    }
+
+    /**
+     * 已加载要素的属性或几何修改后，在加载线程中读取要素重建其标注
+     */
+    private void updateLabel(final long featureId) {
+        FeatureColumn column = getLabeledColumn();
+        if (column == null || geoPackage == null || !liveOverlays.containsKey(featureId)) return;
+        final LabelSource labelSource = new LabelSource(column.getName(), labelPriorityColumnName, null);
+        final String tableName = getName();
+        loadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                FeatureRow featureRow = readRow(geoPackage.getFeatureDao(tableName), featureId);
+                final LabelEngine.Label label = featureRow == null ? null : createLabel(featureId, featureRow, labelSource);
+                mapView.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!liveOverlays.containsKey(featureId)) return;
+                        if (label != null) {
+                            labelEngine.add(label);
+                        } else {
+                            labelEngine.remove(featureId);
+                        }
+                        mapView.invalidate();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 点标注在点符号四周，线标注在中间顶点，面标注在外包矩形中心
+     *
+     * @return 标注字段为空时返回null
+     */
+    private static LabelEngine.Label createLabel(long featureId, FeatureRow featureRow, LabelSource labelSource) {
+        Object value = featureRow.getValue(labelSource.column);
+        String text = value == null ? null : value.toString().trim();
+        GeoPackageGeometryData geometryData = featureRow.getGeometry();
+        if (text == null || text.isEmpty() || geometryData == null || geometryData.getGeometry() == null) return null;
+        Geometry geometry = geometryData.getGeometry();
+        GeometryEnvelope envelope = getEnvelope(geometryData);
+        double priority = 0;
+        Object priorityValue = labelSource.priorityColumn == null ? null : featureRow.getValue(labelSource.priorityColumn);
+        if (priorityValue instanceof Number) {
+            priority = ((Number) priorityValue).doubleValue();
+        } else if (!(geometry instanceof Point)) {
+            priority = (envelope.getMaxX() - envelope.getMinX()) + (envelope.getMaxY() - envelope.getMinY());
+        }
+        if (geometry instanceof Point) {
+            Point point = (Point) geometry;
+            return new LabelEngine.Label(featureId, text, new GeoPoint(point.getY(), point.getX()), priority, LabelEngine.ANCHOR_POINT);
+        } else if (geometry instanceof LineString && !((LineString) geometry).getPoints().isEmpty()) {
+            List<Point> points = ((LineString) geometry).getPoints();
+            Point middle = points.get(points.size() / 2);
+            return new LabelEngine.Label(featureId, text, new GeoPoint(middle.getY(), middle.getX()), priority, LabelEngine.ANCHOR_CENTER);
+        }
+        GeoPoint center = new GeoPoint((envelope.getMinY() + envelope.getMaxY()) / 2, (envelope.getMinX() + envelope.getMaxX()) / 2);
+        return new LabelEngine.Label(featureId, text, center, priority, LabelEngine.ANCHOR_CENTER);
+    }
+
+    @Override
+    public boolean add(Overlay overlay) {
+        boolean added = super.add(overlay);
+        if (added && overlayIndex != null) {
+            indexedItemCount++;
+            if (overlay instanceof OverlayWithIW) {
+                indexOverlay((OverlayWithIW) overlay);
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public boolean remove(Overlay overlay) {
+        boolean removed = super.remove(overlay);
+        if (removed && overlayIndex != null) {
+            indexedItemCount--;
+            if (overlay instanceof OverlayWithIW) {
+                overlayIndex.remove((OverlayWithIW) overlay);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 覆盖物几何被修改后更新其索引
+     *
+     * @param overlay
+     */
+    public void reindex(OverlayWithIW overlay) {
+        if (overlayIndex != null && overlayIndex.contains(overlay)) {
+            indexOverlay(overlay);
+        }
     }
 
     /**
@@ -194,12 +1024,12 @@ public class VectorLayer extends FolderOverlay {
      */
     public List<OverlayWithIW> hitTestLine(GeoPoint point, MapView mapView) {
         List<OverlayWithIW> result = new ArrayList<>();
-        for (Overlay overlay : getItems()) {
-            if (geometryType == GeometryType.LINESTRING) {
-                Polyline polyline = (Polyline) overlay;
-                if (polyline.isCloseTo(point, 4, mapView)) {
-                    result.add(polyline);
-                }
+        if (geometryType != GeometryType.LINESTRING) return result;
+        android.graphics.Point pixel = mapView.getProjection().toPixels(point, null);
+        for (OverlayWithIW overlay : queryCandidates(mapView, pixel.x, pixel.y, LINE_TOLERANCE)) {
+            Polyline polyline = (Polyline) overlay;
+            if (polyline.isCloseTo(point, LINE_TOLERANCE, mapView)) {
+                result.add(polyline);
             }
         }
         return result;
@@ -214,13 +1044,17 @@ public class VectorLayer extends FolderOverlay {
      */
     public List<OverlayWithIW> hitTest(MotionEvent event, MapView mapView) {
         List<OverlayWithIW> result = new ArrayList<>();
-        for (Overlay overlay : getItems()) {
-            if (geometryType == GeometryType.POINT) {
+        if (geometryType == GeometryType.POINT) {
+            //点图标在锚点附近，按图标大小扩大查询范围
+            int tolerance = DensityUtil.dip2px(context, MARKER_TOLERANCE_DIP);
+            for (OverlayWithIW overlay : queryCandidates(mapView, (int) event.getX(), (int) event.getY(), tolerance)) {
                 Marker marker = (Marker) overlay;
                 if (marker.hitTest(event, mapView)) {
                     result.add(marker);
                 }
-            } else if (geometryType == GeometryType.POLYGON) {
+            }
+        } else if (geometryType == GeometryType.POLYGON) {
+            for (OverlayWithIW overlay : queryCandidates(mapView, (int) event.getX(), (int) event.getY(), 1)) {
                 org.osmdroid.views.overlay.Polygon polygon = (org.osmdroid.views.overlay.Polygon) overlay;
                 if (polygon.contains(event)) {
                     result.add(polygon);
@@ -230,6 +1064,83 @@ public class VectorLayer extends FolderOverlay {
         return result;
     }
 
+    /**
+     * 查询屏幕点周围tolerance像素范围内外包矩形相交的覆盖物，只对这些候选做精确判断
+     */
+    private List<OverlayWithIW> queryCandidates(MapView mapView, int x, int y, int tolerance) {
+        //索引随add、remove增量更新，只在首次使用或列表被直接修改后重建
+        if (overlayIndex == null || indexedItemCount != getItems().size()) {
+            rebuildOverlayIndex();
+        }
+        Projection projection = mapView.getProjection();
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        //地图可能旋转，取四个角点
+        int[][] corners = {{x - tolerance, y - tolerance}, {x + tolerance, y - tolerance},
+                {x - tolerance, y + tolerance}, {x + tolerance, y + tolerance}};
+        for (int[] corner : corners) {
+            IGeoPoint geoPoint = projection.fromPixels(corner[0], corner[1]);
+            minX = Math.min(minX, geoPoint.getLongitude());
+            maxX = Math.max(maxX, geoPoint.getLongitude());
+            minY = Math.min(minY, geoPoint.getLatitude());
+            maxY = Math.max(maxY, geoPoint.getLatitude());
+        }
+        return overlayIndex.query(minX, minY, maxX, maxY);
+    }
+
+    private void rebuildOverlayIndex() {
+        List<OverlayWithIW> overlays = new ArrayList<>();
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (Overlay overlay : getItems()) {
+            if (!(overlay instanceof OverlayWithIW)) continue;
+            double[] envelope = getOverlayEnvelope((OverlayWithIW) overlay);
+            if (envelope == null) continue;
+            overlays.add((OverlayWithIW) overlay);
+            minX = Math.min(minX, envelope[0]);
+            minY = Math.min(minY, envelope[1]);
+            maxX = Math.max(maxX, envelope[2]);
+            maxY = Math.max(maxY, envelope[3]);
+        }
+        overlayIndex = new SpatialGridIndex<>(SpatialGridIndex.suggestCellSize(minX, minY, maxX, maxY, overlays.size()));
+        indexedItemCount = getItems().size();
+        for (OverlayWithIW overlay : overlays) {
+            indexOverlay(overlay);
+        }
+    }
+
+    private void indexOverlay(OverlayWithIW overlay) {
+        double[] envelope = getOverlayEnvelope(overlay);
+        if (envelope != null) {
+            overlayIndex.insert(overlay, envelope[0], envelope[1], envelope[2], envelope[3]);
+        }
+    }
+
+    /**
+     * @return 覆盖物的经纬度外包矩形 {minX, minY, maxX, maxY}
+     */
+    private static double[] getOverlayEnvelope(OverlayWithIW overlay) {
+        List<GeoPoint> points;
+        if (overlay instanceof Marker) {
+            GeoPoint position = ((Marker) overlay).getPosition();
+            if (position == null) return null;
+            return new double[]{position.getLongitude(), position.getLatitude(), position.getLongitude(), position.getLatitude()};
+        } else if (overlay instanceof Polyline) {
+            points = ((Polyline) overlay).getPoints();
+        } else if (overlay instanceof org.osmdroid.views.overlay.Polygon) {
+            points = ((org.osmdroid.views.overlay.Polygon) overlay).getPoints();
+        } else {
+            return null;
+        }
+        if (points == null || points.isEmpty()) return null;
+        double[] envelope = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (GeoPoint point : points) {
+            envelope[0] = Math.min(envelope[0], point.getLongitude());
+            envelope[1] = Math.min(envelope[1], point.getLatitude());
+            envelope[2] = Math.max(envelope[2], point.getLongitude());
+            envelope[3] = Math.max(envelope[3], point.getLatitude());
+        }
+        return envelope;
+    }
+
     /**
      * 保存编辑的点
      *
@@ -257,27 +1168,155 @@ public class VectorLayer extends FolderOverlay {
             geometry = polygon1;
         }
         geomData.setGeometry(geometry);
-        FeatureRow row = featureDao.newRow();
-        row.setGeometry(geomData);
-        for (Map.Entry<String, Object> entry : attrs.entrySet()) {
-            row.setValue(entry.getKey(), entry.getValue());
+        Map<String, Object> values = new LinkedHashMap<>(attrs);
+        values.put(featureDao.getGeometryColumns().getColumnName(), geomData);
+        //先写入编辑日志并分配id，由后台线程合并后写入数据库
+        final long id = EditJournal.getInstance(context).insert(featureDao, values);
+        if (rasterProvider != null && geometry != null) {
+            rasterEdits.put(id, GeometryEnvelopeBuilder.buildEnvelope(geometry));
         }
-        return featureDao.insert(row);
+        if (viewportLoading && id > 0 && geometry != null) {
+            editedEnvelopes.put(id, toArray(GeometryEnvelopeBuilder.buildEnvelope(geometry)));
+            refresh();
+        }
+        return id;
     }
 
-    public long update(Geometry geometry, Map<String, Object> attrs) {
+    /**
+     * 按要素id更新，几何变化时同步更新覆盖物及索引。
+     * 编辑先写入编辑日志，由后台线程合并后写入数据库，覆盖物立即更新
+     *
+     * @param featureId
+     * @param geometry  为null时不修改几何
+     * @param attrs
+     * @return 修改的要素数，要素已被删除时为0。要素不存在时写入失败，撤销显示并提示
+     */
+    public long update(final long featureId, Geometry geometry, Map<String, Object> attrs) {
         FeatureDao featureDao = CustomGeoPackageManager.getInstance(context).getGeoPackage().getFeatureDao(this.getName());
-        FeatureRow row = featureDao.newRow();
+        Map<String, Object> values = new LinkedHashMap<>();
         if (geometry != null) {
             GeoPackageGeometryData geomData = new GeoPackageGeometryData(featureDao.getGeometryColumns().getSrsId());
             geomData.setGeometry(geometry);
-            row.setGeometry(geomData);
+            values.put(featureDao.getGeometryColumns().getColumnName(), geomData);
+        }
+        if (attrs != null) {
+            values.putAll(attrs);
+        }
+        if (values.isEmpty()) return 0;
+        //字段或值类型不合法时在此抛出异常，要素已被删除时返回0
+        if (EditJournal.getInstance(context).update(featureDao, featureId, values) == 0) return 0;
+        if (geometry != null && rasterProvider != null) {
+            //写入数据库后再重绘新旧位置上的瓦片
+            rasterEdits.put(featureId, GeometryEnvelopeBuilder.buildEnvelope(geometry));
+        }
+        if (geometry != null) {
+            OverlayWithIW old = liveOverlays.remove(featureId);
+            if (old != null) {
+                remove(old);
+                old.onDetach(mapView);
+                levelsOfDetail.remove(featureId);
+                OverlayWithIW overlay = createOverlay(featureId, geometry);
+                if (overlay != null) {
+                    add(overlay);
+                    liveOverlays.put(featureId, overlay);
+                    computeLevelOfDetail(featureId, overlay);
+                }
+            }
+            if (viewportLoading) {
+                editedEnvelopes.put(featureId, toArray(GeometryEnvelopeBuilder.buildEnvelope(geometry)));
+                if (loadedClusterZoom >= 0) {
+                    //点移动后所在聚合及其数量可能变化
+                    refresh();
+                }
+            }
+        }
+        updateLabel(featureId);
+        mapView.invalidate();
+        return 1;
+    }
+
+    /**
+     * 在加载线程中按顶点副本计算修改后覆盖物的多级细节，回到UI线程后按当前缩放级别抽稀
+     */
+    private void computeLevelOfDetail(final long featureId, final OverlayWithIW overlay) {
+        List<GeoPoint> points = getPoints(overlay);
+        if (points == null) return;
+        final List<GeoPoint> copy = new ArrayList<>(points);
+        final int generation = detailGeneration;
+        final double tolerance = getSimplifyTolerance();
+        loadExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final LevelOfDetail detail = LevelOfDetail.create(copy);
+                if (detail == null) return;
+                //修改后的要素没有预先生成的抽稀几何
+                final List<GeoPoint> selected = tolerance < 0 ? null : detail.select(tolerance);
+                mapView.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (liveOverlays.get(featureId) != overlay) return;
+                        levelsOfDetail.put(featureId, detail);
+                        if (selected != null && generation == detailGeneration && detail.apply(overlay, selected)) {
+                            reindex(overlay);
+                            mapView.invalidate();
+                        } else if (generation != detailGeneration) {
+                            applyLevelOfDetail();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 从图层移除覆盖物，只影响显示，不修改GeoPackage。
+     * 按视野加载时记录要素id，视野重新加载时不再显示该要素
+     *
+     * @param overlay
+     */
+    public void removeFeature(OverlayWithIW overlay) {
+        remove(overlay);
+        mapView.invalidate();
+        long featureId;
+        try {
+            featureId = Long.parseLong(overlay.getId());
+        } catch (NumberFormatException e) {
+            //不对应要素的覆盖物只从图层移除
+            return;
+        }
+        removedIds.add(featureId);
+        if (liveOverlays.remove(featureId) != null) {
+            overlay.onDetach(mapView);
+            levelsOfDetail.remove(featureId);
+            labelEngine.remove(featureId);
+        }
+        if (viewportLoading && loadedClusterZoom >= 0) {
+            //移除点后所在聚合的数量变化
+            refresh();
         }
-        if (attrs != null)
-            for (Map.Entry<String, Object> entry : attrs.entrySet()) {
-                row.setValue(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * 写入线程：编辑无法写入数据库时，丢弃编辑后的外包矩形，移除已显示的覆盖物后重新加载
+     */
+    private void revert(final long featureId, final boolean insert, final RuntimeException error) {
+        //索引中仍是数据库中的外包矩形
+        editedEnvelopes.remove(featureId);
+        mapView.post(new Runnable() {
+            @Override
+            public void run() {
+                OverlayWithIW overlay = liveOverlays.remove(featureId);
+                if (overlay != null) {
+                    remove(overlay);
+                    overlay.onDetach(mapView);
+                    levelsOfDetail.remove(featureId);
+                    labelEngine.remove(featureId);
+                }
+                refresh();
+                Toast.makeText(context, "要素" + featureId + (insert ? "新增" : "修改") + "失败：" + error.getMessage(),
+                        Toast.LENGTH_LONG).show();
             }
-        return featureDao.update(row);
+        });
     }
 
     private List<Point> toGeomPoints(List<GeoPoint> points) {
@@ -287,4 +1326,90 @@ public class VectorLayer extends FolderOverlay {
         }
         return result;
     }
+
+    /**
+     * 后台加载时使用的标注字段
+     */
+    private static final class LabelSource {
+        private final String column;
+        private final String priorityColumn;
+        //已有标注的要素id
+        private final Set<Long> labeled;
+
+        LabelSource(String column, String priorityColumn, Set<Long> labeled) {
+            this.column = column;
+            this.priorityColumn = priorityColumn;
+            this.labeled = labeled;
+        }
+    }
+
+    private static List<GeoPoint> getPoints(OverlayWithIW overlay) {
+        if (overlay instanceof Polyline) {
+            return ((Polyline) overlay).getPoints();
+        } else if (overlay instanceof org.osmdroid.views.overlay.Polygon) {
+            return ((org.osmdroid.views.overlay.Polygon) overlay).getPoints();
+        }
+        return null;
+    }
+
+    /**
+     * 线、面覆盖物的多级细节：保存完整顶点，按缩放级别换算容差后只保留Douglas-Peucker重要度大于容差的顶点。
+     * 重要度在加载线程中首次抽稀时计算，使用预先生成的抽稀几何时不计算。面只抽稀外环
+     */
+    private static final class LevelOfDetail {
+        private final List<GeoPoint> points;
+        //加载线程
+        private double[] importance;
+        //覆盖物当前的顶点，为null表示完整顶点。覆盖物加入图层后只在UI线程中访问
+        private List<GeoPoint> applied;
+
+        private LevelOfDetail(List<GeoPoint> points) {
+            this.points = points;
+        }
+
+        /**
+         * @param points 覆盖物顶点，调用后不能再修改
+         * @return 点覆盖物或顶点过少时返回null
+         */
+        static LevelOfDetail create(List<GeoPoint> points) {
+            if (points == null || points.size() < 4) return null;
+            return new LevelOfDetail(new ArrayList<>(points));
+        }
+
+        /**
+         * 加载线程：保留重要度大于容差的顶点
+         */
+        List<GeoPoint> select(double tolerance) {
+            if (importance == null) {
+                double[] x = new double[points.size()];
+                double[] y = new double[points.size()];
+                for (int i = 0; i < points.size(); i++) {
+                    x[i] = points.get(i).getLongitude();
+                    y[i] = points.get(i).getLatitude();
+                }
+                importance = GeometrySimplifier.getVertexImportance(x, y);
+            }
+            List<GeoPoint> simplified = new ArrayList<>();
+            for (int i = 0; i < points.size(); i++) {
+                if (importance[i] > tolerance) {
+                    simplified.add(points.get(i));
+                }
+            }
+            return simplified;
+        }
+
+        /**
+         * @return 覆盖物顶点是否发生变化
+         */
+        boolean apply(OverlayWithIW overlay, List<GeoPoint> selected) {
+            if (selected.equals(applied == null ? points : applied)) return false;
+            applied = selected;
+            if (overlay instanceof Polyline) {
+                ((Polyline) overlay).setPoints(selected);
+            } else if (overlay instanceof org.osmdroid.views.overlay.Polygon) {
+                ((org.osmdroid.views.overlay.Polygon) overlay).setPoints(selected);
+            }
+            return true;
+        }
+    }
 }
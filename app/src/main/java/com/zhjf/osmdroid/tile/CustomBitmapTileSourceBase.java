@@ -1,17 +1,18 @@
 package com.zhjf.osmdroid.tile;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Random;
 
-import org.osmdroid.tileprovider.ExpirableBitmapDrawable;
 import org.osmdroid.tileprovider.MapTile;
 import org.osmdroid.tileprovider.constants.OpenStreetMapTileProviderConstants;
 import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.tileprovider.util.StreamUtils;
 
 import android.annotation.SuppressLint;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.drawable.Drawable;
 import android.util.Log;
 
@@ -40,6 +41,7 @@ public abstract class CustomBitmapTileSourceBase extends OpenStreetMapTileProvid
         mMaximumZoomLevel = aZoomMaxLevel;
         mTileSizePixels = aTileSizePixels;
         mImageFilenameEnding = aImageFilenameEnding;
+        TileBitmapPool.getInstance().ensureTileCacheCapacity(aTileSizePixels);
     }
 
     @Override
@@ -85,11 +87,11 @@ public abstract class CustomBitmapTileSourceBase extends OpenStreetMapTileProvid
     @Override
     public Drawable getDrawable(final String aFilePath) {
         try {
-            // default implementation will load the file as a bitmap and create
-            // a BitmapDrawable from it
-            final Bitmap bitmap = BitmapFactory.decodeFile(aFilePath);
+            // default implementation will load the file as a bitmap, reusing a
+            // pooled bitmap where possible, and create a BitmapDrawable from it
+            final Bitmap bitmap = TileBitmapPool.getInstance().decodeFile(aFilePath, mTileSizePixels, mTileSizePixels);
             if (bitmap != null) {
-                return new ExpirableBitmapDrawable(bitmap);
+                return new PooledBitmapDrawable(bitmap);
             } else {
                 // if we couldn't load it then it's invalid - delete it
                 try {
@@ -100,6 +102,7 @@ public abstract class CustomBitmapTileSourceBase extends OpenStreetMapTileProvid
             }
         } catch (final OutOfMemoryError e) {
             Log.e(TAG, "OutOfMemoryError loading bitmap: " + aFilePath);
+            TileBitmapPool.getInstance().clear();
             System.gc();
         }
         return null;
@@ -126,15 +129,19 @@ public abstract class CustomBitmapTileSourceBase extends OpenStreetMapTileProvid
     @Override
     public Drawable getDrawable(final InputStream aFileInputStream) {
         try {
-            // default implementation will load the file as a bitmap and create
-            // a BitmapDrawable from it
-            final Bitmap bitmap = BitmapFactory.decodeStream(aFileInputStream);
+            // read the whole tile first so that decoding can be retried without
+            // a pooled bitmap if the pooled one doesn't fit
+            final ByteArrayOutputStream data = new ByteArrayOutputStream();
+            StreamUtils.copy(aFileInputStream, data);
+            final Bitmap bitmap = TileBitmapPool.getInstance().decodeByteArray(data.toByteArray(), mTileSizePixels, mTileSizePixels);
             if (bitmap != null) {
-                return new ExpirableBitmapDrawable(bitmap);
+                return new PooledBitmapDrawable(bitmap);
             }
-            System.gc();
+        } catch (final IOException e) {
+            Log.e(TAG, "Error reading bitmap", e);
         } catch (final OutOfMemoryError e) {
             Log.e(TAG, "OutOfMemoryError loading bitmap");
+            TileBitmapPool.getInstance().clear();
             System.gc();
             //throw new LowMemoryException(e);
         }
@@ -1,14 +1,8 @@
 package com.zhjf.osmdroid.tile;
 
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 
-import org.osmdroid.tileprovider.util.StreamUtils;
-
-import java.io.InputStream;
-
 /**
  * Created by Administrator on 2017/11/23.
  */
@@ -23,10 +17,13 @@ public class CustomTileSource extends CustomBitmapTileSourceBase {
     @Override
     public Drawable getDrawable(final String aFilePath) {
         try {
-            Bitmap bitmap = BitmapFactory.decodeFile(aFilePath);
+            Bitmap bitmap = TileBitmapPool.getInstance().decodeFile(aFilePath, getTileSizePixels(), getTileSizePixels());
             if (bitmap != null) {
-                return new BitmapDrawable(bitmap);
+                return new PooledBitmapDrawable(bitmap);
             }
+        } catch (final OutOfMemoryError e) {
+            //内存不足时清空位图池
+            TileBitmapPool.getInstance().clear();
         } catch (final Throwable e) {
             // Tile does not exist in assets folder.
             // Ignore silently
@@ -3,23 +3,43 @@ package com.zhjf.osmdroid.tile;
 import android.graphics.drawable.Drawable;
 
 import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.MapTileRequestState;
 import org.osmdroid.tileprovider.modules.MapTileModuleProviderBase;
 import org.osmdroid.tileprovider.tilesource.BitmapTileSourceBase;
 import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.util.RectL;
+import org.osmdroid.util.TileSystem;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import static org.osmdroid.views.util.constants.MapViewConstants.MAXIMUM_ZOOMLEVEL;
 import static org.osmdroid.views.util.constants.MapViewConstants.MINIMUM_ZOOMLEVEL;
 
 /**
+ * 本地瓦片文件提供者。
+ * 解码线程数与CPU核数相同；设置了可视范围后，等待队列按与可视范围中心的距离和当前缩放级别排序，
+ * 已移出可视范围较远或缩放级别相差过大的请求直接取消，避免快速滑动时积压过期的解码任务。
+ * <p>
  * Created by Administrator on 2017/11/23.
  */
 
-public class MapTileFileProvider extends MapTileModuleProviderBase {
+public class MapTileFileProvider extends MapTileModuleProviderBase implements TileViewportListener {
+    //等待队列长度
+    private static final int PENDING_QUEUE_SIZE = 40;
+    //缩放级别每相差一级，相当于距离中心多出的可视范围半径数
+    private static final double ZOOM_LEVEL_PENALTY = 2;
+    //距离中心超过该可视范围半径数的请求视为已过期
+    private static final double CANCEL_DISTANCE = 3;
 
     protected ITileSource mTileSource;
+    //UI线程写入，解码线程读取
+    private volatile Viewport mViewport;
 
     public MapTileFileProvider(final ITileSource pTileSource) {
-        super(2, 2);
+        super(Math.max(1, Runtime.getRuntime().availableProcessors()), PENDING_QUEUE_SIZE);
         mTileSource = pTileSource;
     }
 
@@ -58,24 +78,138 @@ public class MapTileFileProvider extends MapTileModuleProviderBase {
         mTileSource = pTileSource;
     }
 
+    @Override
+    public void onViewportChanged(double zoomLevel, RectL viewPort) {
+        mViewport = viewPort == null ? null : new Viewport(zoomLevel, viewPort);
+    }
+
+    /**
+     * 清除可视范围，恢复为按请求先后加载
+     */
+    public void clearViewport() {
+        mViewport = null;
+    }
+
+    /**
+     * 在解码线程中加载一个瓦片，子类可改为从其他来源生成瓦片
+     */
+    protected Drawable loadDrawable(MapTile mapTile) throws CantContinueException {
+        if (mTileSource == null) {
+            return null;
+        }
+        String path = mTileSource.getTileRelativeFilenameString(mapTile);
+
+        Drawable drawable;
+        try {
+            drawable = mTileSource.getDrawable(path);
+        } catch (final BitmapTileSourceBase.LowMemoryException e) {
+            // low memory so empty the queue
+            throw new CantContinueException(e);
+        }
+
+        return drawable;
+    }
+
+    /**
+     * 可视范围快照，坐标统一换算到[0,1]的墨卡托空间，便于比较不同缩放级别的瓦片
+     */
+    private static class Viewport {
+        private final int tileZoomLevel;
+        private final double centerX;
+        private final double centerY;
+        private final double halfWidth;
+        private final double halfHeight;
+
+        Viewport(double zoomLevel, RectL viewPort) {
+            double mapSize = TileSystem.MapSize(zoomLevel);
+            tileZoomLevel = TileSystem.getInputTileZoomLevel(zoomLevel);
+            centerX = (viewPort.left + viewPort.right) / 2.0 / mapSize;
+            centerY = (viewPort.top + viewPort.bottom) / 2.0 / mapSize;
+            halfWidth = Math.max(1, viewPort.right - viewPort.left) / 2.0 / mapSize;
+            halfHeight = Math.max(1, viewPort.bottom - viewPort.top) / 2.0 / mapSize;
+        }
+
+        /**
+         * @return 瓦片中心到可视范围中心的距离，以可视范围半径为单位
+         */
+        double distance(MapTile tile) {
+            double scale = 1L << tile.getZoomLevel();
+            double dx = ((tile.getX() + 0.5) / scale - centerX) / halfWidth;
+            double dy = ((tile.getY() + 0.5) / scale - centerY) / halfHeight;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+
+        /**
+         * @return 优先级，越小越先加载
+         */
+        double priority(MapTile tile) {
+            return Math.abs(tile.getZoomLevel() - tileZoomLevel) * ZOOM_LEVEL_PENALTY + distance(tile);
+        }
+
+        boolean isSuperseded(MapTile tile) {
+            return Math.abs(tile.getZoomLevel() - tileZoomLevel) > 1 || distance(tile) > CANCEL_DISTANCE;
+        }
+    }
+
     private class TileLoader extends MapTileModuleProviderBase.TileLoader {
 
+        /**
+         * 取优先级最高的请求，顺带移除已过期的请求
+         */
         @Override
-        public Drawable loadTile(MapTile mapTile) throws CantContinueException {
-            if (mTileSource == null) {
-                return null;
+        protected MapTileRequestState nextTile() {
+            final Viewport viewport = mViewport;
+            if (viewport == null) {
+                return super.nextTile();
             }
-            String path = mTileSource.getTileRelativeFilenameString(mapTile);
-
-            Drawable drawable;
-            try {
-                drawable = mTileSource.getDrawable(path);
-            } catch (final BitmapTileSourceBase.LowMemoryException e) {
-                // low memory so empty the queue
-                throw new CantContinueException(e);
+
+            MapTileRequestState result = null;
+            List<MapTileRequestState> cancelled = null;
+            synchronized (mQueueLockObject) {
+                double best = Double.MAX_VALUE;
+                Iterator<Map.Entry<MapTile, MapTileRequestState>> iterator = mPending.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<MapTile, MapTileRequestState> entry = iterator.next();
+                    MapTile tile = entry.getKey();
+                    if (mWorking.containsKey(tile)) {
+                        continue;
+                    }
+                    if (viewport.isSuperseded(tile)) {
+                        iterator.remove();
+                        if (cancelled == null) {
+                            cancelled = new ArrayList<>();
+                        }
+                        cancelled.add(entry.getValue());
+                        continue;
+                    }
+                    double priority = viewport.priority(tile);
+                    if (priority < best) {
+                        best = priority;
+                        result = entry.getValue();
+                    }
+                }
+                if (result != null) {
+                    mWorking.put(result.getMapTile(), result);
+                }
             }
 
-            return drawable;
+            //回调放在锁外执行，避免持有队列锁时进入外部代码
+            if (cancelled != null) {
+                for (MapTileRequestState state : cancelled) {
+                    state.getCallback().mapTileRequestFailed(state);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Drawable loadTile(MapTile mapTile) throws CantContinueException {
+            //排队期间可视范围已变化，不再解码
+            final Viewport viewport = mViewport;
+            if (viewport != null && viewport.isSuperseded(mapTile)) {
+                return null;
+            }
+            return loadDrawable(mapTile);
         }
     }
 }
@@ -0,0 +1,29 @@
+package com.zhjf.osmdroid.tile;
+
+import android.graphics.Bitmap;
+
+import org.osmdroid.tileprovider.ReusableBitmapDrawable;
+
+/**
+ * 瓦片从osmdroid内存缓存中淘汰时，将位图归还到TileBitmapPool而不是osmdroid自带的位图池。
+ * 继承ReusableBitmapDrawable以沿用TilesOverlay绘制时的引用计数，正在绘制的位图不会被回收。
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class PooledBitmapDrawable extends ReusableBitmapDrawable {
+
+    public PooledBitmapDrawable(Bitmap pBitmap) {
+        super(pBitmap);
+    }
+
+    @Override
+    public Bitmap tryRecycle() {
+        Bitmap bitmap = super.tryRecycle();
+        if (bitmap != null) {
+            TileBitmapPool.getInstance().release(bitmap);
+        }
+        //已交给TileBitmapPool，不再放入osmdroid的位图池
+        return null;
+    }
+}
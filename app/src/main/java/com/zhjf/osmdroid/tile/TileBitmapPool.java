@@ -0,0 +1,195 @@
+package com.zhjf.osmdroid.tile;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import org.osmdroid.config.Configuration;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * 按尺寸分桶的瓦片位图池。
+ * 解码时通过BitmapFactory.Options.inBitmap复用池中同尺寸的位图，减少平移时大对象分配引起的GC停顿。
+ * 桶按宽、高、像素格式区分，满足API 19以下inBitmap要求尺寸完全一致的限制。
+ * 池内位图总字节数不超过上限，上限默认等于osmdroid内存瓦片缓存可容纳的位图大小，超出时丢弃最早放入的位图。
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class TileBitmapPool {
+    private static final int BYTES_PER_PIXEL = 4;
+    private static TileBitmapPool instance;
+
+    private final Map<String, ArrayDeque<Bitmap>> buckets = new HashMap<>();
+    //全部位图按放入顺序排列，用于超出上限时淘汰
+    private final LinkedHashSet<Bitmap> order = new LinkedHashSet<>();
+    private long maxSize;
+    private long size;
+
+    public static synchronized TileBitmapPool getInstance() {
+        if (instance == null) {
+            instance = new TileBitmapPool(tileCacheBytes(256));
+        }
+        return instance;
+    }
+
+    /**
+     * @param maxSize 池内位图总字节数上限
+     */
+    public TileBitmapPool(long maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+    }
+
+    /**
+     * osmdroid内存瓦片缓存全部为指定尺寸的ARGB_8888位图时占用的字节数
+     */
+    public static long tileCacheBytes(int tileSizePixels) {
+        return (long) Configuration.getInstance().getCacheMapTileCount() * tileSizePixels * tileSizePixels * BYTES_PER_PIXEL;
+    }
+
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 设置池内位图总字节数上限，超出部分立即丢弃
+     */
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        trimToSize(this.maxSize);
+    }
+
+    /**
+     * 保证上限不小于内存瓦片缓存的大小，供不同瓦片尺寸的数据源共用一个池
+     */
+    public synchronized void ensureTileCacheCapacity(int tileSizePixels) {
+        long bytes = tileCacheBytes(tileSizePixels);
+        if (bytes > maxSize) {
+            maxSize = bytes;
+        }
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * 取出一个指定尺寸的位图，没有时返回null。取出的位图内容未清空
+     */
+    public synchronized Bitmap obtain(int width, int height, Bitmap.Config config) {
+        ArrayDeque<Bitmap> bucket = buckets.get(key(width, height, config));
+        if (bucket == null) {
+            return null;
+        }
+        while (!bucket.isEmpty()) {
+            Bitmap bitmap = bucket.pollLast();
+            order.remove(bitmap);
+            size -= bitmap.getByteCount();
+            if (!bitmap.isRecycled()) {
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 归还位图，不可变或已回收的位图直接忽略
+     */
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || bitmap.getConfig() == null) {
+            return;
+        }
+        long bytes = bitmap.getByteCount();
+        if (bytes > maxSize || order.contains(bitmap)) {
+            return;
+        }
+        trimToSize(maxSize - bytes);
+        String key = key(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+        ArrayDeque<Bitmap> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets.put(key, bucket);
+        }
+        bucket.addLast(bitmap);
+        order.add(bitmap);
+        size += bytes;
+    }
+
+    /**
+     * 清空位图池，内存不足时调用
+     */
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * 解码瓦片文件，优先复用池中同尺寸的位图
+     *
+     * @param width  预期宽度，一般为瓦片尺寸
+     * @param height 预期高度
+     * @return 解码结果，文件无法解码时返回null
+     */
+    public Bitmap decodeFile(String path, int width, int height) {
+        Bitmap reuse = obtain(width, height, Bitmap.Config.ARGB_8888);
+        BitmapFactory.Options options = options(reuse);
+        try {
+            Bitmap bitmap = BitmapFactory.decodeFile(path, options);
+            if (bitmap == null) {
+                release(reuse);
+            }
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            //实际尺寸或格式与复用位图不一致，放回后按普通方式解码
+            release(reuse);
+            return BitmapFactory.decodeFile(path, options(null));
+        }
+    }
+
+    /**
+     * 解码内存中的瓦片数据，优先复用池中同尺寸的位图
+     */
+    public Bitmap decodeByteArray(byte[] data, int width, int height) {
+        Bitmap reuse = obtain(width, height, Bitmap.Config.ARGB_8888);
+        BitmapFactory.Options options = options(reuse);
+        try {
+            Bitmap bitmap = BitmapFactory.decodeByteArray(data, 0, data.length, options);
+            if (bitmap == null) {
+                release(reuse);
+            }
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            release(reuse);
+            return BitmapFactory.decodeByteArray(data, 0, data.length, options(null));
+        }
+    }
+
+    private static BitmapFactory.Options options(Bitmap reuse) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        //解码结果可变才能在淘汰后再次作为inBitmap
+        options.inMutable = true;
+        options.inSampleSize = 1;
+        options.inBitmap = reuse;
+        return options;
+    }
+
+    private void trimToSize(long targetSize) {
+        Iterator<Bitmap> iterator = order.iterator();
+        while (size > targetSize && iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            iterator.remove();
+            ArrayDeque<Bitmap> bucket = buckets.get(key(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig()));
+            if (bucket != null) {
+                bucket.remove(bitmap);
+            }
+            size -= bitmap.getByteCount();
+        }
+    }
+
+    private static String key(int width, int height, Bitmap.Config config) {
+        return width + "x" + height + "_" + config;
+    }
+}
@@ -0,0 +1,17 @@
+package com.zhjf.osmdroid.tile;
+
+import org.osmdroid.util.RectL;
+
+/**
+ * 瓦片图层可视范围变化的监听接口，由TileLayer在绘制时通知
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public interface TileViewportListener {
+    /**
+     * @param zoomLevel 当前缩放级别（可为小数）
+     * @param viewPort  可视范围，单位为该缩放级别下的墨卡托像素。调用方会复用该对象，需要时自行拷贝
+     */
+    void onViewportChanged(double zoomLevel, RectL viewPort);
+}
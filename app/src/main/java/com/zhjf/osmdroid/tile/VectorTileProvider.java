@@ -0,0 +1,284 @@
+package com.zhjf.osmdroid.tile;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+
+import org.osmdroid.tileprovider.ExpirableBitmapDrawable;
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.tileprovider.tilesource.ITileSource;
+import org.osmdroid.util.TileSystem;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import mil.nga.wkb.geom.GeometryEnvelope;
+
+/**
+ * 矢量图层栅格瓦片提供者。
+ * 在解码线程中用VectorTileRenderer绘制瓦片，结果写入磁盘缓存，内存缓存由osmdroid的瓦片缓存负责。
+ * 要素修改后按修改范围记录脏区，只有与脏区相交的瓦片会重新绘制：
+ * 内存中的瓦片标记为过期，磁盘上早于脏区的瓦片文件不再使用。
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class VectorTileProvider extends MapTileFileProvider {
+    private static final String TAG = "VectorTileProvider";
+    //脏区数量上限，超过时清空磁盘缓存
+    private static final int MAX_DIRTY_REGIONS = 256;
+    //记录的已提供瓦片数超过该值时清理已被回收的引用
+    private static final int PRUNE_THRESHOLD = 512;
+
+    private final VectorTileRenderer renderer;
+    private final File cacheDirectory;
+    //没有要素的瓦片共用一个透明位图，不放入位图池
+    private final Bitmap emptyBitmap;
+    private final List<DirtyRegion> dirtyRegions = new ArrayList<>();
+    //已提供给内存缓存的瓦片，要素修改时据此标记过期
+    private final Map<MapTile, WeakReference<Drawable>> served = new HashMap<>();
+
+    /**
+     * @param cacheDirectory 磁盘缓存目录，为null时不使用磁盘缓存
+     */
+    public VectorTileProvider(ITileSource tileSource, VectorTileRenderer renderer, File cacheDirectory) {
+        super(tileSource);
+        if (renderer == null) {
+            throw new IllegalArgumentException("renderer may not be null");
+        }
+        this.renderer = renderer;
+        this.cacheDirectory = cacheDirectory;
+        this.emptyBitmap = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
+        this.emptyBitmap.eraseColor(Color.TRANSPARENT);
+    }
+
+    @Override
+    protected String getName() {
+        return "Vector Tile Provider";
+    }
+
+    @Override
+    protected String getThreadGroupName() {
+        return "vectortile";
+    }
+
+    public VectorTileRenderer getRenderer() {
+        return renderer;
+    }
+
+    @Override
+    public void detach() {
+        super.detach();
+        renderer.close();
+    }
+
+    @Override
+    protected Drawable loadDrawable(MapTile mapTile) throws CantContinueException {
+        File file = getTileFile(mapTile);
+        if (file != null && file.exists()) {
+            if (!isDirty(mapTile, file.lastModified())) {
+                Bitmap bitmap = TileBitmapPool.getInstance().decodeFile(file.getAbsolutePath(),
+                        VectorTileRenderer.TILE_SIZE, VectorTileRenderer.TILE_SIZE);
+                if (bitmap != null) {
+                    return remember(mapTile, new PooledBitmapDrawable(bitmap));
+                }
+            }
+            file.delete();
+        }
+
+        long renderTime = System.currentTimeMillis();
+        Drawable drawable;
+        try {
+            Bitmap bitmap = renderer.render(mapTile);
+            if (bitmap == null) {
+                drawable = new ExpirableBitmapDrawable(emptyBitmap);
+            } else {
+                if (file != null) {
+                    write(bitmap, file, renderTime);
+                }
+                drawable = new PooledBitmapDrawable(bitmap);
+            }
+        } catch (final OutOfMemoryError e) {
+            Log.e(TAG, "OutOfMemoryError rendering tile: " + mapTile);
+            TileBitmapPool.getInstance().clear();
+            return null;
+        }
+        //绘制期间要素被修改，先显示本次结果，随后重新绘制
+        if (isDirty(mapTile, renderTime)) {
+            ExpirableBitmapDrawable.setDrawableExpired(drawable);
+        }
+        return remember(mapTile, drawable);
+    }
+
+    /**
+     * 要素新增、修改或删除后调用，更新索引并使新旧位置上的瓦片失效
+     *
+     * @param envelope 新的外包矩形，为null表示要素已删除
+     */
+    public void featureChanged(long featureId, GeometryEnvelope envelope) {
+        double[] old = renderer.updateFeature(featureId);
+        if (old != null) {
+            invalidate(old[0], old[1], old[2], old[3]);
+        }
+        if (envelope != null) {
+            invalidate(envelope.getMinX(), envelope.getMinY(), envelope.getMaxX(), envelope.getMaxY());
+        }
+    }
+
+    /**
+     * 使经纬度范围内的瓦片失效，下次显示时重新绘制
+     */
+    public void invalidate(double minX, double minY, double maxX, double maxY) {
+        DirtyRegion region = new DirtyRegion(minX, minY, maxX, maxY, System.currentTimeMillis(), renderer.getMargin());
+        boolean clearDisk = false;
+        synchronized (dirtyRegions) {
+            dirtyRegions.add(region);
+            if (dirtyRegions.size() > MAX_DIRTY_REGIONS) {
+                dirtyRegions.clear();
+                clearDisk = true;
+            }
+        }
+        if (clearDisk) {
+            //脏区过多时判断代价变大，直接清空磁盘缓存
+            deleteRecursively(cacheDirectory);
+        }
+        synchronized (served) {
+            Iterator<Map.Entry<MapTile, WeakReference<Drawable>>> iterator = served.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<MapTile, WeakReference<Drawable>> entry = iterator.next();
+                Drawable drawable = entry.getValue().get();
+                if (drawable == null) {
+                    iterator.remove();
+                } else if (region.intersects(entry.getKey())) {
+                    ExpirableBitmapDrawable.setDrawableExpired(drawable);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 使全部瓦片失效，样式修改后调用
+     */
+    public void invalidateAll() {
+        synchronized (dirtyRegions) {
+            dirtyRegions.clear();
+        }
+        deleteRecursively(cacheDirectory);
+        invalidate(-180, -90, 180, 90);
+    }
+
+    private Drawable remember(MapTile mapTile, Drawable drawable) {
+        synchronized (served) {
+            if (served.size() > PRUNE_THRESHOLD) {
+                Iterator<WeakReference<Drawable>> iterator = served.values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().get() == null) {
+                        iterator.remove();
+                    }
+                }
+            }
+            served.put(mapTile, new WeakReference<>(drawable));
+        }
+        return drawable;
+    }
+
+    /**
+     * @return 瓦片在time之后是否被修改过
+     */
+    private boolean isDirty(MapTile mapTile, long time) {
+        synchronized (dirtyRegions) {
+            for (DirtyRegion region : dirtyRegions) {
+                if (region.time >= time && region.intersects(mapTile)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private File getTileFile(MapTile mapTile) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        return new File(cacheDirectory, mapTile.getZoomLevel() + "/" + mapTile.getX() + "/" + mapTile.getY() + ".png");
+    }
+
+    /**
+     * 写入磁盘缓存，文件时间设为开始绘制的时间，绘制期间的修改会使其失效
+     */
+    private static void write(Bitmap bitmap, File file, long renderTime) {
+        File parent = file.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            return;
+        }
+        FileOutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(file);
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, outputStream);
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing tile cache: " + file, e);
+        } finally {
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        file.setLastModified(renderTime);
+    }
+
+    private static void deleteRecursively(File file) {
+        if (file == null || !file.exists()) {
+            return;
+        }
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * 修改范围，坐标换算到[0,1]墨卡托空间以便与瓦片比较
+     */
+    private static final class DirtyRegion {
+        private final double minX;
+        private final double minY;
+        private final double maxX;
+        private final double maxY;
+        private final long time;
+        //线宽等超出外包矩形的像素数
+        private final float margin;
+
+        DirtyRegion(double west, double south, double east, double north, long time, float margin) {
+            this.minX = TileSystem.getX01FromLongitude(west, true);
+            this.maxX = TileSystem.getX01FromLongitude(east, true);
+            this.minY = TileSystem.getY01FromLatitude(north, true);
+            this.maxY = TileSystem.getY01FromLatitude(south, true);
+            this.time = time;
+            this.margin = margin;
+        }
+
+        boolean intersects(MapTile tile) {
+            double scale = 1L << tile.getZoomLevel();
+            double expand = margin / VectorTileRenderer.TILE_SIZE;
+            double tileMinX = (tile.getX() - expand) / scale;
+            double tileMaxX = (tile.getX() + 1 + expand) / scale;
+            double tileMinY = (tile.getY() - expand) / scale;
+            double tileMaxY = (tile.getY() + 1 + expand) / scale;
+            return minX <= tileMaxX && maxX >= tileMinX && minY <= tileMaxY && maxY >= tileMinY;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.zhjf.osmdroid.tile;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import com.zhjf.osmdroid.entity.style.Style;
+import com.zhjf.osmdroid.geopackage.FeatureEnvelopeIndex;
+
+import org.osmdroid.tileprovider.MapTile;
+import org.osmdroid.util.TileSystem;
+
+import java.util.List;
+import java.util.Map;
+
+import mil.nga.geopackage.features.user.FeatureDao;
+import mil.nga.geopackage.features.user.FeatureRow;
+import mil.nga.geopackage.geom.GeoPackageGeometryData;
+import mil.nga.wkb.geom.Geometry;
+import mil.nga.wkb.geom.GeometryCollection;
+import mil.nga.wkb.geom.GeometryType;
+import mil.nga.wkb.geom.LineString;
+import mil.nga.wkb.geom.Point;
+import mil.nga.wkb.geom.Polygon;
+
+/**
+ * 把要素表绘制成256像素瓦片，供VectorTileProvider在后台线程中调用。
+ * 按FeatureEnvelopeIndex查询与瓦片相交的要素，索引在打开GeoPackage时已建立，绘制时不扫描要素表。
+ * 在瓦片上不足一个像素的要素直接按外包矩形中心画一个点，不读取要素几何。
+ * 坐标按WGS84经纬度处理。可在多个线程中同时调用
+ * <p>
+ * Created by Administrator on 2026/10/19.
+ */
+
+public class VectorTileRenderer {
+    public static final int TILE_SIZE = 256;
+    //未设置样式时的默认值，与VectorLayer的覆盖物样式一致
+    private static final int DEFAULT_POINT_COLOR = 0xFF1E88E5;
+    private static final float DEFAULT_POINT_SIZE = 8;
+    private static final int DEFAULT_LINE_COLOR = Color.YELLOW;
+    private static final float DEFAULT_LINE_WIDTH = 4;
+    private static final int DEFAULT_FILL_COLOR = 0x8032B5EB;
+    private static final int DEFAULT_OUTLINE_COLOR = Color.BLACK;
+    private static final float DEFAULT_OUTLINE_WIDTH = 2;
+
+    private final Context context;
+    private final FeatureDao featureDao;
+    private final GeometryType geometryType;
+    private volatile Style style;
+    //要素外包矩形索引，首次使用时创建，创建和关闭时由this同步，查询不需要同步
+    private volatile FeatureEnvelopeIndex index;
+    private boolean closed = false;
+
+    /**
+     * @param geometryType 图层几何类型，决定不足一个像素的要素使用的颜色，可为null
+     * @param style        样式，为null时使用默认样式
+     */
+    public VectorTileRenderer(Context context, FeatureDao featureDao, GeometryType geometryType, Style style) {
+        if (featureDao == null) {
+            throw new IllegalArgumentException("featureDao may not be null");
+        }
+        this.context = context;
+        this.featureDao = featureDao;
+        this.geometryType = geometryType;
+        this.style = style;
+    }
+
+    public Style getStyle() {
+        return style;
+    }
+
+    /**
+     * 修改样式后需要让已生成的瓦片失效
+     */
+    public void setStyle(Style style) {
+        this.style = style;
+    }
+
+    /**
+     * @return 要素超出自身外包矩形的最大像素数，即线宽或点半径的一半，判断瓦片是否受影响时需外扩
+     */
+    public float getMargin() {
+        return new Paints(style, geometryType).margin();
+    }
+
+    /**
+     * 绘制一个瓦片
+     *
+     * @return 瓦片位图，瓦片范围内没有要素时返回null
+     */
+    public Bitmap render(MapTile tile) {
+        double scale = 1L << tile.getZoomLevel();
+        Paints paints = new Paints(style, geometryType);
+        float margin = paints.margin();
+
+        //瓦片范围外扩margin像素后换算为经纬度
+        double expand = margin / TILE_SIZE;
+        double west = TileSystem.getLongitudeFromX01(clamp01((tile.getX() - expand) / scale), true);
+        double east = TileSystem.getLongitudeFromX01(clamp01((tile.getX() + 1 + expand) / scale), true);
+        double north = TileSystem.getLatitudeFromY01(clamp01((tile.getY() - expand) / scale), true);
+        double south = TileSystem.getLatitudeFromY01(clamp01((tile.getY() + 1 + expand) / scale), true);
+
+        FeatureEnvelopeIndex featureIndex = getIndex();
+        if (featureIndex == null) {
+            return null;
+        }
+        Map<Long, double[]> envelopes = featureIndex.query(west, south, east, north);
+        if (envelopes.isEmpty()) {
+            return null;
+        }
+
+        Bitmap bitmap = TileBitmapPool.getInstance().obtain(TILE_SIZE, TILE_SIZE, Bitmap.Config.ARGB_8888);
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(TILE_SIZE, TILE_SIZE, Bitmap.Config.ARGB_8888);
+        } else {
+            bitmap.eraseColor(Color.TRANSPARENT);
+        }
+        Canvas canvas = new Canvas(bitmap);
+        Projector projector = new Projector(tile, scale);
+        for (Map.Entry<Long, double[]> entry : envelopes.entrySet()) {
+            double[] envelope = entry.getValue();
+            float minX = projector.x(envelope[0]), maxX = projector.x(envelope[2]);
+            float minY = projector.y(envelope[3]), maxY = projector.y(envelope[1]);
+            if (maxX - minX < 1 && maxY - minY < 1) {
+                //不足一个像素，点直接按位置绘制，线、面画一个像素
+                float x = (minX + maxX) / 2, y = (minY + maxY) / 2;
+                if (envelope[0] == envelope[2] && envelope[1] == envelope[3]) {
+                    canvas.drawCircle(x, y, paints.pointRadius, paints.point);
+                } else {
+                    canvas.drawPoint(x, y, paints.pixel);
+                }
+                continue;
+            }
+            FeatureRow row = featureDao.queryForIdRow(entry.getKey());
+            GeoPackageGeometryData geometryData = row == null ? null : row.getGeometry();
+            if (geometryData != null && geometryData.getGeometry() != null) {
+                draw(canvas, geometryData.getGeometry(), projector, paints);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * 要素的新增、修改或删除写入数据库后，按数据库中的要素更新索引
+     *
+     * @return 原外包矩形 {minX, minY, maxX, maxY}，原来不存在时返回null
+     */
+    public double[] updateFeature(long id) {
+        FeatureEnvelopeIndex featureIndex = getIndex();
+        if (featureIndex == null) {
+            return null;
+        }
+        double[] old = featureIndex.getEnvelope(id);
+        featureIndex.update(id, featureDao.queryForIdRow(id));
+        return old;
+    }
+
+    /**
+     * 关闭索引，之后不再绘制
+     */
+    public synchronized void close() {
+        closed = true;
+        if (index != null) {
+            index.close();
+            index = null;
+        }
+    }
+
+    /**
+     * @return 外包矩形索引，已关闭时返回null
+     */
+    private FeatureEnvelopeIndex getIndex() {
+        FeatureEnvelopeIndex featureIndex = index;
+        if (featureIndex == null) {
+            synchronized (this) {
+                if (closed) {
+                    return null;
+                }
+                if (index == null) {
+                    //要素表在打开后被外部修改时才会在这里重建索引
+                    FeatureEnvelopeIndex created = new FeatureEnvelopeIndex(context, featureDao);
+                    created.index();
+                    index = created;
+                }
+                featureIndex = index;
+            }
+        }
+        return featureIndex;
+    }
+
+    private static void draw(Canvas canvas, Geometry geometry, Projector projector, Paints paints) {
+        if (geometry instanceof Point) {
+            Point point = (Point) geometry;
+            canvas.drawCircle(projector.x(point.getX()), projector.y(point.getY()), paints.pointRadius, paints.point);
+        } else if (geometry instanceof LineString) {
+            Path path = new Path();
+            addRing(path, ((LineString) geometry).getPoints(), projector, false);
+            canvas.drawPath(path, paints.line);
+        } else if (geometry instanceof Polygon) {
+            Path path = new Path();
+            //外环与内环使用奇偶规则，内环形成空洞
+            path.setFillType(Path.FillType.EVEN_ODD);
+            for (LineString ring : ((Polygon) geometry).getRings()) {
+                addRing(path, ring.getPoints(), projector, true);
+            }
+            canvas.drawPath(path, paints.fill);
+            canvas.drawPath(path, paints.outline);
+        } else if (geometry instanceof GeometryCollection) {
+            for (Object child : ((GeometryCollection<?>) geometry).getGeometries()) {
+                draw(canvas, (Geometry) child, projector, paints);
+            }
+        }
+    }
+
+    private static void addRing(Path path, List<Point> points, Projector projector, boolean close) {
+        for (int i = 0; i < points.size(); i++) {
+            Point point = points.get(i);
+            if (i == 0) {
+                path.moveTo(projector.x(point.getX()), projector.y(point.getY()));
+            } else {
+                path.lineTo(projector.x(point.getX()), projector.y(point.getY()));
+            }
+        }
+        if (close && !points.isEmpty()) {
+            path.close();
+        }
+    }
+
+    private static double clamp01(double value) {
+        return Math.max(0, Math.min(1, value));
+    }
+
+    /**
+     * 经纬度到瓦片内像素坐标的换算
+     */
+    private static final class Projector {
+        private final double scale;
+        private final int tileX;
+        private final int tileY;
+
+        Projector(MapTile tile, double scale) {
+            this.scale = scale;
+            this.tileX = tile.getX();
+            this.tileY = tile.getY();
+        }
+
+        float x(double longitude) {
+            return (float) ((TileSystem.getX01FromLongitude(longitude, true) * scale - tileX) * TILE_SIZE);
+        }
+
+        float y(double latitude) {
+            return (float) ((TileSystem.getY01FromLatitude(latitude, true) * scale - tileY) * TILE_SIZE);
+        }
+    }
+
+    /**
+     * 按样式生成的画笔，每次绘制新建，避免多线程共用Paint
+     */
+    private static final class Paints {
+        private final Paint point = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final Paint pixel = new Paint();
+        private final Paint line = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final Paint fill = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final Paint outline = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final float pointRadius;
+
+        Paints(Style style, GeometryType geometryType) {
+            int pointColor = style != null && style.getColor() != 0 ? style.getColor() : DEFAULT_POINT_COLOR;
+            float pointSize = style != null && style.getSize() > 0 ? style.getSize() : DEFAULT_POINT_SIZE;
+            //线样式的宽度可能保存在width或size中
+            float lineWidth = style != null && style.getWidth() > 0 ? style.getWidth()
+                    : style != null && style.getSize() > 0 ? style.getSize() : DEFAULT_LINE_WIDTH;
+            int lineColor = style != null && style.getColor() != 0 ? style.getColor() : DEFAULT_LINE_COLOR;
+            int fillColor = style != null && style.getFillColor() != 0 ? style.getFillColor() : DEFAULT_FILL_COLOR;
+            int outlineColor = style != null && style.getOutlineColor() != 0 ? style.getOutlineColor() : DEFAULT_OUTLINE_COLOR;
+            float outlineWidth = style != null && style.getOutlineWidth() > 0 ? style.getOutlineWidth() : DEFAULT_OUTLINE_WIDTH;
+
+            pointRadius = pointSize / 2;
+            point.setStyle(Paint.Style.FILL);
+            point.setColor(pointColor);
+            pixel.setStyle(Paint.Style.FILL);
+            pixel.setColor(geometryType == GeometryType.POLYGON ? outlineColor : lineColor);
+            line.setStyle(Paint.Style.STROKE);
+            line.setStrokeWidth(lineWidth);
+            line.setStrokeCap(Paint.Cap.ROUND);
+            line.setStrokeJoin(Paint.Join.ROUND);
+            line.setColor(lineColor);
+            fill.setStyle(Paint.Style.FILL);
+            fill.setColor(fillColor);
+            outline.setStyle(Paint.Style.STROKE);
+            outline.setStrokeWidth(outlineWidth);
+            outline.setStrokeJoin(Paint.Join.ROUND);
+            outline.setColor(outlineColor);
+        }
+
+        float margin() {
+            return Math.max(pointRadius, Math.max(line.getStrokeWidth(), outline.getStrokeWidth()) / 2) + 1;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.common.coordinate.referencesystem.profile;
+
+/**
+ * Argument checking shared by the bulk coordinate transforms of
+ * {@link CrsProfile} implementations
+ *
+ * @author Luke Lambert
+ */
+final class CoordinateArrayUtility {
+    private CoordinateArrayUtility() {
+
+    }
+
+    /**
+     * Verifies that both arrays hold count interleaved x/y pairs starting at
+     * their offsets
+     *
+     * @param source            Interleaved source coordinates
+     * @param sourceOffset      Index of the first source x value
+     * @param destination       Interleaved destination coordinates
+     * @param destinationOffset Index of the first destination x value
+     * @param count             Number of coordinate pairs
+     */
+    static void verify(final double[] source,
+                       final int sourceOffset,
+                       final double[] destination,
+                       final int destinationOffset,
+                       final int count) {
+        if (source == null) {
+            throw new IllegalArgumentException("Source array may not be null");
+        }
+
+        if (destination == null) {
+            throw new IllegalArgumentException("Destination array may not be null");
+        }
+
+        if (count < 0) {
+            throw new IllegalArgumentException("Count may not be less than 0");
+        }
+
+        if (sourceOffset < 0 || (long) sourceOffset + 2L * count > source.length) {
+            throw new IllegalArgumentException("Source array is too small for the given offset and count");
+        }
+
+        if (destinationOffset < 0 || (long) destinationOffset + 2L * count > destination.length) {
+            throw new IllegalArgumentException("Destination array is too small for the given offset and count");
+        }
+
+        if (source == destination && sourceOffset != destinationOffset && Math.abs(sourceOffset - destinationOffset) < 2L * count) {
+            throw new IllegalArgumentException("Source and destination ranges may not partially overlap");
+        }
+    }
+}
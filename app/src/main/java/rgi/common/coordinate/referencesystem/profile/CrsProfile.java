@@ -140,6 +140,51 @@ public interface CrsProfile {
      */
     Coordinate<Double> toGlobalGeodetic(final Coordinate<Double> coordinate);
 
+    /**
+     * Transforms coordinates from the coordinate reference system of this
+     * profile to Global Geodetic (EPSG:4326) in bulk, without allocating an
+     * object per coordinate. Coordinates are interleaved x/y pairs. To
+     * transform in place, pass the same array and offset for the source and
+     * destination.
+     *
+     * @param source            Interleaved x/y coordinates in the same
+     *                          reference system as this profile
+     * @param sourceOffset      Index of the first x value in the source
+     * @param destination       Receives the interleaved longitude/latitude
+     *                          results, in degrees
+     * @param destinationOffset Index of the first longitude in the
+     *                          destination
+     * @param count             Number of coordinates (x/y pairs) to
+     *                          transform
+     */
+    void toGlobalGeodetic(final double[] source,
+                          final int sourceOffset,
+                          final double[] destination,
+                          final int destinationOffset,
+                          final int count);
+
+    /**
+     * Transforms coordinates from Global Geodetic (EPSG:4326) to the
+     * coordinate reference system of this profile in bulk, without allocating
+     * an object per coordinate. Coordinates are interleaved x/y pairs. To
+     * transform in place, pass the same array and offset for the source and
+     * destination.
+     *
+     * @param source            Interleaved longitude/latitude coordinates, in
+     *                          degrees
+     * @param sourceOffset      Index of the first longitude in the source
+     * @param destination       Receives the interleaved x/y results in this
+     *                          profile's reference system
+     * @param destinationOffset Index of the first x value in the destination
+     * @param count             Number of coordinates (x/y pairs) to
+     *                          transform
+     */
+    void fromGlobalGeodetic(final double[] source,
+                            final int sourceOffset,
+                            final double[] destination,
+                            final int destinationOffset,
+                            final int count);
+
     /**
      * The maximum acceptable number of decimal places to be used in coordinate
      * comparison
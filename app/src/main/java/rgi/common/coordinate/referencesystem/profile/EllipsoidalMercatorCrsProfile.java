@@ -226,6 +226,46 @@ public class EllipsoidalMercatorCrsProfile implements CrsProfile {
                 toLatitude(coordinate.getY()));
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Latitudes are calculated with the same series as {@link
+     * #toGlobalGeodetic(Coordinate)}, and are within {@value
+     * #InverseLatitudeErrorBound} degrees of the exact inverse.
+     */
+    @Override
+    public void toGlobalGeodetic(final double[] source,
+                                 final int sourceOffset,
+                                 final double[] destination,
+                                 final int destinationOffset,
+                                 final int count) {
+        CoordinateArrayUtility.verify(source, sourceOffset, destination, destinationOffset, count);
+
+        for (int i = 0; i < 2 * count; i += 2) {
+            destination[destinationOffset + i] = toLongitude(source[sourceOffset + i]);
+            destination[destinationOffset + i + 1] = toLatitude(source[sourceOffset + i + 1]);
+        }
+    }
+
+    @Override
+    public void fromGlobalGeodetic(final double[] source,
+                                   final int sourceOffset,
+                                   final double[] destination,
+                                   final int destinationOffset,
+                                   final int count) {
+        CoordinateArrayUtility.verify(source, sourceOffset, destination, destinationOffset, count);
+
+        final double radius = this.scaledEarthEquatorialRadius;
+        final double metersPerDegree = Math.toRadians(radius);
+
+        for (int i = 0; i < 2 * count; i += 2) {
+            final double sinLatitude = Math.sin(Math.toRadians(source[sourceOffset + i + 1]));
+
+            destination[destinationOffset + i] = source[sourceOffset + i] * metersPerDegree;
+            destination[destinationOffset + i + 1] = radius * (atanh(sinLatitude) - Eccentricity * atanh(Eccentricity * sinLatitude));
+        }
+    }
+
     @Override
     public int getPrecision() {
         return 2;
@@ -283,28 +323,30 @@ public class EllipsoidalMercatorCrsProfile implements CrsProfile {
      * Ellipsoid World Mercator EPSG(3395) to its
      * corresponding latitude value in degrees.
      * <p>
-     * This value is found through the Inverse Mapping Conversion
-     * function.
+     * The conformal latitude is found in closed form, then converted to
+     * geodetic latitude with a series in the eccentricity (USGS Professional
+     * Paper 1395, equations 7-4 and 3-5, carried to e<sup>8</sup>). Unlike an
+     * iterative solution, the cost is the same for every value. The result is
+     * within {@value #InverseLatitudeErrorBound} degrees (about 0.1mm on the
+     * ground) of the exact inverse.
      *
      * @param meters Meters in the in EPSG:3395 coordinate reference system
      * @return latitude in Degrees
      */
     private static double toLatitude(final double meters) {
-        return Math.toDegrees(inverseMappingConversionMetersToLatitude(meters));
-    }
+        final double conformalLatitude = Math.PI / 2 - 2 * Math.atan(Math.exp(-meters / UnscaledEarthEquatorialRadius));
 
-    /**
-     * <b>Inverse Hyperbolic Tangent formula:</b>
-     * <p>
-     * <pre>
-     * atanh = 0.5 * ln[(1 + x) / (1 - x)]
-     * </pre>
-     *
-     * @param x in degrees or radians
-     * @return the corresponding length from the angle x
-     */
-    private static double inverseHyperbolicTangent(final double x) {
-        return 0.5 * Math.log((1.0 + x) / (1.0 - x));
+        // Evaluate the sum of c[k] * sin(2k * conformalLatitude) with
+        // Clenshaw's recurrence, which needs only one sine and one cosine
+        final double sin2Chi = Math.sin(2 * conformalLatitude);
+        final double twoCos2Chi = 2 * Math.cos(2 * conformalLatitude);
+
+        final double b8 = LatitudeSeries8;
+        final double b6 = LatitudeSeries6 + twoCos2Chi * b8;
+        final double b4 = LatitudeSeries4 + twoCos2Chi * b6 - b8;
+        final double b2 = LatitudeSeries2 + twoCos2Chi * b4 - b6;
+
+        return Math.toDegrees(conformalLatitude + sin2Chi * b2);
     }
 
     /**
@@ -314,51 +356,6 @@ public class EllipsoidalMercatorCrsProfile implements CrsProfile {
         return 0.5 * Math.log((1.0 + x) / (1.0 - x));
     }
 
-    /**
-     * Converts a y in meters to the latitude in radians using the inverse
-     * mapping equation
-     * <p>
-     * <h1><b>Recursion formula:</b></h1><p>
-     * <body><pre>s(1)   = tanh(y/a)</pre>
-     * <pre>s(n+1) = tanh[y/a + e*atanh(e)*s(n)]   for n = 1, 2, 3... </pre></body>
-     * <h2><b>Formula for Latitude:</b></h2>
-     * <body><pre>Latitude(in radian) = arcsin(s(n+1))</pre></body>
-     *
-     * Where s(n+1) is determined by the conversion factor difference of 0.0000000001.
-     * The difference is calculated by the following formula:<pre> s(n+1) - s(n)</pre>
-     * <p>
-     * The difference 0.00000001 was determined as the level of accuracy the formula
-     * would need to achieve to be acceptable.
-     * <p>
-     * atanh is the inverse hyperbolic tangent
-     *
-     * @param meters for the latitude in WGS 3395
-     * @return latitude in radians
-     */
-    private static double inverseMappingConversionMetersToLatitude(final double meters) {
-        // s(1) calculation set to previous
-        double previous = Math.tanh(meters / UnscaledEarthEquatorialRadius);
-        // Arbitrary initializations of next and difference
-        double next = 0;
-        double difference = Double.MAX_VALUE;
-        final double epsilon = 0.00000000000000000001;
-
-        // This will loop until the conversion factor is to the level of
-        // accuracy determined by the conversion factor difference
-        while (Math.abs(difference) > epsilon) {
-            // s(n+1) calculated by the recursion formula s(n)
-            next = Math.tanh(((meters / UnscaledEarthEquatorialRadius) + (Eccentricity * inverseHyperbolicTangent(Eccentricity * previous))));
-
-            difference = next - previous; // Calculate conversion factor
-            previous = next;              // Set s(n) to s(n+1)
-        }
-
-        // Latitude = arcsine(s(n+1)) Latitude formula
-        final double yRadians = Math.asin(next);
-
-        return yRadians;
-    }
-
     private static Coordinate<Double> roundCoordinate(final Coordinate<Double> value, final int percision) {
         final double divisor = Math.pow(10, percision);
         return new Coordinate<>(Math.round(value.getX() * divisor) / divisor, Math.round(value.getY() * divisor) / divisor);
@@ -419,6 +416,30 @@ public class EllipsoidalMercatorCrsProfile implements CrsProfile {
      */
     public static final double Eccentricity = Math.sqrt(Flattening * (2 - Flattening));
 
+    /**
+     * Maximum difference, in degrees, between latitudes calculated by the
+     * inverse projection and the exact inverse
+     */
+    public static final double InverseLatitudeErrorBound = 1.0e-9;
+
+    private static final double EccentricitySquared = Eccentricity * Eccentricity;
+
+    // Coefficients of sin(2 chi), sin(4 chi), sin(6 chi) and sin(8 chi) in
+    // the conformal to geodetic latitude series
+    private static final double LatitudeSeries2 = EccentricitySquared / 2 +
+            5 * Math.pow(EccentricitySquared, 2) / 24 +
+            Math.pow(EccentricitySquared, 3) / 12 +
+            13 * Math.pow(EccentricitySquared, 4) / 360;
+
+    private static final double LatitudeSeries4 = 7 * Math.pow(EccentricitySquared, 2) / 48 +
+            29 * Math.pow(EccentricitySquared, 3) / 240 +
+            811 * Math.pow(EccentricitySquared, 4) / 11520;
+
+    private static final double LatitudeSeries6 = 7 * Math.pow(EccentricitySquared, 3) / 120 +
+            81 * Math.pow(EccentricitySquared, 4) / 1120;
+
+    private static final double LatitudeSeries8 = 4279 * Math.pow(EccentricitySquared, 4) / 161280;
+
     /**
      * Used to unify calculations for scaled and unscaled ellipsoidal mercator projections
      */
@@ -50,6 +50,26 @@ public class GlobalGeodeticCrsProfile extends ProportionalCrsProfile {
         return coordinate;
     }
 
+    @Override
+    public void toGlobalGeodetic(final double[] source,
+                                 final int sourceOffset,
+                                 final double[] destination,
+                                 final int destinationOffset,
+                                 final int count) {
+        CoordinateArrayUtility.verify(source, sourceOffset, destination, destinationOffset, count);
+
+        System.arraycopy(source, sourceOffset, destination, destinationOffset, 2 * count);
+    }
+
+    @Override
+    public void fromGlobalGeodetic(final double[] source,
+                                   final int sourceOffset,
+                                   final double[] destination,
+                                   final int destinationOffset,
+                                   final int count) {
+        this.toGlobalGeodetic(source, sourceOffset, destination, destinationOffset, count);
+    }
+
     @Override
     public String getName() {
         return "World Geodetic System (WGS) 1984";
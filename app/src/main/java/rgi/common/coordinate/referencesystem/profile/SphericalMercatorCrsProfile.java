@@ -56,6 +56,42 @@ public class SphericalMercatorCrsProfile extends ProportionalCrsProfile {
                 Math.toDegrees(Math.PI / 2 - 2 * Math.atan(Math.exp(-coordinate.getY() / EarthEquatorialRadius))));
     }
 
+    @Override
+    public void toGlobalGeodetic(final double[] source,
+                                 final int sourceOffset,
+                                 final double[] destination,
+                                 final int destinationOffset,
+                                 final int count) {
+        CoordinateArrayUtility.verify(source, sourceOffset, destination, destinationOffset, count);
+
+        final double degreesPerMeter = Math.toDegrees(1.0 / EarthEquatorialRadius);
+
+        for (int i = 0; i < 2 * count; i += 2) {
+            final double y = source[sourceOffset + i + 1];
+
+            destination[destinationOffset + i] = source[sourceOffset + i] * degreesPerMeter;
+            destination[destinationOffset + i + 1] = Math.toDegrees(Math.PI / 2 - 2 * Math.atan(Math.exp(-y / EarthEquatorialRadius)));   // Same as toGlobalGeodetic(Coordinate)
+        }
+    }
+
+    @Override
+    public void fromGlobalGeodetic(final double[] source,
+                                   final int sourceOffset,
+                                   final double[] destination,
+                                   final int destinationOffset,
+                                   final int count) {
+        CoordinateArrayUtility.verify(source, sourceOffset, destination, destinationOffset, count);
+
+        final double metersPerDegree = Math.toRadians(EarthEquatorialRadius);
+
+        for (int i = 0; i < 2 * count; i += 2) {
+            final double latitude = Math.toRadians(source[sourceOffset + i + 1]);
+
+            destination[destinationOffset + i] = source[sourceOffset + i] * metersPerDegree;
+            destination[destinationOffset + i + 1] = EarthEquatorialRadius * Math.log(Math.tan(Math.PI / 4 + latitude / 2));   // USGS PP 1395, (7-2)
+        }
+    }
+
     @Override
     public BoundingBox getBounds() {
         return Bounds;
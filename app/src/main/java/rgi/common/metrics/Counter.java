@@ -0,0 +1,82 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A monotonically increasing count, safe for concurrent use
+ *
+ * @author Luke Lambert
+ */
+public final class Counter {
+    /**
+     * Constructor
+     *
+     * @param name Name of the counter
+     */
+    Counter(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name of the counter
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Adds one to the count
+     */
+    public void increment() {
+        this.value.incrementAndGet();
+    }
+
+    /**
+     * Adds to the count
+     *
+     * @param amount Value added to the count
+     */
+    public void add(final long amount) {
+        this.value.addAndGet(amount);
+    }
+
+    /**
+     * @return the current count
+     */
+    public long getValue() {
+        return this.value.get();
+    }
+
+    /**
+     * Sets the count back to 0
+     */
+    public void reset() {
+        this.value.set(0);
+    }
+
+    private final String name;
+    private final AtomicLong value = new AtomicLong();
+}
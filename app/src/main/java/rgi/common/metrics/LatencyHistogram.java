@@ -0,0 +1,209 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations, safe for concurrent use. Durations are counted in
+ * logarithmic buckets, each divided into 16 linear sub-buckets, so recording
+ * is constant time and lock free, memory use is fixed, and percentiles are
+ * reported within about 6% of the true value. The count, total, minimum and
+ * maximum are exact.
+ *
+ * @author Luke Lambert
+ */
+public final class LatencyHistogram {
+    /**
+     * Constructor
+     *
+     * @param name Name of the histogram
+     */
+    LatencyHistogram(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name of the histogram
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Records a single duration
+     *
+     * @param nanoseconds Duration in nanoseconds. Negative values are
+     *                    recorded as 0.
+     */
+    public void record(final long nanoseconds) {
+        final long value = Math.max(0, nanoseconds);
+
+        this.buckets.incrementAndGet(bucketIndex(value));
+        this.count.incrementAndGet();
+        this.total.addAndGet(value);
+
+        long minimum = this.minimum.get();
+
+        while (value < minimum && !this.minimum.compareAndSet(minimum, value)) {
+            minimum = this.minimum.get();
+        }
+
+        long maximum = this.maximum.get();
+
+        while (value > maximum && !this.maximum.compareAndSet(maximum, value)) {
+            maximum = this.maximum.get();
+        }
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * @return the sum of all recorded durations, in nanoseconds
+     */
+    public long getTotal() {
+        return this.total.get();
+    }
+
+    /**
+     * @return the smallest recorded duration in nanoseconds, or 0 if nothing
+     * has been recorded
+     */
+    public long getMinimum() {
+        return this.count.get() == 0 ? 0 : this.minimum.get();
+    }
+
+    /**
+     * @return the largest recorded duration in nanoseconds, or 0 if nothing
+     * has been recorded
+     */
+    public long getMaximum() {
+        return this.maximum.get();
+    }
+
+    /**
+     * @return the mean recorded duration in nanoseconds, or 0 if nothing has
+     * been recorded
+     */
+    public double getMean() {
+        final long count = this.count.get();
+
+        return count == 0 ? 0.0 : (double) this.total.get() / count;
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations
+     *
+     * @param percentile Percentile, in the range [0, 100]
+     * @return the estimated duration in nanoseconds below which the requested
+     * percentage of durations fall, or 0 if nothing has been recorded
+     */
+    public long getPercentile(final double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile must be in the range [0, 100]");
+        }
+
+        long total = 0;
+
+        for (int index = 0; index < BucketCount; ++index) {
+            total += this.buckets.get(index);
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+
+        long cumulative = 0;
+
+        for (int index = 0; index < BucketCount; ++index) {
+            cumulative += this.buckets.get(index);
+
+            if (cumulative >= rank) {
+                final long lower = bucketLowerBound(index);
+                final long upper = index + 1 < BucketCount ? bucketLowerBound(index + 1) - 1
+                        : Long.MAX_VALUE;
+
+                // Report the middle of the bucket, but never outside of the observed values
+                return Math.max(this.getMinimum(),
+                        Math.min(this.getMaximum(), lower + (upper - lower) / 2));
+            }
+        }
+
+        return this.getMaximum();
+    }
+
+    /**
+     * Discards all recorded durations
+     */
+    public void reset() {
+        for (int index = 0; index < BucketCount; ++index) {
+            this.buckets.set(index, 0);
+        }
+
+        this.count.set(0);
+        this.total.set(0);
+        this.minimum.set(Long.MAX_VALUE);
+        this.maximum.set(0);
+    }
+
+    private static int bucketIndex(final long value) {
+        if (value < SubBucketCount) {
+            return (int) value;
+        }
+
+        final int shift = (63 - Long.numberOfLeadingZeros(value)) - SubBucketBits;
+
+        return SubBucketCount + shift * SubBucketCount + (int) (value >>> shift) - SubBucketCount;
+    }
+
+    private static long bucketLowerBound(final int index) {
+        if (index < SubBucketCount) {
+            return index;
+        }
+
+        final int shift = (index - SubBucketCount) / SubBucketCount;
+        final int subBucket = (index - SubBucketCount) % SubBucketCount;
+
+        return (long) (SubBucketCount + subBucket) << shift;
+    }
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BucketCount);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong minimum = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maximum = new AtomicLong();
+
+    private static final int SubBucketBits = 4;
+    private static final int SubBucketCount = 1 << SubBucketBits;
+    private static final int BucketCount = SubBucketCount + (63 - SubBucketBits) * SubBucketCount;
+}
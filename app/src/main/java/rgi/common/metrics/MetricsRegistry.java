@@ -0,0 +1,201 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.common.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A lightweight, in-process collection of named {@link Counter}s and {@link
+ * LatencyHistogram}s. Metrics are created on first use and live as long as
+ * the registry. The current values can be dumped as human readable text or
+ * as JSON.
+ *
+ * @author Luke Lambert
+ */
+public class MetricsRegistry {
+    /**
+     * Gets a counter by name, creating it if it doesn't already exist
+     *
+     * @param name Name of the counter
+     * @return the counter with the supplied name
+     */
+    public Counter counter(final String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Counter name may not be null or empty");
+        }
+
+        return this.counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Gets a histogram by name, creating it if it doesn't already exist
+     *
+     * @param name Name of the histogram
+     * @return the histogram with the supplied name
+     */
+    public LatencyHistogram histogram(final String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Histogram name may not be null or empty");
+        }
+
+        return this.histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * @return a snapshot of the registry's counters, sorted by name
+     */
+    public Map<String, Counter> getCounters() {
+        return new TreeMap<>(this.counters);
+    }
+
+    /**
+     * @return a snapshot of the registry's histograms, sorted by name
+     */
+    public Map<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(this.histograms);
+    }
+
+    /**
+     * Sets every counter to 0, and discards the contents of every histogram.
+     * The metrics themselves remain registered.
+     */
+    public void reset() {
+        this.counters.values().forEach(Counter::reset);
+        this.histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Formats the registry as text, one metric per line. Durations are in
+     * milliseconds.
+     *
+     * @return a human readable summary of every metric
+     */
+    public String toText() {
+        final StringBuilder text = new StringBuilder();
+
+        for (final Counter counter : this.getCounters().values()) {
+            text.append(String.format(Locale.US,
+                    "%s %d%n",
+                    counter.getName(),
+                    counter.getValue()));
+        }
+
+        for (final LatencyHistogram histogram : this.getHistograms().values()) {
+            text.append(String.format(Locale.US,
+                    "%s count=%d total=%.3fms mean=%.3fms min=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms%n",
+                    histogram.getName(),
+                    histogram.getCount(),
+                    histogram.getTotal() / NanosecondsPerMillisecond,
+                    histogram.getMean() / NanosecondsPerMillisecond,
+                    histogram.getMinimum() / NanosecondsPerMillisecond,
+                    histogram.getPercentile(50.0) / NanosecondsPerMillisecond,
+                    histogram.getPercentile(90.0) / NanosecondsPerMillisecond,
+                    histogram.getPercentile(99.0) / NanosecondsPerMillisecond,
+                    histogram.getMaximum() / NanosecondsPerMillisecond));
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * Formats the registry as a JSON object with two members, "counters" and
+     * "histograms", each mapping metric names to values. Durations are in
+     * nanoseconds.
+     *
+     * @return a JSON representation of every metric
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder("{\"counters\":{");
+
+        String separator = "";
+
+        for (final Counter counter : this.getCounters().values()) {
+            json.append(separator);
+            appendJsonString(json, counter.getName());
+            json.append(':').append(counter.getValue());
+            separator = ",";
+        }
+
+        json.append("},\"histograms\":{");
+
+        separator = "";
+
+        for (final LatencyHistogram histogram : this.getHistograms().values()) {
+            json.append(separator);
+            appendJsonString(json, histogram.getName());
+            json.append(String.format(Locale.US,
+                    ":{\"count\":%d,\"total\":%d,\"mean\":%.1f,\"min\":%d,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"max\":%d}",
+                    histogram.getCount(),
+                    histogram.getTotal(),
+                    histogram.getMean(),
+                    histogram.getMinimum(),
+                    histogram.getPercentile(50.0),
+                    histogram.getPercentile(90.0),
+                    histogram.getPercentile(99.0),
+                    histogram.getMaximum()));
+            separator = ",";
+        }
+
+        return json.append("}}").toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.toText();
+    }
+
+    private static void appendJsonString(final StringBuilder json, final String value) {
+        json.append('"');
+
+        for (int index = 0; index < value.length(); ++index) {
+            final char character = value.charAt(index);
+
+            switch (character) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                default:
+                    if (character < 0x20) {
+                        json.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        json.append(character);
+                    }
+            }
+        }
+
+        json.append('"');
+    }
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private static final double NanosecondsPerMillisecond = 1.0e6;
+}
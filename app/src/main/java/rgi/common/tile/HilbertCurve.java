@@ -0,0 +1,103 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.common.tile;
+
+/**
+ * Hilbert space-filling curve over a square grid of tiles. Tiles that are
+ * close together in the grid are, for the most part, close together along
+ * the curve, so storing tiles in curve order keeps neighbouring tiles near
+ * each other on disk.
+ *
+ * @author Luke Lambert
+ */
+public final class HilbertCurve {
+    private HilbertCurve() {
+
+    }
+
+    /**
+     * Gets the smallest curve order that covers a grid
+     *
+     * @param maximumCoordinate Largest column or row of the grid
+     * @return the number of bits needed to represent the largest coordinate.
+     * A curve of order <i>n</i> covers a 2<sup>n</sup> x 2<sup>n</sup> grid.
+     */
+    public static int getOrder(final int maximumCoordinate) {
+        if (maximumCoordinate < 0) {
+            throw new IllegalArgumentException("Maximum coordinate may not be negative");
+        }
+
+        return Integer.SIZE - Integer.numberOfLeadingZeros(maximumCoordinate);
+    }
+
+    /**
+     * Gets the distance along the curve of a tile
+     *
+     * @param order  Order of the curve, see {@link #getOrder(int)}
+     * @param column Column (x) of the tile, in the range [0, 2<sup>order</sup>)
+     * @param row    Row (y) of the tile, in the range [0, 2<sup>order</sup>)
+     * @return the tile's distance along the curve, in the range [0, 4<sup>order</sup>)
+     */
+    public static long getIndex(final int order, final int column, final int row) {
+        if (order < 0 || order > MaximumOrder) {
+            throw new IllegalArgumentException(String.format("Order must be in the range [0, %d]", MaximumOrder));
+        }
+
+        final long size = 1L << order;
+
+        if (column < 0 || column >= size || row < 0 || row >= size) {
+            throw new IllegalArgumentException("Column and row must be within the curve's grid");
+        }
+
+        long x = column;
+        long y = row;
+        long index = 0;
+
+        for (long half = size / 2; half > 0; half /= 2) {
+            final long quadrantX = (x & half) > 0 ? 1 : 0;
+            final long quadrantY = (y & half) > 0 ? 1 : 0;
+
+            index += half * half * ((3 * quadrantX) ^ quadrantY);
+
+            // Rotate the quadrant so the sub-curve is oriented consistently
+            if (quadrantY == 0) {
+                if (quadrantX == 1) {
+                    x = half - 1 - x;
+                    y = half - 1 - y;
+                }
+
+                final long swap = x;
+                x = y;
+                y = swap;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Largest supported curve order; covers any int tile coordinate
+     */
+    public static final int MaximumOrder = 31;
+}
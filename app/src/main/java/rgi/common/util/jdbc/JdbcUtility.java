@@ -45,6 +45,27 @@ public final class JdbcUtility {
 
     }
 
+    /**
+     * Sets the listener notified after each statement executed by this class.
+     * Only one listener may be set at a time.  When no listener is set (the
+     * default), statements are not timed, and the cost of this facility is a
+     * single field read per statement.
+     *
+     * @param listener Statement listener, or null to disable statement
+     *                 reporting
+     */
+    public static void setStatementListener(final StatementListener listener) {
+        JdbcUtility.statementListener = listener;
+    }
+
+    /**
+     * @return the listener notified after each statement executed by this
+     * class, or null if statement reporting is disabled
+     */
+    public static StatementListener getStatementListener() {
+        return JdbcUtility.statementListener;
+    }
+
     // TODO have a version that uses a Statement rather than PreparedStatement, that takes no PreparedStatementConsumer argument
 
     /**
@@ -77,18 +98,30 @@ public final class JdbcUtility {
             throw new IllegalArgumentException("Mapping callback for the result set may not be null");
         }
 
+        final StatementTimer timer = StatementTimer.start(sql);
+
         try (final PreparedStatement preparedStatement = databaseConnection.prepareStatement(sql)) {
             if (parameterSetter != null) {
                 parameterSetter.accept(preparedStatement);
             }
 
+            timer.executing(preparedStatement);
+
             try (final ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
-                    return resultMapper.apply(resultSet);
+                    timer.beginCallback();
+                    final T result = resultMapper.apply(resultSet);
+                    timer.endCallback();
+                    timer.completed(1);
+                    return result;
                 }
 
+                timer.completed(0);
                 return null;
             }
+        } catch (final Throwable th) {
+            timer.failed(th);
+            throw th;
         }
     }
 
@@ -124,20 +157,30 @@ public final class JdbcUtility {
             throw new IllegalArgumentException("Mapping callback for the result set may not be null");
         }
 
+        final StatementTimer timer = StatementTimer.start(sql);
+
         try (final PreparedStatement preparedStatement = databaseConnection.prepareStatement(sql)) {
             if (parameterSetter != null) {
                 parameterSetter.accept(preparedStatement);
             }
 
+            timer.executing(preparedStatement);
+
             try (final ResultSet resultSet = preparedStatement.executeQuery()) {
                 final List<T> results = new ArrayList<>();
 
                 while (resultSet.next()) {
+                    timer.beginCallback();
                     results.add(resultMapper.apply(resultSet));
+                    timer.endCallback();
                 }
 
+                timer.completed(results.size());
                 return results;
             }
+        } catch (final Throwable th) {
+            timer.failed(th);
+            throw th;
         }
     }
 
@@ -176,24 +219,37 @@ public final class JdbcUtility {
             throw new IllegalArgumentException("Mapping callback for the result set may not be null");
         }
 
+        final StatementTimer timer = StatementTimer.start(sql);
+
         try (final PreparedStatement preparedStatement = databaseConnection.prepareStatement(sql)) {
             if (parameterSetter != null) {
                 parameterSetter.accept(preparedStatement);
             }
 
+            timer.executing(preparedStatement);
+
             try (final ResultSet resultSet = preparedStatement.executeQuery()) {
                 final List<T> results = new ArrayList<>();
+                long rowCount = 0;
 
                 while (resultSet.next()) {
+                    ++rowCount;
+                    timer.beginCallback();
                     final T value = resultMapper.apply(resultSet);
 
                     if (predicate.test(value)) {
                         results.add(value);
                     }
+
+                    timer.endCallback();
                 }
 
+                timer.completed(rowCount);
                 return results;
             }
+        } catch (final Throwable th) {
+            timer.failed(th);
+            throw th;
         }
     }
 
@@ -234,22 +290,36 @@ public final class JdbcUtility {
             throw new IllegalArgumentException("Mapping callback for the result set may not be null");
         }
 
+        final StatementTimer timer = StatementTimer.start(sql);
+
         try (final PreparedStatement preparedStatement = databaseConnection.prepareStatement(sql)) {
             if (parameterSetter != null) {
                 parameterSetter.accept(preparedStatement);
             }
 
+            timer.executing(preparedStatement);
+
             try (final ResultSet resultSet = preparedStatement.executeQuery()) {
                 final List<T> results = new ArrayList<>();
+                long rowCount = 0;
 
                 while (resultSet.next()) {
+                    ++rowCount;
+                    timer.beginCallback();
+
                     if (predicate.apply(resultSet)) {
                         results.add(resultMapper.apply(resultSet));
                     }
+
+                    timer.endCallback();
                 }
 
+                timer.completed(rowCount);
                 return results;
             }
+        } catch (final Throwable th) {
+            timer.failed(th);
+            throw th;
         }
     }
 
@@ -279,16 +349,30 @@ public final class JdbcUtility {
             throw new IllegalArgumentException("Consumer callback for the result set may not be null");
         }
 
+        final StatementTimer timer = StatementTimer.start(sql);
+
         try (final PreparedStatement preparedStatement = databaseConnection.prepareStatement(sql)) {
             if (parameterSetter != null) {
                 parameterSetter.accept(preparedStatement);
             }
 
+            timer.executing(preparedStatement);
+
             try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                long rowCount = 0;
+
                 while (resultSet.next()) {
+                    ++rowCount;
+                    timer.beginCallback();
                     resultConsumer.accept(resultSet);
+                    timer.endCallback();
                 }
+
+                timer.completed(rowCount);
             }
+        } catch (final Throwable th) {
+            timer.failed(th);
+            throw th;
         }
     }
 
@@ -308,9 +392,13 @@ public final class JdbcUtility {
             throw new IllegalArgumentException("Query statement may not be null or empty");
         }
 
+        final StatementTimer timer = StatementTimer.start(sql);
+
         try (final Statement statement = databaseConnection.createStatement()) {
-            statement.executeUpdate(sql);
+            timer.executing(null);
+            timer.completed(statement.executeUpdate(sql));
         } catch (final Throwable th) {
+            timer.failed(th);
             databaseConnection.rollback();
             throw th;
         }
@@ -336,13 +424,17 @@ public final class JdbcUtility {
             throw new IllegalArgumentException("Query statement may not be null or empty");
         }
 
+        final StatementTimer timer = StatementTimer.start(sql);
+
         try (final PreparedStatement preparedStatement = databaseConnection.prepareStatement(sql)) {
             if (parameterSetter != null) {
                 parameterSetter.accept(preparedStatement);
             }
 
-            preparedStatement.executeUpdate();
+            timer.executing(preparedStatement);
+            timer.completed(preparedStatement.executeUpdate());
         } catch (final Throwable th) {
+            timer.failed(th);
             databaseConnection.rollback();
             throw th;
         }
@@ -380,17 +472,21 @@ public final class JdbcUtility {
             throw new IllegalArgumentException("Key mapping callback may not be null");
         }
 
+        final StatementTimer timer = StatementTimer.start(sql);
+
         try (final PreparedStatement preparedStatement = databaseConnection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             if (parameterSetter != null) {
                 parameterSetter.accept(preparedStatement);
             }
 
-            preparedStatement.executeUpdate();
+            timer.executing(preparedStatement);
+            timer.completed(preparedStatement.executeUpdate());
 
             try (final ResultSet resultKeys = preparedStatement.getGeneratedKeys()) {
                 return keysMapper.apply(resultKeys);
             }
         } catch (final Throwable th) {
+            timer.failed(th);
             databaseConnection.rollback();
             throw th;
         }
@@ -423,15 +519,24 @@ public final class JdbcUtility {
             throw new IllegalArgumentException("Collection of values may not be null");
         }
 
+        final StatementTimer timer = StatementTimer.start(sql);
+
         try (final PreparedStatement preparedStatement = databaseConnection.prepareStatement(sql)) {
+            // Binding happens once per value, so for this batch form all of it is counted as execution time
+            timer.executing(preparedStatement);
+            long rowCount = 0;
+
             for (final T value : values) {
                 if (parameterSetter != null) {
                     parameterSetter.accept(preparedStatement, value);
                 }
 
-                preparedStatement.executeUpdate();
+                rowCount += preparedStatement.executeUpdate();
             }
+
+            timer.completed(rowCount);
         } catch (final Throwable th) {
+            timer.failed(th);
             databaseConnection.rollback();
             throw th;
         }
@@ -568,4 +673,107 @@ public final class JdbcUtility {
 
         return objects;
     }
+
+    private static int bindCount(final PreparedStatement preparedStatement) {
+        try {
+            return preparedStatement.getParameterMetaData().getParameterCount();
+        } catch (final SQLException ignored) {
+            return -1;
+        }
+    }
+
+    /**
+     * Times one statement and reports it to the statement listener, once,
+     * whether it completes or fails.  Time spent in the caller's result
+     * callbacks is measured separately from the time spent in SQLite.  When no
+     * listener is set, a shared instance that does nothing is used.
+     */
+    private static final class StatementTimer {
+        static StatementTimer start(final String sql) {
+            final StatementListener listener = JdbcUtility.statementListener;
+            return listener == null ? StatementTimer.Disabled : new StatementTimer(listener, sql);
+        }
+
+        private StatementTimer(final StatementListener listener, final String sql) {
+            this.listener = listener;
+            this.sql = sql;
+            this.prepareStart = listener == null ? 0L : System.nanoTime();
+        }
+
+        /**
+         * Marks the end of preparation and binding
+         *
+         * @param preparedStatement The statement about to be executed, or null
+         *                          for a plain statement, which has no bound
+         *                          parameters
+         */
+        void executing(final PreparedStatement preparedStatement) {
+            if (this.listener != null) {
+                this.bindCount = preparedStatement == null ? 0 : bindCount(preparedStatement);
+                this.executeStart = System.nanoTime();
+                this.executing = true;
+            }
+        }
+
+        void beginCallback() {
+            if (this.listener != null) {
+                this.callbackStart = System.nanoTime();
+                this.inCallback = true;
+            }
+        }
+
+        void endCallback() {
+            if (this.listener != null) {
+                this.callbackNanoseconds += System.nanoTime() - this.callbackStart;
+                this.inCallback = false;
+            }
+        }
+
+        void completed(final long rowCount) {
+            this.report(rowCount, null);
+        }
+
+        void failed(final Throwable failure) {
+            this.report(-1, failure);
+        }
+
+        private void report(final long rowCount, final Throwable failure) {
+            if (this.listener == null || this.reported) {
+                return;     // A listener that throws on completion isn't notified again of a failure
+            }
+
+            this.reported = true;
+
+            final long end = System.nanoTime();
+            final long executeStart = this.executing ? this.executeStart : end;   // Failed while preparing
+
+            if (this.inCallback) {
+                this.callbackNanoseconds += end - this.callbackStart;    // Failed in a callback
+            }
+
+            this.listener.statementExecuted(new StatementEvent(this.sql,
+                    this.bindCount,
+                    rowCount,
+                    executeStart - this.prepareStart,
+                    end - executeStart - this.callbackNanoseconds,
+                    this.callbackNanoseconds,
+                    failure));
+        }
+
+        private final StatementListener listener;
+        private final String sql;
+        private final long prepareStart;
+
+        private int bindCount = -1;
+        private boolean executing;
+        private long executeStart;
+        private long callbackStart;
+        private boolean inCallback;
+        private long callbackNanoseconds;
+        private boolean reported;
+
+        private static final StatementTimer Disabled = new StatementTimer(null, null);
+    }
+
+    private static volatile StatementListener statementListener = null;
 }
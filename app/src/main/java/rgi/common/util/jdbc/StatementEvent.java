@@ -0,0 +1,151 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.common.util.jdbc;
+
+/**
+ * Description of one executed SQL statement, as reported to a {@link
+ * StatementListener}
+ *
+ * @author Luke Lambert
+ */
+public final class StatementEvent {
+    /**
+     * Constructor
+     *
+     * @param sql                 SQL text of the statement
+     * @param bindCount           Number of parameters bound to the statement, or -1
+     *                            if unknown
+     * @param rowCount            Number of rows returned by a query, or affected by an
+     *                            update.  -1 if unknown.
+     * @param prepareNanoseconds  Time spent preparing the statement and binding its
+     *                            parameters, in nanoseconds
+     * @param executeNanoseconds  Time spent executing the statement, in
+     *                            nanoseconds.  For queries this includes stepping
+     *                            through the results, because SQLite evaluates
+     *                            rows lazily, but not the time spent in the
+     *                            caller's result callbacks.
+     * @param callbackNanoseconds Time spent in the caller's callbacks that map or
+     *                            consume each result row, in nanoseconds
+     * @param failure             Exception that ended the statement, or null if
+     *                            it completed
+     */
+    public StatementEvent(final String sql,
+                          final int bindCount,
+                          final long rowCount,
+                          final long prepareNanoseconds,
+                          final long executeNanoseconds,
+                          final long callbackNanoseconds,
+                          final Throwable failure) {
+        if (sql == null) {
+            throw new IllegalArgumentException("SQL may not be null");
+        }
+
+        this.sql = sql;
+        this.bindCount = bindCount;
+        this.rowCount = rowCount;
+        this.prepareNanoseconds = prepareNanoseconds;
+        this.executeNanoseconds = executeNanoseconds;
+        this.callbackNanoseconds = callbackNanoseconds;
+        this.failure = failure;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.3fms (prepare %.3fms, execute %.3fms, callbacks %.3fms) rows=%d binds=%d%s: %s",
+                this.getTotalNanoseconds() / 1.0e6,
+                this.prepareNanoseconds / 1.0e6,
+                this.executeNanoseconds / 1.0e6,
+                this.callbackNanoseconds / 1.0e6,
+                this.rowCount,
+                this.bindCount,
+                this.failure == null ? "" : " failed (" + this.failure + ")",
+                this.sql);
+    }
+
+    /**
+     * @return the SQL text of the statement
+     */
+    public String getSql() {
+        return this.sql;
+    }
+
+    /**
+     * @return the number of parameters bound to the statement, or -1 if unknown
+     */
+    public int getBindCount() {
+        return this.bindCount;
+    }
+
+    /**
+     * @return the number of rows returned or affected, or -1 if unknown
+     */
+    public long getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return the time spent preparing the statement and binding its
+     * parameters, in nanoseconds
+     */
+    public long getPrepareNanoseconds() {
+        return this.prepareNanoseconds;
+    }
+
+    /**
+     * @return the time spent executing the statement, in nanoseconds
+     */
+    public long getExecuteNanoseconds() {
+        return this.executeNanoseconds;
+    }
+
+    /**
+     * @return the time spent in the caller's result callbacks, in nanoseconds
+     */
+    public long getCallbackNanoseconds() {
+        return this.callbackNanoseconds;
+    }
+
+    /**
+     * @return the exception that ended the statement, or null if it completed
+     */
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * @return the sum of the prepare and execute times, in nanoseconds.
+     * Callback time isn't included, since it isn't spent in the database.
+     */
+    public long getTotalNanoseconds() {
+        return this.prepareNanoseconds + this.executeNanoseconds;
+    }
+
+    private final String sql;
+    private final int bindCount;
+    private final long rowCount;
+    private final long prepareNanoseconds;
+    private final long executeNanoseconds;
+    private final long callbackNanoseconds;
+    private final Throwable failure;
+}
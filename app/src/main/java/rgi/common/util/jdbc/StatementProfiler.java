@@ -0,0 +1,299 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.common.util.jdbc;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link StatementListener} that keeps the slowest statements seen, and
+ * aggregates all statements by their normalized SQL.  Normalizing replaces
+ * literals with parameter markers and collapses IN lists, so that statements
+ * that differ only in their values are counted together.
+ * <br>
+ * <br>
+ * Typical use:
+ * <pre>
+ * final StatementProfiler profiler = new StatementProfiler(20);
+ * JdbcUtility.setStatementListener(profiler);
+ * // ... exercise the code of interest ...
+ * JdbcUtility.setStatementListener(null);
+ * System.out.println(profiler);
+ * </pre>
+ *
+ * @author Luke Lambert
+ */
+public class StatementProfiler implements StatementListener {
+    /**
+     * Constructor
+     *
+     * @param slowestCount Number of the slowest individual statements to keep
+     */
+    public StatementProfiler(final int slowestCount) {
+        if (slowestCount < 0) {
+            throw new IllegalArgumentException("Slowest statement count may not be less than 0");
+        }
+
+        this.slowestCount = slowestCount;
+        this.slowest = new PriorityQueue<>(Math.max(1, slowestCount), Comparator.comparingLong(StatementEvent::getTotalNanoseconds));
+    }
+
+    @Override
+    public synchronized void statementExecuted(final StatementEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event may not be null");
+        }
+
+        if (this.slowestCount > 0) {
+            if (this.slowest.size() < this.slowestCount) {
+                this.slowest.add(event);
+            } else if (event.getTotalNanoseconds() > this.slowest.peek().getTotalNanoseconds()) {
+                this.slowest.poll();
+                this.slowest.add(event);
+            }
+        }
+
+        this.aggregates.computeIfAbsent(normalize(event.getSql()), Aggregate::new).add(event);
+    }
+
+    /**
+     * @return the slowest statements seen, slowest first
+     */
+    public synchronized List<StatementEvent> getSlowest() {
+        final List<StatementEvent> events = new ArrayList<>(this.slowest);
+        events.sort(Comparator.comparingLong(StatementEvent::getTotalNanoseconds).reversed());
+        return events;
+    }
+
+    /**
+     * @return a snapshot of the per-statement aggregates, ordered by
+     * descending total time
+     */
+    public synchronized List<Aggregate> getAggregates() {
+        final List<Aggregate> aggregates = new ArrayList<>(this.aggregates.size());
+
+        for (final Aggregate aggregate : this.aggregates.values()) {
+            aggregates.add(new Aggregate(aggregate));
+        }
+
+        aggregates.sort(Comparator.comparingLong(Aggregate::getTotalNanoseconds).reversed());
+        return aggregates;
+    }
+
+    /**
+     * Discards everything recorded so far
+     */
+    public synchronized void reset() {
+        this.slowest.clear();
+        this.aggregates.clear();
+    }
+
+    /**
+     * @return a plain text report of the aggregates, followed by the slowest
+     * statements
+     */
+    @Override
+    public String toString() {
+        final StringBuilder report = new StringBuilder();
+
+        report.append("Statements by total time:\n");
+
+        for (final Aggregate aggregate : this.getAggregates()) {
+            report.append("  ").append(aggregate).append('\n');
+        }
+
+        report.append("Slowest statements:\n");
+
+        for (final StatementEvent event : this.getSlowest()) {
+            report.append("  ").append(event).append('\n');
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * Reduces SQL to a form that's the same for statements that differ only in
+     * their literal values or the length of their IN lists
+     *
+     * @param sql SQL text
+     * @return normalized SQL
+     */
+    public static String normalize(final String sql) {
+        if (sql == null) {
+            throw new IllegalArgumentException("SQL may not be null");
+        }
+
+        // Quoted identifiers are kept as they are, string and numeric literals become parameter markers
+        final Matcher matcher = Token.matcher(sql);
+        final StringBuffer buffer = new StringBuffer(sql.length());
+
+        while (matcher.find()) {
+            matcher.appendReplacement(buffer, matcher.group(1) != null ? Matcher.quoteReplacement(matcher.group(1)) : "?");
+        }
+
+        matcher.appendTail(buffer);
+
+        final String normalized = Whitespace.matcher(buffer).replaceAll(" ").trim();
+        return InList.matcher(normalized).replaceAll("IN (?, ...)");
+    }
+
+    /**
+     * Running totals for every statement with the same normalized SQL
+     */
+    public static final class Aggregate {
+        private Aggregate(final String sql) {
+            this.sql = sql;
+        }
+
+        private Aggregate(final Aggregate other) {
+            this.sql = other.sql;
+            this.count = other.count;
+            this.rowCount = other.rowCount;
+            this.prepareNanoseconds = other.prepareNanoseconds;
+            this.executeNanoseconds = other.executeNanoseconds;
+            this.callbackNanoseconds = other.callbackNanoseconds;
+            this.maximumNanoseconds = other.maximumNanoseconds;
+            this.failureCount = other.failureCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d x %.3fms (prepare %.3fms, execute %.3fms, callbacks %.3fms, max %.3fms) rows=%d failures=%d: %s",
+                    this.count,
+                    this.getTotalNanoseconds() / 1.0e6,
+                    this.prepareNanoseconds / 1.0e6,
+                    this.executeNanoseconds / 1.0e6,
+                    this.callbackNanoseconds / 1.0e6,
+                    this.maximumNanoseconds / 1.0e6,
+                    this.rowCount,
+                    this.failureCount,
+                    this.sql);
+        }
+
+        /**
+         * @return the normalized SQL
+         */
+        public String getSql() {
+            return this.sql;
+        }
+
+        /**
+         * @return the number of times a statement with this normalized SQL was
+         * executed
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * @return the total number of rows returned or affected, not counting
+         * statements whose row count was unknown
+         */
+        public long getRowCount() {
+            return this.rowCount;
+        }
+
+        /**
+         * @return the total prepare time, in nanoseconds
+         */
+        public long getPrepareNanoseconds() {
+            return this.prepareNanoseconds;
+        }
+
+        /**
+         * @return the total execute time, in nanoseconds
+         */
+        public long getExecuteNanoseconds() {
+            return this.executeNanoseconds;
+        }
+
+        /**
+         * @return the total time spent in result callbacks, in nanoseconds
+         */
+        public long getCallbackNanoseconds() {
+            return this.callbackNanoseconds;
+        }
+
+        /**
+         * @return the number of executions that failed
+         */
+        public long getFailureCount() {
+            return this.failureCount;
+        }
+
+        /**
+         * @return the total prepare and execute time, in nanoseconds
+         */
+        public long getTotalNanoseconds() {
+            return this.prepareNanoseconds + this.executeNanoseconds;
+        }
+
+        /**
+         * @return the longest total time of a single statement, in nanoseconds
+         */
+        public long getMaximumNanoseconds() {
+            return this.maximumNanoseconds;
+        }
+
+        private void add(final StatementEvent event) {
+            ++this.count;
+
+            if (event.getRowCount() > 0) {
+                this.rowCount += event.getRowCount();
+            }
+
+            this.prepareNanoseconds += event.getPrepareNanoseconds();
+            this.executeNanoseconds += event.getExecuteNanoseconds();
+            this.callbackNanoseconds += event.getCallbackNanoseconds();
+            this.maximumNanoseconds = Math.max(this.maximumNanoseconds, event.getTotalNanoseconds());
+
+            if (event.getFailure() != null) {
+                ++this.failureCount;
+            }
+        }
+
+        private final String sql;
+        private long count;
+        private long rowCount;
+        private long prepareNanoseconds;
+        private long executeNanoseconds;
+        private long callbackNanoseconds;
+        private long maximumNanoseconds;
+        private long failureCount;
+    }
+
+    private final int slowestCount;
+    private final PriorityQueue<StatementEvent> slowest;    // Min-heap, so the fastest of the slowest is evicted first
+    private final Map<String, Aggregate> aggregates = new HashMap<>();
+
+    private static final Pattern Token = Pattern.compile("(\"(?:[^\"]|\"\")*\")|'(?:[^']|'')*'|(?<![\\w.])[-+]?\\d+(?:\\.\\d*)?(?:[eE][-+]?\\d+)?\\b");
+    private static final Pattern Whitespace = Pattern.compile("\\s+");
+    private static final Pattern InList = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+}
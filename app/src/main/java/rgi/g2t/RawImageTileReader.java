@@ -63,6 +63,7 @@ import rgi.common.util.FileUtility;
 import rgi.store.tiles.TileHandle;
 import rgi.store.tiles.TileStoreException;
 import rgi.store.tiles.TileStoreReader;
+import rgi.store.tiles.metrics.TileStoreProbe;
 import utility.GdalUtility;
 
 /**
@@ -497,6 +498,9 @@ public class RawImageTileReader implements TileStoreReader {
                         this.getBounds(),
                         RawImageTileReader.this.tileSize,
                         RawImageTileReader.this.dataset);
+
+                final long rasterStart = System.nanoTime();
+
                 try {
                     // Read image data directly from the raster
                     final byte[] imageData = GdalUtility.readRaster(params,
@@ -514,6 +518,12 @@ public class RawImageTileReader implements TileStoreReader {
 
                         this.image = GdalUtility.convert(tileDataInMemory);
 
+                        final TileStoreProbe probe = TileStoreProbe.current();
+
+                        if (probe != null) {
+                            probe.record(TileStoreProbe.Phase.Raster, System.nanoTime() - rasterStart);
+                        }
+
                         // Write this image to disk for later overview generation
                         final File baseTilePath = this.writeTempTile(this.image);
 
@@ -33,12 +33,14 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 
+import rgi.common.util.jdbc.JdbcUtility;
 import rgi.geopackage.core.GeoPackageCore;
 import rgi.geopackage.extensions.GeoPackageExtensions;
 import rgi.geopackage.features.GeoPackageFeatures;
 import rgi.geopackage.metadata.GeoPackageMetadata;
 import rgi.geopackage.schema.GeoPackageSchema;
 import rgi.geopackage.tiles.GeoPackageTiles;
+import rgi.geopackage.tiles.TileSet;
 import rgi.geopackage.utility.DatabaseUtility;
 import rgi.geopackage.utility.DatabaseVersion;
 import rgi.geopackage.utility.JournalMode;
@@ -134,6 +136,47 @@ public class GeoPackage implements AutoCloseable {
      *                                    fails
      */
     public GeoPackage(final File file, final VerificationLevel verificationLevel, final GeoPackage.OpenMode openMode) throws ClassNotFoundException, ConformanceException, IOException, SQLException {
+        this(file, verificationLevel, openMode, 0);
+    }
+
+    /**
+     * @param file                Location on disk that represents where an existing GeoPackage
+     *                            will opened and/or created
+     * @param verificationLevel   Indicates whether {@link #verify()} should be called
+     *                            automatically. If verifyConformance is true and
+     *                            {@link #verify()} is called automatically, it will throw if
+     *                            there are any conformance violations with the severity
+     *                            {@link Severity#Error}. Throwing from this method means that
+     *                            it won't be possible to instantiate a GeoPackage object based
+     *                            on an SQLite "GeoPackage" file with severe errors.
+     * @param openMode            Controls the file creation/opening behavior
+     * @param readConnectionCount Maximum number of read-only connections handed out by
+     *                            {@link #borrowReader()}. If greater than 0, the database is
+     *                            switched to the WAL journal mode, which lets those
+     *                            connections read concurrently with each other and with
+     *                            this object's (single) writing connection. The WAL
+     *                            journal mode is persistent, and stays in effect when
+     *                            the file is reopened. If 0, the database uses an
+     *                            in-memory rollback journal, and {@link #borrowReader()}
+     *                            shares the writing connection.
+     * @throws ClassNotFoundException     when the SQLite JDBC driver cannot be found
+     * @throws ConformanceException       when the verifyConformance parameter is true, and if there
+     *                                    are any conformance violations with the severity
+     *                                    {@link Severity#Error}
+     * @throws IOException                when openMode is set to OpenMode.Create, and the file already
+     *                                    exists, openMode is set to OpenMode.Open, and the file does
+     *                                    not exist, or if there is a file read error
+     * @throws FileAlreadyExistsException when openMode is set to OpenMode.Create, and the file already
+     *                                    exists
+     * @throws FileNotFoundException      when openMode is set to OpenMode.Open, and the file does not
+     *                                    exist
+     * @throws SQLException               in various cases where interaction with the JDBC connection
+     *                                    fails
+     */
+    public GeoPackage(final File file,
+                      final VerificationLevel verificationLevel,
+                      final GeoPackage.OpenMode openMode,
+                      final int readConnectionCount) throws ClassNotFoundException, ConformanceException, IOException, SQLException {
         if (file == null) {
             throw new IllegalArgumentException("File may not be null");
         }
@@ -146,6 +189,10 @@ public class GeoPackage implements AutoCloseable {
             throw new IllegalArgumentException("Open mode may not be null");
         }
 
+        if (readConnectionCount < 0) {
+            throw new IllegalArgumentException("Read connection count may not be negative");
+        }
+
         final boolean isNewFile = !file.exists();
 
         if (openMode == GeoPackage.OpenMode.Create && !isNewFile) {
@@ -167,7 +214,7 @@ public class GeoPackage implements AutoCloseable {
         try {
             DatabaseUtility.setPragmaSynchronous(this.databaseConnection, SynchronousState.OFF);
             DatabaseUtility.setPragmaForeignKeys(this.databaseConnection, ToggleState.ON);
-            DatabaseUtility.setPragmaJournalMode(this.databaseConnection, JournalMode.MEMORY);
+            DatabaseUtility.setPragmaJournalMode(this.databaseConnection, readConnectionCount > 0 ? JournalMode.WAL : JournalMode.MEMORY);
 
             // This was moved below the PRAGMAs because it starts a transaction and causes setPragmaSynchronous to throw an exception
             this.databaseConnection.setAutoCommit(false);
@@ -179,6 +226,8 @@ public class GeoPackage implements AutoCloseable {
             this.metadata = new GeoPackageMetadata(this.databaseConnection);
             this.extensions = new GeoPackageExtensions(this.databaseConnection, this.core);
 
+            this.readConnectionPool = readConnectionCount > 0 ? new ReadConnectionPool(file, readConnectionCount) : null;
+
             if (isNewFile) {
                 DatabaseUtility.setApplicationId(this.databaseConnection,
                         ByteBuffer.wrap(GeoPackage.GeoPackageSqliteApplicationId)
@@ -260,6 +309,10 @@ public class GeoPackage implements AutoCloseable {
      */
     @Override
     public void close() throws SQLException {
+        if (this.readConnectionPool != null) {
+            this.readConnectionPool.close();
+        }
+
         if (this.databaseConnection != null &&
                 !this.databaseConnection.isClosed()) {
             this.databaseConnection.rollback(); // When Connection.close() is called, pending transactions are either automatically committed or rolled back depending on implementation defined behavior.  Make the call explicitly to avoid relying on implementation defined behavior.
@@ -267,6 +320,85 @@ public class GeoPackage implements AutoCloseable {
         }
     }
 
+    /**
+     * Borrows a read-only view of this GeoPackage. If this GeoPackage was
+     * opened with read connections, the view has its own database connection,
+     * so views borrowed by different threads read concurrently, and only see
+     * committed data. Otherwise the view shares this object's connection, and
+     * sees its uncommitted changes as well.
+     * <br>
+     * <br>
+     * Close the view (e.g. with try-with-resources) to return it. If all of the
+     * read connections are in use, this method blocks until one is returned.
+     *
+     * @return a read-only view of this GeoPackage
+     * @throws SQLException if a new read connection can't be opened, or if the
+     *                      calling thread is interrupted while waiting for one
+     */
+    public ReadOnlyGeoPackage borrowReader() throws SQLException {
+        if (this.readConnectionPool == null) {
+            return new ReadOnlyGeoPackage(this.databaseConnection,
+                    this.core,
+                    this.features,
+                    this.tiles,
+                    reader -> {
+                    });
+        }
+
+        return this.readConnectionPool.borrow();
+    }
+
+    /**
+     * Optimizes the GeoPackage file for reading, using a page size of {@value
+     * #ReadOptimizedPageSize} bytes
+     *
+     * @throws SQLException if there is a database error
+     * @see #optimizeForReading(int)
+     */
+    public void optimizeForReading() throws SQLException {
+        this.optimizeForReading(GeoPackage.ReadOptimizedPageSize);
+    }
+
+    /**
+     * Optimizes the GeoPackage file for reading. Every tile set is rewritten in
+     * Hilbert curve order (see {@link GeoPackageTiles#reorderTiles(TileSet)}),
+     * the database is rebuilt with VACUUM, which makes each table's pages
+     * contiguous and releases free pages, and ANALYZE gathers the statistics
+     * the query planner uses to choose indices. This can take a long time for
+     * large files, and needs free disk space of up to twice the file's size.
+     * It should be run once, after the GeoPackage has been written.
+     *
+     * @param pageSize Page size, in bytes, for the rebuilt database. Larger
+     *                 pages let more of a tile's data share a page with its
+     *                 row, and so reduce the number of overflow pages read
+     *                 per tile. Ignored if this GeoPackage was opened with read
+     *                 connections (WAL journal mode), where SQLite doesn't
+     *                 allow the page size to change.
+     * @throws SQLException if there is a database error
+     */
+    public void optimizeForReading(final int pageSize) throws SQLException {
+        for (final TileSet tileSet : this.tiles.getTileSets()) {
+            this.tiles.reorderTiles(tileSet);
+        }
+
+        this.databaseConnection.commit();
+
+        // VACUUM can't run inside a transaction, and changing the page size
+        // requires a VACUUM to take effect
+        this.databaseConnection.setAutoCommit(true);
+
+        try {
+            if (this.readConnectionPool == null) {
+                DatabaseUtility.setPragmaPageSize(this.databaseConnection, pageSize);
+            }
+
+            JdbcUtility.update(this.databaseConnection, "VACUUM;");
+            JdbcUtility.update(this.databaseConnection, "ANALYZE;");
+        } finally {
+            this.databaseConnection.setAutoCommit(false);
+        }
+    }
+
     /**
      * Requirements this GeoPackage failed to meet
      *
@@ -418,6 +550,13 @@ public class GeoPackage implements AutoCloseable {
     private final GeoPackageSchema schema;
     private final GeoPackageMetadata metadata;
     private final GeoPackageExtensions extensions;
+    private final ReadConnectionPool readConnectionPool;
+
+    /**
+     * Default page size used by {@link #optimizeForReading()}. Large enough
+     * that a typical 256 x 256 pixel tile needs only a few overflow pages.
+     */
+    public static final int ReadOptimizedPageSize = 16384;
 
     private static final byte[] GeoPackageSqliteApplicationId = {(byte) 'G', (byte) 'P', (byte) 'K', (byte) 'G'};
 }
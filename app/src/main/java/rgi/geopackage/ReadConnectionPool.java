@@ -0,0 +1,181 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.geopackage;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import rgi.geopackage.utility.DatabaseUtility;
+import rgi.geopackage.utility.ToggleState;
+
+/**
+ * Bounded pool of read-only connections to a GeoPackage in WAL journal mode.
+ * Connections are opened lazily, up to the pool's maximum size, and callers
+ * block when all of them are in use. Pooled connections stay in auto-commit
+ * mode, so each read sees the most recently committed data and no reader
+ * holds a snapshot that would keep the write-ahead log from being
+ * checkpointed.
+ *
+ * @author Luke Lambert
+ */
+final class ReadConnectionPool implements AutoCloseable {
+    /**
+     * Constructor
+     *
+     * @param file                   GeoPackage file
+     * @param maximumConnectionCount Maximum number of connections to open
+     */
+    ReadConnectionPool(final File file, final int maximumConnectionCount) {
+        if (file == null) {
+            throw new IllegalArgumentException("File may not be null");
+        }
+
+        if (maximumConnectionCount < 1) {
+            throw new IllegalArgumentException("Maximum connection count must be at least 1");
+        }
+
+        this.file = file;
+        this.maximumConnectionCount = maximumConnectionCount;
+        this.idle = new ArrayBlockingQueue<>(maximumConnectionCount);
+    }
+
+    /**
+     * Borrows a connection, waiting for one to be returned if the pool is
+     * exhausted
+     *
+     * @return a read-only view of the GeoPackage. Close it to return the
+     * connection to the pool.
+     * @throws SQLException if a new connection can't be opened, the pool is
+     *                      closed (including while waiting), or the calling
+     *                      thread is interrupted while waiting
+     */
+    ReadOnlyGeoPackage borrow() throws SQLException {
+        final ReadOnlyGeoPackage reader = this.idle.poll();
+
+        if (reader != null) {
+            return reader;
+        }
+
+        synchronized (this) {
+            if (this.closed) {
+                throw new SQLException("The read connection pool is closed");
+            }
+
+            if (this.connectionCount < this.maximumConnectionCount) {
+                ++this.connectionCount;
+
+                try {
+                    return this.open();
+                } catch (final Throwable th) {
+                    --this.connectionCount;
+                    throw th;
+                }
+            }
+        }
+
+        try {
+            // Wait in bounded intervals so that close() never leaves a
+            // borrower blocked on a queue that nothing will be returned to
+            while (true) {
+                final ReadOnlyGeoPackage pooledReader = this.idle.poll(ClosedCheckMilliseconds, TimeUnit.MILLISECONDS);
+
+                if (this.closed) {
+                    if (pooledReader != null) {
+                        this.release(pooledReader);
+                    }
+
+                    throw new SQLException("The read connection pool is closed");
+                }
+
+                if (pooledReader != null) {
+                    return pooledReader;
+                }
+            }
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection");
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        synchronized (this) {
+            this.closed = true;
+        }
+
+        ReadOnlyGeoPackage reader;
+
+        while ((reader = this.idle.poll()) != null) {
+            reader.getDatabaseConnection().close();
+        }
+    }
+
+    private void release(final ReadOnlyGeoPackage reader) {
+        // Checked and offered under the pool's lock, so close() either sees
+        // the reader in the idle queue or the reader sees the pool closed
+        synchronized (this) {
+            if (!this.closed && this.idle.offer(reader)) {
+                return;
+            }
+        }
+
+        // Returned after the pool was closed
+        try {
+            reader.getDatabaseConnection().close();
+        } catch (final SQLException ignored) {
+            // The connection is being discarded
+        }
+    }
+
+    private ReadOnlyGeoPackage open() throws SQLException {
+        final Connection connection = DriverManager.getConnection("jdbc:sqlite:" + this.file.toURI());
+
+        try {
+            DatabaseUtility.setPragmaQueryOnly(connection, ToggleState.ON);
+            DatabaseUtility.setPragmaMmapSize(connection, MemoryMapByteSize);
+            DatabaseUtility.setPragmaCacheSize(connection, CacheKibibyteSize);
+
+            return new ReadOnlyGeoPackage(connection, this::release);
+        } catch (final Throwable th) {
+            connection.close();
+            throw th;
+        }
+    }
+
+    private static final long MemoryMapByteSize = 64L * 1024 * 1024;  // Per connection, but mapped pages are shared by the operating system
+    private static final int CacheKibibyteSize = 8 * 1024;
+    private static final long ClosedCheckMilliseconds = 100;
+
+    private final File file;
+    private final int maximumConnectionCount;
+    private final BlockingQueue<ReadOnlyGeoPackage> idle;
+
+    private int connectionCount;
+    private volatile boolean closed;
+}
@@ -0,0 +1,139 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.geopackage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+import rgi.geopackage.core.GeoPackageCore;
+import rgi.geopackage.features.GeoPackageFeatures;
+import rgi.geopackage.tiles.GeoPackageTiles;
+
+/**
+ * A read-only view of a GeoPackage, backed by a single database connection
+ * borrowed from its owner with {@link GeoPackage#borrowReader()}. Each thread
+ * should borrow its own view, and close it (which returns the connection) as
+ * soon as it's done reading. Geometry factories registered with {@link
+ * GeoPackage#features()} are not shared with this view.
+ *
+ * @author Luke Lambert
+ */
+public final class ReadOnlyGeoPackage implements AutoCloseable {
+    /**
+     * Constructor
+     *
+     * @param databaseConnection Connection to read from
+     * @param release            Callback that returns this view to its owner
+     * @throws SQLException if the GeoPackage core can't be created
+     */
+    ReadOnlyGeoPackage(final Connection databaseConnection,
+                       final Consumer<ReadOnlyGeoPackage> release) throws SQLException {
+        this(databaseConnection, new GeoPackageCore(databaseConnection), release);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param databaseConnection Connection to read from
+     * @param core               GeoPackage core bound to the same connection
+     * @param release            Callback that returns this view to its owner
+     */
+    ReadOnlyGeoPackage(final Connection databaseConnection,
+                       final GeoPackageCore core,
+                       final Consumer<ReadOnlyGeoPackage> release) {
+        this(databaseConnection,
+                core,
+                new GeoPackageFeatures(databaseConnection, core),
+                new GeoPackageTiles(databaseConnection, core),
+                release);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param databaseConnection Connection to read from
+     * @param core               GeoPackage core bound to the same connection
+     * @param features           GeoPackage features bound to the same connection
+     * @param tiles              GeoPackage tiles bound to the same connection
+     * @param release            Callback that returns this view to its owner
+     */
+    ReadOnlyGeoPackage(final Connection databaseConnection,
+                       final GeoPackageCore core,
+                       final GeoPackageFeatures features,
+                       final GeoPackageTiles tiles,
+                       final Consumer<ReadOnlyGeoPackage> release) {
+        this.databaseConnection = databaseConnection;
+        this.core = core;
+        this.features = features;
+        this.tiles = tiles;
+        this.release = release;
+    }
+
+    /**
+     * Access to GeoPackage's "core" functionality
+     *
+     * @return returns a handle to a GeoPackageCore object
+     */
+    public GeoPackageCore core() {
+        return this.core;
+    }
+
+    /**
+     * Access to GeoPackage's "features" functionality
+     *
+     * @return returns a handle to a GeoPackageFeatures object
+     */
+    public GeoPackageFeatures features() {
+        return this.features;
+    }
+
+    /**
+     * Access to GeoPackage's "tiles" functionality
+     *
+     * @return returns a handle to a GeoPackageTiles object
+     */
+    public GeoPackageTiles tiles() {
+        return this.tiles;
+    }
+
+    /**
+     * Returns the underlying connection to its owner. This view may not be
+     * used afterwards.
+     */
+    @Override
+    public void close() {
+        this.release.accept(this);
+    }
+
+    Connection getDatabaseConnection() {
+        return this.databaseConnection;
+    }
+
+    private final Connection databaseConnection;
+    private final GeoPackageCore core;
+    private final GeoPackageFeatures features;
+    private final GeoPackageTiles tiles;
+    private final Consumer<ReadOnlyGeoPackage> release;
+}
@@ -25,8 +25,6 @@ package rgi.geopackage.core;
 
 import android.text.TextUtils;
 
-import com.gisinfo.android.core.base.util.StringUtils;
-
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
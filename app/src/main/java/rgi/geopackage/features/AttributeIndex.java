@@ -0,0 +1,97 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.geopackage.features;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered set of attribute column names, mapping each name to its position in
+ * a {@link Feature}'s attribute values. A single index is shared by every
+ * feature returned from the same query, so each feature only carries an array
+ * of values rather than its own name-to-value map.
+ *
+ * @author Luke Lambert
+ */
+public final class AttributeIndex {
+    /**
+     * Constructor
+     *
+     * @param columnNames Attribute column names, in the order their values are
+     *                    stored
+     */
+    public AttributeIndex(final Collection<String> columnNames) {
+        if (columnNames == null) {
+            throw new IllegalArgumentException("Column names may not be null");
+        }
+
+        this.columnNames = Collections.unmodifiableList(new ArrayList<>(columnNames));
+        this.positions = new HashMap<>(this.columnNames.size() * 2);
+
+        for (int position = 0; position < this.columnNames.size(); ++position) {
+            final String columnName = this.columnNames.get(position);
+
+            if (columnName == null || columnName.isEmpty()) {
+                throw new IllegalArgumentException("Column names may not be null or empty");
+            }
+
+            if (this.positions.put(columnName, position) != null) {
+                throw new IllegalArgumentException(String.format("Duplicate column name: %s", columnName));
+            }
+        }
+    }
+
+    /**
+     * @return the attribute column names, in the order their values are stored
+     */
+    public List<String> getColumnNames() {
+        return this.columnNames;
+    }
+
+    /**
+     * @return the number of attribute columns
+     */
+    public int size() {
+        return this.columnNames.size();
+    }
+
+    /**
+     * @param columnName Attribute column name
+     * @return the position of the column's value, or -1 if the column isn't
+     * part of this index
+     */
+    public int getPosition(final String columnName) {
+        final Integer position = this.positions.get(columnName);
+        return position == null ? -1 : position;
+    }
+
+    static final AttributeIndex Empty = new AttributeIndex(Collections.emptyList());
+
+    private final List<String> columnNames;
+    private final Map<String, Integer> positions;
+}
@@ -329,6 +329,33 @@ public class BinaryHeader {
 
     }
 
+    /**
+     * Constructs a standard binary header from a precomputed envelope, and
+     * writes it to a byte buffer. This is used when the geometry is only
+     * available as well known binary, and never materialized as a {@link
+     * Geometry}.
+     *
+     * @param byteOutputStream                 Destination for the bytes of the header
+     * @param envelope                         Envelope of the geometry. An empty envelope marks the
+     *                                         geometry as empty, and no envelope array is written.
+     * @param spatialReferenceSystemIdentifier Spatial reference system identifier for the geometry
+     */
+    public static void writeBytes(final ByteOutputStream byteOutputStream,
+                                  final Envelope envelope,
+                                  final int spatialReferenceSystemIdentifier) {
+        if (envelope == null) {
+            throw new IllegalArgumentException("Envelope may not be null");
+        }
+
+        new BinaryHeader(defaultVersion,
+                BinaryType.Standard,
+                envelope.isEmpty() ? Contents.Empty : Contents.NotEmpty,
+                defaultByteOrder,
+                spatialReferenceSystemIdentifier,
+                envelope.getContentsIndicator(),
+                envelope.toArray()).writeBytes(byteOutputStream);
+    }
+
     private static double[] getHeaderEnvelopeDoubles(final byte[] header,
                                                      final ByteOrder byteOrder,
                                                      final int numberOfDoubles) {
@@ -30,7 +30,9 @@ import java.util.Map;
 import rgi.geopackage.features.geometry.Geometry;
 
 /**
- * Representation of a row in a GeoPackage features table
+ * Representation of a row in a GeoPackage features table. Attribute values
+ * are held in an array whose layout is described by an {@link AttributeIndex}
+ * shared by all of the features read by the same query.
  *
  * @author Luke Lambert
  */
@@ -46,14 +48,41 @@ public class Feature {
     protected Feature(final int identifier,
                       final Geometry geometry,
                       final Map<String, Object> attributes) {
+        this(identifier,
+                geometry,
+                attributes == null ? AttributeIndex.Empty : new AttributeIndex(attributes.keySet()),
+                attributes == null ? new Object[0] : attributes.values().toArray());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param identifier      Unique integer identifier
+     * @param geometry        Feature geometry
+     * @param attributeIndex  Layout of the attribute values
+     * @param attributeValues Attribute values, in the order of the attribute
+     *                        index. The array is not copied.
+     */
+    protected Feature(final int identifier,
+                      final Geometry geometry,
+                      final AttributeIndex attributeIndex,
+                      final Object[] attributeValues) {
         if (geometry == null) {
             throw new IllegalArgumentException("Geometry may not be null");
         }
 
+        if (attributeIndex == null) {
+            throw new IllegalArgumentException("Attribute index may not be null");
+        }
+
+        if (attributeValues == null || attributeValues.length != attributeIndex.size()) {
+            throw new IllegalArgumentException("There must be exactly one attribute value per column of the attribute index");
+        }
+
         this.identifier = identifier;
         this.geometry = geometry;
-        this.attributes = attributes == null ? Collections.emptyMap()
-                : new HashMap<>(attributes);
+        this.attributeIndex = attributeIndex;
+        this.attributeValues = attributeValues;
     }
 
     /**
@@ -71,13 +100,60 @@ public class Feature {
     }
 
     /**
-     * @return the attributes
+     * @return the attributes. The map is built on the first call and shared
+     * by later ones.
      */
     public Map<String, Object> getAttributes() {
-        return Collections.unmodifiableMap(this.attributes);
+        if (this.attributes == null) {
+            final Map<String, Object> attributes = new HashMap<>(this.attributeValues.length * 2);
+
+            for (int position = 0; position < this.attributeValues.length; ++position) {
+                attributes.put(this.attributeIndex.getColumnNames().get(position), this.attributeValues[position]);
+            }
+
+            // Unmodifiable maps hold their contents in a final field, so a racing thread sees a complete map
+            this.attributes = Collections.unmodifiableMap(attributes);
+        }
+
+        return this.attributes;
+    }
+
+    /**
+     * @return the layout of this feature's attribute values
+     */
+    public AttributeIndex getAttributeIndex() {
+        return this.attributeIndex;
+    }
+
+    /**
+     * @param columnName Attribute column name
+     * @return the value of the attribute
+     * @throws IllegalArgumentException if the column isn't one of this
+     *                                  feature's attributes
+     */
+    public Object getAttribute(final String columnName) {
+        final int position = this.attributeIndex.getPosition(columnName);
+
+        if (position < 0) {
+            throw new IllegalArgumentException(String.format("Feature has no attribute named %s", columnName));
+        }
+
+        return this.attributeValues[position];
+    }
+
+    /**
+     * @param position Position of the attribute, as given by {@link
+     *                 AttributeIndex#getPosition(String)}
+     * @return the value of the attribute
+     */
+    public Object getAttribute(final int position) {
+        return this.attributeValues[position];
     }
 
     private final int identifier;
     private final Geometry geometry;
-    private final Map<String, Object> attributes;
+    private final AttributeIndex attributeIndex;
+    private final Object[] attributeValues;
+
+    private Map<String, Object> attributes;
 }
@@ -26,6 +26,7 @@ package rgi.geopackage.features;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -35,10 +36,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.DoubleFunction;
 import java.util.stream.Collectors;
 
 import rgi.common.BoundingBox;
@@ -49,7 +52,12 @@ import rgi.geopackage.core.GeoPackageCore;
 import rgi.geopackage.core.SpatialReferenceSystem;
 import rgi.geopackage.features.geometry.Geometry;
 import rgi.geopackage.features.geometry.GeometryFactory;
+import rgi.geopackage.features.geometry.GeometrySimplifier;
+import rgi.geopackage.features.geometry.xy.Envelope;
+import rgi.geopackage.schema.DataColumnValidator;
+import rgi.geopackage.utility.ColumnPredicate;
 import rgi.geopackage.utility.DatabaseUtility;
+import rgi.geopackage.utility.SelectBuilder;
 import rgi.geopackage.verification.VerificationIssue;
 import rgi.geopackage.verification.VerificationLevel;
 
@@ -399,33 +407,39 @@ public class GeoPackageFeatures {
             throw new IllegalArgumentException("Feature set may not be null");
         }
 
-        final String featureQuery = String.format("SELECT %s, %s%s FROM %s",
-                featureSet.getPrimaryKeyColumnName(),
-                featureSet.getGeometryColumnName(),
-                featureSet.getAttributeColumnNames().isEmpty() ? ""
-                        : ", " + String.join(", ", featureSet.getAttributeColumnNames()),
-                featureSet.getTableName());
-
-        try (final Statement statement = this.databaseConnection.createStatement()) {
-            //noinspection JDBCExecuteWithNonConstantString
-            try (final ResultSet resultSet = statement.executeQuery(featureQuery)) {
-                final List<Feature> results = new ArrayList<>();
-
-                while (resultSet.next()) {
-                    final Map<String, Object> attributes = new HashMap<>();
+        return this.getFeatures(featureSet,
+                featureSet.getAttributeColumnNames(),
+                Collections.emptyList());
+    }
 
-                    for (final String columnName : featureSet.getAttributeColumnNames()) {
-                        attributes.put(columnName, resultSet.getObject(columnName));
-                    }
+    /**
+     * Returns a list of the features of a feature set that satisfy all of the
+     * supplied predicates. Only the requested attribute columns are read. If a
+     * large set of features is anticipated use {@link #visitFeatures(FeatureSet,
+     * Collection, List, Consumer)} to avoid memory issues
+     *
+     * @param featureSet           Handle to a feature table
+     * @param attributeColumnNames Attribute columns to read. The returned
+     *                             features share a single {@link AttributeIndex}
+     *                             with the columns in this order.
+     * @param where                Predicates that the features must satisfy.
+     *                             These are evaluated by the database. May be
+     *                             empty, in which case every feature is returned.
+     * @return List of features
+     * @throws SQLException                   if there is a database error
+     * @throws WellKnownBinaryFormatException if any of the features contain malformed Well Known Binary data
+     */
+    public List<Feature> getFeatures(final FeatureSet featureSet,
+                                     final Collection<String> attributeColumnNames,
+                                     final List<ColumnPredicate> where) throws SQLException, WellKnownBinaryFormatException {
+        final List<Feature> results = new ArrayList<>();
 
-                    results.add(new Feature(resultSet.getInt(featureSet.getPrimaryKeyColumnName()),
-                            this.createGeometry(resultSet.getBytes(featureSet.getGeometryColumnName())),
-                            attributes));
-                }
+        this.visitFeatures(featureSet,
+                attributeColumnNames,
+                where,
+                results::add);
 
-                return results;
-            }
-        }
+        return results;
     }
 
     /**
@@ -443,33 +457,11 @@ public class GeoPackageFeatures {
             throw new IllegalArgumentException("Feature set may not be null");
         }
 
-        final String featureQuery = String.format("SELECT %s%s FROM %s WHERE %s = ?",
-                featureSet.getGeometryColumnName(),
-                featureSet.getAttributeColumnNames().isEmpty() ? ""
-                        : ", " + String.join(", ", featureSet.getAttributeColumnNames()),
-                featureSet.getTableName(),
-                featureSet.getPrimaryKeyColumnName());
-
-        final Pair<byte[], Map<String, Object>> feature = JdbcUtility.selectOne(this.databaseConnection,
-                featureQuery,
-                preparedStatement -> preparedStatement.setInt(1, featureIdentifier),
-                resultSet -> {
-                    final Map<String, Object> attributes = new HashMap<>();
-
-                    for (final String columnName : featureSet.getAttributeColumnNames()) {
-                        attributes.put(columnName, resultSet.getObject(columnName));
-                    }
-
-                    return Pair.of(resultSet.getBytes(featureSet.getGeometryColumnName()),
-                            attributes);
-                });
-        if (feature == null) {
-            return null;
-        }
+        final List<Feature> features = this.getFeatures(featureSet,
+                featureSet.getAttributeColumnNames(),
+                Collections.singletonList(ColumnPredicate.equal(featureSet.getPrimaryKeyColumnName(), featureIdentifier)));
 
-        return new Feature(featureIdentifier,
-                this.createGeometry(feature.getLeft()),
-                feature.getRight());
+        return features.isEmpty() ? null : features.get(0);
     }
 
     /**
@@ -486,30 +478,88 @@ public class GeoPackageFeatures {
             throw new IllegalArgumentException("Geometry column may not be null");
         }
 
+        this.visitFeatures(featureSet,
+                featureSet.getAttributeColumnNames(),
+                Collections.emptyList(),
+                featureConsumer);
+    }
+
+    /**
+     * Applies a consumer to every feature in a feature set that satisfies all
+     * of the supplied predicates. Only the primary key, the geometry and the
+     * requested attribute columns are selected, and values are read by column
+     * position into an array per feature.
+     *
+     * @param featureSet           Handle to a feature table
+     * @param attributeColumnNames Attribute columns to read. The visited
+     *                             features share a single {@link AttributeIndex}
+     *                             with the columns in this order.
+     * @param where                Predicates that the features must satisfy.
+     *                             These are evaluated by the database. May be
+     *                             empty, in which case every feature is visited.
+     * @param featureConsumer      Callback that operates on a single feature
+     * @throws SQLException                   if there is a database error
+     * @throws WellKnownBinaryFormatException if any of the features contain malformed Well Known Binary data
+     */
+    public void visitFeatures(final FeatureSet featureSet,
+                              final Collection<String> attributeColumnNames,
+                              final List<ColumnPredicate> where,
+                              final Consumer<Feature> featureConsumer) throws SQLException, WellKnownBinaryFormatException {
+        if (featureSet == null) {
+            throw new IllegalArgumentException("Feature set may not be null");
+        }
+
+        if (attributeColumnNames == null) {
+            throw new IllegalArgumentException("Attribute column names may not be null");
+        }
+
+        if (where == null) {
+            throw new IllegalArgumentException("Where predicates may not be null");
+        }
+
         if (featureConsumer == null) {
             throw new IllegalArgumentException("Feature consumer may not be null");
         }
 
-        final String featureQuery = String.format("SELECT %s, %s%s FROM %s",
-                featureSet.getPrimaryKeyColumnName(),
-                featureSet.getGeometryColumnName(),
-                featureSet.getAttributeColumnNames().isEmpty() ? ""
-                        : ", " + String.join(", ", featureSet.getAttributeColumnNames()),
-                featureSet.getTableName());
+        for (final String columnName : attributeColumnNames) {
+            if (featureSet.getAttributeColumnNames().stream().noneMatch(name -> name.equalsIgnoreCase(columnName))) {
+                throw new IllegalArgumentException(String.format("%s is not an attribute column of %s", columnName, featureSet.getTableName()));
+            }
+        }
 
-        try (final Statement statement = this.databaseConnection.createStatement()) {
-            //noinspection JDBCExecuteWithNonConstantString
-            try (final ResultSet resultSet = statement.executeQuery(featureQuery)) {
+        for (final ColumnPredicate predicate : where) {
+            final String columnName = predicate.getColumnName();
+
+            if (!columnName.equalsIgnoreCase(featureSet.getPrimaryKeyColumnName()) &&
+                featureSet.getAttributeColumnNames().stream().noneMatch(name -> name.equalsIgnoreCase(columnName))) {
+                throw new IllegalArgumentException(String.format("Predicates may only test the primary key or attribute columns of %s", featureSet.getTableName()));
+            }
+        }
+
+        final AttributeIndex attributeIndex = new AttributeIndex(attributeColumnNames);
+
+        final List<String> selectColumns = new ArrayList<>(attributeIndex.size() + 2);
+
+        selectColumns.add(featureSet.getPrimaryKeyColumnName());
+        selectColumns.add(featureSet.getGeometryColumnName());
+        selectColumns.addAll(attributeIndex.getColumnNames());
+
+        try (final SelectBuilder selectBuilder = new SelectBuilder(this.databaseConnection,
+                featureSet.getTableName(),
+                selectColumns,
+                where)) {
+            try (final ResultSet resultSet = selectBuilder.executeQuery()) {
                 while (resultSet.next()) {
-                    final Map<String, Object> attributes = new HashMap<>();
+                    final Object[] attributeValues = new Object[attributeIndex.size()];
 
-                    for (final String columnName : featureSet.getAttributeColumnNames()) {
-                        attributes.put(columnName, resultSet.getObject(columnName));
+                    for (int position = 0; position < attributeValues.length; ++position) {
+                        attributeValues[position] = resultSet.getObject(position + 3);   // 1-indexed, after the primary key and geometry
                     }
 
-                    featureConsumer.accept(new Feature(resultSet.getInt(featureSet.getPrimaryKeyColumnName()),
-                            this.createGeometry(resultSet.getBytes(featureSet.getGeometryColumnName())),
-                            attributes));
+                    featureConsumer.accept(new Feature(resultSet.getInt(1),
+                            this.createGeometry(resultSet.getBytes(2)),
+                            attributeIndex,
+                            attributeValues));
                 }
             }
         }
@@ -680,6 +730,268 @@ public class GeoPackageFeatures {
         this.databaseConnection.commit();
     }
 
+    /**
+     * Streams features with pre-encoded geometries into a feature set. Unlike
+     * {@link #addFeatures(GeometryColumn, List, Iterable)}, the features are
+     * consumed one at a time and never held in memory together, and the
+     * inserts are committed every <tt>batchSize</tt> features rather than in
+     * a single transaction. If an error occurs, only the current batch is
+     * rolled back; previously committed batches remain in the table.
+     *
+     * @param geometryColumn       Geometry column of the target feature set
+     * @param attributeColumnNames A list of columns for which the attribute values are being
+     *                             provided
+     * @param features             Source of features. Each feature's attribute list must have
+     *                             the same number and order of values as specified by the
+     *                             attributeColumnNames parameter.
+     * @param batchSize            Number of features inserted per transaction
+     * @return the number of features inserted
+     * @throws SQLException if there is a database error
+     */
+    public long addFeatures(final GeometryColumn geometryColumn,
+                            final List<String> attributeColumnNames,
+                            final Iterator<WellKnownBinaryFeature> features,
+                            final int batchSize) throws SQLException {
+        return this.insertFeatures(geometryColumn,
+                attributeColumnNames,
+                features,
+                batchSize,
+                null,
+                null);
+    }
+
+    /**
+     * Streams features with pre-encoded geometries into a feature set,
+     * validating each one first. This behaves like {@link
+     * #addFeatures(GeometryColumn, List, Iterator, int)}, except that a
+     * feature that can't be inserted doesn't abort the load. Instead, the
+     * feature is skipped, and reported to <tt>rejectedFeatures</tt>. A
+     * feature is rejected if it is null, if it has the wrong number of
+     * attributes, if its geometry doesn't fit the geometry column, if an
+     * attribute value doesn't satisfy its column's data column constraint,
+     * or if the database refuses the row (e.g. a NOT NULL or UNIQUE
+     * violation).
+     * <br>
+     * <br>
+     * The constraint checks are done in memory by <tt>validator</tt>, so a
+     * validated load costs about the same as an unvalidated one. Get the
+     * validator once per feature set with {@link
+     * rgi.geopackage.schema.GeoPackageSchema#getDataColumnValidator(rgi.geopackage.core.Content)}.
+     *
+     * @param geometryColumn       Geometry column of the target feature set
+     * @param attributeColumnNames A list of columns for which the attribute values are being
+     *                             provided
+     * @param features             Source of features. Each feature's attribute list must have
+     *                             the same number and order of values as specified by the
+     *                             attributeColumnNames parameter.
+     * @param batchSize            Number of features inserted per transaction
+     * @param validator            Data column constraints of the target feature set
+     * @param rejectedFeatures     Callback that receives each feature that was not inserted,
+     *                             as soon as it's rejected
+     * @return the number of features inserted
+     * @throws SQLException if there is a database error that isn't specific to a single
+     *                      feature, e.g. a failed commit
+     */
+    public long addFeatures(final GeometryColumn geometryColumn,
+                            final List<String> attributeColumnNames,
+                            final Iterator<WellKnownBinaryFeature> features,
+                            final int batchSize,
+                            final DataColumnValidator validator,
+                            final Consumer<RejectedFeature> rejectedFeatures) throws SQLException {
+        if (validator == null) {
+            throw new IllegalArgumentException("Validator may not be null");
+        }
+
+        if (rejectedFeatures == null) {
+            throw new IllegalArgumentException("Rejected feature callback may not be null");
+        }
+
+        if (geometryColumn != null && !validator.getTableName().equals(geometryColumn.getTableName())) {
+            throw new IllegalArgumentException("Validator must belong to the geometry column's feature set");
+        }
+
+        return this.insertFeatures(geometryColumn,
+                attributeColumnNames,
+                features,
+                batchSize,
+                validator,
+                rejectedFeatures);
+    }
+    /**
+     * Creates (or rebuilds) a companion table of simplified geometries for a
+     * feature set, one level of detail per zoom level. The simplification
+     * tolerance for zoom level <i>z</i> is <tt>zoomZeroTolerance / 2^z</tt>.
+     * A level is only stored for a feature if its geometry differs from the
+     * next finer level (or from the original geometry, for the finest level),
+     * so features that don't simplify cost nothing. Use {@link
+     * #getSimplifiedGeometry(FeatureSet, int, int)} to read a level back.
+     * <br>
+     * <br>
+     * The companion table is named <tt>&lt;feature table&gt;_lod</tt>, and has
+     * the columns <tt>id</tt> (the feature's primary key), <tt>zoom_level</tt>
+     * and <tt>geom</tt>. It is not registered as content, and is not part of
+     * the GeoPackage standard.
+     *
+     * @param featureSet        Handle to a feature table
+     * @param minimumZoomLevel  Lowest (coarsest) zoom level to generate
+     * @param maximumZoomLevel  Highest (finest) zoom level to generate
+     * @param zoomZeroTolerance Simplification tolerance at zoom level 0, in the
+     *                          units of the feature set's spatial reference system
+     * @param batchSize         Number of features simplified per transaction
+     * @return the name of the companion table
+     * @throws SQLException                   if there is a database error
+     * @throws WellKnownBinaryFormatException if a geometry contains malformed well known
+     *                                        binary data
+     */
+    public String addLevelsOfDetail(final FeatureSet featureSet,
+                                    final int minimumZoomLevel,
+                                    final int maximumZoomLevel,
+                                    final double zoomZeroTolerance,
+                                    final int batchSize) throws SQLException, WellKnownBinaryFormatException {
+        if (featureSet == null) {
+            throw new IllegalArgumentException("Feature set may not be null");
+        }
+
+        if (minimumZoomLevel < 0 || maximumZoomLevel < minimumZoomLevel) {
+            throw new IllegalArgumentException("Zoom levels must be non-negative, and the minimum may not exceed the maximum");
+        }
+
+        if (!(zoomZeroTolerance > 0.0)) {
+            throw new IllegalArgumentException("Zoom level 0 tolerance must be greater than 0");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+
+        final int spatialReferenceSystemIdentifier = this.getGeometryColumn(featureSet).getSpatialReferenceSystemIdentifier();
+
+        final String levelOfDetailTableName = featureSet.getTableName() + LevelOfDetailTableSuffix;
+
+        JdbcUtility.update(this.databaseConnection,
+                String.format("CREATE TABLE IF NOT EXISTS %s (id INTEGER NOT NULL, zoom_level INTEGER NOT NULL, geom BLOB NOT NULL, PRIMARY KEY (id, zoom_level))",
+                        levelOfDetailTableName));
+
+        JdbcUtility.update(this.databaseConnection,
+                String.format("DELETE FROM %s", levelOfDetailTableName));
+
+        this.databaseConnection.commit();
+
+        final String pageQuery = String.format("SELECT %s, %s FROM %s WHERE %1$s > ? ORDER BY %1$s LIMIT ?",
+                featureSet.getPrimaryKeyColumnName(),
+                featureSet.getGeometryColumnName(),
+                featureSet.getTableName());
+
+        final String insertLevelSql = String.format("INSERT INTO %s (id, zoom_level, geom) VALUES (?, ?, ?)",
+                levelOfDetailTableName);
+
+        final List<Pair<Integer, byte[]>> page = new ArrayList<>(batchSize);
+
+        int lastIdentifier = Integer.MIN_VALUE;
+
+        try (final PreparedStatement pageStatement = this.databaseConnection.prepareStatement(pageQuery);
+             final PreparedStatement insertStatement = this.databaseConnection.prepareStatement(insertLevelSql)) {
+            while (true) {
+                pageStatement.setInt(1, lastIdentifier);
+                pageStatement.setInt(2, batchSize);
+
+                page.clear();
+
+                try (final ResultSet resultSet = pageStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        lastIdentifier = resultSet.getInt(1);
+                        page.add(Pair.of(lastIdentifier, resultSet.getBytes(2)));
+                    }
+                }
+
+                for (final Pair<Integer, byte[]> feature : page) {
+                    if (feature.getRight() == null) {
+                        continue;
+                    }
+
+                    final Geometry geometry = this.createGeometry(feature.getRight());
+
+                    // Vertex importance is calculated once per geometry; each zoom level is only a threshold over it
+                    final DoubleFunction<Geometry> levelsOfDetail = GeometrySimplifier.prepare(geometry);
+
+                    Geometry finer = geometry;
+
+                    for (int zoomLevel = maximumZoomLevel; zoomLevel >= minimumZoomLevel; --zoomLevel) {
+                        final Geometry simplified = levelsOfDetail.apply(zoomZeroTolerance / Math.pow(2.0, zoomLevel));
+
+                        if (!simplified.equals(finer)) {
+                            insertStatement.setInt(1, feature.getLeft());
+                            insertStatement.setInt(2, zoomLevel);
+                            insertStatement.setBytes(3, createBlob(simplified, spatialReferenceSystemIdentifier));
+                            insertStatement.executeUpdate();
+
+                            finer = simplified;
+                        }
+                    }
+                }
+
+                this.databaseConnection.commit();
+
+                if (page.size() < batchSize) {
+                    return levelOfDetailTableName;
+                }
+            }
+        } catch (final Throwable th) {
+            this.databaseConnection.rollback();
+            throw th;
+        }
+    }
+
+    /**
+     * Gets the geometry of a feature at a level of detail created by {@link
+     * #addLevelsOfDetail(FeatureSet, int, int, double, int)}
+     *
+     * @param featureSet Handle to a feature table
+     * @param featureId  Primary key of the feature
+     * @param zoomLevel  Zoom level
+     * @return the simplified geometry for the zoom level, or the feature's
+     * original geometry if no simplified version is stored for it. Returns
+     * null if the feature doesn't exist.
+     * @throws SQLException                   if there is a database error
+     * @throws WellKnownBinaryFormatException if the geometry contains malformed well known
+     *                                        binary data
+     */
+    public Geometry getSimplifiedGeometry(final FeatureSet featureSet,
+                                          final int featureId,
+                                          final int zoomLevel) throws SQLException, WellKnownBinaryFormatException {
+        if (featureSet == null) {
+            throw new IllegalArgumentException("Feature set may not be null");
+        }
+
+        final String levelOfDetailTableName = featureSet.getTableName() + LevelOfDetailTableSuffix;
+
+        if (DatabaseUtility.doesTableOrViewExists(this.databaseConnection, levelOfDetailTableName)) {
+            // The stored level with the smallest zoom level >= the requested level is the one in effect
+            final byte[] simplified = JdbcUtility.selectOne(this.databaseConnection,
+                    String.format("SELECT geom FROM %s WHERE id = ? AND zoom_level >= ? ORDER BY zoom_level LIMIT 1",
+                            levelOfDetailTableName),
+                    preparedStatement -> {
+                        preparedStatement.setInt(1, featureId);
+                        preparedStatement.setInt(2, zoomLevel);
+                    },
+                    resultSet -> resultSet.getBytes(1));
+
+            if (simplified != null) {
+                return this.createGeometry(simplified);
+            }
+        }
+
+        final byte[] original = JdbcUtility.selectOne(this.databaseConnection,
+                String.format("SELECT %s FROM %s WHERE %s = ?",
+                        featureSet.getGeometryColumnName(),
+                        featureSet.getTableName(),
+                        featureSet.getPrimaryKeyColumnName()),
+                preparedStatement -> preparedStatement.setInt(1, featureId),
+                resultSet -> resultSet.getBytes(1));
+
+        return original == null ? null : this.createGeometry(original);
+    }
+
     /**
      * Associate a geometry factory with a specific geometry type code.
      *
@@ -766,6 +1078,147 @@ public class GeoPackageFeatures {
                 " CONSTRAINT fk_gc_srs        FOREIGN KEY (srs_id)     REFERENCES gpkg_spatial_ref_sys (srs_id));";
     }
 
+    /**
+     * Implements both streaming inserts. If <tt>rejectedFeatures</tt> is
+     * null, the first invalid feature aborts the load with an exception.
+     */
+    private long insertFeatures(final GeometryColumn geometryColumn,
+                                final List<String> attributeColumnNames,
+                                final Iterator<WellKnownBinaryFeature> features,
+                                final int batchSize,
+                                final DataColumnValidator validator,
+                                final Consumer<RejectedFeature> rejectedFeatures) throws SQLException {
+        if (geometryColumn == null) {
+            throw new IllegalArgumentException("Geometry column may not be null");
+        }
+
+        if (attributeColumnNames == null) {
+            throw new IllegalArgumentException("Columns may not be null");
+        }
+
+        if (features == null) {
+            throw new IllegalArgumentException("Features may not be null");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+
+        final long geometryTypeCode = getGeometryTypeCode(geometryColumn.getGeometryType());
+
+        final List<String> columnNames = new LinkedList<>(attributeColumnNames);
+
+        columnNames.add(0, geometryColumn.getColumnName());
+
+        final int columnCount = columnNames.size();
+
+        final String insertFeatureSql = String.format("INSERT INTO %s (%s) VALUES (%s)",
+                geometryColumn.getTableName(),
+                String.join(", ", columnNames),
+                String.join(", ", Collections.nCopies(columnCount, "?")));
+
+        // Resolve each attribute's column validator once, rather than once per value
+        final DataColumnValidator.ColumnValidator[] columnValidators = new DataColumnValidator.ColumnValidator[attributeColumnNames.size()];
+
+        if (validator != null) {
+            for (int attributeIndex = 0; attributeIndex < columnValidators.length; ++attributeIndex) {
+                columnValidators[attributeIndex] = validator.getColumnValidator(attributeColumnNames.get(attributeIndex));
+            }
+        }
+
+        long featureIndex = -1;
+        long featureCount = 0;
+
+        try (final PreparedStatement preparedStatement = this.databaseConnection.prepareStatement(insertFeatureSql)) {
+            featureLoop:
+            while (features.hasNext()) {
+                final WellKnownBinaryFeature feature = features.next();
+
+                ++featureIndex;
+
+                if (feature == null) {
+                    reject(rejectedFeatures, featureIndex, null, null, "Features may not contain null features");
+                    continue;
+                }
+
+                final List<Object> attributes = feature.getAttributes();
+
+                if (attributes.size() != attributeColumnNames.size()) {
+                    reject(rejectedFeatures, featureIndex, feature, null, "Feature attribute collections must match the size of the attribute column name collection");
+                    continue;
+                }
+
+                try {
+                    verifyGeometryType(geometryColumn, geometryTypeCode, feature.getWellKnownBinary());
+                } catch (final IllegalArgumentException ex) {
+                    reject(rejectedFeatures, featureIndex, feature, null, ex.getMessage());
+                    continue;
+                }
+
+                for (int attributeIndex = 0; attributeIndex < columnValidators.length; ++attributeIndex) {
+                    final DataColumnValidator.ColumnValidator columnValidator = columnValidators[attributeIndex];
+
+                    if (columnValidator != null && !columnValidator.isValid(attributes.get(attributeIndex))) {
+                        reject(rejectedFeatures,
+                                featureIndex,
+                                feature,
+                                columnValidator.getColumnName(),
+                                String.format("Value '%s' of column '%s' does not satisfy the data column constraint '%s'",
+                                        attributes.get(attributeIndex),
+                                        columnValidator.getColumnName(),
+                                        columnValidator.getConstraintName()));
+                        continue featureLoop;
+                    }
+                }
+
+                preparedStatement.setBytes(1, createBlob(feature.getWellKnownBinary(),
+                        feature.getEnvelope(),
+                        geometryColumn.getSpatialReferenceSystemIdentifier()));
+
+                for (int parameterIndex = 2; parameterIndex <= columnCount; ++parameterIndex) {
+                    preparedStatement.setObject(parameterIndex, attributes.get(parameterIndex - 2));
+                }
+
+                try {
+                    preparedStatement.executeUpdate();
+                } catch (final SQLException ex) {
+                    // Only constraint violations are caused by the feature itself. SQLite rolls back just the failed
+                    // statement for those, so the rest of the batch is unaffected. Other errors (full disk, I/O,
+                    // out of memory) may have rolled back the whole transaction, and abort the load.
+                    if (rejectedFeatures == null || (ex.getErrorCode() & 0xFF) != SqliteConstraintResultCode) {
+                        throw ex;
+                    }
+
+                    rejectedFeatures.accept(new RejectedFeature(featureIndex, feature, null, ex.getMessage()));
+                    continue;
+                }
+
+                if (++featureCount % batchSize == 0) {
+                    this.databaseConnection.commit();
+                }
+            }
+
+            this.databaseConnection.commit();
+
+            return featureCount;
+        } catch (final Throwable th) {
+            this.databaseConnection.rollback();
+            throw th;
+        }
+    }
+
+    private static void reject(final Consumer<RejectedFeature> rejectedFeatures,
+                               final long featureIndex,
+                               final WellKnownBinaryFeature feature,
+                               final String columnName,
+                               final String reason) {
+        if (rejectedFeatures == null) {
+            throw new IllegalArgumentException(reason);
+        }
+
+        rejectedFeatures.accept(new RejectedFeature(featureIndex, feature, columnName, reason));
+    }
+
     private Geometry createGeometry(final byte[] geoPackageBinaryBlob) throws WellKnownBinaryFormatException {
         final BinaryHeader binaryHeader = new BinaryHeader(geoPackageBinaryBlob);   // This will throw if the array length is too short to contain a header (or if it's not long enough to contain the envelope type specified)
 
@@ -808,13 +1261,82 @@ public class GeoPackageFeatures {
         }
     }
 
+    private static byte[] createBlob(final byte[] wellKnownBinary,
+                                     final Envelope envelope,
+                                     final int spatialReferenceSystemIdentifier) {
+        try (final ByteOutputStream byteOutputStream = new ByteOutputStream(wellKnownBinary.length + MaximumHeaderByteSize)) {
+            BinaryHeader.writeBytes(byteOutputStream,
+                    envelope,
+                    spatialReferenceSystemIdentifier);
+
+            byteOutputStream.write(wellKnownBinary);
+
+            return byteOutputStream.array();
+        }
+    }
+
+    private Envelope getEnvelope(final byte[] geoPackageBinaryBlob) throws WellKnownBinaryFormatException {
+        final BinaryHeader binaryHeader = new BinaryHeader(geoPackageBinaryBlob);
+
+        if (binaryHeader.getContents() == Contents.Empty) {
+            return Envelope.Empty;
+        }
+
+        final Envelope envelope = binaryHeader.getEnvelope();
+
+        // Envelopes are optional in the header, fall back to computing it from the geometry
+        return envelope != null ? envelope
+                : this.createGeometry(geoPackageBinaryBlob).createEnvelope();
+    }
+
+    /**
+     * @return the core geometry type code for a geometry type name, or -1 if
+     * any geometry type is acceptable
+     */
+    private static long getGeometryTypeCode(final String geometryTypeName) {
+        for (final GeometryType geometryType : GeometryType.values()) {
+            if (geometryType.toString().equalsIgnoreCase(geometryTypeName)) {
+                return geometryType == GeometryType.Geometry ? -1 : geometryType.getCode();
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unrecognized geometry type name '%s'", geometryTypeName));
+    }
+
+    private static void verifyGeometryType(final GeometryColumn geometryColumn,
+                                           final long geometryTypeCode,
+                                           final byte[] wellKnownBinary) {
+        if (wellKnownBinary == null || wellKnownBinary.length < 5) {
+            throw new IllegalArgumentException("Well known binary must hold at least a byte order and a geometry type");
+        }
+
+        final ByteOrder byteOrder = wellKnownBinary[0] == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+
+        final long typeCode = Integer.toUnsignedLong(ByteBuffer.wrap(wellKnownBinary, 1, 4).order(byteOrder).getInt());
+
+        if (geometryTypeCode >= 0 && typeCode % 1000 != geometryTypeCode) {
+            throw new IllegalArgumentException(String.format("Well known binary geometry type %d is incompatible with the geometry column type code %d",
+                    typeCode,
+                    geometryTypeCode));
+        }
+
+        final long dimensionCode = typeCode / 1000;   // ISO 13249-3 / OGC 06-103r4 type code offsets: 1000 z, 2000 m, 3000 zm
+
+        verifyValueRequirements(geometryColumn,
+                dimensionCode == 1 || dimensionCode == 3,
+                dimensionCode == 2 || dimensionCode == 3);
+    }
+
     private static void verifyValueRequirements(final GeometryColumn geometryColumn, final Geometry geometry) {
+        verifyValueRequirements(geometryColumn, geometry.hasZ(), geometry.hasM());
+    }
+
+    private static void verifyValueRequirements(final GeometryColumn geometryColumn,
+                                                final boolean hasZ,
+                                                final boolean hasM) {
         final ValueRequirement zRequirement = geometryColumn.getZRequirement();
         final ValueRequirement mRequirement = geometryColumn.getMRequirement();
 
-        final boolean hasZ = geometry.hasZ();
-        final boolean hasM = geometry.hasM();
-
         if ((zRequirement == ValueRequirement.Prohibited && hasZ) ||
                 (zRequirement == ValueRequirement.Mandatory && !hasZ) ||
                 (mRequirement == ValueRequirement.Prohibited && hasM) ||
@@ -874,6 +1396,15 @@ public class GeoPackageFeatures {
      */
     public static final String GeometryColumnsTableName = "gpkg_geometry_columns";
 
+    /**
+     * Suffix appended to a feature table's name to form the name of its
+     * level of detail companion table
+     */
+    public static final String LevelOfDetailTableSuffix = "_lod";
+
+    private static final int SqliteConstraintResultCode = 19;   // SQLITE_CONSTRAINT; extended result codes keep it in the low byte
+    private static final int MaximumHeaderByteSize = 72;   // 8 bytes of flags and srs id, plus up to 8 envelope doubles
+
     private final Connection databaseConnection;
     private final GeoPackageCore core;
     private final WellKnownBinaryFactory wellKnownBinaryFactory = new WellKnownBinaryFactory();
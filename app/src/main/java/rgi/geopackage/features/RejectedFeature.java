@@ -0,0 +1,93 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.geopackage.features;
+
+/**
+ * A feature that was not inserted by {@link
+ * GeoPackageFeatures#addFeatures(GeometryColumn, java.util.List,
+ * java.util.Iterator, int, rgi.geopackage.schema.DataColumnValidator,
+ * java.util.function.Consumer)}, and the reason why
+ *
+ * @author Luke Lambert
+ */
+public class RejectedFeature {
+    /**
+     * Constructor
+     *
+     * @param index      Zero based position of the feature in the source
+     * @param feature    The rejected feature, or <code>null</code> if the source
+     *                   supplied a null feature
+     * @param columnName Name of the attribute column whose value was rejected, or
+     *                   <code>null</code> if the rejection doesn't concern a
+     *                   single column
+     * @param reason     Description of why the feature was rejected
+     */
+    protected RejectedFeature(final long index,
+                              final WellKnownBinaryFeature feature,
+                              final String columnName,
+                              final String reason) {
+        this.index = index;
+        this.feature = feature;
+        this.columnName = columnName;
+        this.reason = reason;
+    }
+
+    /**
+     * @return the index
+     */
+    public long getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @return the feature
+     */
+    public WellKnownBinaryFeature getFeature() {
+        return this.feature;
+    }
+
+    /**
+     * @return the columnName
+     */
+    public String getColumnName() {
+        return this.columnName;
+    }
+
+    /**
+     * @return the reason
+     */
+    public String getReason() {
+        return this.reason;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Feature %d rejected: %s", this.index, this.reason);
+    }
+
+    private final long index;
+    private final WellKnownBinaryFeature feature;
+    private final String columnName;
+    private final String reason;
+}
@@ -0,0 +1,91 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.geopackage.features;
+
+import java.util.Collections;
+import java.util.List;
+
+import rgi.geopackage.features.geometry.xy.Envelope;
+
+/**
+ * A feature whose geometry is already encoded as <a
+ * href="http://www.geopackage.org/spec/#wkb">well known binary</a>. Used to
+ * move features from other sources (e.g. OGR) into a GeoPackage without
+ * parsing the geometry into a {@link rgi.geopackage.features.geometry.Geometry}
+ * first.
+ *
+ * @author Luke Lambert
+ */
+public class WellKnownBinaryFeature {
+    /**
+     * Constructor
+     *
+     * @param wellKnownBinary ISO well known binary representation of the geometry
+     * @param envelope        Bounds of the geometry. Use {@link Envelope#Empty} for empty
+     *                        geometries.
+     * @param attributes      Attribute values, in the same order as the attribute column
+     *                        names they will be inserted with
+     */
+    public WellKnownBinaryFeature(final byte[] wellKnownBinary,
+                                  final Envelope envelope,
+                                  final List<Object> attributes) {
+        if (wellKnownBinary == null || wellKnownBinary.length < 5) {
+            throw new IllegalArgumentException("Well known binary must contain at least 5 bytes - the byte order indicator, followed by a 4 byte unsigned integer describing the geometry type");
+        }
+
+        if (envelope == null) {
+            throw new IllegalArgumentException("Envelope may not be null. Use Envelope.Empty to represent an empty geometry.");
+        }
+
+        this.wellKnownBinary = wellKnownBinary;
+        this.envelope = envelope;
+        this.attributes = attributes == null ? Collections.emptyList()
+                : attributes;
+    }
+
+    /**
+     * @return the well known binary. The array is not copied.
+     */
+    public byte[] getWellKnownBinary() {
+        return this.wellKnownBinary;
+    }
+
+    /**
+     * @return the envelope
+     */
+    public Envelope getEnvelope() {
+        return this.envelope;
+    }
+
+    /**
+     * @return the attribute values
+     */
+    public List<Object> getAttributes() {
+        return Collections.unmodifiableList(this.attributes);
+    }
+
+    private final byte[] wellKnownBinary;
+    private final Envelope envelope;
+    private final List<Object> attributes;
+}
@@ -0,0 +1,463 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.geopackage.features.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+import rgi.geopackage.features.geometry.m.CoordinateM;
+import rgi.geopackage.features.geometry.m.LinearRingM;
+import rgi.geopackage.features.geometry.m.WkbLineStringM;
+import rgi.geopackage.features.geometry.m.WkbMultiLineStringM;
+import rgi.geopackage.features.geometry.m.WkbMultiPolygonM;
+import rgi.geopackage.features.geometry.m.WkbPolygonM;
+import rgi.geopackage.features.geometry.xy.Coordinate;
+import rgi.geopackage.features.geometry.xy.LinearRing;
+import rgi.geopackage.features.geometry.xy.WkbLineString;
+import rgi.geopackage.features.geometry.xy.WkbMultiLineString;
+import rgi.geopackage.features.geometry.xy.WkbMultiPolygon;
+import rgi.geopackage.features.geometry.xy.WkbPolygon;
+import rgi.geopackage.features.geometry.z.CoordinateZ;
+import rgi.geopackage.features.geometry.z.LinearRingZ;
+import rgi.geopackage.features.geometry.z.WkbLineStringZ;
+import rgi.geopackage.features.geometry.z.WkbMultiLineStringZ;
+import rgi.geopackage.features.geometry.z.WkbMultiPolygonZ;
+import rgi.geopackage.features.geometry.z.WkbPolygonZ;
+import rgi.geopackage.features.geometry.zm.CoordinateZM;
+import rgi.geopackage.features.geometry.zm.LinearRingZM;
+import rgi.geopackage.features.geometry.zm.WkbLineStringZM;
+import rgi.geopackage.features.geometry.zm.WkbMultiLineStringZM;
+import rgi.geopackage.features.geometry.zm.WkbMultiPolygonZM;
+import rgi.geopackage.features.geometry.zm.WkbPolygonZM;
+
+/**
+ * Douglas-Peucker line simplification for the line string and polygon
+ * geometry types.
+ * <br>
+ * <br>
+ * Rather than running the algorithm once per tolerance, {@link
+ * #getVertexImportance(double[], double[])} runs it once with a tolerance of
+ * zero and records, for each vertex, the largest tolerance at which that
+ * vertex survives. Any level of detail can then be taken from the same array
+ * by keeping the vertices whose importance exceeds the level's tolerance, which
+ * makes it cheap to keep a whole pyramid of zoom levels for a geometry.
+ * Simplification only considers x and y; z and m values of the retained
+ * vertices are carried through unchanged.
+ * <br>
+ * <br>
+ * Closed rings are split at the vertex farthest from the first vertex, and
+ * simplified rings always keep at least four vertices, so they remain valid
+ * rings at any tolerance. Points, multi points, curves and geometry
+ * collections are returned unchanged.
+ *
+ * @author Luke Lambert
+ */
+public final class GeometrySimplifier {
+    private GeometrySimplifier() {
+
+    }
+
+    /**
+     * Simplifies a geometry
+     *
+     * @param geometry  Geometry to simplify
+     * @param tolerance Maximum distance, in the units of the geometry's
+     *                  coordinates, that the simplified geometry may deviate from
+     *                  the original
+     * @return a simplified copy of the geometry, or the geometry itself if its
+     * type isn't simplified
+     */
+    public static Geometry simplify(final Geometry geometry, final double tolerance) {
+        if (geometry == null) {
+            throw new IllegalArgumentException("Geometry may not be null");
+        }
+
+        if (tolerance < 0.0) {
+            throw new IllegalArgumentException("Tolerance may not be negative");
+        }
+
+        return simplify(geometry, tolerance, new IdentityHashMap<>());
+    }
+
+    /**
+     * Prepares a geometry to be simplified at many tolerances, e.g. one per
+     * zoom level. The vertex importance of each line string and ring is
+     * calculated the first time it's needed and reused for every later
+     * tolerance, so each additional level only costs a pass over the
+     * vertices.
+     *
+     * @param geometry Geometry to simplify
+     * @return a function from a tolerance to the simplified geometry, with
+     * the same results as {@link #simplify(Geometry, double)}. The function
+     * isn't thread safe.
+     */
+    public static DoubleFunction<Geometry> prepare(final Geometry geometry) {
+        if (geometry == null) {
+            throw new IllegalArgumentException("Geometry may not be null");
+        }
+
+        final Map<Object, double[]> importance = new IdentityHashMap<>();
+
+        return tolerance -> {
+            if (tolerance < 0.0) {
+                throw new IllegalArgumentException("Tolerance may not be negative");
+            }
+
+            return simplify(geometry, tolerance, importance);
+        };
+    }
+
+    @SuppressWarnings({"OverlyComplexMethod", "OverlyCoupledMethod"})
+    private static Geometry simplify(final Geometry geometry, final double tolerance, final Map<Object, double[]> importance) {
+        if (geometry instanceof WkbLineString) {
+            return simplify((WkbLineString) geometry, tolerance, importance);
+        }
+
+        if (geometry instanceof WkbPolygon) {
+            return simplify((WkbPolygon) geometry, tolerance, importance);
+        }
+
+        if (geometry instanceof WkbMultiLineString) {
+            return new WkbMultiLineString(map(((WkbMultiLineString) geometry).getLineStrings(), lineString -> simplify(lineString, tolerance, importance)));
+        }
+
+        if (geometry instanceof WkbMultiPolygon) {
+            return new WkbMultiPolygon(map(((WkbMultiPolygon) geometry).getPolygons(), polygon -> simplify(polygon, tolerance, importance)));
+        }
+
+        if (geometry instanceof WkbLineStringZ) {
+            return simplify((WkbLineStringZ) geometry, tolerance, importance);
+        }
+
+        if (geometry instanceof WkbPolygonZ) {
+            return simplify((WkbPolygonZ) geometry, tolerance, importance);
+        }
+
+        if (geometry instanceof WkbMultiLineStringZ) {
+            return new WkbMultiLineStringZ(map(((WkbMultiLineStringZ) geometry).getLineStrings(), lineString -> simplify(lineString, tolerance, importance)));
+        }
+
+        if (geometry instanceof WkbMultiPolygonZ) {
+            return new WkbMultiPolygonZ(map(((WkbMultiPolygonZ) geometry).getPolygons(), polygon -> simplify(polygon, tolerance, importance)));
+        }
+
+        if (geometry instanceof WkbLineStringM) {
+            return simplify((WkbLineStringM) geometry, tolerance, importance);
+        }
+
+        if (geometry instanceof WkbPolygonM) {
+            return simplify((WkbPolygonM) geometry, tolerance, importance);
+        }
+
+        if (geometry instanceof WkbMultiLineStringM) {
+            return new WkbMultiLineStringM(map(((WkbMultiLineStringM) geometry).getLineStrings(), lineString -> simplify(lineString, tolerance, importance)));
+        }
+
+        if (geometry instanceof WkbMultiPolygonM) {
+            return new WkbMultiPolygonM(map(((WkbMultiPolygonM) geometry).getPolygons(), polygon -> simplify(polygon, tolerance, importance)));
+        }
+
+        if (geometry instanceof WkbLineStringZM) {
+            return simplify((WkbLineStringZM) geometry, tolerance, importance);
+        }
+
+        if (geometry instanceof WkbPolygonZM) {
+            return simplify((WkbPolygonZM) geometry, tolerance, importance);
+        }
+
+        if (geometry instanceof WkbMultiLineStringZM) {
+            return new WkbMultiLineStringZM(map(((WkbMultiLineStringZM) geometry).getLineStrings(), lineString -> simplify(lineString, tolerance, importance)));
+        }
+
+        if (geometry instanceof WkbMultiPolygonZM) {
+            return new WkbMultiPolygonZM(map(((WkbMultiPolygonZM) geometry).getPolygons(), polygon -> simplify(polygon, tolerance, importance)));
+        }
+
+        return geometry;
+    }
+
+    /**
+     * Simplifies a sequence of coordinates
+     *
+     * @param coordinates Coordinates to simplify. If the first and last
+     *                    coordinates are equal, the sequence is treated as a
+     *                    closed ring.
+     * @param getX        Function that returns the x value of a coordinate
+     * @param getY        Function that returns the y value of a coordinate
+     * @param tolerance   Maximum distance the simplified sequence may deviate from
+     *                    the original
+     * @param <T>         Coordinate type
+     * @return the retained coordinates, in their original order
+     */
+    public static <T> List<T> simplify(final List<T> coordinates,
+                                       final ToDoubleFunction<T> getX,
+                                       final ToDoubleFunction<T> getY,
+                                       final double tolerance) {
+        if (coordinates == null) {
+            throw new IllegalArgumentException("Coordinates may not be null");
+        }
+
+        return filter(coordinates, getVertexImportance(coordinates, getX, getY), tolerance);
+    }
+
+    /**
+     * Calculates the Douglas-Peucker importance of each vertex of a line, the
+     * largest simplification tolerance at which the vertex is retained. The
+     * end points (and the anchor vertices of closed rings) have an importance of
+     * {@link Double#POSITIVE_INFINITY}. Importance never increases from a vertex
+     * to the vertices that are only considered once it has been retained, so
+     * the vertices kept for a larger tolerance are always a subset of the
+     * vertices kept for a smaller one.
+     *
+     * @param x x values of the vertices
+     * @param y y values of the vertices
+     * @return the importance of each vertex
+     */
+    public static double[] getVertexImportance(final double[] x, final double[] y) {
+        if (x == null || y == null || x.length != y.length) {
+            throw new IllegalArgumentException("The x and y arrays may not be null and must be the same length");
+        }
+
+        final int size = x.length;
+        final double[] importance = new double[size];
+
+        if (size <= 2) {
+            Arrays.fill(importance, Double.POSITIVE_INFINITY);
+            return importance;
+        }
+
+        final int last = size - 1;
+
+        importance[0] = Double.POSITIVE_INFINITY;
+        importance[last] = Double.POSITIVE_INFINITY;
+
+        // Sections of the line to be split: first index, last index, importance of the vertex that created the section
+        final List<double[]> stack = new ArrayList<>();
+
+        if (size >= 4 && x[0] == x[last] && y[0] == y[last]) {
+            // Closed ring: anchor on the vertex farthest from the start, and
+            // then on the vertex farthest from that chord so that at least four
+            // vertices (a triangle) always remain
+            int anchor = 1;
+            double anchorDistance = -1.0;
+
+            for (int index = 1; index < last; ++index) {
+                final double distance = Math.hypot(x[index] - x[0], y[index] - y[0]);
+
+                if (distance > anchorDistance) {
+                    anchor = index;
+                    anchorDistance = distance;
+                }
+            }
+
+            importance[anchor] = Double.POSITIVE_INFINITY;
+
+            final int first = farthest(x, y, 0, anchor);
+            final int second = farthest(x, y, anchor, last);
+
+            final double firstDistance = first < 0 ? -1.0 : segmentDistance(x, y, first, 0, anchor);
+            final double secondDistance = second < 0 ? -1.0 : segmentDistance(x, y, second, anchor, last);
+
+            if (firstDistance >= secondDistance && first >= 0) {
+                importance[first] = Double.POSITIVE_INFINITY;
+                stack.add(new double[]{0, first, Double.POSITIVE_INFINITY});
+                stack.add(new double[]{first, anchor, Double.POSITIVE_INFINITY});
+                stack.add(new double[]{anchor, last, Double.POSITIVE_INFINITY});
+            } else if (second >= 0) {
+                importance[second] = Double.POSITIVE_INFINITY;
+                stack.add(new double[]{0, anchor, Double.POSITIVE_INFINITY});
+                stack.add(new double[]{anchor, second, Double.POSITIVE_INFINITY});
+                stack.add(new double[]{second, last, Double.POSITIVE_INFINITY});
+            }
+        } else {
+            stack.add(new double[]{0, last, Double.POSITIVE_INFINITY});
+        }
+
+        // Iterative rather than recursive, so long lines can't overflow the call stack
+        while (!stack.isEmpty()) {
+            final double[] section = stack.remove(stack.size() - 1);
+
+            final int first = (int) section[0];
+            final int end = (int) section[1];
+
+            final int split = farthest(x, y, first, end);
+
+            if (split < 0) {
+                continue;
+            }
+
+            final double splitImportance = Math.min(segmentDistance(x, y, split, first, end), section[2]);
+
+            importance[split] = splitImportance;
+
+            stack.add(new double[]{first, split, splitImportance});
+            stack.add(new double[]{split, end, splitImportance});
+        }
+
+        return importance;
+    }
+
+    /**
+     * @return the index of the vertex strictly between first and last that is
+     * farthest from the segment first-last, or -1 if there are no vertices
+     * between them
+     */
+    private static int farthest(final double[] x, final double[] y, final int first, final int last) {
+        int farthest = -1;
+        double farthestDistance = -1.0;
+
+        for (int index = first + 1; index < last; ++index) {
+            final double distance = segmentDistance(x, y, index, first, last);
+
+            if (distance > farthestDistance) {
+                farthest = index;
+                farthestDistance = distance;
+            }
+        }
+
+        return farthest;
+    }
+
+    private static double segmentDistance(final double[] x, final double[] y, final int point, final int start, final int end) {
+        final double dx = x[end] - x[start];
+        final double dy = y[end] - y[start];
+
+        final double lengthSquared = dx * dx + dy * dy;
+
+        if (lengthSquared == 0.0) {
+            return Math.hypot(x[point] - x[start], y[point] - y[start]);
+        }
+
+        final double t = Math.max(0.0, Math.min(1.0, ((x[point] - x[start]) * dx + (y[point] - y[start]) * dy) / lengthSquared));
+
+        return Math.hypot(x[point] - (x[start] + t * dx),
+                y[point] - (y[start] + t * dy));
+    }
+
+    private static <T> double[] getVertexImportance(final List<T> coordinates,
+                                                    final ToDoubleFunction<T> getX,
+                                                    final ToDoubleFunction<T> getY) {
+        final int size = coordinates.size();
+
+        final double[] x = new double[size];
+        final double[] y = new double[size];
+
+        for (int index = 0; index < size; ++index) {
+            x[index] = getX.applyAsDouble(coordinates.get(index));
+            y[index] = getY.applyAsDouble(coordinates.get(index));
+        }
+
+        return getVertexImportance(x, y);
+    }
+
+    private static <T> List<T> filter(final List<T> coordinates, final double[] importance, final double tolerance) {
+        final List<T> simplified = new ArrayList<>(coordinates.size());
+
+        for (int index = 0; index < coordinates.size(); ++index) {
+            if (importance[index] > tolerance) {
+                simplified.add(coordinates.get(index));
+            }
+        }
+
+        return simplified;
+    }
+
+    /**
+     * Filters the coordinates of a line string or ring, calculating their
+     * importance only the first time the owner is seen
+     */
+    private static <T> List<T> filter(final Object owner,
+                                      final List<T> coordinates,
+                                      final ToDoubleFunction<T> getX,
+                                      final ToDoubleFunction<T> getY,
+                                      final double tolerance,
+                                      final Map<Object, double[]> importance) {
+        return filter(coordinates,
+                importance.computeIfAbsent(owner, key -> getVertexImportance(coordinates, getX, getY)),
+                tolerance);
+    }
+
+    private static <T, R> List<R> map(final List<T> list, final Function<T, R> mapper) {
+        return list.stream().map(mapper).collect(Collectors.toList());
+    }
+
+    private static WkbLineString simplify(final WkbLineString lineString, final double tolerance, final Map<Object, double[]> importance) {
+        return new WkbLineString(filter(lineString, lineString.getCoordinates(), Coordinate::getX, Coordinate::getY, tolerance, importance));
+    }
+
+    private static LinearRing simplify(final LinearRing ring, final double tolerance, final Map<Object, double[]> importance) {
+        return new LinearRing(filter(ring, ring.getCoordinates(), Coordinate::getX, Coordinate::getY, tolerance, importance));
+    }
+
+    private static WkbPolygon simplify(final WkbPolygon polygon, final double tolerance, final Map<Object, double[]> importance) {
+        return new WkbPolygon(simplify(polygon.getExteriorRing(), tolerance, importance),
+                map(polygon.getInteriorRings(), ring -> simplify(ring, tolerance, importance)));
+    }
+
+    private static WkbLineStringZ simplify(final WkbLineStringZ lineString, final double tolerance, final Map<Object, double[]> importance) {
+        return new WkbLineStringZ(filter(lineString, lineString.getCoordinates(), CoordinateZ::getX, CoordinateZ::getY, tolerance, importance));
+    }
+
+    private static LinearRingZ simplify(final LinearRingZ ring, final double tolerance, final Map<Object, double[]> importance) {
+        return new LinearRingZ(filter(ring, ring.getCoordinates(), CoordinateZ::getX, CoordinateZ::getY, tolerance, importance));
+    }
+
+    private static WkbPolygonZ simplify(final WkbPolygonZ polygon, final double tolerance, final Map<Object, double[]> importance) {
+        return new WkbPolygonZ(simplify(polygon.getExteriorRing(), tolerance, importance),
+                map(polygon.getInteriorRings(), ring -> simplify(ring, tolerance, importance)));
+    }
+
+    private static WkbLineStringM simplify(final WkbLineStringM lineString, final double tolerance, final Map<Object, double[]> importance) {
+        return new WkbLineStringM(filter(lineString, lineString.getCoordinates(), CoordinateM::getX, CoordinateM::getY, tolerance, importance));
+    }
+
+    private static LinearRingM simplify(final LinearRingM ring, final double tolerance, final Map<Object, double[]> importance) {
+        return new LinearRingM(filter(ring, ring.getCoordinates(), CoordinateM::getX, CoordinateM::getY, tolerance, importance));
+    }
+
+    private static WkbPolygonM simplify(final WkbPolygonM polygon, final double tolerance, final Map<Object, double[]> importance) {
+        return new WkbPolygonM(simplify(polygon.getExteriorRing(), tolerance, importance),
+                map(polygon.getInteriorRings(), ring -> simplify(ring, tolerance, importance)));
+    }
+
+    private static WkbLineStringZM simplify(final WkbLineStringZM lineString, final double tolerance, final Map<Object, double[]> importance) {
+        return new WkbLineStringZM(filter(lineString, lineString.getCoordinates(), CoordinateZM::getX, CoordinateZM::getY, tolerance, importance));
+    }
+
+    private static LinearRingZM simplify(final LinearRingZM ring, final double tolerance, final Map<Object, double[]> importance) {
+        return new LinearRingZM(filter(ring, ring.getCoordinates(), CoordinateZM::getX, CoordinateZM::getY, tolerance, importance));
+    }
+
+    private static WkbPolygonZM simplify(final WkbPolygonZM polygon, final double tolerance, final Map<Object, double[]> importance) {
+        return new WkbPolygonZM(simplify(polygon.getExteriorRing(), tolerance, importance),
+                map(polygon.getInteriorRings(), ring -> simplify(ring, tolerance, importance)));
+    }
+}
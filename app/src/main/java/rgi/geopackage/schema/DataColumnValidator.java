@@ -0,0 +1,259 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.geopackage.schema;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import rgi.geopackage.utility.DatabaseUtility;
+
+/**
+ * The <a href="http://www.geopackage.org/spec/#_data_column_constraints">data
+ * column constraints</a> of a single table, compiled into in-memory checks.
+ * Range constraints become numeric comparisons, enum constraints become a
+ * hash set lookup, and glob constraints become a precompiled {@link Pattern}.
+ * Validating a value requires no database access.
+ * <br>
+ * <br>
+ * A constraint name may have several rows in the constraints table (e.g. one
+ * per enum value). A value satisfies the constraint if it satisfies any of
+ * them. <code>null</code> values always satisfy a constraint; whether a column
+ * may be null is a property of the table definition.
+ * <br>
+ * <br>
+ * Instances are immutable, and are obtained from {@link
+ * GeoPackageSchema#getDataColumnValidator(rgi.geopackage.core.Content)}.
+ *
+ * @author Luke Lambert
+ */
+public class DataColumnValidator {
+    /**
+     * Constructor
+     *
+     * @param tableName        Name of the table whose columns are validated
+     * @param columnValidators Column validators keyed by column name
+     */
+    protected DataColumnValidator(final String tableName,
+                                  final Map<String, ColumnValidator> columnValidators) {
+        this.tableName = tableName;
+        this.columnValidators = Collections.unmodifiableMap(columnValidators);
+    }
+
+    /**
+     * @return the tableName
+     */
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    /**
+     * @return <code>true</code> if none of the table's columns are constrained
+     */
+    public boolean isEmpty() {
+        return this.columnValidators.isEmpty();
+    }
+
+    /**
+     * @return the names of the table's constrained columns
+     */
+    public Set<String> getColumnNames() {
+        return this.columnValidators.keySet();
+    }
+
+    /**
+     * @param columnName Name of a table column
+     * @return the validator for the column, or <code>null</code> if the column
+     * is not constrained
+     */
+    public ColumnValidator getColumnValidator(final String columnName) {
+        return this.columnValidators.get(columnName);
+    }
+
+    /**
+     * Checks a value against a column's constraint
+     *
+     * @param columnName Name of a table column
+     * @param value      Value to be written to the column
+     * @return <code>true</code> if the column is not constrained, or if the
+     * value satisfies the column's constraint
+     */
+    public boolean isValid(final String columnName, final Object value) {
+        final ColumnValidator columnValidator = this.columnValidators.get(columnName);
+
+        return columnValidator == null || columnValidator.isValid(value);
+    }
+
+    /**
+     * The compiled constraint of a single column
+     *
+     * @author Luke Lambert
+     */
+    public static class ColumnValidator {
+        /**
+         * Constructor
+         *
+         * @param columnName  Name of the table column
+         * @param constraints Every row of the data column constraints table
+         *                    with the column's constraint name
+         */
+        protected ColumnValidator(final String columnName, final Collection<DataColumnConstraint> constraints) {
+            if (constraints == null || constraints.isEmpty()) {
+                throw new IllegalArgumentException("Constraints may not be null or empty");
+            }
+
+            this.columnName = columnName;
+            this.constraintName = constraints.iterator().next().getConstraintName();
+
+            final List<Range> rangeList = new ArrayList<>();
+            final List<Pattern> globList = new ArrayList<>();
+            final Set<String> enumSet = new HashSet<>();
+
+            for (final DataColumnConstraint constraint : constraints) {
+                final Type type = Type.fromString(constraint.getConstraintType());
+
+                if (type == Type.Range) {
+                    rangeList.add(new Range(constraint));
+                } else if (type == Type.Enum && constraint.getValue() != null) {
+                    enumSet.add(constraint.getValue());
+                } else if (type == Type.Glob && constraint.getValue() != null) {
+                    globList.add(DatabaseUtility.compileGlob(constraint.getValue()));
+                }
+            }
+
+            this.ranges = rangeList.toArray(new Range[rangeList.size()]);
+            this.globs = globList.toArray(new Pattern[globList.size()]);
+            this.enumValues = enumSet;
+        }
+
+        /**
+         * @return the columnName
+         */
+        public String getColumnName() {
+            return this.columnName;
+        }
+
+        /**
+         * @return the constraintName
+         */
+        public String getConstraintName() {
+            return this.constraintName;
+        }
+
+        /**
+         * Checks a value against the column's constraint. Range constraints
+         * accept numbers, and strings that parse as numbers (mirroring the
+         * NUMERIC type affinity of the <tt>min</tt> and <tt>max</tt> columns).
+         * Enum and glob constraints compare against the value's string form.
+         *
+         * @param value Value to be written to the column
+         * @return <code>true</code> if the value satisfies the constraint
+         */
+        public boolean isValid(final Object value) {
+            if (value == null) {
+                return true;
+            }
+
+            if (this.ranges.length > 0) {
+                final double number = toDouble(value);
+
+                if (!Double.isNaN(number)) {
+                    for (final Range range : this.ranges) {
+                        if (range.contains(number)) {
+                            return true;
+                        }
+                    }
+                }
+            }
+
+            if (this.enumValues.isEmpty() && this.globs.length == 0) {
+                return false;
+            }
+
+            final String string = value.toString();
+
+            if (this.enumValues.contains(string)) {
+                return true;
+            }
+
+            for (final Pattern glob : this.globs) {
+                if (glob.matcher(string).matches()) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static double toDouble(final Object value) {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+
+            if (value instanceof String) {
+                try {
+                    return Double.parseDouble(((String) value).trim());
+                } catch (final NumberFormatException ignored) {
+                    return Double.NaN;
+                }
+            }
+
+            return Double.NaN;
+        }
+
+        private final String columnName;
+        private final String constraintName;
+        private final Range[] ranges;
+        private final Pattern[] globs;
+        private final Set<String> enumValues;
+    }
+
+    private static final class Range {
+        private Range(final DataColumnConstraint constraint) {
+            // Missing bounds are treated as unbounded, and missing inclusivity as inclusive
+            this.minimum = constraint.getMinimum() == null ? Double.NEGATIVE_INFINITY : constraint.getMinimum().doubleValue();
+            this.maximum = constraint.getMaximum() == null ? Double.POSITIVE_INFINITY : constraint.getMaximum().doubleValue();
+            this.minimumIsInclusive = !Boolean.FALSE.equals(constraint.getMinimumIsInclusive());
+            this.maximumIsInclusive = !Boolean.FALSE.equals(constraint.getMaximumIsInclusive());
+        }
+
+        private boolean contains(final double number) {
+            return (this.minimumIsInclusive ? number >= this.minimum : number > this.minimum) &&
+                   (this.maximumIsInclusive ? number <= this.maximum : number < this.maximum);
+        }
+
+        private final double minimum;
+        private final double maximum;
+        private final boolean minimumIsInclusive;
+        private final boolean maximumIsInclusive;
+    }
+
+    private final String tableName;
+    private final Map<String, ColumnValidator> columnValidators;
+}
@@ -28,9 +28,16 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import other.MimeType;
 import rgi.common.util.jdbc.JdbcUtility;
@@ -141,6 +148,8 @@ public class GeoPackageSchema {
                     constraintName);
             this.databaseConnection.commit();
 
+            this.dataColumnValidators.remove(table.getTableName());
+
             return dataColumn;
         } catch (final Exception ex) {
             this.databaseConnection.rollback();
@@ -266,6 +275,8 @@ public class GeoPackageSchema {
                     description);
             this.databaseConnection.commit();
 
+            this.dataColumnValidators.clear();  // Any table may refer to this constraint name
+
             return dataColumnConstraint;
         } catch (final Exception ex) {
             this.databaseConnection.rollback();
@@ -464,6 +475,84 @@ public class GeoPackageSchema {
                         result.getString(8))); // description
     }
 
+    /**
+     * Gets the data column constraints of a table, compiled into in-memory
+     * checks. The constraints are read with a single query the first time a
+     * table is requested, and the result is cached until a data column or
+     * data column constraint is added through this object. Use this instead
+     * of calling {@link #getDataColumn(Content, String)} and {@link
+     * #getDataColumnConstraint(String, Type, String)} for every value that is
+     * written.
+     *
+     * @param table Content table
+     * @return Returns a {@link DataColumnValidator} for the table. It is empty
+     * if the table has no constrained columns, or if the GeoPackage has no
+     * data columns or data column constraints tables.
+     * @throws SQLException throws if the method
+     *                      {@link DatabaseUtility#doTablesOrViewsExists(Connection, String...)}
+     *                      or if other various SQLExceptions occur
+     */
+    public DataColumnValidator getDataColumnValidator(final Content table) throws SQLException {
+        if (table == null) {
+            throw new IllegalArgumentException("Content table may not be null");
+        }
+
+        final DataColumnValidator cachedValidator = this.dataColumnValidators.get(table.getTableName());
+
+        if (cachedValidator != null) {
+            return cachedValidator;
+        }
+
+        final Map<String, List<DataColumnConstraint>> constraintsByColumn = new LinkedHashMap<>();
+
+        if (DatabaseUtility.doTablesOrViewsExists(this.databaseConnection,
+                GeoPackageSchema.DataColumnsTableName,
+                GeoPackageSchema.DataColumnConstraintsTableName)) {
+            final String constraintsQuerySql = String.format("SELECT columns.%s, constraints.%s, constraints.%s, constraints.%s, constraints.%s, constraints.%s, constraints.%s, constraints.%s, constraints.%s " +
+                            "FROM %s AS columns JOIN %s AS constraints ON constraints.%s = columns.%s " +
+                            "WHERE columns.%s = ?;",
+                    "column_name",
+                    "constraint_name",
+                    "constraint_type",
+                    "value",
+                    "min",
+                    "minIsInclusive",
+                    "max",
+                    "maxIsInclusive",
+                    "description",
+                    GeoPackageSchema.DataColumnsTableName,
+                    GeoPackageSchema.DataColumnConstraintsTableName,
+                    "constraint_name",
+                    "constraint_name",
+                    "table_name");
+
+            JdbcUtility.forEach(this.databaseConnection,
+                    constraintsQuerySql,
+                    preparedStatement -> preparedStatement.setString(1, table.getTableName()),
+                    result -> constraintsByColumn.computeIfAbsent(result.getString(1), columnName -> new ArrayList<>())
+                            .add(new DataColumnConstraint(result.getString(2),   // constraint name
+                                    result.getString(3),   // constraint type
+                                    result.getString(4),   // value
+                                    (Number) result.getObject(5),   // minimum
+                                    cast((Integer) result.getObject(6)),  // minimum is inclusive
+                                    (Number) result.getObject(7),   // maximum
+                                    cast((Integer) result.getObject(8)),  // maximum is inclusive
+                                    result.getString(9))));  // description
+        }
+
+        final Map<String, DataColumnValidator.ColumnValidator> columnValidators = new HashMap<>(constraintsByColumn.size());
+
+        for (final Map.Entry<String, List<DataColumnConstraint>> entry : constraintsByColumn.entrySet()) {
+            columnValidators.put(entry.getKey(), new DataColumnValidator.ColumnValidator(entry.getKey(), entry.getValue()));
+        }
+
+        final DataColumnValidator validator = new DataColumnValidator(table.getTableName(), columnValidators);
+
+        this.dataColumnValidators.put(table.getTableName(), validator);
+
+        return validator;
+    }
+
     private static Boolean cast(final Integer integer) {
         return integer == null ? null : integer != 0;
     }
@@ -532,6 +621,7 @@ public class GeoPackageSchema {
     }
 
     private final Connection databaseConnection;
+    private final ConcurrentMap<String, DataColumnValidator> dataColumnValidators = new ConcurrentHashMap<>();
 
     /**
      * The name of the Data Columns Table "gpkg_data_columns"
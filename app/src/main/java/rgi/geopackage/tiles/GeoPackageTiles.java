@@ -29,12 +29,14 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import rgi.common.BoundingBox;
 import rgi.common.coordinate.Coordinate;
 import rgi.common.coordinate.CoordinateReferenceSystem;
 import rgi.common.coordinate.CrsCoordinate;
+import rgi.common.tile.HilbertCurve;
 import rgi.common.tile.TileOrigin;
 import rgi.common.util.BoundsUtility;
 import rgi.common.util.jdbc.JdbcUtility;
@@ -497,6 +499,199 @@ public class GeoPackageTiles {
                 .stream();
     }
 
+    /**
+     * Applies a consumer to every tile of a zoom level whose column and row
+     * fall within the supplied (inclusive) ranges. The tiles are read with a
+     * single query that can be answered from the tile table's unique (zoom
+     * level, column, row) index, and each tile is passed to the consumer as
+     * soon as it's read. Positions without a tile are skipped.
+     *
+     * @param tileSet       Handle to the tile set that the requested tiles should belong
+     * @param zoomLevel     The zoom level of the requested tiles
+     * @param minimumColumn Lowest column of the requested tiles
+     * @param maximumColumn Highest column of the requested tiles
+     * @param minimumRow    Lowest row of the requested tiles
+     * @param maximumRow    Highest row of the requested tiles
+     * @param tileConsumer  Callback that operates on a single tile
+     * @throws SQLException if there is a database error
+     */
+    public void visitTiles(final TileSet tileSet,
+                           final int zoomLevel,
+                           final int minimumColumn,
+                           final int maximumColumn,
+                           final int minimumRow,
+                           final int maximumRow,
+                           final Consumer<Tile> tileConsumer) throws SQLException {
+        if (tileSet == null) {
+            throw new IllegalArgumentException("Tile set cannot be null");
+        }
+
+        if (tileConsumer == null) {
+            throw new IllegalArgumentException("Tile consumer may not be null");
+        }
+
+        if (minimumColumn > maximumColumn || minimumRow > maximumRow) {
+            return;
+        }
+
+        final String tileQuery = String.format("SELECT %s, %s, %s, %s, %s FROM %s WHERE zoom_level = ? AND tile_column BETWEEN ? AND ? AND tile_row BETWEEN ? AND ?;",
+                "id",
+                "zoom_level",
+                "tile_column",
+                "tile_row",
+                "tile_data",
+                tileSet.getTableName());
+
+        JdbcUtility.forEach(this.databaseConnection,
+                tileQuery,
+                preparedStatement -> {
+                    preparedStatement.setInt(1, zoomLevel);
+                    preparedStatement.setInt(2, minimumColumn);
+                    preparedStatement.setInt(3, maximumColumn);
+                    preparedStatement.setInt(4, minimumRow);
+                    preparedStatement.setInt(5, maximumRow);
+                },
+                resultSet -> tileConsumer.accept(new Tile(resultSet.getInt(1),     // id
+                        resultSet.getInt(2),     // zoom level
+                        resultSet.getInt(3),     // column
+                        resultSet.getInt(4),     // row
+                        resultSet.getBytes(5)))); // data
+    }
+
+    /**
+     * Applies a consumer to the tiles at a list of positions in a zoom level.
+     * The positions are fetched with a single range query over their bounding
+     * columns and rows, so this is most efficient when the positions are
+     * close together (e.g. the tiles of a viewport). Positions without a tile
+     * are skipped.
+     *
+     * @param tileSet      Handle to the tile set that the requested tiles should belong
+     * @param zoomLevel    The zoom level of the requested tiles
+     * @param coordinates  Column (x) and row (y) of each requested tile
+     * @param tileConsumer Callback that operates on a single tile
+     * @throws SQLException if there is a database error
+     */
+    public void visitTiles(final TileSet tileSet,
+                           final int zoomLevel,
+                           final Collection<Coordinate<Integer>> coordinates,
+                           final Consumer<Tile> tileConsumer) throws SQLException {
+        if (coordinates == null) {
+            throw new IllegalArgumentException("Coordinates may not be null");
+        }
+
+        if (coordinates.isEmpty()) {
+            return;
+        }
+
+        int minimumColumn = Integer.MAX_VALUE;
+        int maximumColumn = Integer.MIN_VALUE;
+        int minimumRow = Integer.MAX_VALUE;
+        int maximumRow = Integer.MIN_VALUE;
+
+        final Set<Long> requested = new HashSet<>(coordinates.size() * 2);
+
+        for (final Coordinate<Integer> coordinate : coordinates) {
+            minimumColumn = Math.min(minimumColumn, coordinate.getX());
+            maximumColumn = Math.max(maximumColumn, coordinate.getX());
+            minimumRow = Math.min(minimumRow, coordinate.getY());
+            maximumRow = Math.max(maximumRow, coordinate.getY());
+
+            requested.add(packPosition(coordinate.getX(), coordinate.getY()));
+        }
+
+        this.visitTiles(tileSet,
+                zoomLevel,
+                minimumColumn,
+                maximumColumn,
+                minimumRow,
+                maximumRow,
+                tile -> {
+                    if (requested.contains(packPosition(tile.getColumn(), tile.getRow()))) {
+                        tileConsumer.accept(tile);
+                    }
+                });
+    }
+
+    /**
+     * Rewrites a tile set's table so that, within each zoom level, its rows
+     * are stored in {@link HilbertCurve Hilbert curve} order. SQLite stores a
+     * table's rows in primary key order, so after the rewrite tiles that are
+     * near each other on the map are near each other in the file, and reading
+     * a viewport or panning touches fewer, more contiguous pages. The rows
+     * are renumbered in the process, so tile identifiers are not preserved.
+     * The table's schema, indices and triggers are left intact.
+     * <br>
+     * <br>
+     * Free pages are only reclaimed, and the table's pages only made
+     * physically contiguous, by a subsequent VACUUM (see {@link
+     * rgi.geopackage.GeoPackage#optimizeForReading(int)}).
+     *
+     * @param tileSet Handle to the tile set whose table will be rewritten
+     * @throws SQLException if there is a database error
+     */
+    public void reorderTiles(final TileSet tileSet) throws SQLException {
+        if (tileSet == null) {
+            throw new IllegalArgumentException("Tile set cannot be null");
+        }
+
+        final String tableName = tileSet.getTableName();
+        final String stagingTableName = "temp." + tableName + "_hilbert";
+
+        try {
+            JdbcUtility.update(this.databaseConnection, String.format("DROP TABLE IF EXISTS %s;", stagingTableName));
+
+            JdbcUtility.update(this.databaseConnection,
+                    String.format("CREATE TABLE %s (sort_key INTEGER NOT NULL, zoom_level INTEGER NOT NULL, tile_column INTEGER NOT NULL, tile_row INTEGER NOT NULL, tile_data BLOB NOT NULL);",
+                            stagingTableName));
+
+            final String stageTileSql = String.format("INSERT INTO %s (sort_key, zoom_level, tile_column, tile_row, tile_data) SELECT ?, zoom_level, tile_column, tile_row, tile_data FROM %s WHERE id = ?;",
+                    stagingTableName,
+                    tableName);
+
+            for (final int zoomLevel : this.getTileZoomLevels(tileSet)) {
+                final List<long[]> tiles = JdbcUtility.select(this.databaseConnection,
+                        String.format("SELECT id, tile_column, tile_row FROM %s WHERE zoom_level = ?;", tableName),
+                        preparedStatement -> preparedStatement.setInt(1, zoomLevel),
+                        resultSet -> new long[]{resultSet.getLong(1), resultSet.getInt(2), resultSet.getInt(3)});
+
+                final int maximumCoordinate = tiles.stream()
+                        .mapToInt(tile -> (int) Math.max(tile[1], tile[2]))
+                        .max()
+                        .orElse(0);
+
+                final int order = HilbertCurve.getOrder(Math.max(0, maximumCoordinate));
+
+                for (final long[] tile : tiles) {
+                    tile[1] = HilbertCurve.getIndex(order, (int) tile[1], (int) tile[2]);   // Replace the column with the tile's sort key
+                }
+
+                tiles.sort((tile1, tile2) -> Long.compare(tile1[1], tile2[1]));
+
+                JdbcUtility.update(this.databaseConnection,
+                        stageTileSql,
+                        tiles,
+                        (preparedStatement, tile) -> {
+                            preparedStatement.setLong(1, tile[1]);
+                            preparedStatement.setLong(2, tile[0]);
+                        });
+            }
+
+            JdbcUtility.update(this.databaseConnection, String.format("DELETE FROM %s;", tableName));
+
+            JdbcUtility.update(this.databaseConnection,
+                    String.format("INSERT INTO %s (zoom_level, tile_column, tile_row, tile_data) SELECT zoom_level, tile_column, tile_row, tile_data FROM %s ORDER BY zoom_level, sort_key;",
+                            tableName,
+                            stagingTableName));
+
+            JdbcUtility.update(this.databaseConnection, String.format("DROP TABLE %s;", stagingTableName));
+
+            this.databaseConnection.commit();
+        } catch (final Throwable th) {
+            this.databaseConnection.rollback();
+            throw th;
+        }
+    }
+
     /**
      * Gets a tile
      *
@@ -982,6 +1177,10 @@ public class GeoPackageTiles {
                 Math.ceil(bounds.getMaximumY() * divisor) / divisor);
     }
 
+    private static long packPosition(final int column, final int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+
     private final GeoPackageCore core;
     private final Connection databaseConnection;
 
@@ -0,0 +1,253 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.geopackage.utility;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single condition of an SQL WHERE clause, comparing a column to zero or
+ * more values. Values are always bound as {@link PreparedStatement}
+ * parameters, never written into the SQL text. Use {@link
+ * SelectBuilder#SelectBuilder(java.sql.Connection, String, Collection, List)}
+ * to combine predicates into a query.
+ *
+ * @author Luke Lambert
+ */
+public final class ColumnPredicate {
+    private ColumnPredicate(final String columnName,
+                            final String sql,
+                            final List<Object> values) {
+        if (columnName == null || columnName.isEmpty()) {
+            throw new IllegalArgumentException("Column name may not be null or empty");
+        }
+
+        this.columnName = columnName;
+        this.sql = sql;
+        this.values = values;
+    }
+
+    /**
+     * Column equals a value. A null value is tested with IS NULL.
+     *
+     * @param columnName Column name
+     * @param value      Value to compare against, may be null
+     * @return a predicate
+     */
+    public static ColumnPredicate equal(final String columnName, final Object value) {
+        return value == null ? isNull(columnName)
+                : new ColumnPredicate(columnName, columnName + " = ?", Collections.singletonList(value));
+    }
+
+    /**
+     * Column does not equal a value. A null value is tested with IS NOT NULL.
+     *
+     * @param columnName Column name
+     * @param value      Value to compare against, may be null
+     * @return a predicate
+     */
+    public static ColumnPredicate notEqual(final String columnName, final Object value) {
+        return value == null ? isNotNull(columnName)
+                : new ColumnPredicate(columnName, columnName + " <> ?", Collections.singletonList(value));
+    }
+
+    /**
+     * @param columnName Column name
+     * @param value      Exclusive upper bound
+     * @return a predicate
+     */
+    public static ColumnPredicate lessThan(final String columnName, final Object value) {
+        return comparison(columnName, "<", value);
+    }
+
+    /**
+     * @param columnName Column name
+     * @param value      Inclusive upper bound
+     * @return a predicate
+     */
+    public static ColumnPredicate lessThanOrEqual(final String columnName, final Object value) {
+        return comparison(columnName, "<=", value);
+    }
+
+    /**
+     * @param columnName Column name
+     * @param value      Exclusive lower bound
+     * @return a predicate
+     */
+    public static ColumnPredicate greaterThan(final String columnName, final Object value) {
+        return comparison(columnName, ">", value);
+    }
+
+    /**
+     * @param columnName Column name
+     * @param value      Inclusive lower bound
+     * @return a predicate
+     */
+    public static ColumnPredicate greaterThanOrEqual(final String columnName, final Object value) {
+        return comparison(columnName, ">=", value);
+    }
+
+    /**
+     * Column is within an inclusive range
+     *
+     * @param columnName Column name
+     * @param minimum    Inclusive lower bound
+     * @param maximum    Inclusive upper bound
+     * @return a predicate
+     */
+    public static ColumnPredicate between(final String columnName,
+                                          final Object minimum,
+                                          final Object maximum) {
+        if (minimum == null || maximum == null) {
+            throw new IllegalArgumentException("Range bounds may not be null");
+        }
+
+        final List<Object> values = new ArrayList<>(2);
+        values.add(minimum);
+        values.add(maximum);
+
+        return new ColumnPredicate(columnName, columnName + " BETWEEN ? AND ?", values);
+    }
+
+    /**
+     * Column equals one of a set of values. An empty collection matches
+     * nothing.
+     *
+     * @param columnName Column name
+     * @param values     Values to compare against
+     * @return a predicate
+     */
+    public static ColumnPredicate in(final String columnName, final Collection<?> values) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values may not be null");
+        }
+
+        if (values.stream().anyMatch(value -> value == null)) {
+            throw new IllegalArgumentException("Values may not contain null. Combine with isNull() instead.");
+        }
+
+        return new ColumnPredicate(columnName,
+                String.format("%s IN (%s)", columnName, String.join(", ", Collections.nCopies(values.size(), "?"))),
+                new ArrayList<>(values));
+    }
+
+    /**
+     * Column matches an SQL LIKE pattern. In SQLite, LIKE is case insensitive
+     * for ASCII characters. A pattern without a leading wildcard can use an
+     * index on the column.
+     *
+     * @param columnName Column name
+     * @param pattern    Pattern, where '%' matches any sequence of characters
+     *                   and '_' matches a single character
+     * @return a predicate
+     */
+    public static ColumnPredicate like(final String columnName, final String pattern) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("Pattern may not be null");
+        }
+
+        return new ColumnPredicate(columnName, columnName + " LIKE ?", Collections.singletonList(pattern));
+    }
+
+    /**
+     * @param columnName Column name
+     * @return a predicate that tests for a null value
+     */
+    public static ColumnPredicate isNull(final String columnName) {
+        return new ColumnPredicate(columnName, columnName + " IS NULL", Collections.emptyList());
+    }
+
+    /**
+     * @param columnName Column name
+     * @return a predicate that tests for a non-null value
+     */
+    public static ColumnPredicate isNotNull(final String columnName) {
+        return new ColumnPredicate(columnName, columnName + " IS NOT NULL", Collections.emptyList());
+    }
+
+    /**
+     * @return the name of the column this predicate tests
+     */
+    public String getColumnName() {
+        return this.columnName;
+    }
+
+    /**
+     * @return the SQL fragment of this predicate, with a '?' placeholder for
+     * each of its values
+     */
+    public String getSql() {
+        return this.sql;
+    }
+
+    /**
+     * @return the values bound to this predicate's placeholders, in order
+     */
+    public List<Object> getValues() {
+        return Collections.unmodifiableList(this.values);
+    }
+
+    /**
+     * Binds this predicate's values to a prepared statement
+     *
+     * @param preparedStatement Prepared statement containing this predicate's SQL
+     * @param parameterIndex    1-based index of this predicate's first placeholder
+     * @return the index of the next unbound placeholder
+     * @throws SQLException if a value can't be bound
+     */
+    public int bind(final PreparedStatement preparedStatement, final int parameterIndex) throws SQLException {
+        int index = parameterIndex;
+
+        for (final Object value : this.values) {
+            preparedStatement.setObject(index++, value);
+        }
+
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return this.sql;
+    }
+
+    private static ColumnPredicate comparison(final String columnName,
+                                              final String operator,
+                                              final Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Comparison value may not be null");
+        }
+
+        return new ColumnPredicate(columnName,
+                String.format("%s %s ?", columnName, operator),
+                Collections.singletonList(value));
+    }
+
+    private final String columnName;
+    private final String sql;
+    private final List<Object> values;
+}
@@ -224,6 +224,77 @@ public final class DatabaseUtility {
                         state.getState()));
     }
 
+    /**
+     * Sets the page size of the database. The new size only takes effect for
+     * a new database, or after a VACUUM, and can't be changed while the
+     * database is in the WAL journal mode.
+     *
+     * @param connection connection to the database
+     * @param byteSize   Page size in bytes. Must be a power of two between
+     *                   512 and 65536.
+     * @throws SQLException throws if various SQLExceptions occur
+     */
+    public static void setPragmaPageSize(final Connection connection, final int byteSize) throws SQLException {
+        DatabaseUtility.verify(connection);
+
+        if (byteSize < 512 || byteSize > 65536 || Integer.bitCount(byteSize) != 1) {
+            throw new IllegalArgumentException("Page size must be a power of two between 512 and 65536");
+        }
+
+        JdbcUtility.update(connection,
+                String.format("PRAGMA page_size = %d;",
+                        byteSize));
+    }
+
+    /**
+     * @param connection connection to the database
+     * @param state      If ON, the connection may not modify the database
+     * @throws SQLException throws if various SQLExceptions occur
+     */
+    public static void setPragmaQueryOnly(final Connection connection, final ToggleState state) throws SQLException {
+        DatabaseUtility.verify(connection);
+
+        JdbcUtility.update(connection,
+                String.format("PRAGMA query_only = %d;",
+                        state.getState()));
+    }
+
+    /**
+     * @param connection connection to the database
+     * @param byteSize   Maximum number of bytes of the database file to access
+     *                   with memory-mapped I/O. 0 disables memory-mapped I/O.
+     * @throws SQLException throws if various SQLExceptions occur
+     */
+    public static void setPragmaMmapSize(final Connection connection, final long byteSize) throws SQLException {
+        DatabaseUtility.verify(connection);
+
+        if (byteSize < 0) {
+            throw new IllegalArgumentException("Memory map size may not be negative");
+        }
+
+        JdbcUtility.update(connection,
+                String.format("PRAGMA mmap_size = %d;",
+                        byteSize));
+    }
+
+    /**
+     * @param connection   connection to the database
+     * @param kibibyteSize Maximum size of the connection's page cache, in kibibytes
+     * @throws SQLException throws if various SQLExceptions occur
+     */
+    public static void setPragmaCacheSize(final Connection connection, final int kibibyteSize) throws SQLException {
+        DatabaseUtility.verify(connection);
+
+        if (kibibyteSize < 0) {
+            throw new IllegalArgumentException("Cache size may not be negative");
+        }
+
+        // A negative cache_size is interpreted by SQLite as a size in kibibytes rather than pages
+        JdbcUtility.update(connection,
+                String.format("PRAGMA cache_size = %d;",
+                        -kibibyteSize));
+    }
+
     /**
      * Get the smallest value for a table and column <i>that does not yet exist
      * </i>
@@ -321,6 +392,98 @@ public final class DatabaseUtility {
         }
     }
 
+    /**
+     * Compiles an SQLite <tt>GLOB</tt> pattern into an equivalent regular
+     * expression, so that values can be matched against it without a round
+     * trip to the database. As with SQLite, matching is case sensitive and
+     * must cover the whole value: <tt>*</tt> matches any sequence of
+     * characters, <tt>?</tt> matches exactly one character, and
+     * <tt>[...]</tt> matches one character from a set (or, if the set begins
+     * with <tt>^</tt>, one character not in the set). A set may contain
+     * ranges such as <tt>a-z</tt>, and a <tt>]</tt> immediately after the
+     * opening bracket is part of the set. A pattern with an unterminated set
+     * matches nothing, as it does in SQLite.
+     *
+     * @param glob SQLite <tt>GLOB</tt> pattern
+     * @return a compiled pattern that matches the same values as the glob
+     */
+    public static Pattern compileGlob(final String glob) {
+        if (glob == null) {
+            throw new IllegalArgumentException("Glob may not be null");
+        }
+
+        final StringBuilder regularExpression = new StringBuilder(glob.length() * 2);
+
+        int index = 0;
+
+        while (index < glob.length()) {
+            final char character = glob.charAt(index++);
+
+            if (character == '*') {
+                regularExpression.append(".*");
+            } else if (character == '?') {
+                regularExpression.append('.');
+            } else if (character == '[') {
+                final boolean negated = index < glob.length() && glob.charAt(index) == '^';
+
+                if (negated) {
+                    ++index;
+                }
+
+                final StringBuilder set = new StringBuilder();
+
+                boolean first = true;
+
+                while (index < glob.length() && (first || glob.charAt(index) != ']')) {
+                    final char low = glob.charAt(index++);
+
+                    first = false;
+
+                    if (index + 1 < glob.length() && glob.charAt(index) == '-' && glob.charAt(index + 1) != ']') {
+                        final char high = glob.charAt(index + 1);
+
+                        index += 2;
+
+                        if (low <= high) {   // SQLite treats a reversed range as empty
+                            appendEscaped(set, low);
+                            set.append('-');
+                            appendEscaped(set, high);
+                        }
+                    } else {
+                        appendEscaped(set, low);
+                    }
+                }
+
+                if (index >= glob.length()) {
+                    return Pattern.compile("(?!)");  // Unterminated set
+                }
+
+                ++index;    // Skip the closing bracket
+
+                if (set.length() == 0) {
+                    regularExpression.append(negated ? "." : "(?!)");
+                } else {
+                    regularExpression.append(negated ? "[^" : "[")
+                            .append(set)
+                            .append(']');
+                }
+            } else {
+                appendEscaped(regularExpression, character);
+            }
+        }
+
+        return Pattern.compile(regularExpression.toString(), Pattern.DOTALL);
+    }
+
+    private static void appendEscaped(final StringBuilder builder, final char character) {
+        // A backslash before any character that isn't a letter or a digit is always a literal in a Java regular expression
+        if (!Character.isLetterOrDigit(character)) {
+            builder.append('\\');
+        }
+
+        builder.append(character);
+    }
+
     private static void verify(final Connection connection) throws SQLException {
         if (connection == null || connection.isClosed()) {
             throw new IllegalArgumentException("The connection cannot be null or closed.");
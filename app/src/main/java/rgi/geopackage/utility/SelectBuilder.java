@@ -28,15 +28,24 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
+import rgi.common.util.jdbc.JdbcUtility;
+import rgi.common.util.jdbc.StatementEvent;
+import rgi.common.util.jdbc.StatementListener;
+
 /**
  * This class is used to facilitate the creation and execution of
  * {@link PreparedStatement}s with parameters that may be null.  Unfortunately,
  * an SQL WHERE clause must use IS NULL as a null test rather than the equals
  * operator.  This means the the SQL of the prepared statement varies depending
  * on the values being bound to it.
+ * <br>
+ * <br>
+ * Besides equality, a query may be built from {@link ColumnPredicate}s, which
+ * support ranges, IN lists, LIKE patterns and null tests.
  *
  * @author Luke Lambert
  */
@@ -53,6 +62,24 @@ public class SelectBuilder implements AutoCloseable {
                          final String tableName,
                          final Collection<String> selectColumns,
                          final Collection<Entry<String, Object>> where) throws SQLException {
+        this(connection,
+                tableName,
+                selectColumns,
+                equalityPredicates(where));
+    }
+
+    /**
+     * @param connection    a handle to the database connection
+     * @param tableName     The name of the table pulling information from
+     * @param selectColumns the names of the columns in the table that need to be selected
+     * @param where         predicates that selected rows must all satisfy. If
+     *                      empty, every row in the table is selected.
+     * @throws SQLException throws if various SQLExceptions occur
+     */
+    public SelectBuilder(final Connection connection,
+                         final String tableName,
+                         final Collection<String> selectColumns,
+                         final List<ColumnPredicate> where) throws SQLException {
         if (tableName == null || tableName.isEmpty()) {
             throw new IllegalArgumentException("Table name may not be null or empty");
         }
@@ -65,39 +92,79 @@ public class SelectBuilder implements AutoCloseable {
             throw new IllegalArgumentException("No column name in the selected columns may be null or empty");
         }
 
-        if (where == null || where.isEmpty()) {
-            throw new IllegalArgumentException("The where columns collection may not be null or empty");
+        if (where == null) {
+            throw new IllegalArgumentException("The where predicate list may not be null");
         }
 
-        if (where.stream().anyMatch(entry -> entry.getKey() == null || entry.getKey().isEmpty())) {
-            throw new IllegalArgumentException("No column name in a where clause may be null or empty");
+        if (where.stream().anyMatch(predicate -> predicate == null)) {
+            throw new IllegalArgumentException("No predicate in a where clause may be null");
         }
 
-        final String querySql = String.format("SELECT %s FROM %s WHERE %s;",
+        final String querySql = String.format("SELECT %s FROM %s%s;",
                 String.join(", ", selectColumns),
                 tableName,
-                where.stream()
-                        .map(entry -> entry.getKey() + (entry.getValue() == null ? " IS NULL" : " = ?"))
+                where.isEmpty() ? ""
+                        : " WHERE " + where.stream()
+                        .map(ColumnPredicate::getSql)
                         .collect(Collectors.joining(" AND ")));
 
+        final boolean timed = JdbcUtility.getStatementListener() != null;
+        final long prepareStart = timed ? System.nanoTime() : 0L;
+
         this.preparedStatement = connection.prepareStatement(querySql);
 
         int parameterIndex = 1;    // 1-indexed
-        for (final Entry<String, Object> whereClause : where) {
-            final Object value = whereClause.getValue();
-            if (value != null) {
-                this.preparedStatement.setObject(parameterIndex++, whereClause.getValue());
-            }
+        for (final ColumnPredicate predicate : where) {
+            parameterIndex = predicate.bind(this.preparedStatement, parameterIndex);
         }
+
+        this.sql = querySql;
+        this.bindCount = parameterIndex - 1;
+        this.prepareNanoseconds = timed ? System.nanoTime() - prepareStart : 0L;
     }
 
     /**
      * @return a ResultSet object that contains the data produced by the query;
-     * never null
+     * never null.  If a {@link JdbcUtility#setStatementListener statement
+     * listener} is set, it's notified with the time taken by this call, or
+     * of its failure.  The row count is reported as unknown, because the
+     * caller consumes the results.
      * @throws SQLException throws if various SQLExceptions occur
      */
     public ResultSet executeQuery() throws SQLException {
-        return this.preparedStatement.executeQuery();
+        final StatementListener listener = JdbcUtility.getStatementListener();
+
+        if (listener == null) {
+            return this.preparedStatement.executeQuery();
+        }
+
+        final long executeStart = System.nanoTime();
+        final ResultSet resultSet;
+
+        try {
+            resultSet = this.preparedStatement.executeQuery();
+        } catch (final Throwable th) {
+            listener.statementExecuted(new StatementEvent(this.sql,
+                    this.bindCount,
+                    -1,
+                    this.prepareNanoseconds,
+                    System.nanoTime() - executeStart,
+                    0L,
+                    th));
+            throw th;
+        }
+
+        final long executeEnd = System.nanoTime();
+
+        listener.statementExecuted(new StatementEvent(this.sql,
+                this.bindCount,
+                -1,
+                this.prepareNanoseconds,
+                executeEnd - executeStart,
+                0L,
+                null));
+
+        return resultSet;
     }
 
     @Override
@@ -105,6 +172,23 @@ public class SelectBuilder implements AutoCloseable {
         this.preparedStatement.close();
     }
 
+    private static List<ColumnPredicate> equalityPredicates(final Collection<Entry<String, Object>> where) {
+        if (where == null || where.isEmpty()) {
+            throw new IllegalArgumentException("The where columns collection may not be null or empty");
+        }
+
+        if (where.stream().anyMatch(entry -> entry.getKey() == null || entry.getKey().isEmpty())) {
+            throw new IllegalArgumentException("No column name in a where clause may be null or empty");
+        }
+
+        return where.stream()
+                .map(entry -> ColumnPredicate.equal(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
     private final PreparedStatement preparedStatement;
+    private final String sql;
+    private final int bindCount;
+    private final long prepareNanoseconds;
 
 }
@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.osm;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from long keys to non-negative int values. OSM
+ * extracts reference millions of node identifiers, and boxing each one in a
+ * {@link java.util.HashMap} would cost several times the memory of the
+ * primitives themselves.
+ *
+ * @author Luke Lambert
+ */
+final class LongIntMap {
+    /**
+     * Constructor
+     *
+     * @param expectedSize Number of entries to size the map for
+     */
+    LongIntMap(final int expectedSize) {
+        int capacity = 16;
+
+        while (capacity * LoadFactor < expectedSize) {
+            capacity <<= 1;
+        }
+
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+
+        Arrays.fill(this.keys, EmptyKey);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @param key Key to look up
+     * @return The key's value, or -1 if the key isn't in the map
+     */
+    int get(final long key) {
+        final int mask = this.keys.length - 1;
+
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == key) {
+                return this.values[slot];
+            }
+
+            if (this.keys[slot] == EmptyKey) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the value of a key, adding the key with the next sequential
+     * value (the map's size before the insertion) if it isn't present
+     *
+     * @param key Key to look up or add
+     * @return The key's value
+     */
+    int getOrAdd(final long key) {
+        if (key == EmptyKey) {
+            throw new IllegalArgumentException("Key may not be Long.MIN_VALUE");
+        }
+
+        final int mask = this.keys.length - 1;
+
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (this.keys[slot] == key) {
+                return this.values[slot];
+            }
+
+            if (this.keys[slot] == EmptyKey) {
+                final int value = this.size++;
+
+                this.keys[slot] = key;
+                this.values[slot] = value;
+
+                if (this.size > this.keys.length * LoadFactor) {
+                    this.grow();
+                }
+
+                return value;
+            }
+        }
+    }
+
+    private void grow() {
+        final long[] oldKeys = this.keys;
+        final int[] oldValues = this.values;
+
+        this.keys = new long[oldKeys.length * 2];
+        this.values = new int[oldValues.length * 2];
+
+        Arrays.fill(this.keys, EmptyKey);
+
+        final int mask = this.keys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != EmptyKey) {
+                int slot = hash(oldKeys[i]) & mask;
+
+                while (this.keys[slot] != EmptyKey) {
+                    slot = (slot + 1) & mask;
+                }
+
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(final long key) {
+        final long mixed = key * 0x9E3779B97F4A7C15L;   // Fibonacci hashing spreads sequential identifiers
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    private static final long EmptyKey = Long.MIN_VALUE;
+    private static final double LoadFactor = 0.6;
+}
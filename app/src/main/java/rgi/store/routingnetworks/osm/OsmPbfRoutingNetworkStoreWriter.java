@@ -0,0 +1,395 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.osm;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import rgi.common.BoundingBox;
+import rgi.common.Pair;
+import rgi.common.coordinate.CoordinateReferenceSystem;
+import rgi.store.routingnetworks.Edge;
+import rgi.store.routingnetworks.EdgeDirecctionality;
+import rgi.store.routingnetworks.Node;
+import rgi.store.routingnetworks.NodeDimensionality;
+import rgi.store.routingnetworks.RoutingNetworkStoreException;
+import rgi.store.routingnetworks.RoutingNetworkStoreWriter;
+
+import static rgi.store.routingnetworks.osm.Constants.ELEVATION_NODE_ATTRIBUTE_NAME;
+import static rgi.store.routingnetworks.osm.OsmXmlRoutingNetworkStoreWriter.WAY_HIGHWAY_TAG_KEY;
+
+/**
+ * Writes routing networks in the binary
+ * <a href="https://wiki.openstreetmap.org/wiki/PBF_Format">OSM PBF</a>
+ * format. The content matches {@link OsmXmlRoutingNetworkStoreWriter}: one
+ * way per edge, tagged with the edge's attributes and "oneway", and node
+ * attributes written as node tags.
+ * <p>
+ * Nodes are written as delta coded dense nodes and each block has its own
+ * string table, so the output is typically several times smaller than the
+ * equivalent XML. Blocks are encoded and compressed in parallel, one per
+ * available processor, and written in order.
+ *
+ * @author Luke Lambert
+ */
+public class OsmPbfRoutingNetworkStoreWriter implements RoutingNetworkStoreWriter {
+    /**
+     * Constructor
+     *
+     * @param osmPbfFile  Output file
+     * @param bounds      Bounds of the network, in degrees
+     * @param description Description of the network, written as the file's
+     *                    "source"
+     */
+    public OsmPbfRoutingNetworkStoreWriter(final File osmPbfFile,
+                                           final BoundingBox bounds,
+                                           final String description) {
+        if (osmPbfFile == null) {
+            throw new IllegalArgumentException("OSM PBF file may not be null");
+        }
+
+        this.osmPbfFile = osmPbfFile;
+        this.bounds = bounds;
+        this.description = description;
+    }
+
+    @Override
+    public void write(final List<Node> nodes,
+                      final List<Edge> edges,
+                      final NodeDimensionality nodeDimensionality,
+                      final List<Pair<String, Type>> nodeAttributeDescriptions,
+                      final List<Pair<String, Type>> edgeAttributeDescriptions,
+                      final CoordinateReferenceSystem coordinateReferenceSystem) throws RoutingNetworkStoreException {
+        if (!coordinateReferenceSystem.getAuthority().equalsIgnoreCase("EPSG") ||
+                coordinateReferenceSystem.getIdentifier() != 4326) {
+            throw new RoutingNetworkStoreException("OSM PBF must be using the EPSG:4326 coordinate reference system.");
+        }
+
+        final List<String> edgeAttributeNames = edgeAttributeDescriptions.stream()
+                .map(Pair::getLeft)
+                .collect(Collectors.toList());
+
+        if (!edgeAttributeNames.contains(WAY_HIGHWAY_TAG_KEY)) {
+            throw new RoutingNetworkStoreException("Edge attribute descriptions must contain at least one entry named '" + WAY_HIGHWAY_TAG_KEY + '\'');
+        }
+
+        final List<String> nodeAttributeNames = nodeAttributeDescriptions.stream()
+                .map(Pair::getLeft)
+                .collect(Collectors.toList());
+
+        final boolean writeElevation = nodeDimensionality != NodeDimensionality.NO_ELEVATION;
+
+        final int threadCount = Runtime.getRuntime().availableProcessors();
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        try (final DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.osmPbfFile), 1 << 16))) {
+            writeBlob(outputStream, "OSMHeader", compress(this.encodeHeader()));
+
+            // Keep a bounded number of blocks in flight, so memory use
+            // doesn't grow with the size of the network
+            final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+            for (int start = 0; start < nodes.size(); start += EntitiesPerBlock) {
+                final List<Node> block = nodes.subList(start, Math.min(nodes.size(), start + EntitiesPerBlock));
+
+                pending.add(executor.submit(() -> compress(encodeNodes(block, nodeAttributeNames, writeElevation))));
+
+                if (pending.size() >= threadCount * 2) {
+                    writeBlob(outputStream, "OSMData", pending.poll().get());
+                }
+            }
+
+            for (int start = 0; start < edges.size(); start += EntitiesPerBlock) {
+                final List<Edge> block = edges.subList(start, Math.min(edges.size(), start + EntitiesPerBlock));
+
+                pending.add(executor.submit(() -> compress(encodeWays(block, edgeAttributeNames))));
+
+                if (pending.size() >= threadCount * 2) {
+                    writeBlob(outputStream, "OSMData", pending.poll().get());
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                writeBlob(outputStream, "OSMData", pending.poll().get());
+            }
+
+            outputStream.flush();
+        } catch (final Throwable th) {
+            throw new RoutingNetworkStoreException(th);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private byte[] encodeHeader() {
+        final ProtobufWriter header = new ProtobufWriter();
+
+        if (this.bounds != null) {
+            final ProtobufWriter boundingBox = new ProtobufWriter(64);
+
+            boundingBox.writeSInt64(1, toNanodegrees(this.bounds.getMinimumX()));   // left
+            boundingBox.writeSInt64(2, toNanodegrees(this.bounds.getMaximumX()));   // right
+            boundingBox.writeSInt64(3, toNanodegrees(this.bounds.getMaximumY()));   // top
+            boundingBox.writeSInt64(4, toNanodegrees(this.bounds.getMinimumY()));   // bottom
+
+            header.writeMessage(1, boundingBox);
+        }
+
+        header.writeString(4, "OsmSchema-V0.6");
+        header.writeString(4, "DenseNodes");
+        header.writeString(16, GENERATOR);
+
+        if (this.description != null) {
+            header.writeString(17, this.description);
+        }
+
+        return header.toByteArray();
+    }
+
+    private static byte[] encodeNodes(final List<Node> nodes,
+                                      final List<String> nodeAttributeNames,
+                                      final boolean writeElevation) {
+        final StringTable strings = new StringTable();
+
+        final int count = nodes.size();
+
+        final long[] identifiers = new long[count];
+        final long[] latitudes = new long[count];
+        final long[] longitudes = new long[count];
+
+        long[] keysValues = new long[count * 2];
+        int keysValuesCount = 0;
+
+        for (int i = 0; i < count; ++i) {
+            final Node node = nodes.get(i);
+
+            identifiers[i] = node.getIdentifier();
+            latitudes[i] = Math.round(node.getY() * CoordinateScale);
+            longitudes[i] = Math.round(node.getX() * CoordinateScale);
+
+            final List<Object> attributes = node.getAttributes();
+            final int attributeCount = Math.min(attributes.size(), nodeAttributeNames.size());
+
+            // Each node's tags are key/value string indices, followed by 0
+            if (keysValuesCount + attributeCount * 2 + 3 > keysValues.length) {
+                keysValues = Arrays.copyOf(keysValues, Math.max(keysValues.length * 2, keysValuesCount + attributeCount * 2 + 3));
+            }
+
+            for (int x = 0; x < attributeCount; ++x) {
+                if (attributes.get(x) != null) {
+                    keysValues[keysValuesCount++] = strings.indexOf(nodeAttributeNames.get(x));
+                    keysValues[keysValuesCount++] = strings.indexOf(String.valueOf(attributes.get(x)));
+                }
+            }
+
+            if (writeElevation && node.getElevation() != null) {
+                keysValues[keysValuesCount++] = strings.indexOf(ELEVATION_NODE_ATTRIBUTE_NAME);
+                keysValues[keysValuesCount++] = strings.indexOf(String.valueOf(node.getElevation()));
+            }
+
+            keysValues[keysValuesCount++] = 0;
+        }
+
+        final ProtobufWriter denseNodes = new ProtobufWriter(count * 12);
+
+        denseNodes.writePackedDeltaSInt64(1, identifiers, count);
+        denseNodes.writePackedDeltaSInt64(8, latitudes, count);
+        denseNodes.writePackedDeltaSInt64(9, longitudes, count);
+        denseNodes.writePackedVarints(10, keysValues, keysValuesCount);
+
+        final ProtobufWriter group = new ProtobufWriter(denseNodes.size() + 16);
+        group.writeMessage(2, denseNodes);
+
+        return encodePrimitiveBlock(strings, group);
+    }
+
+    private static byte[] encodeWays(final List<Edge> edges, final List<String> edgeAttributeNames) {
+        final StringTable strings = new StringTable();
+
+        final ProtobufWriter group = new ProtobufWriter(edges.size() * 24);
+        final ProtobufWriter way = new ProtobufWriter(64);
+
+        final int onewayKey = strings.indexOf("oneway");
+        final int yes = strings.indexOf("yes");
+        final int no = strings.indexOf("no");
+
+        final long[] keys = new long[edgeAttributeNames.size() + 1];
+        final long[] values = new long[edgeAttributeNames.size() + 1];
+        final long[] references = new long[2];
+
+        for (final Edge edge : edges) {
+            final List<Object> attributes = edge.getAttributes();
+            final int attributeCount = Math.min(attributes.size(), edgeAttributeNames.size());
+
+            int tagCount = 0;
+
+            for (int x = 0; x < attributeCount; ++x) {
+                if (attributes.get(x) != null) {
+                    keys[tagCount] = strings.indexOf(edgeAttributeNames.get(x));
+                    values[tagCount++] = strings.indexOf(String.valueOf(attributes.get(x)));
+                }
+            }
+
+            keys[tagCount] = onewayKey;
+            values[tagCount++] = edge.getEdgeDirectionality() == EdgeDirecctionality.ONE_WAY ? yes : no;
+
+            references[0] = edge.getFrom();
+            references[1] = edge.getTo();
+
+            way.reset();
+            way.writeInt64(1, edge.getIdentifier());
+            way.writePackedVarints(2, keys, tagCount);
+            way.writePackedVarints(3, values, tagCount);
+            way.writePackedDeltaSInt64(8, references, 2);
+
+            group.writeMessage(3, way);
+        }
+
+        return encodePrimitiveBlock(strings, group);
+    }
+
+    private static byte[] encodePrimitiveBlock(final StringTable strings, final ProtobufWriter group) {
+        final ProtobufWriter stringTable = new ProtobufWriter(strings.byteCount + strings.strings.size() * 2);
+
+        for (final byte[] string : strings.strings) {
+            stringTable.writeBytes(1, string);
+        }
+
+        final ProtobufWriter block = new ProtobufWriter(stringTable.size() + group.size() + 16);
+
+        block.writeMessage(1, stringTable);
+        block.writeMessage(2, group);   // Granularity and offsets are left at their defaults (100 nanodegrees, 0)
+
+        return block.toByteArray();
+    }
+
+    /**
+     * @return An encoded Blob message containing the zlib compressed data
+     */
+    private static byte[] compress(final byte[] data) {
+        final Deflater deflater = new Deflater();
+
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+
+            final ProtobufWriter compressed = new ProtobufWriter(data.length / 2 + 64);
+            final byte[] chunk = new byte[1 << 16];
+            final ByteArrayOutputStream zlibData = new ByteArrayOutputStream(data.length / 2 + 64);
+
+            while (!deflater.finished()) {
+                final int length = deflater.deflate(chunk);
+                zlibData.write(chunk, 0, length);
+            }
+
+            compressed.writeInt64(2, data.length);   // raw_size
+            compressed.writeBytes(3, zlibData.toByteArray());
+
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeBlob(final DataOutputStream outputStream, final String type, final byte[] blob) throws IOException {
+        final ProtobufWriter blobHeader = new ProtobufWriter(32);
+
+        blobHeader.writeString(1, type);
+        blobHeader.writeInt64(3, blob.length);
+
+        outputStream.writeInt(blobHeader.size());
+        outputStream.write(blobHeader.toByteArray());
+        outputStream.write(blob);
+    }
+
+    private static long toNanodegrees(final double degrees) {
+        return Math.round(degrees * 1.0e9);
+    }
+
+    /**
+     * Per-block string table. Index 0 is reserved, and is used as the
+     * delimiter between nodes' tags.
+     */
+    private static final class StringTable {
+        StringTable() {
+            this.indexOf("");
+        }
+
+        int indexOf(final String string) {
+            final Integer index = this.indices.get(string);
+
+            if (index != null) {
+                return index;
+            }
+
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+            this.strings.add(bytes);
+            this.byteCount += bytes.length;
+            this.indices.put(string, this.strings.size() - 1);
+
+            return this.strings.size() - 1;
+        }
+
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private int byteCount;
+    }
+
+    private final File osmPbfFile;
+    private final BoundingBox bounds;
+    private final String description;
+
+    private static final String GENERATOR = "SWAGD OsmPbfRoutingNetworkStoreWriter";
+
+    /**
+     * Entities per block. The format limits uncompressed blocks to 16 MiB;
+     * 8000 is what most tools use.
+     */
+    private static final int EntitiesPerBlock = 8000;
+
+    /**
+     * Degrees to units of the default granularity (100 nanodegrees)
+     */
+    private static final double CoordinateScale = 1.0e7;
+}
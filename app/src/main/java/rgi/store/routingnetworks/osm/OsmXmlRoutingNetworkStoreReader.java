@@ -0,0 +1,506 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.osm;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import rgi.common.BoundingBox;
+import rgi.common.Pair;
+import rgi.common.coordinate.CoordinateReferenceSystem;
+import rgi.store.routingnetworks.Edge;
+import rgi.store.routingnetworks.EdgeDirecctionality;
+import rgi.store.routingnetworks.Node;
+import rgi.store.routingnetworks.NodeDimensionality;
+import rgi.store.routingnetworks.RoutingNetworkStoreException;
+import rgi.store.routingnetworks.RoutingNetworkStoreReader;
+import rgi.store.routingnetworks.Utility;
+
+import static rgi.store.routingnetworks.osm.Constants.ELEVATION_NODE_ATTRIBUTE_NAME;
+import static rgi.store.routingnetworks.osm.Constants.LATITUDE_NODE_ATTRIBUTE_NAME;
+import static rgi.store.routingnetworks.osm.Constants.LONGITUDE_NODE_ATTRIBUTE_NAME;
+
+/**
+ * Streaming reader for <a href="https://wiki.openstreetmap.org/wiki/OSM_XML">
+ * OSM XML</a> files. Only ways with a routable "highway" tag, and the nodes
+ * they reference, become part of the network.
+ * <p>
+ * The file is read twice with a pull parser, and is never held in memory.
+ * The first pass counts how many times each node is referenced by a routable
+ * way. The second pass keeps the coordinates of only those nodes, then
+ * splits each way into edges at the nodes it shares with other ways (and at
+ * its ends). Nodes that only shape a way are dropped, but their distance is
+ * included in the edge's length attribute. Node identifiers are assigned
+ * sequentially; the original OSM identifier is kept as a node attribute.
+ *
+ * @author Luke Lambert
+ */
+public class OsmXmlRoutingNetworkStoreReader implements RoutingNetworkStoreReader {
+    /**
+     * Constructor. Reads ways with any of the {@link #DefaultHighwayTypes}.
+     *
+     * @param osmXmlFile OSM XML file
+     * @throws RoutingNetworkStoreException if the file can't be read or parsed
+     */
+    public OsmXmlRoutingNetworkStoreReader(final File osmXmlFile) throws RoutingNetworkStoreException {
+        this(osmXmlFile, DefaultHighwayTypes);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param osmXmlFile   OSM XML file
+     * @param highwayTypes Values of the "highway" tag that mark a way as
+     *                     routable. If null, every way with a "highway" tag
+     *                     is read.
+     * @throws RoutingNetworkStoreException if the file can't be read or parsed
+     */
+    public OsmXmlRoutingNetworkStoreReader(final File osmXmlFile, final Set<String> highwayTypes) throws RoutingNetworkStoreException {
+        if (osmXmlFile == null) {
+            throw new IllegalArgumentException("OSM XML file may not be null");
+        }
+
+        this.osmXmlFile = osmXmlFile;
+        this.highwayTypes = highwayTypes == null ? null : new HashSet<>(highwayTypes);
+
+        this.countReferences();
+        this.readNetwork();
+
+        this.bounds = Utility.calculateBounds(this.nodes);
+    }
+
+    @Override
+    public List<Pair<String, Type>> getNodeAttributeDescriptions() {
+        return NodeAttributeDescriptions;
+    }
+
+    @Override
+    public List<Pair<String, Type>> getEdgeAttributeDescriptions() {
+        return EdgeAttributeDescriptions;
+    }
+
+    @Override
+    public List<Node> getNodes() {
+        return Collections.unmodifiableList(this.nodes);
+    }
+
+    @Override
+    public List<Edge> getEdges() {
+        return Collections.unmodifiableList(this.edges);
+    }
+
+    @Override
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return OsmCoordinateReferenceSystem;
+    }
+
+    @Override
+    public BoundingBox getBounds() {
+        return this.bounds;
+    }
+
+    @Override
+    public String getDescription() {
+        return String.format("OSM XML network read from %s. Contains %d nodes and %d edges.",
+                this.osmXmlFile.getName(),
+                this.nodes.size(),
+                this.edges.size());
+    }
+
+    @Override
+    public NodeDimensionality getNodeDimensionality() {
+        return this.nodeDimensionality;
+    }
+
+    /**
+     * First pass: assign each node referenced by a routable way a slot, and
+     * count its references. Way ends are counted twice so that they're always
+     * kept as network nodes.
+     */
+    private void countReferences() throws RoutingNetworkStoreException {
+        this.slots = new LongIntMap(1 << 16);
+        this.referenceCounts = new int[1 << 16];
+
+        this.parse(false, way -> {
+            for (int i = 0; i < way.referenceCount; ++i) {
+                final int slot = this.slots.getOrAdd(way.references[i]);
+
+                if (slot == this.referenceCounts.length) {
+                    this.referenceCounts = Arrays.copyOf(this.referenceCounts, slot * 2);
+                }
+
+                this.referenceCounts[slot] += (i == 0 || i == way.referenceCount - 1) ? 2 : 1;
+            }
+        });
+    }
+
+    /**
+     * Second pass: read the coordinates of referenced nodes, then split ways
+     * into edges
+     */
+    private void readNetwork() throws RoutingNetworkStoreException {
+        final int slotCount = this.slots.size();
+
+        this.longitudes = new double[slotCount];
+        this.latitudes = new double[slotCount];
+        this.elevations = new double[slotCount];
+        this.osmIdentifiers = new long[slotCount];
+        this.nodeIdentifiers = new int[slotCount];
+
+        Arrays.fill(this.latitudes, Double.NaN);   // Marks nodes missing from the file (e.g. outside of a clipped extract)
+        Arrays.fill(this.nodeIdentifiers, -1);
+
+        this.nodeSlots = new int[Math.max(16, slotCount / 8)];
+
+        this.parse(true, this::splitWay);
+
+        boolean hasElevation = this.nodeCount > 0;
+
+        for (int i = 0; i < this.nodeCount && hasElevation; ++i) {
+            hasElevation = !Double.isNaN(this.elevations[this.nodeSlots[i]]);
+        }
+
+        this.nodeDimensionality = hasElevation ? NodeDimensionality.HAS_ELEVATION : NodeDimensionality.NO_ELEVATION;
+
+        this.nodes = new ArrayList<>(this.nodeCount);
+
+        for (int identifier = 0; identifier < this.nodeCount; ++identifier) {
+            final int slot = this.nodeSlots[identifier];
+
+            this.nodes.add(new Node(identifier,
+                    this.longitudes[slot],
+                    this.latitudes[slot],
+                    hasElevation ? this.elevations[slot] : null,
+                    Collections.singletonList(this.osmIdentifiers[slot])));
+        }
+
+        // Release the per-slot arrays; only the network is kept
+        this.slots = null;
+        this.referenceCounts = null;
+        this.longitudes = null;
+        this.latitudes = null;
+        this.elevations = null;
+        this.osmIdentifiers = null;
+        this.nodeIdentifiers = null;
+        this.nodeSlots = null;
+    }
+
+    private void splitWay(final Way way) {
+        final int direction = getDirection(way.highway, way.oneway, way.junction);
+
+        int start = -1;
+        int previous = -1;
+        double length = 0.0;
+
+        for (int i = 0; i < way.referenceCount; ++i) {
+            final int slot = this.slots.get(way.references[i]);
+
+            if (Double.isNaN(this.latitudes[slot])) {
+                // The node isn't in the file. End the current edge at the
+                // last node that is, and start over after the gap.
+                if (start >= 0 && previous != start) {
+                    this.addEdge(start, previous, length, direction, way);
+                }
+
+                start = -1;
+                previous = -1;
+                continue;
+            }
+
+            if (start < 0) {
+                start = slot;
+                length = 0.0;
+            } else {
+                length += distance(this.latitudes[previous], this.longitudes[previous], this.latitudes[slot], this.longitudes[slot]);
+
+                if (this.referenceCounts[slot] >= 2) {
+                    this.addEdge(start, slot, length, direction, way);
+
+                    start = slot;
+                    length = 0.0;
+                }
+            }
+
+            previous = slot;
+        }
+
+        if (start >= 0 && previous != start) {
+            this.addEdge(start, previous, length, direction, way);
+        }
+    }
+
+    private void addEdge(final int fromSlot, final int toSlot, final double length, final int direction, final Way way) {
+        if (fromSlot == toSlot) {
+            return;   // A loop with no other connections can't be part of a route
+        }
+
+        final int from = this.getNodeIdentifier(direction < 0 ? toSlot : fromSlot);
+        final int to = this.getNodeIdentifier(direction < 0 ? fromSlot : toSlot);
+
+        this.edges.add(new Edge(this.edges.size(),
+                from,
+                to,
+                direction == 0 ? EdgeDirecctionality.TWO_WAY : EdgeDirecctionality.ONE_WAY,
+                Arrays.asList(way.highway, way.name, way.identifier, length)));
+    }
+
+    private int getNodeIdentifier(final int slot) {
+        if (this.nodeIdentifiers[slot] < 0) {
+            if (this.nodeCount == this.nodeSlots.length) {
+                this.nodeSlots = Arrays.copyOf(this.nodeSlots, this.nodeCount * 2);
+            }
+
+            this.nodeSlots[this.nodeCount] = slot;
+            this.nodeIdentifiers[slot] = this.nodeCount++;
+        }
+
+        return this.nodeIdentifiers[slot];
+    }
+
+    /**
+     * Streams the file, passing each routable way to a consumer. Parsing
+     * stops at the first relation, since OSM XML lists nodes, then ways, then
+     * relations.
+     *
+     * @param readNodes   If true, the coordinates of nodes that have a slot
+     *                    are recorded
+     * @param wayConsumer Callback for each routable way. The way object is
+     *                    reused between calls.
+     */
+    private void parse(final boolean readNodes, final WayConsumer wayConsumer) throws RoutingNetworkStoreException {
+        try (final InputStream inputStream = new BufferedInputStream(new FileInputStream(this.osmXmlFile), 1 << 16)) {
+            final XmlPullParser parser = XmlPullParserFactory.newInstance().newPullParser();
+            parser.setInput(inputStream, null);
+
+            final Way way = new Way();
+            boolean inWay = false;
+
+            for (int event = parser.getEventType(); event != XmlPullParser.END_DOCUMENT; event = parser.next()) {
+                if (event == XmlPullParser.START_TAG) {
+                    final String name = parser.getName();
+
+                    if (readNodes && "node".equals(name)) {
+                        this.readNode(parser);
+                    } else if ("way".equals(name)) {
+                        inWay = true;
+                        way.reset(Long.parseLong(parser.getAttributeValue(null, "id")));
+                    } else if (inWay && "nd".equals(name)) {
+                        way.addReference(Long.parseLong(parser.getAttributeValue(null, "ref")));
+                    } else if (inWay && "tag".equals(name)) {
+                        way.setTag(parser.getAttributeValue(null, "k"), parser.getAttributeValue(null, "v"));
+                    } else if ("relation".equals(name)) {
+                        break;
+                    }
+                } else if (event == XmlPullParser.END_TAG && "way".equals(parser.getName())) {
+                    inWay = false;
+
+                    if (way.highway != null && (this.highwayTypes == null || this.highwayTypes.contains(way.highway))) {
+                        wayConsumer.accept(way);
+                    }
+                }
+            }
+        } catch (final XmlPullParserException | IOException | RuntimeException ex) {
+            throw new RoutingNetworkStoreException(ex);
+        }
+    }
+
+    private void readNode(final XmlPullParser parser) {
+        final long identifier = Long.parseLong(parser.getAttributeValue(null, "id"));
+        final int slot = this.slots.get(identifier);
+
+        if (slot < 0) {
+            return;
+        }
+
+        final String elevation = parser.getAttributeValue(null, ELEVATION_NODE_ATTRIBUTE_NAME);
+
+        this.osmIdentifiers[slot] = identifier;
+        this.longitudes[slot] = Double.parseDouble(parser.getAttributeValue(null, LONGITUDE_NODE_ATTRIBUTE_NAME));
+        this.latitudes[slot] = Double.parseDouble(parser.getAttributeValue(null, LATITUDE_NODE_ATTRIBUTE_NAME));
+        this.elevations[slot] = elevation == null ? Double.NaN : Double.parseDouble(elevation);
+    }
+
+    /**
+     * @return 1 if the way may only be traversed in the order of its nodes, -1
+     * if only in the opposite order, and 0 if in both
+     */
+    private static int getDirection(final String highway, final String oneway, final String junction) {
+        if (oneway != null) {
+            switch (oneway) {
+                case "yes":
+                case "true":
+                case "1":
+                    return 1;
+                case "-1":
+                case "reverse":
+                    return -1;
+                default:
+                    return 0;
+            }
+        }
+
+        // Implied one way, per the OSM wiki
+        return "roundabout".equals(junction) || "motorway".equals(highway) ? 1 : 0;
+    }
+
+    /**
+     * @return Haversine distance in meters
+     */
+    private static double distance(final double fromLatitude,
+                                   final double fromLongitude,
+                                   final double toLatitude,
+                                   final double toLongitude) {
+        final double sinHalfLatitude = Math.sin(Math.toRadians(toLatitude - fromLatitude) / 2.0);
+        final double sinHalfLongitude = Math.sin(Math.toRadians(toLongitude - fromLongitude) / 2.0);
+
+        final double a = sinHalfLatitude * sinHalfLatitude +
+                Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude)) * sinHalfLongitude * sinHalfLongitude;
+
+        return 2.0 * MeanEarthRadiusMeters * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    @FunctionalInterface
+    private interface WayConsumer {
+        void accept(final Way way);
+    }
+
+    /**
+     * The parts of a way element needed to build edges. Reused for every way
+     * in the file.
+     */
+    private static final class Way {
+        void reset(final long wayIdentifier) {
+            this.identifier = wayIdentifier;
+            this.referenceCount = 0;
+            this.highway = null;
+            this.name = null;
+            this.oneway = null;
+            this.junction = null;
+        }
+
+        void addReference(final long reference) {
+            if (this.referenceCount == this.references.length) {
+                this.references = Arrays.copyOf(this.references, this.referenceCount * 2);
+            }
+
+            this.references[this.referenceCount++] = reference;
+        }
+
+        void setTag(final String key, final String value) {
+            if (key == null) {
+                return;
+            }
+
+            switch (key) {
+                case "highway":
+                    this.highway = value;
+                    break;
+                case "name":
+                    this.name = value;
+                    break;
+                case "oneway":
+                    this.oneway = value;
+                    break;
+                case "junction":
+                    this.junction = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private long identifier;
+        private long[] references = new long[256];
+        private int referenceCount;
+        private String highway;
+        private String name;
+        private String oneway;
+        private String junction;
+    }
+
+    private final File osmXmlFile;
+    private final Set<String> highwayTypes;
+
+    private final List<Edge> edges = new ArrayList<>();
+    private List<Node> nodes;
+    private NodeDimensionality nodeDimensionality;
+    private final BoundingBox bounds;
+
+    // Parsing state, indexed by slot (see countReferences). Discarded once
+    // the network is built.
+    private LongIntMap slots;
+    private int[] referenceCounts;
+    private double[] longitudes;
+    private double[] latitudes;
+    private double[] elevations;
+    private long[] osmIdentifiers;
+    private int[] nodeIdentifiers;
+    private int[] nodeSlots;   // Slot of each network node, by node identifier
+    private int nodeCount;
+
+    /**
+     * Values of the "highway" tag for roads that can carry motor vehicles
+     */
+    public static final Set<String> DefaultHighwayTypes = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("motorway",
+            "motorway_link",
+            "trunk",
+            "trunk_link",
+            "primary",
+            "primary_link",
+            "secondary",
+            "secondary_link",
+            "tertiary",
+            "tertiary_link",
+            "unclassified",
+            "residential",
+            "living_street",
+            "service",
+            "road")));
+
+    private static final List<Pair<String, Type>> NodeAttributeDescriptions = Collections.singletonList(Pair.of("osm_id", Long.class));
+
+    private static final List<Pair<String, Type>> EdgeAttributeDescriptions = Collections.unmodifiableList(Arrays.asList(Pair.of(OsmXmlRoutingNetworkStoreWriter.WAY_HIGHWAY_TAG_KEY, String.class),
+            Pair.of("name", String.class),
+            Pair.of("way_id", Long.class),
+            Pair.of("length", Double.class)));
+
+    private static final CoordinateReferenceSystem OsmCoordinateReferenceSystem = new CoordinateReferenceSystem("EPSG", 4326);
+
+    private static final double MeanEarthRadiusMeters = 6371008.8;
+}
@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.osm;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Minimal encoder for the
+ * <a href="https://developers.google.com/protocol-buffers/docs/encoding">
+ * protocol buffer wire format</a>, covering only what OSM PBF needs. Fields
+ * are appended to a growable byte array in the order they're written.
+ *
+ * @author Luke Lambert
+ */
+final class ProtobufWriter {
+    ProtobufWriter() {
+        this(256);
+    }
+
+    ProtobufWriter(final int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.size);
+    }
+
+    void reset() {
+        this.size = 0;
+    }
+
+    void writeInt64(final int field, final long value) {
+        this.writeTag(field, VarintWireType);
+        this.writeRawVarint(value);
+    }
+
+    void writeSInt64(final int field, final long value) {
+        this.writeTag(field, VarintWireType);
+        this.writeRawVarint(zigZag(value));
+    }
+
+    void writeString(final int field, final String value) {
+        this.writeBytes(field, value.getBytes(Utf8));
+    }
+
+    void writeBytes(final int field, final byte[] value) {
+        this.writeBytes(field, value, 0, value.length);
+    }
+
+    void writeBytes(final int field, final byte[] value, final int offset, final int length) {
+        this.writeTag(field, LengthDelimitedWireType);
+        this.writeRawVarint(length);
+        this.ensureCapacity(length);
+        System.arraycopy(value, offset, this.buffer, this.size, length);
+        this.size += length;
+    }
+
+    /**
+     * Writes an embedded message
+     */
+    void writeMessage(final int field, final ProtobufWriter message) {
+        this.writeBytes(field, message.buffer, 0, message.size);
+    }
+
+    /**
+     * Writes a packed repeated field of unsigned varints
+     */
+    void writePackedVarints(final int field, final long[] values, final int count) {
+        if (count == 0) {
+            return;
+        }
+
+        int length = 0;
+        for (int i = 0; i < count; ++i) {
+            length += varintSize(values[i]);
+        }
+
+        this.writeTag(field, LengthDelimitedWireType);
+        this.writeRawVarint(length);
+
+        for (int i = 0; i < count; ++i) {
+            this.writeRawVarint(values[i]);
+        }
+    }
+
+    /**
+     * Writes a packed repeated field of zig-zag encoded signed varints, each
+     * stored as the difference from the previous value
+     */
+    void writePackedDeltaSInt64(final int field, final long[] values, final int count) {
+        if (count == 0) {
+            return;
+        }
+
+        int length = 0;
+        long previous = 0;
+
+        for (int i = 0; i < count; ++i) {
+            length += varintSize(zigZag(values[i] - previous));
+            previous = values[i];
+        }
+
+        this.writeTag(field, LengthDelimitedWireType);
+        this.writeRawVarint(length);
+
+        previous = 0;
+
+        for (int i = 0; i < count; ++i) {
+            this.writeRawVarint(zigZag(values[i] - previous));
+            previous = values[i];
+        }
+    }
+
+    private void writeTag(final int field, final int wireType) {
+        this.writeRawVarint((field << 3) | wireType);
+    }
+
+    private void writeRawVarint(final long value) {
+        this.ensureCapacity(10);
+
+        long remaining = value;
+
+        while ((remaining & ~0x7FL) != 0) {
+            this.buffer[this.size++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+
+        this.buffer[this.size++] = (byte) remaining;
+    }
+
+    private void ensureCapacity(final int additional) {
+        if (this.size + additional > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + additional));
+        }
+    }
+
+    private static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int varintSize(final long value) {
+        int size = 1;
+        long remaining = value;
+
+        while ((remaining & ~0x7FL) != 0) {
+            ++size;
+            remaining >>>= 7;
+        }
+
+        return size;
+    }
+
+    private byte[] buffer;
+    private int size;
+
+    private static final int VarintWireType = 0;
+    private static final int LengthDelimitedWireType = 2;
+
+    private static final Charset Utf8 = Charset.forName("UTF-8");
+}
@@ -0,0 +1,552 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.routing;
+
+import java.util.Arrays;
+
+/**
+ * Contraction hierarchy built over a {@link RoutingGraph}. Preprocessing
+ * removes ("contracts") nodes one at a time, from least to most important,
+ * adding shortcut arcs wherever a node lay on the only cheapest path between
+ * two of its neighbors. A query then runs a bidirectional Dijkstra search that
+ * only ever moves to more important nodes, which settles a few hundred nodes
+ * rather than a large fraction of the graph.
+ * <p>
+ * Preprocessing is expensive, and should be done once per graph and cost
+ * function. The hierarchy is immutable once built, and may be queried by any
+ * number of threads at once.
+ *
+ * @author Luke Lambert
+ */
+public class ContractionHierarchy {
+    /**
+     * Constructor. Contracts every node of the graph.
+     *
+     * @param graph Graph to preprocess
+     */
+    public ContractionHierarchy(final RoutingGraph graph) {
+        if (graph == null) {
+            throw new IllegalArgumentException("Graph may not be null");
+        }
+
+        this.graph = graph;
+
+        final Contractor contractor = new Contractor(graph);
+        contractor.contractAll();
+
+        this.arcCount = contractor.arcCount;
+        this.arcTail = Arrays.copyOf(contractor.arcTail, this.arcCount);
+        this.arcHead = Arrays.copyOf(contractor.arcHead, this.arcCount);
+        this.arcCost = Arrays.copyOf(contractor.arcCost, this.arcCount);
+        this.arcFirstChild = Arrays.copyOf(contractor.arcFirstChild, this.arcCount);
+        this.arcSecondChild = Arrays.copyOf(contractor.arcSecondChild, this.arcCount);
+
+        final int nodeCount = graph.getNodeCount();
+        final int[] rank = contractor.rank;
+
+        // Forward searches follow arcs up the hierarchy from their tail, and
+        // backward searches follow arcs up the hierarchy from their head
+        this.firstUp = new int[nodeCount + 1];
+        this.firstDown = new int[nodeCount + 1];
+
+        for (int arc = 0; arc < this.arcCount; ++arc) {
+            if (rank[this.arcTail[arc]] < rank[this.arcHead[arc]]) {
+                ++this.firstUp[this.arcTail[arc] + 1];
+            } else {
+                ++this.firstDown[this.arcHead[arc] + 1];
+            }
+        }
+
+        for (int node = 0; node < nodeCount; ++node) {
+            this.firstUp[node + 1] += this.firstUp[node];
+            this.firstDown[node + 1] += this.firstDown[node];
+        }
+
+        this.upArcs = new int[this.firstUp[nodeCount]];
+        this.downArcs = new int[this.firstDown[nodeCount]];
+
+        final int[] nextUp = new int[nodeCount];
+        final int[] nextDown = new int[nodeCount];
+
+        for (int arc = 0; arc < this.arcCount; ++arc) {
+            final int tail = this.arcTail[arc];
+            final int head = this.arcHead[arc];
+
+            if (rank[tail] < rank[head]) {
+                this.upArcs[this.firstUp[tail] + nextUp[tail]++] = arc;
+            } else {
+                this.downArcs[this.firstDown[head] + nextDown[head]++] = arc;
+            }
+        }
+
+        this.searchState = ThreadLocal.withInitial(() -> new SearchState(nodeCount));
+    }
+
+    /**
+     * @return The graph this hierarchy was built from
+     */
+    public RoutingGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * @return The number of shortcut arcs added by preprocessing
+     */
+    public int getShortcutCount() {
+        return this.arcCount - this.graph.getArcCount();
+    }
+
+    /**
+     * Finds the cheapest route between two nodes
+     *
+     * @param fromIdentifier Identifier of the origin node
+     * @param toIdentifier   Identifier of the destination node
+     * @return The cheapest route, or null if the destination can't be reached
+     * from the origin
+     */
+    public Route findRoute(final int fromIdentifier, final int toIdentifier) {
+        final int source = this.graph.getIndex(fromIdentifier);
+        final int target = this.graph.getIndex(toIdentifier);
+
+        if (source == target) {
+            return this.graph.createRoute(source, new int[0], 0, 0.0);
+        }
+
+        final SearchState state = this.searchState.get();
+        state.reset();
+
+        final IndexedMinHeap forwardHeap = state.getHeap(SearchState.Forward);
+        final IndexedMinHeap backwardHeap = state.getHeap(SearchState.Backward);
+
+        state.update(SearchState.Forward, source, 0.0, -1, 0.0);
+        state.update(SearchState.Backward, target, 0.0, -1, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+
+        // Upward searches can't stop at the first meeting. Each direction
+        // continues until its smallest key is no better than the best path.
+        while (true) {
+            final double forwardKey = forwardHeap.peekKey();
+            final double backwardKey = backwardHeap.peekKey();
+
+            if (Math.min(forwardKey, backwardKey) >= best) {
+                break;
+            }
+
+            final int direction = forwardKey <= backwardKey ? SearchState.Forward : SearchState.Backward;
+            final int opposite = 1 - direction;
+
+            final int node = state.getHeap(direction).poll();
+            final double distance = state.getDistance(direction, node);
+
+            final int[] first = direction == SearchState.Forward ? this.firstUp : this.firstDown;
+            final int[] arcs = direction == SearchState.Forward ? this.upArcs : this.downArcs;
+            final int[] ends = direction == SearchState.Forward ? this.arcHead : this.arcTail;
+
+            for (int i = first[node]; i < first[node + 1]; ++i) {
+                final int arc = arcs[i];
+                final int next = ends[arc];
+                final double nextDistance = distance + this.arcCost[arc];
+
+                if (nextDistance < state.getDistance(direction, next)) {
+                    state.update(direction, next, nextDistance, arc, nextDistance);
+
+                    final double total = nextDistance + state.getDistance(opposite, next);
+
+                    if (total < best) {
+                        best = total;
+                        meeting = next;
+                    }
+                }
+            }
+        }
+
+        if (meeting < 0) {
+            return null;
+        }
+
+        // Collect the hierarchy arcs from source to meeting to target, then
+        // expand each shortcut into the graph arcs it replaces
+        final int[] hierarchyPath = new int[this.countArcs(state, meeting)];
+
+        int length = 0;
+        for (int node = meeting, arc = state.getParent(SearchState.Forward, node); arc >= 0; arc = state.getParent(SearchState.Forward, node)) {
+            hierarchyPath[length++] = arc;
+            node = this.arcTail[arc];
+        }
+
+        reverse(hierarchyPath, length);
+
+        for (int node = meeting, arc = state.getParent(SearchState.Backward, node); arc >= 0; arc = state.getParent(SearchState.Backward, node)) {
+            hierarchyPath[length++] = arc;
+            node = this.arcHead[arc];
+        }
+
+        int[] path = new int[length * 4];
+        int[] stack = state.getStack();
+        int pathLength = 0;
+
+        for (int i = 0; i < length; ++i) {
+            int top = 0;
+            stack[top++] = hierarchyPath[i];
+
+            while (top > 0) {
+                final int arc = stack[--top];
+
+                if (this.arcFirstChild[arc] < 0) {
+                    if (pathLength == path.length) {
+                        path = Arrays.copyOf(path, path.length * 2);
+                    }
+
+                    path[pathLength++] = this.arcSecondChild[arc];
+                } else {
+                    if (top + 2 > stack.length) {
+                        stack = state.growStack(top + 2);
+                    }
+
+                    stack[top++] = this.arcSecondChild[arc];
+                    stack[top++] = this.arcFirstChild[arc];
+                }
+            }
+        }
+
+        return this.graph.createRoute(source, path, pathLength, best);
+    }
+
+    private int countArcs(final SearchState state, final int meeting) {
+        int count = 0;
+
+        for (int node = meeting, arc = state.getParent(SearchState.Forward, node); arc >= 0; arc = state.getParent(SearchState.Forward, node)) {
+            node = this.arcTail[arc];
+            ++count;
+        }
+
+        for (int node = meeting, arc = state.getParent(SearchState.Backward, node); arc >= 0; arc = state.getParent(SearchState.Backward, node)) {
+            node = this.arcHead[arc];
+            ++count;
+        }
+
+        return count;
+    }
+
+    private static void reverse(final int[] values, final int length) {
+        for (int i = 0, j = length - 1; i < j; ++i, --j) {
+            final int temporary = values[i];
+            values[i] = values[j];
+            values[j] = temporary;
+        }
+    }
+
+    /**
+     * Preprocessing state. Arcs (original and shortcut) are kept in growable
+     * parallel arrays; each node keeps lists of the indices of its arcs to and
+     * from nodes that haven't been contracted yet.
+     */
+    private static final class Contractor {
+        Contractor(final RoutingGraph graph) {
+            this.nodeCount = graph.getNodeCount();
+
+            final int initialCapacity = Math.max(16, graph.getArcCount() * 2);
+
+            this.arcTail = new int[initialCapacity];
+            this.arcHead = new int[initialCapacity];
+            this.arcCost = new double[initialCapacity];
+            this.arcFirstChild = new int[initialCapacity];
+            this.arcSecondChild = new int[initialCapacity];
+
+            this.outArcs = new int[this.nodeCount][];
+            this.outCounts = new int[this.nodeCount];
+            this.inArcs = new int[this.nodeCount][];
+            this.inCounts = new int[this.nodeCount];
+
+            for (int node = 0; node < this.nodeCount; ++node) {
+                this.outArcs[node] = new int[Math.max(2, graph.firstOut[node + 1] - graph.firstOut[node])];
+                this.inArcs[node] = new int[Math.max(2, graph.firstIn[node + 1] - graph.firstIn[node])];
+            }
+
+            // Original arcs keep their graph arc index, so that the first
+            // graph.getArcCount() hierarchy arcs correspond one to one
+            for (int arc = 0; arc < graph.getArcCount(); ++arc) {
+                this.addArc(graph.arcTail[arc], graph.arcHead[arc], graph.arcCost[arc], -1, arc);
+            }
+
+            this.rank = new int[this.nodeCount];
+            this.contractedNeighbors = new int[this.nodeCount];
+
+            this.queue = new IndexedMinHeap(this.nodeCount);
+            this.witnessHeap = new IndexedMinHeap(this.nodeCount);
+            this.witnessDistances = new double[this.nodeCount];
+            this.witnessTouched = new int[this.nodeCount];
+
+            Arrays.fill(this.witnessDistances, Double.POSITIVE_INFINITY);
+        }
+
+        void contractAll() {
+            for (int node = 0; node < this.nodeCount; ++node) {
+                this.queue.push(node, this.getPriority(node));
+            }
+
+            int order = 0;
+
+            while (!this.queue.isEmpty()) {
+                final int node = this.queue.poll();
+
+                // Priorities go stale as neighbors are contracted. Re-evaluate
+                // lazily, and put the node back if it's no longer the minimum.
+                final double priority = this.getPriority(node);
+
+                if (priority > this.queue.peekKey()) {
+                    this.queue.push(node, priority);
+                    continue;
+                }
+
+                this.contract(node, true);
+
+                this.rank[node] = order++;
+
+                for (int i = 0; i < this.inCounts[node]; ++i) {
+                    final int tail = this.arcTail[this.inArcs[node][i]];
+                    removeArc(this.outArcs[tail], this.outCounts, tail, this.inArcs[node][i]);
+                    ++this.contractedNeighbors[tail];
+                }
+
+                for (int i = 0; i < this.outCounts[node]; ++i) {
+                    final int head = this.arcHead[this.outArcs[node][i]];
+                    removeArc(this.inArcs[head], this.inCounts, head, this.outArcs[node][i]);
+                    ++this.contractedNeighbors[head];
+                }
+            }
+        }
+
+        private double getPriority(final int node) {
+            final int shortcuts = this.contract(node, false);
+            return shortcuts - this.inCounts[node] - this.outCounts[node] + this.contractedNeighbors[node];
+        }
+
+        /**
+         * Finds, and optionally adds, the shortcuts needed to remove a node
+         *
+         * @return The number of shortcuts needed
+         */
+        private int contract(final int node, final boolean addShortcuts) {
+            double maximumOutCost = 0.0;
+
+            for (int i = 0; i < this.outCounts[node]; ++i) {
+                maximumOutCost = Math.max(maximumOutCost, this.arcCost[this.outArcs[node][i]]);
+            }
+
+            int shortcuts = 0;
+
+            // Shortcuts are added to the neighbors' lists, never to this
+            // node's, so iterating over this node's arcs here is safe
+            for (int i = 0; i < this.inCounts[node]; ++i) {
+                final int inArc = this.inArcs[node][i];
+                final int tail = this.arcTail[inArc];
+
+                if (tail == node) {
+                    continue;
+                }
+
+                final double inCost = this.arcCost[inArc];
+
+                this.findWitnesses(tail, node, inCost + maximumOutCost);
+
+                for (int j = 0; j < this.outCounts[node]; ++j) {
+                    final int outArc = this.outArcs[node][j];
+                    final int head = this.arcHead[outArc];
+
+                    if (head == tail || head == node) {
+                        continue;
+                    }
+
+                    final double viaCost = inCost + this.arcCost[outArc];
+
+                    if (this.witnessDistances[head] > viaCost) {
+                        ++shortcuts;
+
+                        if (addShortcuts) {
+                            this.addShortcut(tail, head, viaCost, inArc, outArc);
+                        }
+                    }
+                }
+            }
+
+            return shortcuts;
+        }
+
+        /**
+         * Bounded Dijkstra search from {@code source} that avoids
+         * {@code excluded}. Distances are left in witnessDistances.
+         */
+        private void findWitnesses(final int source, final int excluded, final double maximumCost) {
+            for (int i = 0; i < this.witnessTouchedCount; ++i) {
+                this.witnessDistances[this.witnessTouched[i]] = Double.POSITIVE_INFINITY;
+            }
+
+            this.witnessTouchedCount = 0;
+            this.witnessHeap.clear();
+
+            this.witnessDistances[source] = 0.0;
+            this.witnessTouched[this.witnessTouchedCount++] = source;
+            this.witnessHeap.push(source, 0.0);
+
+            int settled = 0;
+
+            while (!this.witnessHeap.isEmpty() && this.witnessHeap.peekKey() <= maximumCost && settled++ < WitnessSettleLimit) {
+                final int node = this.witnessHeap.poll();
+                final double distance = this.witnessDistances[node];
+
+                for (int i = 0; i < this.outCounts[node]; ++i) {
+                    final int arc = this.outArcs[node][i];
+                    final int head = this.arcHead[arc];
+
+                    if (head == excluded) {
+                        continue;
+                    }
+
+                    final double headDistance = distance + this.arcCost[arc];
+
+                    if (headDistance < this.witnessDistances[head]) {
+                        if (this.witnessDistances[head] == Double.POSITIVE_INFINITY) {
+                            this.witnessTouched[this.witnessTouchedCount++] = head;
+                        }
+
+                        this.witnessDistances[head] = headDistance;
+                        this.witnessHeap.push(head, headDistance);
+                    }
+                }
+            }
+        }
+
+        private void addShortcut(final int tail, final int head, final double cost, final int firstChild, final int secondChild) {
+            // Replace a more expensive arc between the same nodes rather than
+            // keeping both
+            for (int i = 0; i < this.outCounts[tail]; ++i) {
+                final int arc = this.outArcs[tail][i];
+
+                if (this.arcHead[arc] == head) {
+                    if (this.arcCost[arc] <= cost) {
+                        return;
+                    }
+
+                    removeArc(this.outArcs[tail], this.outCounts, tail, arc);
+                    removeArc(this.inArcs[head], this.inCounts, head, arc);
+                    break;
+                }
+            }
+
+            this.addArc(tail, head, cost, firstChild, secondChild);
+        }
+
+        private void addArc(final int tail, final int head, final double cost, final int firstChild, final int secondChild) {
+            if (this.arcCount == this.arcTail.length) {
+                final int capacity = this.arcCount * 3 / 2;
+
+                this.arcTail = Arrays.copyOf(this.arcTail, capacity);
+                this.arcHead = Arrays.copyOf(this.arcHead, capacity);
+                this.arcCost = Arrays.copyOf(this.arcCost, capacity);
+                this.arcFirstChild = Arrays.copyOf(this.arcFirstChild, capacity);
+                this.arcSecondChild = Arrays.copyOf(this.arcSecondChild, capacity);
+            }
+
+            final int arc = this.arcCount++;
+
+            this.arcTail[arc] = tail;
+            this.arcHead[arc] = head;
+            this.arcCost[arc] = cost;
+            this.arcFirstChild[arc] = firstChild;
+            this.arcSecondChild[arc] = secondChild;
+
+            if (tail == head) {
+                return;   // Self loops are never on a cheapest path; keep the arc for indexing only
+            }
+
+            this.outArcs[tail] = append(this.outArcs[tail], this.outCounts, tail, arc);
+            this.inArcs[head] = append(this.inArcs[head], this.inCounts, head, arc);
+        }
+
+        private static int[] append(final int[] list, final int[] counts, final int node, final int value) {
+            final int[] result = counts[node] == list.length ? Arrays.copyOf(list, list.length * 2) : list;
+            result[counts[node]++] = value;
+            return result;
+        }
+
+        private static void removeArc(final int[] list, final int[] counts, final int node, final int arc) {
+            for (int i = 0; i < counts[node]; ++i) {
+                if (list[i] == arc) {
+                    list[i] = list[--counts[node]];
+                    return;
+                }
+            }
+        }
+
+        private final int nodeCount;
+
+        private int arcCount;
+        private int[] arcTail;
+        private int[] arcHead;
+        private double[] arcCost;
+        private int[] arcFirstChild;    // -1 for an original arc
+        private int[] arcSecondChild;   // Graph arc index for an original arc
+
+        private final int[][] outArcs;
+        private final int[] outCounts;
+        private final int[][] inArcs;
+        private final int[] inCounts;
+
+        private final int[] rank;
+        private final int[] contractedNeighbors;
+
+        private final IndexedMinHeap queue;
+
+        private final IndexedMinHeap witnessHeap;
+        private final double[] witnessDistances;
+        private final int[] witnessTouched;
+        private int witnessTouchedCount;
+    }
+
+    private final RoutingGraph graph;
+    private final ThreadLocal<SearchState> searchState;
+
+    private final int arcCount;
+    private final int[] arcTail;
+    private final int[] arcHead;
+    private final double[] arcCost;
+    private final int[] arcFirstChild;
+    private final int[] arcSecondChild;
+
+    private final int[] firstUp;
+    private final int[] upArcs;
+    private final int[] firstDown;
+    private final int[] downArcs;
+
+    /**
+     * Maximum number of nodes a witness search settles before giving up.
+     * Lower limits make preprocessing faster at the cost of some unnecessary
+     * shortcuts.
+     */
+    private static final int WitnessSettleLimit = 500;
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.routing;
+
+import rgi.store.routingnetworks.Edge;
+import rgi.store.routingnetworks.Node;
+
+/**
+ * Calculates the cost of traversing an edge in one direction
+ *
+ * @author Luke Lambert
+ */
+@FunctionalInterface
+public interface EdgeCostFunction {
+    /**
+     * Calculates the cost of traversing an edge. Two way edges are evaluated
+     * once for each direction, so costs may be asymmetric (e.g. to account
+     * for elevation change).
+     *
+     * @param from Node the traversal starts at
+     * @param to   Node the traversal ends at
+     * @param edge Edge being traversed
+     * @return The non-negative cost of traversing the edge from {@code from} to
+     * {@code to}. {@link Double#POSITIVE_INFINITY} marks the edge as
+     * impassable in that direction.
+     */
+    double getCost(final Node from, final Node to, final Edge edge);
+
+    /**
+     * @return A cost function that uses the straight line distance between
+     * the edge's nodes, in the units of the network's coordinate reference
+     * system
+     */
+    static EdgeCostFunction euclideanLength() {
+        return (from, to, edge) -> Math.hypot(to.getX() - from.getX(),
+                to.getY() - from.getY());
+    }
+
+    /**
+     * @param attributeIndex Index of a numeric edge attribute, as described by
+     *                       {@link rgi.store.routingnetworks.RoutingNetworkStoreReader#getEdgeAttributeDescriptions()}
+     * @return A cost function that uses the value of an edge attribute,
+     * regardless of direction
+     */
+    static EdgeCostFunction attribute(final int attributeIndex) {
+        if (attributeIndex < 0) {
+            throw new IllegalArgumentException("Attribute index may not be less than 0");
+        }
+
+        return (from, to, edge) -> ((Number) edge.getAttributes().get(attributeIndex)).doubleValue();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.routing;
+
+/**
+ * The closest point on an edge to a query coordinate
+ *
+ * @author Luke Lambert
+ */
+public class EdgeProjection {
+    /**
+     * Constructor
+     *
+     * @param edgeIdentifier Identifier of the edge
+     * @param x              Horizontal part of the projected coordinate
+     * @param y              Vertical part of the projected coordinate
+     * @param fraction       Position of the projected coordinate along the
+     *                       edge, from 0 (the edge's "from" node) to 1 (its
+     *                       "to" node)
+     * @param distance       Distance from the query coordinate to the
+     *                       projected coordinate
+     */
+    public EdgeProjection(final int edgeIdentifier,
+                          final double x,
+                          final double y,
+                          final double fraction,
+                          final double distance) {
+        this.edgeIdentifier = edgeIdentifier;
+        this.x = x;
+        this.y = y;
+        this.fraction = fraction;
+        this.distance = distance;
+    }
+
+    public int getEdgeIdentifier() {
+        return this.edgeIdentifier;
+    }
+
+    public double getX() {
+        return this.x;
+    }
+
+    public double getY() {
+        return this.y;
+    }
+
+    public double getFraction() {
+        return this.fraction;
+    }
+
+    public double getDistance() {
+        return this.distance;
+    }
+
+    private final int edgeIdentifier;
+    private final double x;
+    private final double y;
+    private final double fraction;
+    private final double distance;
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.routing;
+
+/**
+ * Estimates the remaining cost from a node to the target of an A* search.
+ * The estimate must never exceed the real cost of the cheapest path, or the
+ * route found may not be the shortest.
+ *
+ * @author Luke Lambert
+ */
+@FunctionalInterface
+public interface Heuristic {
+    /**
+     * @param fromX Horizontal part of the current node's coordinate
+     * @param fromY Vertical part of the current node's coordinate
+     * @param toX   Horizontal part of the target node's coordinate
+     * @param toY   Vertical part of the target node's coordinate
+     * @return A lower bound of the cost from the current node to the target
+     */
+    double estimate(final double fromX, final double fromY, final double toX, final double toY);
+
+    /**
+     * Multiplies the estimate by a constant factor. Use this when edge costs
+     * aren't distances, e.g. use 1 / (maximum speed) when costs are travel
+     * times.
+     *
+     * @param factor Non-negative scale factor
+     * @return A heuristic whose estimates are multiplied by {@code factor}
+     */
+    default Heuristic scale(final double factor) {
+        if (!(factor >= 0) || Double.isInfinite(factor)) {
+            throw new IllegalArgumentException("Scale factor must be a finite, non-negative number");
+        }
+
+        return (fromX, fromY, toX, toY) -> factor * this.estimate(fromX, fromY, toX, toY);
+    }
+
+    /**
+     * No estimate. A* degrades to Dijkstra's algorithm.
+     */
+    Heuristic None = (fromX, fromY, toX, toY) -> 0.0;
+
+    /**
+     * Straight line distance, in the units of the network's coordinate
+     * reference system
+     */
+    Heuristic Euclidean = (fromX, fromY, toX, toY) -> Math.hypot(toX - fromX, toY - fromY);
+
+    /**
+     * Great circle distance in meters for coordinates in degrees (x is
+     * longitude, y is latitude). A sphere with the ellipsoid's smallest radius
+     * of curvature is used so that the estimate never exceeds the ellipsoidal
+     * distance.
+     */
+    Heuristic Geodesic = (fromX, fromY, toX, toY) -> {
+        final double fromLatitude = Math.toRadians(fromY);
+        final double toLatitude = Math.toRadians(toY);
+
+        final double sinHalfLatitude = Math.sin((toLatitude - fromLatitude) / 2.0);
+        final double sinHalfLongitude = Math.sin(Math.toRadians(toX - fromX) / 2.0);
+
+        final double a = sinHalfLatitude * sinHalfLatitude +
+                Math.cos(fromLatitude) * Math.cos(toLatitude) * sinHalfLongitude * sinHalfLongitude;
+
+        return 2.0 * 6335439.0 * Math.asin(Math.min(1.0, Math.sqrt(a)));   // WGS 84 meridional radius of curvature at the equator
+    };
+}
@@ -0,0 +1,183 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.routing;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of node indices that supports changing the key of a node
+ * already in the heap. Node indices must be in [0, capacity).
+ *
+ * @author Luke Lambert
+ */
+class IndexedMinHeap {
+    /**
+     * Constructor
+     *
+     * @param capacity Number of distinct node indices the heap can hold
+     */
+    IndexedMinHeap(final int capacity) {
+        this.nodes = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+
+        Arrays.fill(this.positions, -1);
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    boolean contains(final int node) {
+        return this.positions[node] >= 0;
+    }
+
+    /**
+     * @return The smallest key in the heap, or {@link Double#POSITIVE_INFINITY}
+     * if the heap is empty
+     */
+    double peekKey() {
+        return this.size == 0 ? Double.POSITIVE_INFINITY : this.keys[0];
+    }
+
+    /**
+     * Inserts a node, or changes its key if it's already in the heap
+     *
+     * @param node Node index
+     * @param key  Key of the node
+     */
+    void push(final int node, final double key) {
+        final int position = this.positions[node];
+
+        if (position < 0) {
+            this.nodes[this.size] = node;
+            this.keys[this.size] = key;
+            this.positions[node] = this.size;
+            this.siftUp(this.size++);
+        } else if (key < this.keys[position]) {
+            this.keys[position] = key;
+            this.siftUp(position);
+        } else {
+            this.keys[position] = key;
+            this.siftDown(position);
+        }
+    }
+
+    /**
+     * Removes the node with the smallest key
+     *
+     * @return The removed node's index
+     */
+    int poll() {
+        final int node = this.nodes[0];
+        this.positions[node] = -1;
+
+        if (--this.size > 0) {
+            this.nodes[0] = this.nodes[this.size];
+            this.keys[0] = this.keys[this.size];
+            this.positions[this.nodes[0]] = 0;
+            this.siftDown(0);
+        }
+
+        return node;
+    }
+
+    /**
+     * Empties the heap in time proportional to its current size
+     */
+    void clear() {
+        for (int i = 0; i < this.size; ++i) {
+            this.positions[this.nodes[i]] = -1;
+        }
+
+        this.size = 0;
+    }
+
+    private void siftUp(final int start) {
+        final int node = this.nodes[start];
+        final double key = this.keys[start];
+
+        int position = start;
+
+        while (position > 0) {
+            final int parent = (position - 1) >>> 1;
+
+            if (this.keys[parent] <= key) {
+                break;
+            }
+
+            this.move(parent, position);
+            position = parent;
+        }
+
+        this.place(node, key, position);
+    }
+
+    private void siftDown(final int start) {
+        final int node = this.nodes[start];
+        final double key = this.keys[start];
+
+        int position = start;
+
+        while (true) {
+            int child = 2 * position + 1;
+
+            if (child >= this.size) {
+                break;
+            }
+
+            if (child + 1 < this.size && this.keys[child + 1] < this.keys[child]) {
+                ++child;
+            }
+
+            if (this.keys[child] >= key) {
+                break;
+            }
+
+            this.move(child, position);
+            position = child;
+        }
+
+        this.place(node, key, position);
+    }
+
+    private void move(final int from, final int to) {
+        this.nodes[to] = this.nodes[from];
+        this.keys[to] = this.keys[from];
+        this.positions[this.nodes[to]] = to;
+    }
+
+    private void place(final int node, final double key, final int position) {
+        this.nodes[position] = node;
+        this.keys[position] = key;
+        this.positions[node] = position;
+    }
+
+    private final int[] nodes;
+    private final double[] keys;
+    private final int[] positions;
+
+    private int size;
+}
@@ -0,0 +1,741 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rgi.store.routingnetworks.Edge;
+import rgi.store.routingnetworks.Node;
+import rgi.store.routingnetworks.NodeDimensionality;
+import rgi.store.routingnetworks.RoutingNetworkStoreException;
+import rgi.store.routingnetworks.RoutingNetworkStoreReader;
+
+/**
+ * Static spatial index of a routing network's nodes and edges, used to snap
+ * arbitrary coordinates onto the network.
+ * <p>
+ * Nodes are stored in an implicit k-d tree: the arrays are arranged so that
+ * the node at the middle of any range splits the rest of that range, on the
+ * axis where the range is most spread out. Edges are arranged the same way by
+ * their midpoints, with the bounds of each subtree's edges stored alongside;
+ * unusually long edges are indexed as several shorter pieces.
+ * No per-node objects are allocated, and queries run in logarithmic time.
+ * <p>
+ * If the network {@link NodeDimensionality#HAS_ELEVATION has elevation}, the
+ * node tree is three dimensional, and the queries that take a z value measure
+ * distance in three dimensions. Elevation must then be in the same units as x
+ * and y for the distances to be meaningful. Queries without a z value, and
+ * all edge queries, measure distance in the x/y plane.
+ * <p>
+ * The index is immutable once built, and may be queried by any number of
+ * threads at once.
+ *
+ * @author Luke Lambert
+ */
+public class NodeIndex {
+    /**
+     * Constructor
+     *
+     * @param routingNetwork Source of the network's nodes and edges
+     * @throws RoutingNetworkStoreException if the network can't be read, if
+     *                                      an edge references a node that
+     *                                      isn't in the network, or if a node
+     *                                      of a network with elevation is
+     *                                      missing its elevation
+     */
+    public NodeIndex(final RoutingNetworkStoreReader routingNetwork) throws RoutingNetworkStoreException {
+        if (routingNetwork == null) {
+            throw new IllegalArgumentException("Routing network may not be null");
+        }
+
+        this.hasElevation = routingNetwork.getNodeDimensionality() == NodeDimensionality.HAS_ELEVATION;
+
+        final List<Node> nodes = routingNetwork.getNodes();
+        final int nodeCount = nodes.size();
+        final int dimensions = this.hasElevation ? 3 : 2;
+
+        final double[][] nodeCoordinates = new double[dimensions][nodeCount];
+        final Map<Integer, Node> nodeMap = new HashMap<>(nodeCount * 4 / 3 + 1);
+
+        for (int i = 0; i < nodeCount; ++i) {
+            final Node node = nodes.get(i);
+
+            nodeCoordinates[0][i] = node.getX();
+            nodeCoordinates[1][i] = node.getY();
+
+            if (this.hasElevation) {
+                if (node.getElevation() == null) {
+                    throw new RoutingNetworkStoreException(String.format("Node %d has no elevation, but the routing network is described as having elevation",
+                            node.getIdentifier()));
+                }
+
+                nodeCoordinates[2][i] = node.getElevation();
+            }
+
+            nodeMap.put(node.getIdentifier(), node);
+        }
+
+        final int[] nodeOrder = identity(nodeCount);
+        this.nodeAxes = new byte[nodeCount];
+
+        build(nodeOrder, nodeCoordinates, this.nodeAxes, 0, nodeCount);
+
+        this.nodeIdentifiers = new int[nodeCount];
+        this.nodeX = new double[nodeCount];
+        this.nodeY = new double[nodeCount];
+        this.nodeZ = this.hasElevation ? new double[nodeCount] : null;
+
+        for (int position = 0; position < nodeCount; ++position) {
+            final int node = nodeOrder[position];
+
+            this.nodeIdentifiers[position] = nodes.get(node).getIdentifier();
+            this.nodeX[position] = nodeCoordinates[0][node];
+            this.nodeY[position] = nodeCoordinates[1][node];
+
+            if (this.hasElevation) {
+                this.nodeZ[position] = nodeCoordinates[2][node];
+            }
+        }
+
+        final List<Edge> edges = routingNetwork.getEdges();
+        final int edgeCount = edges.size();
+
+        final double[][] edgeEnds = new double[4][edgeCount];   // from x, from y, to x, to y
+        final double[] edgeLengths = new double[edgeCount];
+
+        for (int i = 0; i < edgeCount; ++i) {
+            final Edge edge = edges.get(i);
+            final Node from = getNode(nodeMap, edge.getFrom(), edge);
+            final Node to = getNode(nodeMap, edge.getTo(), edge);
+
+            edgeEnds[0][i] = from.getX();
+            edgeEnds[1][i] = from.getY();
+            edgeEnds[2][i] = to.getX();
+            edgeEnds[3][i] = to.getY();
+
+            edgeLengths[i] = Math.hypot(to.getX() - from.getX(), to.getY() - from.getY());
+        }
+
+        // A few very long edges would inflate the bounds of every subtree
+        // they fall into, and defeat pruning. Index edges much longer than
+        // is typical as several shorter pieces instead.
+        final double maximumPieceLength = getMaximumPieceLength(edgeLengths);
+
+        final int[] pieceCounts = new int[edgeCount];
+        int totalPieceCount = 0;
+
+        for (int i = 0; i < edgeCount; ++i) {
+            pieceCounts[i] = maximumPieceLength > 0.0 ? (int) Math.min(MaximumPiecesPerEdge, Math.max(1.0, Math.ceil(edgeLengths[i] / maximumPieceLength)))
+                    : 1;
+            totalPieceCount += pieceCounts[i];
+        }
+
+        final double[][] pieces = new double[6][totalPieceCount];   // from x, from y, to x, to y, start fraction, end fraction
+        final int[] pieceEdges = new int[totalPieceCount];
+        final double[][] pieceMidpoints = new double[2][totalPieceCount];
+
+        for (int i = 0, piece = 0; i < edgeCount; ++i) {
+            for (int part = 0; part < pieceCounts[i]; ++part, ++piece) {
+                final double startFraction = (double) part / pieceCounts[i];
+                final double endFraction = (double) (part + 1) / pieceCounts[i];
+
+                pieces[0][piece] = edgeEnds[0][i] + startFraction * (edgeEnds[2][i] - edgeEnds[0][i]);
+                pieces[1][piece] = edgeEnds[1][i] + startFraction * (edgeEnds[3][i] - edgeEnds[1][i]);
+                pieces[2][piece] = edgeEnds[0][i] + endFraction * (edgeEnds[2][i] - edgeEnds[0][i]);
+                pieces[3][piece] = edgeEnds[1][i] + endFraction * (edgeEnds[3][i] - edgeEnds[1][i]);
+                pieces[4][piece] = startFraction;
+                pieces[5][piece] = endFraction;
+
+                pieceEdges[piece] = edges.get(i).getIdentifier();
+
+                pieceMidpoints[0][piece] = (pieces[0][piece] + pieces[2][piece]) / 2.0;
+                pieceMidpoints[1][piece] = (pieces[1][piece] + pieces[3][piece]) / 2.0;
+            }
+        }
+
+        final int[] pieceOrder = identity(totalPieceCount);
+
+        build(pieceOrder, pieceMidpoints, new byte[totalPieceCount], 0, totalPieceCount);
+
+        this.edgeCount = edgeCount;
+        this.edgeIdentifiers = new int[totalPieceCount];
+        this.edgeFromX = new double[totalPieceCount];
+        this.edgeFromY = new double[totalPieceCount];
+        this.edgeToX = new double[totalPieceCount];
+        this.edgeToY = new double[totalPieceCount];
+        this.edgeStartFraction = new double[totalPieceCount];
+        this.edgeEndFraction = new double[totalPieceCount];
+
+        for (int position = 0; position < totalPieceCount; ++position) {
+            final int piece = pieceOrder[position];
+
+            this.edgeIdentifiers[position] = pieceEdges[piece];
+            this.edgeFromX[position] = pieces[0][piece];
+            this.edgeFromY[position] = pieces[1][piece];
+            this.edgeToX[position] = pieces[2][piece];
+            this.edgeToY[position] = pieces[3][piece];
+            this.edgeStartFraction[position] = pieces[4][piece];
+            this.edgeEndFraction[position] = pieces[5][piece];
+        }
+
+        this.edgeBounds = new double[4][totalPieceCount];   // min x, min y, max x, max y of each subtree
+
+        this.calculateEdgeBounds(0, totalPieceCount);
+    }
+
+    /**
+     * @return The number of nodes in the index
+     */
+    public int getNodeCount() {
+        return this.nodeIdentifiers.length;
+    }
+
+    /**
+     * @return The number of edges in the index
+     */
+    public int getEdgeCount() {
+        return this.edgeCount;
+    }
+
+    /**
+     * @param x Horizontal part of the query coordinate
+     * @param y Vertical part of the query coordinate
+     * @return The identifier of the node closest to the coordinate, in the x/y
+     * plane
+     */
+    public int getNearest(final double x, final double y) {
+        if (this.nodeIdentifiers.length == 0) {
+            throw new IllegalStateException("The index contains no nodes");
+        }
+
+        return this.getNearest(x, y, 1).get(0);
+    }
+
+    /**
+     * @param x Horizontal part of the query coordinate
+     * @param y Vertical part of the query coordinate
+     * @param k Maximum number of nodes to return
+     * @return The identifiers of the k nodes closest to the coordinate, in the
+     * x/y plane, nearest first
+     */
+    public List<Integer> getNearest(final double x, final double y, final int k) {
+        return this.getNearest(x, y, Double.NaN, k);
+    }
+
+    /**
+     * @param x Horizontal part of the query coordinate
+     * @param y Vertical part of the query coordinate
+     * @param z Elevation of the query coordinate
+     * @param k Maximum number of nodes to return
+     * @return The identifiers of the k nodes closest to the coordinate, in
+     * three dimensions, nearest first
+     */
+    public List<Integer> getNearest(final double x, final double y, final double z, final int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k may not be less than 0");
+        }
+
+        this.verifyElevation(z);
+
+        final NearestCollector collector = new NearestCollector(Math.min(k, this.nodeIdentifiers.length));
+
+        if (collector.capacity > 0) {
+            this.searchNearest(0, this.nodeIdentifiers.length, x, y, z, collector);
+        }
+
+        return collector.getIdentifiers(this.nodeIdentifiers);
+    }
+
+    /**
+     * @param x      Horizontal part of the query coordinate
+     * @param y      Vertical part of the query coordinate
+     * @param radius Maximum distance from the coordinate, in the x/y plane
+     * @return The identifiers of the nodes within the radius of the
+     * coordinate, nearest first
+     */
+    public List<Integer> getWithinRadius(final double x, final double y, final double radius) {
+        return this.getWithinRadius(x, y, Double.NaN, radius);
+    }
+
+    /**
+     * @param x      Horizontal part of the query coordinate
+     * @param y      Vertical part of the query coordinate
+     * @param z      Elevation of the query coordinate
+     * @param radius Maximum distance from the coordinate, in three dimensions
+     * @return The identifiers of the nodes within the radius of the
+     * coordinate, nearest first
+     */
+    public List<Integer> getWithinRadius(final double x, final double y, final double z, final double radius) {
+        if (!(radius >= 0)) {
+            throw new IllegalArgumentException("Radius must be a non-negative number");
+        }
+
+        this.verifyElevation(z);
+
+        final List<long[]> found = new ArrayList<>();   // { distance squared bits, position }
+
+        this.searchRadius(0, this.nodeIdentifiers.length, x, y, z, radius * radius, found);
+
+        // Non-negative doubles sort in the same order as their bit patterns
+        found.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        final List<Integer> identifiers = new ArrayList<>(found.size());
+
+        for (final long[] entry : found) {
+            identifiers.add(this.nodeIdentifiers[(int) entry[1]]);
+        }
+
+        return identifiers;
+    }
+
+    /**
+     * Finds the edge closest to a coordinate, in the x/y plane, treating each
+     * edge as a straight segment between its nodes
+     *
+     * @param x Horizontal part of the query coordinate
+     * @param y Vertical part of the query coordinate
+     * @return The closest point on the closest edge, or null if the index
+     * contains no edges
+     */
+    public EdgeProjection getNearestEdge(final double x, final double y) {
+        if (this.edgeIdentifiers.length == 0) {
+            return null;
+        }
+
+        final double[] best = {Double.POSITIVE_INFINITY, -1};   // { distance squared, position }
+
+        this.searchNearestEdge(0, this.edgeIdentifiers.length, x, y, best);
+
+        final int position = (int) best[1];
+        final double fraction = this.project(position, x, y);
+
+        return new EdgeProjection(this.edgeIdentifiers[position],
+                this.edgeFromX[position] + fraction * (this.edgeToX[position] - this.edgeFromX[position]),
+                this.edgeFromY[position] + fraction * (this.edgeToY[position] - this.edgeFromY[position]),
+                this.edgeStartFraction[position] + fraction * (this.edgeEndFraction[position] - this.edgeStartFraction[position]),
+                Math.sqrt(best[0]));
+    }
+
+    private void verifyElevation(final double z) {
+        if (!Double.isNaN(z) && !this.hasElevation) {
+            throw new IllegalArgumentException("Elevation may only be used to query a network with elevation");
+        }
+    }
+
+    private double distanceSquared(final int position, final double x, final double y, final double z) {
+        final double dx = this.nodeX[position] - x;
+        final double dy = this.nodeY[position] - y;
+
+        if (Double.isNaN(z)) {
+            return dx * dx + dy * dy;
+        }
+
+        final double dz = this.nodeZ[position] - z;
+
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * @return The signed distance from the query to the splitting plane of
+     * the node at position, or NaN if the query has no value on the split
+     * axis (both halves must then be searched)
+     */
+    private double splitDistance(final int position, final double x, final double y, final double z) {
+        switch (this.nodeAxes[position]) {
+            case 0:
+                return x - this.nodeX[position];
+            case 1:
+                return y - this.nodeY[position];
+            default:
+                return z - this.nodeZ[position];
+        }
+    }
+
+    private void searchNearest(final int low, final int high, final double x, final double y, final double z, final NearestCollector collector) {
+        if (low >= high) {
+            return;
+        }
+
+        final int middle = (low + high) >>> 1;
+
+        collector.offer(middle, this.distanceSquared(middle, x, y, z));
+
+        final double split = this.splitDistance(middle, x, y, z);
+
+        if (split < 0) {
+            this.searchNearest(low, middle, x, y, z, collector);
+
+            if (split * split < collector.getWorst()) {
+                this.searchNearest(middle + 1, high, x, y, z, collector);
+            }
+        } else {
+            this.searchNearest(middle + 1, high, x, y, z, collector);
+
+            if (Double.isNaN(split) || split * split < collector.getWorst()) {
+                this.searchNearest(low, middle, x, y, z, collector);
+            }
+        }
+    }
+
+    private void searchRadius(final int low, final int high, final double x, final double y, final double z, final double radiusSquared, final List<long[]> found) {
+        if (low >= high) {
+            return;
+        }
+
+        final int middle = (low + high) >>> 1;
+        final double distanceSquared = this.distanceSquared(middle, x, y, z);
+
+        if (distanceSquared <= radiusSquared) {
+            found.add(new long[]{Double.doubleToLongBits(distanceSquared), middle});
+        }
+
+        final double split = this.splitDistance(middle, x, y, z);
+
+        if (Double.isNaN(split) || split < 0 || split * split <= radiusSquared) {
+            this.searchRadius(low, middle, x, y, z, radiusSquared, found);
+        }
+
+        if (Double.isNaN(split) || split >= 0 || split * split <= radiusSquared) {
+            this.searchRadius(middle + 1, high, x, y, z, radiusSquared, found);
+        }
+    }
+
+    private void searchNearestEdge(final int low, final int high, final double x, final double y, final double[] best) {
+        if (low >= high) {
+            return;
+        }
+
+        final int middle = (low + high) >>> 1;
+
+        if (this.boundsDistanceSquared(middle, x, y) >= best[0]) {
+            return;
+        }
+
+        final double fraction = this.project(middle, x, y);
+        final double dx = this.edgeFromX[middle] + fraction * (this.edgeToX[middle] - this.edgeFromX[middle]) - x;
+        final double dy = this.edgeFromY[middle] + fraction * (this.edgeToY[middle] - this.edgeFromY[middle]) - y;
+        final double distanceSquared = dx * dx + dy * dy;
+
+        if (distanceSquared < best[0]) {
+            best[0] = distanceSquared;
+            best[1] = middle;
+        }
+
+        final int leftMiddle = (low + middle) >>> 1;
+        final int rightMiddle = (middle + 1 + high) >>> 1;
+
+        final double left = low < middle ? this.boundsDistanceSquared(leftMiddle, x, y) : Double.POSITIVE_INFINITY;
+        final double right = middle + 1 < high ? this.boundsDistanceSquared(rightMiddle, x, y) : Double.POSITIVE_INFINITY;
+
+        // Visit the closer subtree first so the farther one is more likely to
+        // be pruned
+        if (left <= right) {
+            this.searchNearestEdge(low, middle, x, y, best);
+            this.searchNearestEdge(middle + 1, high, x, y, best);
+        } else {
+            this.searchNearestEdge(middle + 1, high, x, y, best);
+            this.searchNearestEdge(low, middle, x, y, best);
+        }
+    }
+
+    private double boundsDistanceSquared(final int position, final double x, final double y) {
+        final double dx = Math.max(0.0, Math.max(this.edgeBounds[0][position] - x, x - this.edgeBounds[2][position]));
+        final double dy = Math.max(0.0, Math.max(this.edgeBounds[1][position] - y, y - this.edgeBounds[3][position]));
+
+        return dx * dx + dy * dy;
+    }
+
+    private double project(final int position, final double x, final double y) {
+        final double segmentX = this.edgeToX[position] - this.edgeFromX[position];
+        final double segmentY = this.edgeToY[position] - this.edgeFromY[position];
+        final double lengthSquared = segmentX * segmentX + segmentY * segmentY;
+
+        if (lengthSquared == 0.0) {
+            return 0.0;
+        }
+
+        final double fraction = ((x - this.edgeFromX[position]) * segmentX + (y - this.edgeFromY[position]) * segmentY) / lengthSquared;
+
+        return Math.max(0.0, Math.min(1.0, fraction));
+    }
+
+    private void calculateEdgeBounds(final int low, final int high) {
+        if (low >= high) {
+            return;
+        }
+
+        final int middle = (low + high) >>> 1;
+
+        this.calculateEdgeBounds(low, middle);
+        this.calculateEdgeBounds(middle + 1, high);
+
+        double minimumX = Math.min(this.edgeFromX[middle], this.edgeToX[middle]);
+        double minimumY = Math.min(this.edgeFromY[middle], this.edgeToY[middle]);
+        double maximumX = Math.max(this.edgeFromX[middle], this.edgeToX[middle]);
+        double maximumY = Math.max(this.edgeFromY[middle], this.edgeToY[middle]);
+
+        for (final int child : new int[]{low < middle ? (low + middle) >>> 1 : -1, middle + 1 < high ? (middle + 1 + high) >>> 1 : -1}) {
+            if (child >= 0) {
+                minimumX = Math.min(minimumX, this.edgeBounds[0][child]);
+                minimumY = Math.min(minimumY, this.edgeBounds[1][child]);
+                maximumX = Math.max(maximumX, this.edgeBounds[2][child]);
+                maximumY = Math.max(maximumY, this.edgeBounds[3][child]);
+            }
+        }
+
+        this.edgeBounds[0][middle] = minimumX;
+        this.edgeBounds[1][middle] = minimumY;
+        this.edgeBounds[2][middle] = maximumX;
+        this.edgeBounds[3][middle] = maximumY;
+    }
+
+    private static double getMaximumPieceLength(final double[] edgeLengths) {
+        if (edgeLengths.length == 0) {
+            return 0.0;
+        }
+
+        final double[] sorted = edgeLengths.clone();
+        Arrays.sort(sorted);
+
+        return sorted[sorted.length / 2] * PieceLengthFactor;
+    }
+
+    private static Node getNode(final Map<Integer, Node> nodeMap, final int nodeIdentifier, final Edge edge) throws RoutingNetworkStoreException {
+        final Node node = nodeMap.get(nodeIdentifier);
+
+        if (node == null) {
+            throw new RoutingNetworkStoreException(String.format("Edge %d references node %d, which is not in the routing network",
+                    edge.getIdentifier(),
+                    nodeIdentifier));
+        }
+
+        return node;
+    }
+
+    private static int[] identity(final int size) {
+        final int[] values = new int[size];
+
+        for (int i = 0; i < size; ++i) {
+            values[i] = i;
+        }
+
+        return values;
+    }
+
+    /**
+     * Arranges order[low, high) into an implicit k-d tree
+     */
+    private static void build(final int[] order, final double[][] coordinates, final byte[] axes, final int low, final int high) {
+        if (high - low <= 1) {
+            return;
+        }
+
+        // Split on the axis with the largest spread
+        int axis = 0;
+        double largestSpread = -1.0;
+
+        for (int dimension = 0; dimension < coordinates.length; ++dimension) {
+            double minimum = Double.POSITIVE_INFINITY;
+            double maximum = Double.NEGATIVE_INFINITY;
+
+            for (int i = low; i < high; ++i) {
+                final double value = coordinates[dimension][order[i]];
+                minimum = Math.min(minimum, value);
+                maximum = Math.max(maximum, value);
+            }
+
+            if (maximum - minimum > largestSpread) {
+                largestSpread = maximum - minimum;
+                axis = dimension;
+            }
+        }
+
+        final int middle = (low + high) >>> 1;
+
+        select(order, coordinates[axis], low, high - 1, middle);
+
+        axes[middle] = (byte) axis;
+
+        build(order, coordinates, axes, low, middle);
+        build(order, coordinates, axes, middle + 1, high);
+    }
+
+    /**
+     * Partially sorts order[left, right] so that position k holds the element
+     * that would be there if the range were sorted by value, with nothing
+     * larger before it and nothing smaller after it
+     */
+    private static void select(final int[] order, final double[] values, final int left, final int right, final int k) {
+        int low = left;
+        int high = right;
+
+        while (low < high) {
+            final double pivot = values[order[(low + high) >>> 1]];
+
+            int i = low;
+            int j = high;
+
+            while (i <= j) {
+                while (values[order[i]] < pivot) {
+                    ++i;
+                }
+
+                while (values[order[j]] > pivot) {
+                    --j;
+                }
+
+                if (i <= j) {
+                    final int temporary = order[i];
+                    order[i] = order[j];
+                    order[j] = temporary;
+                    ++i;
+                    --j;
+                }
+            }
+
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Keeps the k smallest distances seen, in a max-heap
+     */
+    private static final class NearestCollector {
+        NearestCollector(final int capacity) {
+            this.capacity = capacity;
+            this.positions = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        double getWorst() {
+            return this.size < this.capacity ? Double.POSITIVE_INFINITY : this.distances[0];
+        }
+
+        void offer(final int position, final double distance) {
+            if (this.size < this.capacity) {
+                int index = this.size++;
+
+                while (index > 0) {
+                    final int parent = (index - 1) >>> 1;
+
+                    if (this.distances[parent] >= distance) {
+                        break;
+                    }
+
+                    this.positions[index] = this.positions[parent];
+                    this.distances[index] = this.distances[parent];
+                    index = parent;
+                }
+
+                this.positions[index] = position;
+                this.distances[index] = distance;
+            } else if (distance < this.distances[0]) {
+                int index = 0;
+
+                while (true) {
+                    int child = 2 * index + 1;
+
+                    if (child >= this.size) {
+                        break;
+                    }
+
+                    if (child + 1 < this.size && this.distances[child + 1] > this.distances[child]) {
+                        ++child;
+                    }
+
+                    if (this.distances[child] <= distance) {
+                        break;
+                    }
+
+                    this.positions[index] = this.positions[child];
+                    this.distances[index] = this.distances[child];
+                    index = child;
+                }
+
+                this.positions[index] = position;
+                this.distances[index] = distance;
+            }
+        }
+
+        List<Integer> getIdentifiers(final int[] identifiers) {
+            final Integer[] sorted = new Integer[this.size];
+
+            for (int i = 0; i < this.size; ++i) {
+                sorted[i] = i;
+            }
+
+            Arrays.sort(sorted, (a, b) -> Double.compare(this.distances[a], this.distances[b]));
+
+            final List<Integer> result = new ArrayList<>(this.size);
+
+            for (final Integer index : sorted) {
+                result.add(identifiers[this.positions[index]]);
+            }
+
+            return result;
+        }
+
+        private final int capacity;
+        private final int[] positions;
+        private final double[] distances;
+        private int size;
+    }
+
+    private final boolean hasElevation;
+
+    private final int[] nodeIdentifiers;
+    private final byte[] nodeAxes;
+    private final double[] nodeX;
+    private final double[] nodeY;
+    private final double[] nodeZ;
+
+    private final int edgeCount;
+    private final int[] edgeIdentifiers;
+    private final double[] edgeFromX;
+    private final double[] edgeFromY;
+    private final double[] edgeToX;
+    private final double[] edgeToY;
+    private final double[] edgeStartFraction;
+    private final double[] edgeEndFraction;
+    private final double[][] edgeBounds;
+
+    /**
+     * Edges longer than this multiple of the median edge length are indexed
+     * as several pieces
+     */
+    private static final double PieceLengthFactor = 4.0;
+
+    private static final int MaximumPiecesPerEdge = 1024;
+}
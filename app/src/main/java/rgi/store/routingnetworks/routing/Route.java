@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.routing;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of a shortest path search
+ *
+ * @author Luke Lambert
+ */
+public class Route {
+    /**
+     * Constructor
+     *
+     * @param nodeIdentifiers Identifiers of the nodes along the route, from
+     *                        origin to destination
+     * @param edgeIdentifiers Identifiers of the edges along the route, from
+     *                        origin to destination. There is one fewer edge
+     *                        than there are nodes.
+     * @param cost            Total cost of the route
+     */
+    public Route(final List<Integer> nodeIdentifiers,
+                 final List<Integer> edgeIdentifiers,
+                 final double cost) {
+        if (nodeIdentifiers == null || nodeIdentifiers.isEmpty()) {
+            throw new IllegalArgumentException("Node identifiers may not be null or empty");
+        }
+
+        if (edgeIdentifiers == null || edgeIdentifiers.size() != nodeIdentifiers.size() - 1) {
+            throw new IllegalArgumentException("There must be exactly one fewer edge identifier than node identifiers");
+        }
+
+        this.nodeIdentifiers = nodeIdentifiers;
+        this.edgeIdentifiers = edgeIdentifiers;
+        this.cost = cost;
+    }
+
+    public List<Integer> getNodeIdentifiers() {
+        return Collections.unmodifiableList(this.nodeIdentifiers);
+    }
+
+    public List<Integer> getEdgeIdentifiers() {
+        return Collections.unmodifiableList(this.edgeIdentifiers);
+    }
+
+    public double getCost() {
+        return this.cost;
+    }
+
+    private final List<Integer> nodeIdentifiers;
+    private final List<Integer> edgeIdentifiers;
+    private final double cost;
+}
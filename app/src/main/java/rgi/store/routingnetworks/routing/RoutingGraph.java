@@ -0,0 +1,428 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import rgi.store.routingnetworks.Edge;
+import rgi.store.routingnetworks.EdgeDirecctionality;
+import rgi.store.routingnetworks.Node;
+import rgi.store.routingnetworks.RoutingNetworkStoreException;
+import rgi.store.routingnetworks.RoutingNetworkStoreReader;
+
+/**
+ * In-memory, directed representation of a routing network for shortest path
+ * searches. Edges are stored as arcs in compressed sparse row form, sorted by
+ * their origin, with a second index of arcs by destination for backward
+ * searches. {@link EdgeDirecctionality#TWO_WAY two way} edges become one arc
+ * per direction.
+ * <p>
+ * A graph is immutable once built, and may be searched by any number of
+ * threads at once. Each thread gets its own search state.
+ *
+ * @author Luke Lambert
+ */
+public class RoutingGraph {
+    /**
+     * Constructor
+     *
+     * @param routingNetwork   Source of the network's nodes and edges
+     * @param edgeCostFunction Calculates the cost of traversing each edge.
+     *                         Arcs with an infinite cost are left out of the
+     *                         graph.
+     * @throws RoutingNetworkStoreException if the network can't be read, or if
+     *                                      an edge references a node that
+     *                                      isn't in the network
+     */
+    public RoutingGraph(final RoutingNetworkStoreReader routingNetwork,
+                        final EdgeCostFunction edgeCostFunction) throws RoutingNetworkStoreException {
+        if (routingNetwork == null) {
+            throw new IllegalArgumentException("Routing network may not be null");
+        }
+
+        if (edgeCostFunction == null) {
+            throw new IllegalArgumentException("Edge cost function may not be null");
+        }
+
+        final List<Node> nodes = routingNetwork.getNodes();
+
+        this.nodeCount = nodes.size();
+        this.nodeIdentifiers = new int[this.nodeCount];
+        this.x = new double[this.nodeCount];
+        this.y = new double[this.nodeCount];
+        this.nodeIndices = new HashMap<>(this.nodeCount * 4 / 3 + 1);
+
+        for (int index = 0; index < this.nodeCount; ++index) {
+            final Node node = nodes.get(index);
+
+            this.nodeIdentifiers[index] = node.getIdentifier();
+            this.x[index] = node.getX();
+            this.y[index] = node.getY();
+
+            this.nodeIndices.put(node.getIdentifier(), index);
+        }
+
+        // Evaluate the cost of every arc before laying them out, so the
+        // arrays can be sized exactly
+        final List<long[]> arcs = new ArrayList<>(routingNetwork.getEdges().size() * 2);   // { from index, to index, edge identifier, cost bits }
+
+        for (final Edge edge : routingNetwork.getEdges()) {
+            final int from = this.getIndex(edge.getFrom(), edge);
+            final int to = this.getIndex(edge.getTo(), edge);
+
+            addArc(arcs, nodes.get(from), nodes.get(to), from, to, edge, edgeCostFunction);
+
+            if (edge.getEdgeDirectionality() == EdgeDirecctionality.TWO_WAY) {
+                addArc(arcs, nodes.get(to), nodes.get(from), to, from, edge, edgeCostFunction);
+            }
+        }
+
+        this.arcCount = arcs.size();
+        this.arcTail = new int[this.arcCount];
+        this.arcHead = new int[this.arcCount];
+        this.arcEdge = new int[this.arcCount];
+        this.arcCost = new double[this.arcCount];
+        this.firstOut = new int[this.nodeCount + 1];
+        this.firstIn = new int[this.nodeCount + 1];
+        this.inArcs = new int[this.arcCount];
+
+        for (final long[] arc : arcs) {
+            ++this.firstOut[(int) arc[0] + 1];
+            ++this.firstIn[(int) arc[1] + 1];
+        }
+
+        for (int index = 0; index < this.nodeCount; ++index) {
+            this.firstOut[index + 1] += this.firstOut[index];
+            this.firstIn[index + 1] += this.firstIn[index];
+        }
+
+        final int[] nextOut = new int[this.nodeCount];
+        final int[] nextIn = new int[this.nodeCount];
+
+        for (final long[] arc : arcs) {
+            final int tail = (int) arc[0];
+            final int head = (int) arc[1];
+
+            final int arcIndex = this.firstOut[tail] + nextOut[tail]++;
+
+            this.arcTail[arcIndex] = tail;
+            this.arcHead[arcIndex] = head;
+            this.arcEdge[arcIndex] = (int) arc[2];
+            this.arcCost[arcIndex] = Double.longBitsToDouble(arc[3]);
+
+            this.inArcs[this.firstIn[head] + nextIn[head]++] = arcIndex;
+        }
+
+        this.searchState = ThreadLocal.withInitial(() -> new SearchState(this.nodeCount));
+    }
+
+    /**
+     * @return The number of nodes in the graph
+     */
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * @return The number of directed arcs in the graph
+     */
+    public int getArcCount() {
+        return this.arcCount;
+    }
+
+    /**
+     * @param nodeIdentifier Identifier of a node in the network
+     * @return true if the graph contains the node
+     */
+    public boolean containsNode(final int nodeIdentifier) {
+        return this.nodeIndices.containsKey(nodeIdentifier);
+    }
+
+    /**
+     * Finds the cheapest route between two nodes with a bidirectional
+     * Dijkstra search
+     *
+     * @param fromIdentifier Identifier of the origin node
+     * @param toIdentifier   Identifier of the destination node
+     * @return The cheapest route, or null if the destination can't be reached
+     * from the origin
+     */
+    public Route findRoute(final int fromIdentifier, final int toIdentifier) {
+        final int source = this.getIndex(fromIdentifier);
+        final int target = this.getIndex(toIdentifier);
+
+        if (source == target) {
+            return this.createRoute(source, new int[0], 0, 0.0);
+        }
+
+        final SearchState state = this.searchState.get();
+        state.reset();
+
+        final IndexedMinHeap forwardHeap = state.getHeap(SearchState.Forward);
+        final IndexedMinHeap backwardHeap = state.getHeap(SearchState.Backward);
+
+        state.update(SearchState.Forward, source, 0.0, -1, 0.0);
+        state.update(SearchState.Backward, target, 0.0, -1, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+
+        while (true) {
+            final double forwardKey = forwardHeap.peekKey();
+            final double backwardKey = backwardHeap.peekKey();
+
+            // Stop once no unsettled pair of nodes can form a cheaper path
+            if (forwardKey + backwardKey >= best) {
+                break;
+            }
+
+            if (forwardKey <= backwardKey) {
+                final int node = forwardHeap.poll();
+                final double distance = state.getDistance(SearchState.Forward, node);
+
+                for (int arc = this.firstOut[node]; arc < this.firstOut[node + 1]; ++arc) {
+                    final int head = this.arcHead[arc];
+                    final double headDistance = distance + this.arcCost[arc];
+
+                    if (headDistance < state.getDistance(SearchState.Forward, head)) {
+                        state.update(SearchState.Forward, head, headDistance, arc, headDistance);
+
+                        final double total = headDistance + state.getDistance(SearchState.Backward, head);
+
+                        if (total < best) {
+                            best = total;
+                            meeting = head;
+                        }
+                    }
+                }
+            } else {
+                final int node = backwardHeap.poll();
+                final double distance = state.getDistance(SearchState.Backward, node);
+
+                for (int in = this.firstIn[node]; in < this.firstIn[node + 1]; ++in) {
+                    final int arc = this.inArcs[in];
+                    final int tail = this.arcTail[arc];
+                    final double tailDistance = distance + this.arcCost[arc];
+
+                    if (tailDistance < state.getDistance(SearchState.Backward, tail)) {
+                        state.update(SearchState.Backward, tail, tailDistance, arc, tailDistance);
+
+                        final double total = tailDistance + state.getDistance(SearchState.Forward, tail);
+
+                        if (total < best) {
+                            best = total;
+                            meeting = tail;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (meeting < 0) {
+            return null;
+        }
+
+        final int forwardLength = this.countArcs(state, SearchState.Forward, meeting);
+        final int backwardLength = this.countArcs(state, SearchState.Backward, meeting);
+
+        final int[] path = new int[forwardLength + backwardLength];
+
+        int node = meeting;
+        for (int i = forwardLength - 1; i >= 0; --i) {
+            path[i] = state.getParent(SearchState.Forward, node);
+            node = this.arcTail[path[i]];
+        }
+
+        node = meeting;
+        for (int i = forwardLength; i < path.length; ++i) {
+            path[i] = state.getParent(SearchState.Backward, node);
+            node = this.arcHead[path[i]];
+        }
+
+        return this.createRoute(source, path, path.length, best);
+    }
+
+    /**
+     * Finds the cheapest route between two nodes with an A* search
+     *
+     * @param fromIdentifier Identifier of the origin node
+     * @param toIdentifier   Identifier of the destination node
+     * @param heuristic      Lower bound on the cost between a node and the
+     *                       destination. The route is only guaranteed to be
+     *                       the cheapest if the heuristic never overestimates.
+     * @return The cheapest route, or null if the destination can't be reached
+     * from the origin
+     */
+    public Route findRoute(final int fromIdentifier, final int toIdentifier, final Heuristic heuristic) {
+        if (heuristic == null) {
+            throw new IllegalArgumentException("Heuristic may not be null");
+        }
+
+        final int source = this.getIndex(fromIdentifier);
+        final int target = this.getIndex(toIdentifier);
+
+        final double targetX = this.x[target];
+        final double targetY = this.y[target];
+
+        final SearchState state = this.searchState.get();
+        state.reset();
+
+        final IndexedMinHeap heap = state.getHeap(SearchState.Forward);
+
+        state.update(SearchState.Forward, source, 0.0, -1, heuristic.estimate(this.x[source], this.y[source], targetX, targetY));
+
+        while (!heap.isEmpty()) {
+            final int node = heap.poll();
+
+            if (node == target) {
+                final int[] path = new int[this.countArcs(state, SearchState.Forward, target)];
+
+                int current = target;
+                for (int i = path.length - 1; i >= 0; --i) {
+                    path[i] = state.getParent(SearchState.Forward, current);
+                    current = this.arcTail[path[i]];
+                }
+
+                return this.createRoute(source, path, path.length, state.getDistance(SearchState.Forward, target));
+            }
+
+            final double distance = state.getDistance(SearchState.Forward, node);
+
+            for (int arc = this.firstOut[node]; arc < this.firstOut[node + 1]; ++arc) {
+                final int head = this.arcHead[arc];
+                final double headDistance = distance + this.arcCost[arc];
+
+                if (headDistance < state.getDistance(SearchState.Forward, head)) {
+                    state.update(SearchState.Forward,
+                            head,
+                            headDistance,
+                            arc,
+                            headDistance + heuristic.estimate(this.x[head], this.y[head], targetX, targetY));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param nodeIdentifier Identifier of a node in the network
+     * @return The node's index in the graph's arrays
+     */
+    int getIndex(final int nodeIdentifier) {
+        final Integer index = this.nodeIndices.get(nodeIdentifier);
+
+        if (index == null) {
+            throw new IllegalArgumentException(String.format("Node %d is not in the routing graph", nodeIdentifier));
+        }
+
+        return index;
+    }
+
+    /**
+     * Builds a route from a sequence of arcs
+     *
+     * @param source    Index of the route's first node
+     * @param path      Arc indices, in order
+     * @param arcCount  Number of arcs in {@code path} that belong to the route
+     * @param cost      Total cost of the route
+     * @return The route
+     */
+    Route createRoute(final int source, final int[] path, final int arcCount, final double cost) {
+        final List<Integer> nodes = new ArrayList<>(arcCount + 1);
+        final List<Integer> edges = new ArrayList<>(arcCount);
+
+        nodes.add(this.nodeIdentifiers[source]);
+
+        for (int i = 0; i < arcCount; ++i) {
+            nodes.add(this.nodeIdentifiers[this.arcHead[path[i]]]);
+            edges.add(this.arcEdge[path[i]]);
+        }
+
+        return new Route(nodes, edges, cost);
+    }
+
+    private int countArcs(final SearchState state, final int direction, final int from) {
+        int count = 0;
+
+        for (int node = from, arc = state.getParent(direction, node); arc >= 0; arc = state.getParent(direction, node)) {
+            node = direction == SearchState.Forward ? this.arcTail[arc] : this.arcHead[arc];
+            ++count;
+        }
+
+        return count;
+    }
+
+    private int getIndex(final int nodeIdentifier, final Edge edge) throws RoutingNetworkStoreException {
+        final Integer index = this.nodeIndices.get(nodeIdentifier);
+
+        if (index == null) {
+            throw new RoutingNetworkStoreException(String.format("Edge %d references node %d, which is not in the routing network",
+                    edge.getIdentifier(),
+                    nodeIdentifier));
+        }
+
+        return index;
+    }
+
+    private static void addArc(final List<long[]> arcs,
+                               final Node fromNode,
+                               final Node toNode,
+                               final int from,
+                               final int to,
+                               final Edge edge,
+                               final EdgeCostFunction edgeCostFunction) {
+        final double cost = edgeCostFunction.getCost(fromNode, toNode, edge);
+
+        if (Double.isNaN(cost) || cost < 0.0) {
+            throw new IllegalArgumentException(String.format("Edge %d has an invalid cost: %f", edge.getIdentifier(), cost));
+        }
+
+        if (cost != Double.POSITIVE_INFINITY) {
+            arcs.add(new long[]{from, to, edge.getIdentifier(), Double.doubleToLongBits(cost)});
+        }
+    }
+
+    private final int nodeCount;
+    private final int arcCount;
+    private final Map<Integer, Integer> nodeIndices;
+    private final ThreadLocal<SearchState> searchState;
+
+    final int[] nodeIdentifiers;
+    final double[] x;
+    final double[] y;
+
+    final int[] firstOut;   // Arcs leaving node n are [firstOut[n], firstOut[n+1])
+    final int[] firstIn;    // Arcs entering node n are inArcs[firstIn[n]] to inArcs[firstIn[n+1] - 1]
+    final int[] inArcs;
+
+    final int[] arcTail;
+    final int[] arcHead;
+    final int[] arcEdge;
+    final double[] arcCost;
+}
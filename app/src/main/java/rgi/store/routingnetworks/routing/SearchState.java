@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.routingnetworks.routing;
+
+import java.util.Arrays;
+
+/**
+ * Mutable state of a (possibly bidirectional) shortest path search. Searches
+ * are run often and usually visit a small part of the graph, so the state is
+ * allocated once per thread and reset in time proportional to the number of
+ * nodes the previous search touched.
+ *
+ * @author Luke Lambert
+ */
+class SearchState {
+    /**
+     * Constructor
+     *
+     * @param nodeCount Number of nodes in the graph being searched
+     */
+    SearchState(final int nodeCount) {
+        for (int direction = 0; direction < 2; ++direction) {
+            this.distances[direction] = new double[nodeCount];
+            this.parents[direction] = new int[nodeCount];
+            this.heaps[direction] = new IndexedMinHeap(nodeCount);
+            this.touched[direction] = new int[nodeCount];
+
+            Arrays.fill(this.distances[direction], Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Restores the state to that of a new search
+     */
+    void reset() {
+        for (int direction = 0; direction < 2; ++direction) {
+            final double[] distance = this.distances[direction];
+            final int[] touchedNodes = this.touched[direction];
+
+            for (int i = 0; i < this.touchedCounts[direction]; ++i) {
+                distance[touchedNodes[i]] = Double.POSITIVE_INFINITY;
+            }
+
+            this.touchedCounts[direction] = 0;
+            this.heaps[direction].clear();
+        }
+    }
+
+    double getDistance(final int direction, final int node) {
+        return this.distances[direction][node];
+    }
+
+    int getParent(final int direction, final int node) {
+        return this.parents[direction][node];
+    }
+
+    IndexedMinHeap getHeap(final int direction) {
+        return this.heaps[direction];
+    }
+
+    /**
+     * @return Scratch stack for unpacking shortcut arcs, reused across
+     *         searches
+     */
+    int[] getStack() {
+        return this.stack;
+    }
+
+    /**
+     * Grows the scratch stack, keeping its contents. The stack only needs to
+     * be as deep as the deepest nesting of shortcuts, so it rarely grows
+     * after the first few searches.
+     *
+     * @param capacity Minimum required capacity
+     * @return The grown stack
+     */
+    int[] growStack(final int capacity) {
+        this.stack = Arrays.copyOf(this.stack, Math.max(capacity, this.stack.length * 2));
+        return this.stack;
+    }
+
+    /**
+     * Records a tentative distance to a node, and queues the node
+     *
+     * @param direction Search direction, {@link #Forward} or {@link #Backward}
+     * @param node      Node index
+     * @param distance  Tentative distance from the search's origin
+     * @param parent    Arc used to reach the node, or -1 for the origin
+     * @param key       Priority of the node, usually the distance
+     */
+    void update(final int direction, final int node, final double distance, final int parent, final double key) {
+        if (this.distances[direction][node] == Double.POSITIVE_INFINITY) {
+            this.touched[direction][this.touchedCounts[direction]++] = node;
+        }
+
+        this.distances[direction][node] = distance;
+        this.parents[direction][node] = parent;
+        this.heaps[direction].push(node, key);
+    }
+
+    private final double[][] distances = new double[2][];
+    private final int[][] parents = new int[2][];
+    private final IndexedMinHeap[] heaps = new IndexedMinHeap[2];
+    private final int[][] touched = new int[2][];
+    private final int[] touchedCounts = new int[2];
+    private int[] stack = new int[InitialStackCapacity];
+
+    private static final int InitialStackCapacity = 32;
+
+    static final int Forward = 0;
+    static final int Backward = 1;
+}
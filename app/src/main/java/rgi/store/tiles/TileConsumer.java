@@ -0,0 +1,45 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.tiles;
+
+import android.graphics.Bitmap;
+
+/**
+ * Callback for tiles delivered by the batch read methods of {@link
+ * TileStoreReader}
+ *
+ * @author Luke Lambert
+ */
+@FunctionalInterface
+public interface TileConsumer {
+    /**
+     * Accepts a single tile
+     *
+     * @param column    The 'x' portion of the tile's coordinate, relative to the tile store's tile scheme
+     * @param row       The 'y' portion of the tile's coordinate, relative to the tile store's tile scheme
+     * @param zoomLevel The zoom level of the tile
+     * @param image     The tile's image, or null if the tile exists but its data can't be decoded
+     */
+    void accept(final int column, final int row, final int zoomLevel, final Bitmap image);
+}
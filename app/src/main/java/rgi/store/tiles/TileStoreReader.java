@@ -25,11 +25,14 @@ package rgi.store.tiles;
 
 import android.graphics.Bitmap;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.stream.Stream;
 
 import rgi.common.BoundingBox;
 import rgi.common.Dimensions;
+import rgi.common.Range;
+import rgi.common.coordinate.Coordinate;
 import rgi.common.coordinate.CoordinateReferenceSystem;
 import rgi.common.coordinate.CrsCoordinate;
 import rgi.common.tile.TileOrigin;
@@ -90,6 +93,76 @@ public interface TileStoreReader extends AutoCloseable {
      */
     Bitmap getTile(final CrsCoordinate coordinate, final int zoomLevel) throws TileStoreException;
 
+    /**
+     * Gets every tile of a zoom level whose column and row fall within the
+     * supplied (inclusive) ranges. Tiles are passed to the consumer, on the
+     * calling thread, as soon as they're read, in no particular order.
+     * Positions the tile store has no tile data for are skipped. The default
+     * implementation calls {@link #getTile(int, int, int)} for every position;
+     * tile stores override it with a more efficient bulk read.
+     *
+     * @param zoomLevel    The zoom level of the requested tiles
+     * @param columnRange  Range of columns. This value is relative to this tile store's tile scheme.
+     * @param rowRange     Range of rows. This value is relative to this tile store's tile scheme.
+     * @param tileConsumer Callback that receives each tile
+     * @throws TileStoreException Wraps errors thrown by the tile store reader implementation
+     */
+    default void getTiles(final int zoomLevel,
+                          final Range<Integer> columnRange,
+                          final Range<Integer> rowRange,
+                          final TileConsumer tileConsumer) throws TileStoreException {
+        if (columnRange == null || rowRange == null) {
+            throw new IllegalArgumentException("Column and row ranges may not be null");
+        }
+
+        if (tileConsumer == null) {
+            throw new IllegalArgumentException("Tile consumer may not be null");
+        }
+
+        for (int column = columnRange.getMinimum(); column <= columnRange.getMaximum(); ++column) {
+            for (int row = rowRange.getMinimum(); row <= rowRange.getMaximum(); ++row) {
+                final Bitmap image = this.getTile(column, row, zoomLevel);
+
+                if (image != null) {
+                    tileConsumer.accept(column, row, zoomLevel, image);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the tiles at a list of positions in a zoom level. Tiles are passed
+     * to the consumer, on the calling thread, as soon as they're read, in no
+     * particular order. Positions the tile store has no tile data for are
+     * skipped. The default implementation calls {@link #getTile(int, int,
+     * int)} for every position; tile stores override it with a more efficient
+     * bulk read.
+     *
+     * @param zoomLevel    The zoom level of the requested tiles
+     * @param coordinates  Column (x) and row (y) of each requested tile, relative to this tile store's tile scheme
+     * @param tileConsumer Callback that receives each tile
+     * @throws TileStoreException Wraps errors thrown by the tile store reader implementation
+     */
+    default void getTiles(final int zoomLevel,
+                          final Collection<Coordinate<Integer>> coordinates,
+                          final TileConsumer tileConsumer) throws TileStoreException {
+        if (coordinates == null) {
+            throw new IllegalArgumentException("Coordinates may not be null");
+        }
+
+        if (tileConsumer == null) {
+            throw new IllegalArgumentException("Tile consumer may not be null");
+        }
+
+        for (final Coordinate<Integer> coordinate : coordinates) {
+            final Bitmap image = this.getTile(coordinate.getX(), coordinate.getY(), zoomLevel);
+
+            if (image != null) {
+                tileConsumer.accept(coordinate.getX(), coordinate.getY(), zoomLevel, image);
+            }
+        }
+    }
+
     /**
      * Gets the set of zoom levels that are valid for this tile store
      *
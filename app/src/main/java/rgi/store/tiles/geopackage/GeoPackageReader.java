@@ -49,6 +49,7 @@ import rgi.common.tile.scheme.TileMatrixDimensions;
 import rgi.common.tile.scheme.TileScheme;
 import rgi.common.util.ImageUtility;
 import rgi.geopackage.GeoPackage;
+import rgi.geopackage.ReadOnlyGeoPackage;
 import rgi.geopackage.core.SpatialReferenceSystem;
 import rgi.geopackage.tiles.GeoPackageTiles;
 import rgi.geopackage.tiles.Tile;
@@ -58,11 +59,18 @@ import rgi.geopackage.tiles.TileMatrixSet;
 import rgi.geopackage.tiles.TileSet;
 import rgi.geopackage.verification.Severity;
 import rgi.geopackage.verification.VerificationLevel;
+import rgi.store.tiles.TileConsumer;
 import rgi.store.tiles.TileHandle;
 import rgi.store.tiles.TileStoreException;
 import rgi.store.tiles.TileStoreReader;
+import rgi.store.tiles.metrics.TileStoreProbe;
 
 /**
+ * Tile store reader backed by a GeoPackage tile set. Every read borrows a
+ * connection from the GeoPackage with {@link GeoPackage#borrowReader()}, so
+ * when the reader is created with read connections, tiles can be fetched by
+ * several loader threads at once.
+ *
  * @author Luke Lambert
  */
 public class GeoPackageReader implements TileStoreReader {
@@ -88,6 +96,32 @@ public class GeoPackageReader implements TileStoreReader {
      * @throws TileStoreException if there's an error in constructing the underlying tile store implementation
      */
     public GeoPackageReader(final File geoPackageFile, final String tileSetTableName, final VerificationLevel verificationLevel) throws TileStoreException {
+        this(geoPackageFile, tileSetTableName, verificationLevel, 0);
+    }
+
+    /**
+     * @param geoPackageFile      Handle to a new or existing GeoPackage file
+     * @param tileSetTableName    Name for the new tile set's table in the GeoPackage database
+     * @param verificationLevel   Controls the level of verification testing performed on this
+     *                            GeoPackage.  If verificationLevel is not None
+     *                            {@link GeoPackage#verify()} is called automatically and will throw if
+     *                            there are any conformance violations with the severity
+     *                            {@link Severity#Error}.  Throwing from this method means
+     *                            that it won't be possible to instantiate a GeoPackage object
+     *                            based on an SQLite "GeoPackage" file with severe errors.
+     * @param readConnectionCount Number of read-only connections tiles are read
+     *                            through. If greater than 0, the GeoPackage is
+     *                            switched to the WAL journal mode and up to this many
+     *                            threads can read tiles concurrently. If 0, all reads
+     *                            share a single connection. See {@link
+     *                            GeoPackage#GeoPackage(File, VerificationLevel,
+     *                            GeoPackage.OpenMode, int)}.
+     * @throws TileStoreException if there's an error in constructing the underlying tile store implementation
+     */
+    public GeoPackageReader(final File geoPackageFile,
+                            final String tileSetTableName,
+                            final VerificationLevel verificationLevel,
+                            final int readConnectionCount) throws TileStoreException {
         if (geoPackageFile == null) {
             throw new IllegalArgumentException("GeoPackage file may not be null");
         }
@@ -97,7 +131,7 @@ public class GeoPackageReader implements TileStoreReader {
         }
 
         try {
-            this.geoPackage = new GeoPackage(geoPackageFile, verificationLevel, GeoPackage.OpenMode.Open);
+            this.geoPackage = new GeoPackage(geoPackageFile, verificationLevel, GeoPackage.OpenMode.Open, readConnectionCount);
         } catch (final Exception ex) {
             throw new TileStoreException(ex);
         }
@@ -141,8 +175,8 @@ public class GeoPackageReader implements TileStoreReader {
 
                 @Override
                 public Collection<Integer> getZoomLevels() {
-                    try {
-                        return GeoPackageReader.this.geoPackage.tiles().getTileZoomLevels(GeoPackageReader.this.tileSet);
+                    try (final ReadOnlyGeoPackage reader = GeoPackageReader.this.geoPackage.borrowReader()) {
+                        return reader.tiles().getTileZoomLevels(GeoPackageReader.this.tileSet);
                     } catch (final SQLException ex) {
                         throw new RuntimeException(ex);
                     }
@@ -171,8 +205,8 @@ public class GeoPackageReader implements TileStoreReader {
     @Override
     public long countTiles() throws TileStoreException {
         // TODO lazy precalculation ?
-        try {
-            return this.geoPackage.core().getRowCount(this.tileSet);
+        try (final ReadOnlyGeoPackage reader = this.geoPackage.borrowReader()) {
+            return reader.core().getRowCount(this.tileSet);
         } catch (final SQLException ex) {
             throw new TileStoreException(ex);
         }
@@ -186,8 +220,8 @@ public class GeoPackageReader implements TileStoreReader {
 
     @Override
     public Bitmap getTile(final int column, final int row, final int zoomLevel) throws TileStoreException {
-        try {
-            return getImage(this.geoPackage
+        try (final ReadOnlyGeoPackage reader = this.geoPackage.borrowReader()) {
+            return getImage(reader
                     .tiles()
                     .getTile(this.tileSet,
                             column,
@@ -208,8 +242,8 @@ public class GeoPackageReader implements TileStoreReader {
             throw new IllegalArgumentException("Coordinate's coordinate reference system does not match the tile store's coordinate reference system");
         }
 
-        try {
-            return getImage(this.geoPackage
+        try (final ReadOnlyGeoPackage reader = this.geoPackage.borrowReader()) {
+            return getImage(reader
                     .tiles()
                     .getTile(this.tileSet,
                             coordinate,
@@ -223,6 +257,62 @@ public class GeoPackageReader implements TileStoreReader {
         }
     }
 
+    @Override
+    public void getTiles(final int zoomLevel,
+                         final Range<Integer> columnRange,
+                         final Range<Integer> rowRange,
+                         final TileConsumer tileConsumer) throws TileStoreException {
+        if (columnRange == null || rowRange == null) {
+            throw new IllegalArgumentException("Column and row ranges may not be null");
+        }
+
+        if (tileConsumer == null) {
+            throw new IllegalArgumentException("Tile consumer may not be null");
+        }
+
+        try (final ReadOnlyGeoPackage reader = this.geoPackage.borrowReader()) {
+            reader.tiles()
+                    .visitTiles(this.tileSet,
+                            zoomLevel,
+                            columnRange.getMinimum(),
+                            columnRange.getMaximum(),
+                            rowRange.getMinimum(),
+                            rowRange.getMaximum(),
+                            tile -> tileConsumer.accept(tile.getColumn(),
+                                    tile.getRow(),
+                                    zoomLevel,
+                                    decodeImage(tile)));
+        } catch (final SQLException ex) {
+            throw new TileStoreException(ex);
+        }
+    }
+
+    @Override
+    public void getTiles(final int zoomLevel,
+                         final Collection<Coordinate<Integer>> coordinates,
+                         final TileConsumer tileConsumer) throws TileStoreException {
+        if (coordinates == null) {
+            throw new IllegalArgumentException("Coordinates may not be null");
+        }
+
+        if (tileConsumer == null) {
+            throw new IllegalArgumentException("Tile consumer may not be null");
+        }
+
+        try (final ReadOnlyGeoPackage reader = this.geoPackage.borrowReader()) {
+            reader.tiles()
+                    .visitTiles(this.tileSet,
+                            zoomLevel,
+                            coordinates,
+                            tile -> tileConsumer.accept(tile.getColumn(),
+                                    tile.getRow(),
+                                    zoomLevel,
+                                    decodeImage(tile)));
+        } catch (final SQLException ex) {
+            throw new TileStoreException(ex);
+        }
+    }
+
     @Override
     public CoordinateReferenceSystem getCoordinateReferenceSystem() {
         return this.crsProfile.getCoordinateReferenceSystem();
@@ -235,10 +325,10 @@ public class GeoPackageReader implements TileStoreReader {
 
     @Override
     public Stream<TileHandle> stream() throws TileStoreException {
-        try {
-            return this.geoPackage
+        try (final ReadOnlyGeoPackage reader = this.geoPackage.borrowReader()) {
+            return reader
                     .tiles()
-                    .getTiles(this.tileSet)
+                    .getTiles(this.tileSet)     // The tile coordinates are read eagerly, so the stream outlives the borrowed reader
                     .map(tileCoordinate -> this.getTileHandle(tileCoordinate.getZoomLevel(),
                             tileCoordinate.getColumn(),
                             tileCoordinate.getRow()));
@@ -249,8 +339,8 @@ public class GeoPackageReader implements TileStoreReader {
 
     @Override
     public Stream<TileHandle> stream(final int zoomLevel) throws TileStoreException {
-        try {
-            return this.geoPackage
+        try (final ReadOnlyGeoPackage reader = this.geoPackage.borrowReader()) {
+            return reader
                     .tiles()
                     .getTiles(this.tileSet, zoomLevel)
                     .map(tileCoordinate -> this.getTileHandle(zoomLevel,
@@ -263,11 +353,11 @@ public class GeoPackageReader implements TileStoreReader {
 
     @Override
     public String getImageType() throws TileStoreException {
-        try {
-            final TileCoordinate coordinate = this.geoPackage.tiles().getTiles(this.tileSet).findFirst().orElse(null);
+        try (final ReadOnlyGeoPackage reader = this.geoPackage.borrowReader()) {
+            final TileCoordinate coordinate = reader.tiles().getTiles(this.tileSet).findFirst().orElse(null);
 
             if (coordinate != null) {
-                final Tile tile = this.geoPackage.tiles().getTile(this.tileSet, coordinate.getColumn(), coordinate.getRow(), coordinate.getZoomLevel());
+                final Tile tile = reader.tiles().getTile(this.tileSet, coordinate.getColumn(), coordinate.getRow(), coordinate.getZoomLevel());
                 if (tile != null) {
                     final byte[] imageData = tile.getImageData();
 
@@ -334,12 +424,38 @@ public class GeoPackageReader implements TileStoreReader {
         }
 
         try {
-            return ImageUtility.bytesToBufferedImage(tile.getImageData());
+            return bytesToImage(tile.getImageData());
         } catch (final IOException ex) {
             throw new TileStoreException(ex);
         }
     }
 
+    private static Bitmap decodeImage(final Tile tile) {
+        try {
+            return bytesToImage(tile.getImageData());
+        } catch (final IOException ignored) {
+            return null;    // Reported to the consumer as a tile that can't be decoded, rather than failing the whole batch
+        }
+    }
+
+    private static Bitmap bytesToImage(final byte[] imageData) throws IOException {
+        final TileStoreProbe probe = TileStoreProbe.current();
+
+        if (probe == null) {
+            return ImageUtility.bytesToBufferedImage(imageData);
+        }
+
+        probe.recordBytesRead(imageData.length);
+
+        final long start = System.nanoTime();
+
+        try {
+            return ImageUtility.bytesToBufferedImage(imageData);
+        } finally {
+            probe.record(TileStoreProbe.Phase.Decode, System.nanoTime() - start);
+        }
+    }
+
     private TileHandle getTileHandle(final int zoomLevel, final int column, final int row) {
         final TileMatrix tileMatrix = GeoPackageReader.this.tileMatrices.get(zoomLevel);
         final TileMatrixDimensions matrix = new TileMatrixDimensions(tileMatrix.getMatrixWidth(), tileMatrix.getMatrixHeight());
@@ -55,6 +55,7 @@ import rgi.geopackage.tiles.TileSet;
 import rgi.geopackage.verification.ConformanceException;
 import rgi.store.tiles.TileStoreException;
 import rgi.store.tiles.TileStoreWriter;
+import rgi.store.tiles.metrics.TileStoreProbe;
 
 /**
  * @author Luke Lambert
@@ -85,6 +86,43 @@ public class GeoPackageWriter implements TileStoreWriter {
                             final MimeType imageOutputFormat
 //                            final ImageWriteParam imageWriteOptions) throws TileStoreException {
     ) throws TileStoreException {
+        this(geoPackageFile,
+                coordinateReferenceSystem,
+                tileSetTableName,
+                tileSetIdentifier,
+                tileSetDescription,
+                tileSetBounds,
+                tileScheme,
+                imageOutputFormat,
+                false);
+    }
+
+    /**
+     * @param geoPackageFile            Handle to a new or existing GeoPackage file
+     * @param coordinateReferenceSystem Coordinate reference system
+     * @param tileSetTableName          Name for the new tile set's table in the GeoPackage database
+     * @param tileSetIdentifier         A human-readable identifier (e.g. short name) for the tile set
+     * @param tileSetDescription        A human-readable description of the tile set
+     * @param tileSetBounds             Minimum bounds of the tile set, in spatial reference system
+     *                                  units
+     * @param tileScheme                Contains the mechanism to calculate the relationship between
+     *                                  the tile matrix dimensions at valid zoom levels
+     * @param imageOutputFormat         Image format for used for output
+     * @param readOptimize              If true, tiles are rewritten in Hilbert curve order and the
+     *                                  GeoPackage is compacted when the writer is closed (see {@link
+     *                                  GeoPackage#optimizeForReading()}). Tiles may be added in any
+     *                                  order, but closing the writer will take longer.
+     * @throws TileStoreException if there's an error in constructing the underlying tile store implementation
+     */
+    public GeoPackageWriter(final File geoPackageFile,
+                            final CoordinateReferenceSystem coordinateReferenceSystem,
+                            final String tileSetTableName,
+                            final String tileSetIdentifier,
+                            final String tileSetDescription,
+                            final BoundingBox tileSetBounds,
+                            final TileScheme tileScheme,
+                            final MimeType imageOutputFormat,
+                            final boolean readOptimize) throws TileStoreException {
         if (geoPackageFile == null) {
             throw new IllegalArgumentException("GeoPackageFile cannot be null.");
         }
@@ -147,6 +185,7 @@ public class GeoPackageWriter implements TileStoreWriter {
 //            this.imageWriteOptions = imageWriteOptions; // May be null
 
             this.tileScheme = tileScheme;
+            this.readOptimize = readOptimize;
         } catch (final Exception ex) {
             try {
                 this.geoPackage.close();
@@ -160,7 +199,13 @@ public class GeoPackageWriter implements TileStoreWriter {
 
     @Override
     public void close() throws SQLException {
-        this.geoPackage.close();
+        try {
+            if (this.readOptimize) {
+                this.geoPackage.optimizeForReading();
+            }
+        } finally {
+            this.geoPackage.close();
+        }
     }
 
     @Override
@@ -223,7 +268,7 @@ public class GeoPackageWriter implements TileStoreWriter {
         }
 
         try {
-            this.geoPackage.tiles().addTile(this.tileSet, this.getTileMatrix(zoomLevel, image.getWidth(), image.getHeight()), coordinate, this.crsProfile.getPrecision(), ImageUtility.bufferedImageToBytes(image));
+            this.geoPackage.tiles().addTile(this.tileSet, this.getTileMatrix(zoomLevel, image.getWidth(), image.getHeight()), coordinate, this.crsProfile.getPrecision(), imageToBytes(image));
         } catch (final SQLException | IOException ex) {
             throw new TileStoreException(ex);
         }
@@ -237,7 +282,7 @@ public class GeoPackageWriter implements TileStoreWriter {
 
         try {
             this.geoPackage.tiles().addTile(this.tileSet, this.getTileMatrix(zoomLevel, image.getWidth(), image.getHeight()),
-                    column, row, ImageUtility.bufferedImageToBytes(image));
+                    column, row, imageToBytes(image));
         } catch (final SQLException | IOException ex) {
             throw new TileStoreException(ex);
         }
@@ -263,6 +308,22 @@ public class GeoPackageWriter implements TileStoreWriter {
         return GeoPackageTiles.Origin;
     }
 
+    private static byte[] imageToBytes(final Bitmap image) throws IOException {
+        final TileStoreProbe probe = TileStoreProbe.current();
+
+        if (probe == null) {
+            return ImageUtility.bufferedImageToBytes(image);
+        }
+
+        final long start = System.nanoTime();
+        final byte[] imageData = ImageUtility.bufferedImageToBytes(image);
+
+        probe.record(TileStoreProbe.Phase.Encode, System.nanoTime() - start);
+        probe.recordBytesWritten(imageData.length);
+
+        return imageData;
+    }
+
     private TileMatrix getTileMatrix(final int zoomLevel, final int imageWidth, final int imageHeight) throws SQLException {
         if (this.tileMatrices.containsKey(zoomLevel)) {
             return this.tileMatrices.get(zoomLevel);
@@ -295,6 +356,7 @@ public class GeoPackageWriter implements TileStoreWriter {
     //    private final ImageWriter imageWriter;
 //    private final ImageWriteParam imageWriteOptions;
     private final TileScheme tileScheme;
+    private final boolean readOptimize;
 
     private final Map<Integer, TileMatrix> tileMatrices = new HashMap<>();
 
@@ -0,0 +1,308 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.tiles.metrics;
+
+import android.graphics.Bitmap;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import rgi.common.BoundingBox;
+import rgi.common.Dimensions;
+import rgi.common.Range;
+import rgi.common.coordinate.Coordinate;
+import rgi.common.coordinate.CoordinateReferenceSystem;
+import rgi.common.coordinate.CrsCoordinate;
+import rgi.common.metrics.Counter;
+import rgi.common.metrics.MetricsRegistry;
+import rgi.common.tile.TileOrigin;
+import rgi.common.tile.scheme.TileMatrixDimensions;
+import rgi.common.tile.scheme.TileScheme;
+import rgi.store.tiles.TileConsumer;
+import rgi.store.tiles.TileHandle;
+import rgi.store.tiles.TileStoreException;
+import rgi.store.tiles.TileStoreReader;
+
+/**
+ * Wraps a {@link TileStoreReader} and records metrics for its tile reads:
+ * <ul>
+ * <li><i>prefix</i>.getTile - {@link #getTile(int, int, int)} and {@link
+ * #getTile(CrsCoordinate, int)}</li>
+ * <li><i>prefix</i>.getTiles - both bulk {@code getTiles} methods. Time spent
+ * in the tile consumer is excluded.</li>
+ * <li><i>prefix</i>.stream - creating the streams returned by {@link
+ * #stream()} and {@link #stream(int)}</li>
+ * <li><i>prefix</i>.stream.getImage - {@link TileHandle#getImage()} of the
+ * streamed tile handles</li>
+ * <li><i>prefix</i>.tilesRead - number of tiles returned</li>
+ * </ul>
+ * along with the per-phase split, error and byte counts described by {@link
+ * TileStoreProbe}. All other methods are passed through unmeasured.
+ *
+ * @author Luke Lambert
+ */
+public class InstrumentedTileStoreReader implements TileStoreReader {
+    /**
+     * Constructor. Metric names are prefixed with the name of the tile
+     * store.
+     *
+     * @param tileStoreReader Tile store reader to measure
+     * @param metricsRegistry Registry that receives the metrics
+     */
+    public InstrumentedTileStoreReader(final TileStoreReader tileStoreReader,
+                                       final MetricsRegistry metricsRegistry) {
+        this(tileStoreReader,
+                metricsRegistry,
+                tileStoreReader == null ? null : tileStoreReader.getName());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tileStoreReader Tile store reader to measure
+     * @param metricsRegistry Registry that receives the metrics
+     * @param prefix          Prefix for the names of the metrics
+     */
+    public InstrumentedTileStoreReader(final TileStoreReader tileStoreReader,
+                                       final MetricsRegistry metricsRegistry,
+                                       final String prefix) {
+        if (tileStoreReader == null) {
+            throw new IllegalArgumentException("Tile store reader may not be null");
+        }
+
+        if (metricsRegistry == null) {
+            throw new IllegalArgumentException("Metrics registry may not be null");
+        }
+
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix may not be null or empty");
+        }
+
+        this.tileStoreReader = tileStoreReader;
+
+        this.getTileMetrics = new OperationMetrics(metricsRegistry, prefix, "getTile");
+        this.getTilesMetrics = new OperationMetrics(metricsRegistry, prefix, "getTiles");
+        this.streamMetrics = new OperationMetrics(metricsRegistry, prefix, "stream");
+        this.getImageMetrics = new OperationMetrics(metricsRegistry, prefix, "stream.getImage");
+        this.tilesRead = metricsRegistry.counter(prefix + ".tilesRead");
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.tileStoreReader.close();
+    }
+
+    @Override
+    public BoundingBox getBounds() throws TileStoreException {
+        return this.tileStoreReader.getBounds();
+    }
+
+    @Override
+    public long countTiles() throws TileStoreException {
+        return this.tileStoreReader.countTiles();
+    }
+
+    @Override
+    public long getByteSize() throws TileStoreException {
+        return this.tileStoreReader.getByteSize();
+    }
+
+    @Override
+    public Bitmap getTile(final int column, final int row, final int zoomLevel) throws TileStoreException {
+        return this.countTile(this.getTileMetrics.measure(() -> this.tileStoreReader.getTile(column, row, zoomLevel)));
+    }
+
+    @Override
+    public Bitmap getTile(final CrsCoordinate coordinate, final int zoomLevel) throws TileStoreException {
+        return this.countTile(this.getTileMetrics.measure(() -> this.tileStoreReader.getTile(coordinate, zoomLevel)));
+    }
+
+    @Override
+    public void getTiles(final int zoomLevel,
+                         final Range<Integer> columnRange,
+                         final Range<Integer> rowRange,
+                         final TileConsumer tileConsumer) throws TileStoreException {
+        if (tileConsumer == null) {
+            throw new IllegalArgumentException("Tile consumer may not be null");
+        }
+
+        this.getTilesMetrics.measure(() -> {
+            this.tileStoreReader.getTiles(zoomLevel,
+                    columnRange,
+                    rowRange,
+                    this.measureConsumer(tileConsumer));
+            return null;
+        });
+    }
+
+    @Override
+    public void getTiles(final int zoomLevel,
+                         final Collection<Coordinate<Integer>> coordinates,
+                         final TileConsumer tileConsumer) throws TileStoreException {
+        if (tileConsumer == null) {
+            throw new IllegalArgumentException("Tile consumer may not be null");
+        }
+
+        this.getTilesMetrics.measure(() -> {
+            this.tileStoreReader.getTiles(zoomLevel,
+                    coordinates,
+                    this.measureConsumer(tileConsumer));
+            return null;
+        });
+    }
+
+    @Override
+    public Set<Integer> getZoomLevels() throws TileStoreException {
+        return this.tileStoreReader.getZoomLevels();
+    }
+
+    @Override
+    public Stream<TileHandle> stream() throws TileStoreException {
+        return this.streamMetrics
+                .measure(this.tileStoreReader::stream)
+                .map(InstrumentedTileHandle::new);
+    }
+
+    @Override
+    public Stream<TileHandle> stream(final int zoomLevel) throws TileStoreException {
+        return this.streamMetrics
+                .measure(() -> this.tileStoreReader.stream(zoomLevel))
+                .map(InstrumentedTileHandle::new);
+    }
+
+    @Override
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() throws TileStoreException {
+        return this.tileStoreReader.getCoordinateReferenceSystem();
+    }
+
+    @Override
+    public String getName() {
+        return this.tileStoreReader.getName();
+    }
+
+    @Override
+    public String getImageType() throws TileStoreException {
+        return this.tileStoreReader.getImageType();
+    }
+
+    @Override
+    public Dimensions<Integer> getImageDimensions() throws TileStoreException {
+        return this.tileStoreReader.getImageDimensions();
+    }
+
+    @Override
+    public TileScheme getTileScheme() throws TileStoreException {
+        return this.tileStoreReader.getTileScheme();
+    }
+
+    @Override
+    public TileOrigin getTileOrigin() {
+        return this.tileStoreReader.getTileOrigin();
+    }
+
+    private Bitmap countTile(final Bitmap image) {
+        if (image != null) {
+            this.tilesRead.increment();
+        }
+
+        return image;
+    }
+
+    /**
+     * Counts the tiles passed to a consumer, and reports the time spent in
+     * the consumer so that it's excluded from the measurement. Consumers are
+     * always called on the thread that called getTiles, which is the thread
+     * the probe is attached to.
+     */
+    private TileConsumer measureConsumer(final TileConsumer tileConsumer) {
+        final TileStoreProbe probe = TileStoreProbe.current();
+
+        return (column, row, zoomLevel, image) -> {
+            final long start = System.nanoTime();
+
+            try {
+                tileConsumer.accept(column, row, zoomLevel, image);
+            } finally {
+                probe.recordExcluded(System.nanoTime() - start);
+                this.countTile(image);
+            }
+        };
+    }
+
+    private class InstrumentedTileHandle implements TileHandle {
+        InstrumentedTileHandle(final TileHandle tileHandle) {
+            this.tileHandle = tileHandle;
+        }
+
+        @Override
+        public int getZoomLevel() {
+            return this.tileHandle.getZoomLevel();
+        }
+
+        @Override
+        public int getColumn() {
+            return this.tileHandle.getColumn();
+        }
+
+        @Override
+        public int getRow() {
+            return this.tileHandle.getRow();
+        }
+
+        @Override
+        public TileMatrixDimensions getMatrix() throws TileStoreException {
+            return this.tileHandle.getMatrix();
+        }
+
+        @Override
+        public CrsCoordinate getCrsCoordinate() throws TileStoreException {
+            return this.tileHandle.getCrsCoordinate();
+        }
+
+        @Override
+        public CrsCoordinate getCrsCoordinate(final TileOrigin corner) throws TileStoreException {
+            return this.tileHandle.getCrsCoordinate(corner);
+        }
+
+        @Override
+        public BoundingBox getBounds() throws TileStoreException {
+            return this.tileHandle.getBounds();
+        }
+
+        @Override
+        public Bitmap getImage() throws TileStoreException {
+            return InstrumentedTileStoreReader.this.countTile(InstrumentedTileStoreReader.this.getImageMetrics.measure(this.tileHandle::getImage));
+        }
+
+        private final TileHandle tileHandle;
+    }
+
+    private final TileStoreReader tileStoreReader;
+    private final OperationMetrics getTileMetrics;
+    private final OperationMetrics getTilesMetrics;
+    private final OperationMetrics streamMetrics;
+    private final OperationMetrics getImageMetrics;
+    private final Counter tilesRead;
+}
@@ -0,0 +1,160 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.tiles.metrics;
+
+import android.graphics.Bitmap;
+
+import java.util.Set;
+
+import other.MimeType;
+import rgi.common.BoundingBox;
+import rgi.common.coordinate.Coordinate;
+import rgi.common.coordinate.CoordinateReferenceSystem;
+import rgi.common.coordinate.CrsCoordinate;
+import rgi.common.metrics.Counter;
+import rgi.common.metrics.MetricsRegistry;
+import rgi.common.tile.TileOrigin;
+import rgi.common.tile.scheme.TileScheme;
+import rgi.store.tiles.TileStoreException;
+import rgi.store.tiles.TileStoreWriter;
+
+/**
+ * Wraps a {@link TileStoreWriter} and records metrics for its tile writes:
+ * <ul>
+ * <li><i>prefix</i>.addTile - {@link #addTile(int, int, int, Bitmap)} and
+ * {@link #addTile(CrsCoordinate, int, Bitmap)}</li>
+ * <li><i>prefix</i>.tilesWritten - number of tiles written</li>
+ * </ul>
+ * along with the per-phase split, error and byte counts described by {@link
+ * TileStoreProbe}. All other methods are passed through unmeasured.
+ *
+ * @author Luke Lambert
+ */
+public class InstrumentedTileStoreWriter implements TileStoreWriter {
+    /**
+     * Constructor. Metric names are prefixed with the simple class name of
+     * the tile store writer.
+     *
+     * @param tileStoreWriter Tile store writer to measure
+     * @param metricsRegistry Registry that receives the metrics
+     */
+    public InstrumentedTileStoreWriter(final TileStoreWriter tileStoreWriter,
+                                       final MetricsRegistry metricsRegistry) {
+        this(tileStoreWriter,
+                metricsRegistry,
+                tileStoreWriter == null ? null : tileStoreWriter.getClass().getSimpleName());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tileStoreWriter Tile store writer to measure
+     * @param metricsRegistry Registry that receives the metrics
+     * @param prefix          Prefix for the names of the metrics
+     */
+    public InstrumentedTileStoreWriter(final TileStoreWriter tileStoreWriter,
+                                       final MetricsRegistry metricsRegistry,
+                                       final String prefix) {
+        if (tileStoreWriter == null) {
+            throw new IllegalArgumentException("Tile store writer may not be null");
+        }
+
+        if (metricsRegistry == null) {
+            throw new IllegalArgumentException("Metrics registry may not be null");
+        }
+
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix may not be null or empty");
+        }
+
+        this.tileStoreWriter = tileStoreWriter;
+
+        this.addTileMetrics = new OperationMetrics(metricsRegistry, prefix, "addTile");
+        this.tilesWritten = metricsRegistry.counter(prefix + ".tilesWritten");
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.tileStoreWriter.close();
+    }
+
+    @Override
+    public Coordinate<Integer> crsToTileCoordinate(final CrsCoordinate coordinate, final int zoomLevel) throws TileStoreException {
+        return this.tileStoreWriter.crsToTileCoordinate(coordinate, zoomLevel);
+    }
+
+    @Override
+    public CrsCoordinate tileToCrsCoordinate(final int column, final int row, final int zoomLevel, final TileOrigin corner) throws TileStoreException {
+        return this.tileStoreWriter.tileToCrsCoordinate(column, row, zoomLevel, corner);
+    }
+
+    @Override
+    public BoundingBox getTileBoundingBox(final int column, final int row, final int zoomLevel) throws TileStoreException {
+        return this.tileStoreWriter.getTileBoundingBox(column, row, zoomLevel);
+    }
+
+    @Override
+    public void addTile(final CrsCoordinate coordinate, final int zoomLevel, final Bitmap image) throws TileStoreException {
+        this.addTileMetrics.measure(() -> {
+            this.tileStoreWriter.addTile(coordinate, zoomLevel, image);
+            return null;
+        });
+
+        this.tilesWritten.increment();
+    }
+
+    @Override
+    public void addTile(final int column, final int row, final int zoomLevel, final Bitmap image) throws TileStoreException {
+        this.addTileMetrics.measure(() -> {
+            this.tileStoreWriter.addTile(column, row, zoomLevel, image);
+            return null;
+        });
+
+        this.tilesWritten.increment();
+    }
+
+    @Override
+    public Set<MimeType> getSupportedImageFormats() {
+        return this.tileStoreWriter.getSupportedImageFormats();
+    }
+
+    @Override
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return this.tileStoreWriter.getCoordinateReferenceSystem();
+    }
+
+    @Override
+    public TileScheme getTileScheme() {
+        return this.tileStoreWriter.getTileScheme();
+    }
+
+    @Override
+    public TileOrigin getTileOrigin() {
+        return this.tileStoreWriter.getTileOrigin();
+    }
+
+    private final TileStoreWriter tileStoreWriter;
+    private final OperationMetrics addTileMetrics;
+    private final Counter tilesWritten;
+}
@@ -0,0 +1,128 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.tiles.metrics;
+
+import java.util.Locale;
+
+import rgi.common.metrics.Counter;
+import rgi.common.metrics.LatencyHistogram;
+import rgi.common.metrics.MetricsRegistry;
+import rgi.store.tiles.TileStoreException;
+
+/**
+ * Metrics for a single kind of tile store operation. Each measured call
+ * records its latency to the histogram "<i>prefix</i>.<i>operation</i>",
+ * the time spent in each {@link TileStoreProbe.Phase} the tile store
+ * reported to "<i>prefix</i>.<i>operation</i>.<i>phase</i>", the remainder
+ * (I/O and everything else) to "<i>prefix</i>.<i>operation</i>.io", and
+ * failures to the counter "<i>prefix</i>.<i>operation</i>.errors". Bytes
+ * reported by the tile store are added to the counters
+ * "<i>prefix</i>.bytesRead" and "<i>prefix</i>.bytesWritten".
+ *
+ * @author Luke Lambert
+ */
+final class OperationMetrics {
+    /**
+     * A delegated tile store call
+     *
+     * @param <T> Return type of the call
+     */
+    @FunctionalInterface
+    interface StoreCall<T> {
+        T call() throws TileStoreException;
+    }
+
+    OperationMetrics(final MetricsRegistry metricsRegistry,
+                     final String prefix,
+                     final String operation) {
+        final String name = prefix + '.' + operation;
+
+        this.metricsRegistry = metricsRegistry;
+        this.latency = metricsRegistry.histogram(name);
+        this.ioTime = metricsRegistry.histogram(name + ".io");
+        this.errors = metricsRegistry.counter(name + ".errors");
+        this.bytesRead = metricsRegistry.counter(prefix + ".bytesRead");
+        this.bytesWritten = metricsRegistry.counter(prefix + ".bytesWritten");
+
+        final TileStoreProbe.Phase[] phases = TileStoreProbe.Phase.values();
+
+        this.phaseNames = new String[phases.length];
+
+        for (final TileStoreProbe.Phase phase : phases) {
+            this.phaseNames[phase.ordinal()] = name + '.' + phase.name().toLowerCase(Locale.US);
+        }
+    }
+
+    /**
+     * Measures a delegated call
+     *
+     * @param storeCall Call to measure
+     * @param <T>       Return type of the call
+     * @return the result of the call
+     * @throws TileStoreException if the call throws
+     */
+    <T> T measure(final StoreCall<T> storeCall) throws TileStoreException {
+        final TileStoreProbe probe = TileStoreProbe.attach();
+        final long start = System.nanoTime();
+
+        try {
+            return storeCall.call();
+        } catch (final TileStoreException | RuntimeException ex) {
+            this.errors.increment();
+            throw ex;
+        } finally {
+            final long elapsed = System.nanoTime() - start - probe.getExcludedTime();
+
+            probe.detach();
+
+            this.latency.record(elapsed);
+
+            long phaseTime = 0;
+
+            for (final TileStoreProbe.Phase phase : TileStoreProbe.Phase.values()) {
+                final long time = probe.getTime(phase);
+
+                if (time > 0) {
+                    // Phase histograms are created on first use, so operations
+                    // that never report a phase don't list it
+                    this.metricsRegistry.histogram(this.phaseNames[phase.ordinal()]).record(time);
+                    phaseTime += time;
+                }
+            }
+
+            this.ioTime.record(elapsed - phaseTime);   // Work done in parallel by the tile store can make this negative, which is recorded as 0
+
+            this.bytesRead.add(probe.getBytesRead());
+            this.bytesWritten.add(probe.getBytesWritten());
+        }
+    }
+
+    private final MetricsRegistry metricsRegistry;
+    private final LatencyHistogram latency;
+    private final LatencyHistogram ioTime;
+    private final Counter errors;
+    private final Counter bytesRead;
+    private final Counter bytesWritten;
+    private final String[] phaseNames;
+}
@@ -0,0 +1,188 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.store.tiles.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects the parts of a tile store operation that the tile store itself
+ * can time, so that {@link InstrumentedTileStoreReader} and {@link
+ * InstrumentedTileStoreWriter} can separate them from I/O time.
+ * <p>
+ * A decorator attaches a probe to the calling thread for the duration of a
+ * single delegated call. Tile store implementations look up the probe with
+ * {@link #current()}, and report to it if (and only if) one is attached:
+ * <pre>
+ * final TileStoreProbe probe = TileStoreProbe.current();
+ * final long start = System.nanoTime();
+ * final Bitmap image = decode(data);
+ *
+ * if(probe != null) {
+ *     probe.record(TileStoreProbe.Phase.Decode, System.nanoTime() - start);
+ *     probe.recordBytesRead(data.length);
+ * }
+ * </pre>
+ * Work handed off to other threads can report to a probe obtained on the
+ * calling thread; all of the recording methods are thread safe.
+ *
+ * @author Luke Lambert
+ */
+public final class TileStoreProbe {
+    /**
+     * Parts of a tile store operation that are timed separately from I/O
+     */
+    public enum Phase {
+        /**
+         * Decoding image data (PNG, JPEG, etc.) into a bitmap
+         */
+        Decode,
+
+        /**
+         * Encoding a bitmap into image data
+         */
+        Encode,
+
+        /**
+         * Reading and resampling source raster data with GDAL
+         */
+        Raster
+    }
+
+    private TileStoreProbe(final TileStoreProbe enclosing) {
+        this.enclosing = enclosing;
+    }
+
+    /**
+     * @return the probe attached to the calling thread, or null if the
+     * current operation isn't being measured
+     */
+    public static TileStoreProbe current() {
+        return Attached.get();
+    }
+
+    /**
+     * Adds time spent in a phase
+     *
+     * @param phase       Phase of the operation
+     * @param nanoseconds Time spent in the phase
+     */
+    public void record(final Phase phase, final long nanoseconds) {
+        this.phaseTimes.addAndGet(phase.ordinal(), nanoseconds);
+    }
+
+    /**
+     * Adds to the number of bytes of tile data read from storage
+     *
+     * @param byteCount Number of bytes read
+     */
+    public void recordBytesRead(final long byteCount) {
+        this.bytesRead.addAndGet(byteCount);
+    }
+
+    /**
+     * Adds to the number of bytes of tile data written to storage
+     *
+     * @param byteCount Number of bytes written
+     */
+    public void recordBytesWritten(final long byteCount) {
+        this.bytesWritten.addAndGet(byteCount);
+    }
+
+    /**
+     * @param phase Phase of the operation
+     * @return the time spent in the phase so far, in nanoseconds
+     */
+    long getTime(final Phase phase) {
+        return this.phaseTimes.get(phase.ordinal());
+    }
+
+    /**
+     * Adds time spent outside of the tile store during an operation, e.g. in
+     * a tile consumer's callback, which is excluded from the operation's
+     * measured time
+     *
+     * @param nanoseconds Time spent outside of the tile store
+     */
+    void recordExcluded(final long nanoseconds) {
+        this.excludedTime.addAndGet(nanoseconds);
+    }
+
+    long getExcludedTime() {
+        return this.excludedTime.get();
+    }
+
+    long getBytesRead() {
+        return this.bytesRead.get();
+    }
+
+    long getBytesWritten() {
+        return this.bytesWritten.get();
+    }
+
+    /**
+     * Attaches a new probe to the calling thread. Calls may be nested (e.g. a
+     * decorator wrapping a decorator); {@link #detach()} restores the
+     * enclosing probe.
+     *
+     * @return the new probe
+     */
+    static TileStoreProbe attach() {
+        final TileStoreProbe probe = new TileStoreProbe(Attached.get());
+
+        Attached.set(probe);
+
+        return probe;
+    }
+
+    /**
+     * Removes this probe from the calling thread, and restores the enclosing
+     * probe, if any. Everything recorded by this probe is added to the
+     * enclosing probe, so an outer measurement sees the same split.
+     */
+    void detach() {
+        if (this.enclosing == null) {
+            Attached.remove();
+            return;
+        }
+
+        for (final Phase phase : Phase.values()) {
+            this.enclosing.record(phase, this.getTime(phase));
+        }
+
+        this.enclosing.recordExcluded(this.getExcludedTime());
+        this.enclosing.recordBytesRead(this.getBytesRead());
+        this.enclosing.recordBytesWritten(this.getBytesWritten());
+
+        Attached.set(this.enclosing);
+    }
+
+    private final TileStoreProbe enclosing;
+    private final AtomicLongArray phaseTimes = new AtomicLongArray(Phase.values().length);
+    private final AtomicLong excludedTime = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private static final ThreadLocal<TileStoreProbe> Attached = new ThreadLocal<>();
+}
@@ -33,10 +33,21 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -54,9 +65,11 @@ import rgi.common.coordinate.CrsCoordinate;
 import rgi.common.tile.TileOrigin;
 import rgi.common.tile.scheme.TileMatrixDimensions;
 import rgi.common.util.FileUtility;
+import rgi.store.tiles.TileConsumer;
 import rgi.store.tiles.TileHandle;
 import rgi.store.tiles.TileStoreException;
 import rgi.store.tiles.TileStoreReader;
+import rgi.store.tiles.metrics.TileStoreProbe;
 
 /**
  * <a href="http://wiki.osgeo.org/wiki/Tile_Map_Service_Specification">TMS</a>
@@ -118,7 +131,11 @@ public class TmsReader extends TmsTileStore implements TileStoreReader {
         final Optional<File> tileFile = this.getTiles(column, row, zoomLevel).findFirst();    // TODO prioritize list based on file type suitability (prefer transparency, etc)
 
         if (tileFile.isPresent()) {
-            return BitmapFactory.decodeFile(tileFile.get().getAbsolutePath());
+            try {
+                return readImage(tileFile.get(), TileStoreProbe.current());
+            } catch (final IOException ex) {
+                throw new TileStoreException(ex);
+            }
 //                return ImageIO.read(tileFile.get());
         }
 
@@ -145,6 +162,100 @@ public class TmsReader extends TmsTileStore implements TileStoreReader {
                 zoomLevel);
     }
 
+    @Override
+    public void getTiles(final int zoomLevel,
+                         final Range<Integer> columnRange,
+                         final Range<Integer> rowRange,
+                         final TileConsumer tileConsumer) throws TileStoreException {
+        if (columnRange == null || rowRange == null) {
+            throw new IllegalArgumentException("Column and row ranges may not be null");
+        }
+
+        final Collection<Coordinate<Integer>> coordinates = new ArrayList<>();
+
+        for (int column = columnRange.getMinimum(); column <= columnRange.getMaximum(); ++column) {
+            for (int row = rowRange.getMinimum(); row <= rowRange.getMaximum(); ++row) {
+                coordinates.add(new Coordinate<>(column, row));
+            }
+        }
+
+        this.getTiles(zoomLevel, coordinates, tileConsumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * <br>
+     * Each column directory is listed once, and the tile files are read and
+     * decoded in parallel. Tiles are handed to the consumer on the calling
+     * thread in the order their reads complete.
+     */
+    @Override
+    public void getTiles(final int zoomLevel,
+                         final Collection<Coordinate<Integer>> coordinates,
+                         final TileConsumer tileConsumer) throws TileStoreException {
+        if (coordinates == null) {
+            throw new IllegalArgumentException("Coordinates may not be null");
+        }
+
+        if (tileConsumer == null) {
+            throw new IllegalArgumentException("Tile consumer may not be null");
+        }
+
+        final Map<Integer, Set<Integer>> rowsByColumn = new HashMap<>();
+
+        for (final Coordinate<Integer> coordinate : coordinates) {
+            rowsByColumn.computeIfAbsent(coordinate.getX(), column -> new HashSet<>()).add(coordinate.getY());
+        }
+
+        final TileStoreProbe probe = TileStoreProbe.current();   // Reads run on other threads, so the probe is passed to them explicitly
+        final CompletionService<Bitmap> completionService = new ExecutorCompletionService<>(TileReadExecutor);
+        final Map<Future<Bitmap>, Coordinate<Integer>> pending = new HashMap<>();
+
+        try {
+            for (final Map.Entry<Integer, Set<Integer>> column : rowsByColumn.entrySet()) {
+                final File[] files = tmsPath(this.location,
+                        zoomLevel,
+                        column.getKey()).toFile()
+                        .listFiles(); // All of the files in directory zoomLevel/x/
+
+                if (files == null) {
+                    continue;
+                }
+
+                final Set<Integer> remainingRows = new HashSet<>(column.getValue());
+
+                for (final File file : files) {
+                    final Integer row = parseRow(file);
+
+                    // Only the first image file found for each row is read, matching getTile()
+                    if (row != null && remainingRows.contains(row) && file.isFile() && fileIsImage(file)) {
+                        remainingRows.remove(row);
+                        pending.put(completionService.submit(() -> readImage(file, probe)),
+                                new Coordinate<>(column.getKey(), row));
+                    }
+                }
+            }
+
+            for (int completed = 0; completed < pending.size(); ++completed) {
+                final Future<Bitmap> result = completionService.take();
+                final Bitmap image = result.get();
+
+                if (image != null) {
+                    final Coordinate<Integer> coordinate = pending.get(result);
+                    tileConsumer.accept(coordinate.getX(), coordinate.getY(), zoomLevel, image);
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TileStoreException(ex);
+        } catch (final ExecutionException ex) {
+            throw new TileStoreException(ex.getCause());
+        } finally {
+            pending.keySet().forEach(future -> future.cancel(true));  // No-op for completed reads
+        }
+    }
+
     @Override
     public Set<Integer> getZoomLevels() throws TileStoreException {
         if (this.zoomLevels == null) {
@@ -447,6 +558,14 @@ public class TmsReader extends TmsTileStore implements TileStoreReader {
                         fileIsImage(file));
     }
 
+    private static Integer parseRow(final File file) {
+        try {
+            return Integer.parseInt(FileUtility.nameWithoutExtension(file));
+        } catch (final NumberFormatException ignored) {
+            return null;
+        }
+    }
+
     private Stream<TileHandle> stream(final Path startLocation) {
         try {
             return Files.walk(startLocation)
@@ -468,10 +587,44 @@ public class TmsReader extends TmsTileStore implements TileStoreReader {
         }
     }
 
+    /**
+     * Reads a tile file, and then decodes it. The two steps are separate so
+     * that I/O and decoding can be measured independently.
+     *
+     * @param file  Tile image file
+     * @param probe Probe to report to, or null
+     * @return the decoded image, or null if the file can't be decoded
+     * @throws IOException if the file can't be read
+     */
+    private static Bitmap readImage(final File file, final TileStoreProbe probe) throws IOException {
+        final byte[] imageData = Files.readAllBytes(file.toPath());
+
+        if (probe == null) {
+            return BitmapFactory.decodeByteArray(imageData, 0, imageData.length);
+        }
+
+        probe.recordBytesRead(imageData.length);
+
+        final long start = System.nanoTime();
+
+        try {
+            return BitmapFactory.decodeByteArray(imageData, 0, imageData.length);
+        } finally {
+            probe.record(TileStoreProbe.Phase.Decode, System.nanoTime() - start);
+        }
+    }
+
     private Set<Integer> zoomLevels = null;
     private BoundingBox bounds = null;
     private long tileCount = -1;
     private long storeSize = -1;
 
+    private static final ExecutorService TileReadExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2,   // File reads spend much of their time waiting on I/O
+            runnable -> {
+                final Thread thread = new Thread(runnable, "TMS tile reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+
     private static Pattern TmsFilePattern = Pattern.compile(".*(?:\\\\|/)([0-9]+)(?:\\\\|/)([0-9]+)(?:\\\\|/)([0-9]+)\\.[^\\\\/]*$");
 }
@@ -25,9 +25,11 @@ package rgi.store.tiles.tms;
 
 import android.graphics.Bitmap;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -39,6 +41,7 @@ import rgi.common.coordinate.CrsCoordinate;
 import rgi.common.util.MimeTypeUtility;
 import rgi.store.tiles.TileStoreException;
 import rgi.store.tiles.TileStoreWriter;
+import rgi.store.tiles.metrics.TileStoreProbe;
 
 /**
  * <a href="http://wiki.osgeo.org/wiki/Tile_Map_Service_Specification">TMS</a>
@@ -150,10 +153,25 @@ public class TmsWriter extends TmsTileStore implements TileStoreWriter {
                 }
             }
 
-            FileOutputStream fos = new FileOutputStream(tilePath.toFile());
-            image.compress(Bitmap.CompressFormat.JPEG, 100, fos);
-            fos.flush();
-            fos.close();
+            final TileStoreProbe probe = TileStoreProbe.current();
+
+            if (probe == null) {
+                try (final FileOutputStream fileOutputStream = new FileOutputStream(tilePath.toFile())) {
+                    image.compress(Bitmap.CompressFormat.JPEG, 100, fileOutputStream);
+                }
+            } else {
+                // Encode to memory first so that encoding and writing can be measured separately
+                final long start = System.nanoTime();
+
+                final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                image.compress(Bitmap.CompressFormat.JPEG, 100, outputStream);
+
+                probe.record(TileStoreProbe.Phase.Encode, System.nanoTime() - start);
+
+                final byte[] imageData = outputStream.toByteArray();
+                Files.write(tilePath, imageData);
+                probe.recordBytesWritten(imageData.length);
+            }
 
 //            try (final ImageOutputStream fileOutputStream = ImageIO.createImageOutputStream(tilePath.toFile())) {
 //                this.imageWriter.setOutput(fileOutputStream);
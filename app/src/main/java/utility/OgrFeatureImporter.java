@@ -0,0 +1,550 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package utility;
+
+import org.gdal.ogr.Feature;
+import org.gdal.ogr.FeatureDefn;
+import org.gdal.ogr.FieldDefn;
+import org.gdal.ogr.Geometry;
+import org.gdal.ogr.Layer;
+import org.gdal.ogr.ogr;
+import org.gdal.ogr.ogrConstants;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.function.Consumer;
+
+import rgi.common.BoundingBox;
+import rgi.common.TaskMonitor;
+import rgi.geopackage.GeoPackage;
+import rgi.geopackage.core.SpatialReferenceSystem;
+import rgi.geopackage.features.ColumnDefault;
+import rgi.geopackage.features.ColumnDefinition;
+import rgi.geopackage.features.ColumnFlag;
+import rgi.geopackage.features.FeatureSet;
+import rgi.geopackage.features.GeometryColumnDefinition;
+import rgi.geopackage.features.GeometryType;
+import rgi.geopackage.features.RejectedFeature;
+import rgi.geopackage.features.SqlType;
+import rgi.geopackage.features.ValueRequirement;
+import rgi.geopackage.features.WellKnownBinaryFeature;
+import rgi.geopackage.features.geometry.xy.Envelope;
+import rgi.geopackage.utility.DatabaseUtility;
+
+/**
+ * Streams OGR vector layers into GeoPackage feature tables. Features are read
+ * from the layer one at a time and written in fixed size transactions, so the
+ * memory used by an import doesn't depend on the size of the source. Spatial
+ * and attribute filters are handed to OGR, so that drivers with native
+ * filtering (or indexes) can skip features before they're read.
+ *
+ * @author Luke Lambert
+ */
+public class OgrFeatureImporter {
+    /**
+     * Constructor
+     *
+     * @param geoPackage Target GeoPackage
+     * @param batchSize  Number of features written per transaction
+     */
+    public OgrFeatureImporter(final GeoPackage geoPackage,
+                              final int batchSize) {
+        if (geoPackage == null) {
+            throw new IllegalArgumentException("GeoPackage may not be null");
+        }
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+
+        this.geoPackage = geoPackage;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports the features of an OGR layer into a new feature table
+     *
+     * @param layer                  Source layer. The layer's reading position and filters will
+     *                               be modified.
+     * @param tableName              Name of the new feature table
+     * @param spatialReferenceSystem Spatial reference system of the layer's geometries. It must
+     *                               already exist in the GeoPackage.
+     * @param spatialFilter          If not null, only features that intersect this bounding box
+     *                               are imported
+     * @param attributeFilter        If not null, an OGR SQL WHERE clause (without the "WHERE")
+     *                               that selects the features to import
+     * @param taskMonitor            If not null, receives progress updates
+     * @param rejectedFeatures       Callback that receives each feature that couldn't be
+     *                               imported, e.g. because its geometry type doesn't fit the
+     *                               layer's. Ignored if null.
+     * @return the newly created feature set
+     * @throws SQLException if there is a database error
+     */
+    public FeatureSet importLayer(final Layer layer,
+                                  final String tableName,
+                                  final SpatialReferenceSystem spatialReferenceSystem,
+                                  final BoundingBox spatialFilter,
+                                  final String attributeFilter,
+                                  final TaskMonitor taskMonitor,
+                                  final Consumer<RejectedFeature> rejectedFeatures) throws SQLException {
+        if (layer == null) {
+            throw new IllegalArgumentException("Layer may not be null");
+        }
+
+        if (spatialReferenceSystem == null) {
+            throw new IllegalArgumentException("Spatial reference system may not be null");
+        }
+
+        final int layerGeometryType = layer.GetGeomType();
+
+        if (layerGeometryType == ogrConstants.wkbNone) {
+            throw new IllegalArgumentException("Layer has no geometry");
+        }
+
+        if (spatialFilter != null) {
+            layer.SetSpatialFilterRect(spatialFilter.getMinimumX(),
+                    spatialFilter.getMinimumY(),
+                    spatialFilter.getMaximumX(),
+                    spatialFilter.getMaximumY());
+        } else {
+            layer.SetSpatialFilter(null);
+        }
+
+        if (layer.SetAttributeFilter(attributeFilter) != 0) {
+            throw new IllegalArgumentException(String.format("Invalid attribute filter '%s': %s",
+                    attributeFilter,
+                    new GdalError().getMessage()));
+        }
+
+        layer.ResetReading();
+
+        final String primaryKeyColumnName = columnName(layer.GetFIDColumn(), "fid");
+        final String geometryColumnName = columnName(layer.GetGeometryColumn(), "geom");
+
+        final Set<String> usedNames = new HashSet<>();
+        usedNames.add(primaryKeyColumnName.toLowerCase());
+        usedNames.add(geometryColumnName.toLowerCase());
+
+        final FeatureDefn featureDefinition = layer.GetLayerDefn();
+        final int fieldCount = featureDefinition.GetFieldCount();
+
+        final int[] fieldTypes = new int[fieldCount];
+        final List<String> attributeColumnNames = new ArrayList<>(fieldCount);
+        final List<ColumnDefinition> columnDefinitions = new ArrayList<>(fieldCount);
+
+        for (int fieldIndex = 0; fieldIndex < fieldCount; ++fieldIndex) {
+            final FieldDefn fieldDefinition = featureDefinition.GetFieldDefn(fieldIndex);
+
+            final String name = uniqueColumnName(columnName(fieldDefinition.GetNameRef(), "field" + fieldIndex), usedNames);
+
+            fieldTypes[fieldIndex] = fieldDefinition.GetFieldType();
+            attributeColumnNames.add(name);
+            columnDefinitions.add(new ColumnDefinition(name,
+                    sqlType(fieldTypes[fieldIndex]).toString(),
+                    EnumSet.noneOf(ColumnFlag.class),
+                    null,
+                    ColumnDefault.None,
+                    fieldDefinition.GetNameRef()));   // Keep the original field name as the column comment
+        }
+
+        final boolean hasZ = (layerGeometryType & ogrConstants.wkb25DBit) != 0;
+        final int baseGeometryType = columnGeometryType(layerGeometryType & ~ogrConstants.wkb25DBit);
+
+        final double[] extent = layer.GetExtent();  // min x, max x, min y, max y, or null if the layer is empty
+
+        // Empty layers have no extent (some drivers report an inverted one), but the contents entry requires a bounding box
+        final BoundingBox boundingBox = extent == null || extent[0] > extent[1] || extent[2] > extent[3]
+                ? new BoundingBox(0.0, 0.0, 0.0, 0.0)
+                : new BoundingBox(extent[0], extent[2], extent[1], extent[3]);
+
+        final FeatureSet featureSet = this.geoPackage
+                .features()
+                .addFeatureSet(tableName,
+                        tableName,
+                        layer.GetName(),
+                        boundingBox,
+                        spatialReferenceSystem,
+                        primaryKeyColumnName,
+                        new GeometryColumnDefinition(geometryColumnName,
+                                geometryTypeName(baseGeometryType),
+                                baseGeometryType == ogrConstants.wkbUnknown ? ValueRequirement.Optional
+                                        : hasZ ? ValueRequirement.Mandatory
+                                        : ValueRequirement.Prohibited,
+                                ValueRequirement.Prohibited,
+                                null),
+                        columnDefinitions);
+
+        final int featureCount = layer.GetFeatureCount(0);  // Don't force an expensive count, -1 means unknown
+
+        if (taskMonitor != null && featureCount >= 0) {
+            taskMonitor.setMaximum(featureCount);
+        }
+
+        // Features that don't fit the table are skipped rather than aborting the import partway through
+        this.geoPackage
+                .features()
+                .addFeatures(this.geoPackage.features().getGeometryColumn(featureSet),
+                        attributeColumnNames,
+                        new LayerIterator(layer, fieldTypes, baseGeometryType, taskMonitor),
+                        this.batchSize,
+                        this.geoPackage.schema().getDataColumnValidator(featureSet),
+                        rejectedFeatures != null ? rejectedFeatures : rejectedFeature -> { });
+
+        return featureSet;
+    }
+
+    private static String columnName(final String name, final String fallback) {
+        if (name == null || name.isEmpty()) {
+            return fallback;
+        }
+
+        final String sanitized = name.replaceAll("[^_a-zA-Z0-9]", "_");
+
+        return Character.isDigit(sanitized.charAt(0)) ? "_" + sanitized : sanitized;
+    }
+
+    private static String uniqueColumnName(final String name, final Set<String> usedNames) {
+        String candidate = name;
+
+        try {
+            DatabaseUtility.validateColumnName(candidate);
+        } catch (final IllegalArgumentException ignored) {
+            candidate += "_";   // The name was an SQL keyword
+        }
+
+        final String base = candidate;
+
+        for (int suffix = 2; usedNames.contains(candidate.toLowerCase()); ++suffix) {
+            candidate = String.format("%s_%d", base, suffix);
+        }
+
+        usedNames.add(candidate.toLowerCase());
+
+        return candidate;
+    }
+
+    /**
+     * Layers such as shapefiles report a single part type, but return a mix
+     * of single and multi part features. Their tables are declared with the
+     * multi part type, and single part features are promoted as they're read.
+     */
+    private static int columnGeometryType(final int baseGeometryType) {
+        switch (baseGeometryType) {
+            case ogrConstants.wkbLineString:
+                return ogrConstants.wkbMultiLineString;
+
+            case ogrConstants.wkbPolygon:
+                return ogrConstants.wkbMultiPolygon;
+
+            default:
+                return baseGeometryType;
+        }
+    }
+
+    private static SqlType sqlType(final int fieldType) {
+        switch (fieldType) {
+            case ogrConstants.OFTInteger:
+            case OFTInteger64:
+                return SqlType.INTEGER;
+
+            case ogrConstants.OFTReal:
+                return SqlType.DOUBLE;
+
+            case ogrConstants.OFTDate:
+                return SqlType.DATE;
+
+            case ogrConstants.OFTDateTime:
+                return SqlType.DATETIME;
+
+            default:    // Lists, times and binary fields are stored as OGR's string representation
+                return SqlType.TEXT;
+        }
+    }
+
+    private static String geometryTypeName(final int baseGeometryType) {
+        for (final GeometryType geometryType : GeometryType.values()) {
+            if (!geometryType.isExtension() && geometryType.getCode() == baseGeometryType) {
+                return geometryType.toString();
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unsupported OGR geometry type %d", baseGeometryType));
+    }
+
+    /**
+     * Rewrites OGR's 2.5D geometry type flag into the ISO type codes used by
+     * the GeoPackage, for the geometry and all of its children
+     *
+     * @return the offset of the byte following the geometry
+     */
+    private static int rewriteTypeCodes(final ByteBuffer wellKnownBinary, final int offset) {
+        final int typeCode = wellKnownBinary.getInt(offset + 1);   // Skip the byte order byte; OGR is asked for little endian output
+
+        final boolean hasZ = (typeCode & ogrConstants.wkb25DBit) != 0;
+        final int baseTypeCode = typeCode & ~ogrConstants.wkb25DBit;
+
+        if (hasZ) {
+            wellKnownBinary.putInt(offset + 1, baseTypeCode + 1000);
+        }
+
+        final int coordinateByteSize = (hasZ ? 3 : 2) * Double.BYTES;
+
+        int position = offset + 5;
+
+        switch (baseTypeCode) {
+            case ogrConstants.wkbPoint:
+                return position + coordinateByteSize;
+
+            case ogrConstants.wkbLineString:
+                return position + Integer.BYTES + wellKnownBinary.getInt(position) * coordinateByteSize;
+
+            case ogrConstants.wkbPolygon:
+                final int ringCount = wellKnownBinary.getInt(position);
+                position += Integer.BYTES;
+
+                for (int ring = 0; ring < ringCount; ++ring) {
+                    position += Integer.BYTES + wellKnownBinary.getInt(position) * coordinateByteSize;
+                }
+
+                return position;
+
+            case ogrConstants.wkbMultiPoint:
+            case ogrConstants.wkbMultiLineString:
+            case ogrConstants.wkbMultiPolygon:
+            case ogrConstants.wkbGeometryCollection:
+                final int geometryCount = wellKnownBinary.getInt(position);
+                position += Integer.BYTES;
+
+                for (int geometry = 0; geometry < geometryCount; ++geometry) {
+                    position = rewriteTypeCodes(wellKnownBinary, position);
+                }
+
+                return position;
+
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported OGR geometry type %d", baseTypeCode));
+        }
+    }
+
+    /**
+     * Lazily converts the (filtered) features of an OGR layer. Each OGR
+     * feature is released as soon as its values have been copied, rather than
+     * waiting on the garbage collector to free the native memory.
+     */
+    private static final class LayerIterator implements Iterator<WellKnownBinaryFeature> {
+        LayerIterator(final Layer layer, final int[] fieldTypes, final int columnGeometryType, final TaskMonitor taskMonitor) {
+            this.layer = layer;
+            this.fieldTypes = fieldTypes;
+            this.columnGeometryType = columnGeometryType;
+            this.taskMonitor = taskMonitor;
+            this.next = this.read();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public WellKnownBinaryFeature next() {
+            if (this.next == null) {
+                throw new NoSuchElementException();
+            }
+
+            final WellKnownBinaryFeature feature = this.next;
+
+            if (this.taskMonitor != null) {
+                this.taskMonitor.setProgress(++this.progress);
+            }
+
+            this.next = this.read();
+            return feature;
+        }
+
+        private WellKnownBinaryFeature read() {
+            for (Feature feature = this.layer.GetNextFeature(); feature != null; feature = this.layer.GetNextFeature()) {
+                Geometry promoted = null;
+
+                try {
+                    Geometry geometry = feature.GetGeometryRef();
+
+                    if (geometry == null) {
+                        continue;   // GeoPackage features are geometries; rows without one are skipped
+                    }
+
+                    promoted = this.promote(geometry);
+
+                    if (promoted != null) {
+                        geometry = promoted;
+                    }
+
+                    final byte[] wellKnownBinary = geometry.ExportToWkb(ogrConstants.wkbNDR);
+
+                    rewriteTypeCodes(ByteBuffer.wrap(wellKnownBinary).order(ByteOrder.LITTLE_ENDIAN), 0);
+
+                    final Envelope envelope;
+
+                    if (geometry.IsEmpty()) {
+                        envelope = Envelope.Empty;
+                    } else {
+                        geometry.GetEnvelope(this.envelope);   // min x, max x, min y, max y
+                        envelope = new Envelope(this.envelope[0], this.envelope[2], this.envelope[1], this.envelope[3]);
+                    }
+
+                    final List<Object> attributes = new ArrayList<>(this.fieldTypes.length);
+
+                    for (int fieldIndex = 0; fieldIndex < this.fieldTypes.length; ++fieldIndex) {
+                        attributes.add(this.getValue(feature, fieldIndex));
+                    }
+
+                    return new WellKnownBinaryFeature(wellKnownBinary, envelope, attributes);
+                } finally {
+                    if (promoted != null) {
+                        promoted.delete();
+                    }
+
+                    feature.delete();
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * @return a multi part copy of a single part geometry, if the table
+         * was declared with the multi part type, otherwise null. The copy must
+         * be deleted by the caller.
+         */
+        private Geometry promote(final Geometry geometry) {
+            final int baseGeometryType = geometry.GetGeometryType() & ~ogrConstants.wkb25DBit;
+
+            if (this.columnGeometryType == ogrConstants.wkbMultiPolygon && baseGeometryType == ogrConstants.wkbPolygon) {
+                return ogr.ForceToMultiPolygon(geometry);
+            }
+
+            if (this.columnGeometryType == ogrConstants.wkbMultiLineString && baseGeometryType == ogrConstants.wkbLineString) {
+                return ogr.ForceToMultiLineString(geometry);
+            }
+
+            return null;
+        }
+
+        private Object getValue(final Feature feature, final int fieldIndex) {
+            if (!feature.IsFieldSet(fieldIndex)) {
+                return null;
+            }
+
+            switch (this.fieldTypes[fieldIndex]) {
+                case ogrConstants.OFTInteger:
+                    return feature.GetFieldAsInteger(fieldIndex);
+
+                case OFTInteger64:
+                    return Long.parseLong(feature.GetFieldAsString(fieldIndex));   // The bundled binding has no 64 bit getter
+
+                case ogrConstants.OFTReal:
+                    return feature.GetFieldAsDouble(fieldIndex);
+
+                case ogrConstants.OFTDate:
+                    return this.dateFormat.format(this.getDateTime(feature, fieldIndex));
+
+                case ogrConstants.OFTDateTime:
+                    return this.dateTimeFormat.format(this.getDateTime(feature, fieldIndex));
+
+                default:
+                    return feature.GetFieldAsString(fieldIndex);
+            }
+        }
+
+        /**
+         * Reads a date or date time field as an instant. OGR time zone flags
+         * above 100 are offsets from GMT in 15 minute increments; local and
+         * unknown times are taken to be UTC.
+         */
+        private Date getDateTime(final Feature feature, final int fieldIndex) {
+            feature.GetFieldAsDateTime(fieldIndex,
+                    this.year,
+                    this.month,
+                    this.day,
+                    this.hour,
+                    this.minute,
+                    this.second,
+                    this.timeZone);
+
+            this.calendar.clear();
+            this.calendar.set(this.year[0], this.month[0] - 1, this.day[0], this.hour[0], this.minute[0], this.second[0]);
+
+            if (this.timeZone[0] > 100) {
+                this.calendar.add(Calendar.MINUTE, -(this.timeZone[0] - 100) * 15);
+            }
+
+            return this.calendar.getTime();
+        }
+
+        private static SimpleDateFormat utcFormat(final String pattern) {
+            final SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+            format.setTimeZone(Utc);
+            return format;
+        }
+
+        private final Layer layer;
+        private final int[] fieldTypes;
+        private final int columnGeometryType;
+        private final TaskMonitor taskMonitor;
+        private final double[] envelope = new double[4];
+
+        private final int[] year = new int[1];
+        private final int[] month = new int[1];
+        private final int[] day = new int[1];
+        private final int[] hour = new int[1];
+        private final int[] minute = new int[1];
+        private final int[] second = new int[1];
+        private final int[] timeZone = new int[1];
+        private final Calendar calendar = Calendar.getInstance(Utc, Locale.US);
+        private final SimpleDateFormat dateFormat = utcFormat("yyyy-MM-dd");
+        private final SimpleDateFormat dateTimeFormat = utcFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+        private WellKnownBinaryFeature next;
+        private int progress;
+
+        private static final TimeZone Utc = TimeZone.getTimeZone("UTC");
+    }
+
+    private final GeoPackage geoPackage;
+    private final int batchSize;
+
+    private static final int OFTInteger64 = 12;   // Added in GDAL 2.0, missing from the bundled ogrConstants
+}
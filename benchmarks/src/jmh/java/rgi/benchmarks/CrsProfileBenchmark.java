@@ -0,0 +1,106 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import rgi.common.coordinate.Coordinate;
+import rgi.common.coordinate.referencesystem.profile.CrsProfile;
+import rgi.common.coordinate.referencesystem.profile.CrsProfileFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions between each supported coordinate reference system and global
+ * geodetic, one {@link Coordinate} at a time and in bulk. Scores are per
+ * coordinate.
+ *
+ * @author Luke Lambert
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CrsProfileBenchmark {
+    @Param({"4326", "3857", "3395"})
+    public int epsgIdentifier;
+
+    @Setup
+    public void setup() {
+        this.crsProfile = CrsProfileFactory.create("EPSG", this.epsgIdentifier);
+
+        this.geodeticCoordinates = SyntheticData.createGeodeticCoordinates(CoordinateCount, new Random(SyntheticData.Seed));
+        this.crsCoordinates = new double[this.geodeticCoordinates.length];
+        this.destination = new double[this.geodeticCoordinates.length];
+
+        this.crsProfile.fromGlobalGeodetic(this.geodeticCoordinates, 0, this.crsCoordinates, 0, CoordinateCount);
+
+        this.crsCoordinateObjects = new ArrayList<>(CoordinateCount);
+
+        for (int index = 0; index < CoordinateCount; ++index) {
+            this.crsCoordinateObjects.add(new Coordinate<>(this.crsCoordinates[2 * index],
+                    this.crsCoordinates[2 * index + 1]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CoordinateCount)
+    public void toGlobalGeodetic(final Blackhole blackhole) {
+        for (final Coordinate<Double> coordinate : this.crsCoordinateObjects) {
+            blackhole.consume(this.crsProfile.toGlobalGeodetic(coordinate));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CoordinateCount)
+    public double[] toGlobalGeodeticBulk() {
+        this.crsProfile.toGlobalGeodetic(this.crsCoordinates, 0, this.destination, 0, CoordinateCount);
+        return this.destination;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CoordinateCount)
+    public double[] fromGlobalGeodeticBulk() {
+        this.crsProfile.fromGlobalGeodetic(this.geodeticCoordinates, 0, this.destination, 0, CoordinateCount);
+        return this.destination;
+    }
+
+    private CrsProfile crsProfile;
+    private double[] geodeticCoordinates;
+    private double[] crsCoordinates;
+    private double[] destination;
+    private List<Coordinate<Double>> crsCoordinateObjects;
+
+    private static final int CoordinateCount = 4096;
+}
@@ -0,0 +1,209 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import rgi.common.BoundingBox;
+import rgi.common.Pair;
+import rgi.geopackage.GeoPackage;
+import rgi.geopackage.GeoPackage.OpenMode;
+import rgi.geopackage.core.SpatialReferenceSystem;
+import rgi.geopackage.features.ByteOutputStream;
+import rgi.geopackage.features.ColumnDefault;
+import rgi.geopackage.features.ColumnDefinition;
+import rgi.geopackage.features.ColumnFlag;
+import rgi.geopackage.features.Feature;
+import rgi.geopackage.features.FeatureSet;
+import rgi.geopackage.features.GeoPackageFeatures;
+import rgi.geopackage.features.GeometryColumn;
+import rgi.geopackage.features.GeometryColumnDefinition;
+import rgi.geopackage.features.GeometryType;
+import rgi.geopackage.features.SqlType;
+import rgi.geopackage.features.ValueRequirement;
+import rgi.geopackage.features.WellKnownBinaryFeature;
+import rgi.geopackage.features.geometry.Geometry;
+import rgi.geopackage.verification.VerificationLevel;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feature write and read throughput for a GeoPackage feature table of
+ * synthetic geometries with two attribute columns. Scores are per feature.
+ *
+ * @author Luke Lambert
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)  // Bounds the size of the file grown by the write benchmarks
+public class GeoPackageFeaturesBenchmark {
+    @Param({"Point", "LineString", "Polygon"})
+    public GeometryType geometryType;
+
+    @Param({"32"})
+    public int vertexCount;
+
+    @Setup
+    public void setup() throws Exception {
+        this.random = new Random(SyntheticData.Seed);
+        this.file = SyntheticData.createTemporaryGeoPackageFile("features");
+        this.geoPackage = new GeoPackage(this.file, VerificationLevel.None, OpenMode.Create);
+        this.features = this.geoPackage.features();
+
+        final SpatialReferenceSystem spatialReferenceSystem = this.geoPackage.core().getSpatialReferenceSystem("EPSG", 4326);
+
+        this.readFeatureSet = this.addFeatureSet("read_features", spatialReferenceSystem);
+        this.writeGeometryColumn = this.features.getGeometryColumn(this.addFeatureSet("write_features", spatialReferenceSystem));
+
+        this.batch = new ArrayList<>(BatchSize);
+        this.wellKnownBinaryBatch = new ArrayList<>(BatchSize);
+
+        for (int index = 0; index < BatchSize; ++index) {
+            final Geometry geometry = SyntheticData.createGeometry(this.geometryType, this.vertexCount, this.random);
+            final List<Object> attributes = Arrays.asList("feature " + index, this.random.nextDouble());
+
+            this.batch.add(Pair.of(geometry, attributes));
+
+            try (final ByteOutputStream byteOutputStream = new ByteOutputStream()) {
+                geometry.writeWellKnownBinary(byteOutputStream);
+
+                this.wellKnownBinaryBatch.add(new WellKnownBinaryFeature(byteOutputStream.array(),
+                        geometry.createEnvelope(),
+                        attributes));
+            }
+        }
+
+        final GeometryColumn readGeometryColumn = this.features.getGeometryColumn(this.readFeatureSet);
+
+        for (int count = 0; count < ReadFeatureCount; count += BatchSize) {
+            this.features.addFeatures(readGeometryColumn, AttributeColumnNames, this.batch);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.geoPackage.close();
+
+        //noinspection ResultOfMethodCallIgnored
+        this.file.delete();
+    }
+
+    /**
+     * Inserts a batch of {@link Geometry} objects in a single transaction
+     */
+    @Benchmark
+    @OperationsPerInvocation(BatchSize)
+    public void addFeatures() throws Exception {
+        this.features.addFeatures(this.writeGeometryColumn, AttributeColumnNames, this.batch);
+    }
+
+    /**
+     * Inserts a batch of features that are already encoded as well known
+     * binary, as done by bulk importers
+     */
+    @Benchmark
+    @OperationsPerInvocation(BatchSize)
+    public long addWellKnownBinaryFeatures() throws Exception {
+        return this.features.addFeatures(this.writeGeometryColumn,
+                AttributeColumnNames,
+                this.wellKnownBinaryBatch.iterator(),
+                BatchSize);
+    }
+
+    /**
+     * Reads and decodes every feature in a table
+     */
+    @Benchmark
+    @OperationsPerInvocation(ReadFeatureCount)
+    public void visitFeatures(final Blackhole blackhole) throws Exception {
+        this.features.visitFeatures(this.readFeatureSet, blackhole::consume);
+    }
+
+    /**
+     * Reads a single feature by its identifier
+     */
+    @Benchmark
+    public Feature getFeature() throws Exception {
+        return this.features.getFeature(this.readFeatureSet, 1 + this.random.nextInt(ReadFeatureCount));
+    }
+
+    private FeatureSet addFeatureSet(final String tableName,
+                                     final SpatialReferenceSystem spatialReferenceSystem) throws Exception {
+        return this.features.addFeatureSet(tableName,
+                tableName,
+                "Synthetic features",
+                new BoundingBox(-180.0, -90.0, 180.0, 90.0),
+                spatialReferenceSystem,
+                "id",
+                new GeometryColumnDefinition("geometry",
+                        this.geometryType.toString(),
+                        ValueRequirement.Prohibited,
+                        ValueRequirement.Prohibited,
+                        null),
+                new ColumnDefinition(AttributeColumnNames.get(0),
+                        SqlType.TEXT.toString(),
+                        EnumSet.noneOf(ColumnFlag.class),
+                        null,
+                        ColumnDefault.None,
+                        null),
+                new ColumnDefinition(AttributeColumnNames.get(1),
+                        SqlType.DOUBLE.toString(),
+                        EnumSet.noneOf(ColumnFlag.class),
+                        null,
+                        ColumnDefault.None,
+                        null));
+    }
+
+    private Random random;
+    private File file;
+    private GeoPackage geoPackage;
+    private GeoPackageFeatures features;
+    private FeatureSet readFeatureSet;
+    private GeometryColumn writeGeometryColumn;
+    private List<Pair<Geometry, List<Object>>> batch;
+    private List<WellKnownBinaryFeature> wellKnownBinaryBatch;
+
+    private static final int BatchSize = 1000;
+    private static final int ReadFeatureCount = 10 * BatchSize;
+    private static final List<String> AttributeColumnNames = Arrays.asList("name", "value");
+}
@@ -0,0 +1,179 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import rgi.common.BoundingBox;
+import rgi.geopackage.GeoPackage;
+import rgi.geopackage.GeoPackage.OpenMode;
+import rgi.geopackage.tiles.GeoPackageTiles;
+import rgi.geopackage.tiles.Tile;
+import rgi.geopackage.tiles.TileMatrix;
+import rgi.geopackage.tiles.TileMatrixSet;
+import rgi.geopackage.tiles.TileSet;
+import rgi.geopackage.verification.VerificationLevel;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tile insert and read throughput against a GeoPackage populated with
+ * synthetic tile data. Each trial works on a fresh file.
+ *
+ * @author Luke Lambert
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)  // Bounds the size of the file grown by addTile
+public class GeoPackageTilesBenchmark {
+    @Param({"4096", "32768"})
+    public int tileByteSize;
+
+    @Setup
+    public void setup() throws Exception {
+        this.random = new Random(SyntheticData.Seed);
+        this.file = SyntheticData.createTemporaryGeoPackageFile("tiles");
+        this.geoPackage = new GeoPackage(this.file, VerificationLevel.None, OpenMode.Create);
+        this.tiles = this.geoPackage.tiles();
+
+        this.tileSet = this.tiles.addTileSet("tiles",
+                "tiles",
+                "Synthetic tiles",
+                new BoundingBox(-180.0, -90.0, 180.0, 90.0),
+                this.geoPackage.core().getSpatialReferenceSystem("EPSG", 4326));
+
+        final TileMatrixSet tileMatrixSet = this.tiles.getTileMatrixSet(this.tileSet);
+
+        this.readTileMatrix = this.tiles.addTileMatrix(tileMatrixSet,
+                ReadZoomLevel,
+                2 << ReadZoomLevel,
+                1 << ReadZoomLevel,
+                TileDimension,
+                TileDimension);
+
+        this.writeTileMatrix = this.tiles.addTileMatrix(tileMatrixSet,
+                WriteZoomLevel,
+                2 << WriteZoomLevel,
+                1 << WriteZoomLevel,
+                TileDimension,
+                TileDimension);
+
+        this.tileData = SyntheticData.createTileData(this.tileByteSize, this.random);
+
+        for (int row = 0; row < this.readTileMatrix.getMatrixHeight(); ++row) {
+            for (int column = 0; column < this.readTileMatrix.getMatrixWidth(); ++column) {
+                this.tiles.addTile(this.tileSet,
+                        this.readTileMatrix,
+                        column,
+                        row,
+                        SyntheticData.createTileData(this.tileByteSize, this.random));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.geoPackage.close();
+
+        //noinspection ResultOfMethodCallIgnored
+        this.file.delete();
+    }
+
+    /**
+     * Inserts a single tile. Each insert is its own transaction, as with
+     * {@link GeoPackageTiles#addTile(TileSet, TileMatrix, int, int, byte[])}.
+     */
+    @Benchmark
+    public Tile addTile() throws Exception {
+        final int column = this.writeCount % this.writeTileMatrix.getMatrixWidth();
+        final int row = this.writeCount / this.writeTileMatrix.getMatrixWidth();
+
+        ++this.writeCount;
+
+        return this.tiles.addTile(this.tileSet,
+                this.writeTileMatrix,
+                column,
+                row,
+                this.tileData);
+    }
+
+    /**
+     * Reads a single tile from a random position
+     */
+    @Benchmark
+    public Tile getTile() throws Exception {
+        return this.tiles.getTile(this.tileSet,
+                this.random.nextInt(this.readTileMatrix.getMatrixWidth()),
+                this.random.nextInt(this.readTileMatrix.getMatrixHeight()),
+                ReadZoomLevel);
+    }
+
+    /**
+     * Reads a viewport sized block of tiles from a random position with a
+     * single range query
+     */
+    @Benchmark
+    public void visitTiles(final Blackhole blackhole) throws Exception {
+        final int minimumColumn = this.random.nextInt(this.readTileMatrix.getMatrixWidth() - ViewportColumns + 1);
+        final int minimumRow = this.random.nextInt(this.readTileMatrix.getMatrixHeight() - ViewportRows + 1);
+
+        this.tiles.visitTiles(this.tileSet,
+                ReadZoomLevel,
+                minimumColumn,
+                minimumColumn + ViewportColumns - 1,
+                minimumRow,
+                minimumRow + ViewportRows - 1,
+                blackhole::consume);
+    }
+
+    private Random random;
+    private File file;
+    private GeoPackage geoPackage;
+    private GeoPackageTiles tiles;
+    private TileSet tileSet;
+    private TileMatrix readTileMatrix;
+    private TileMatrix writeTileMatrix;
+    private byte[] tileData;
+    private int writeCount;
+
+    private static final int ReadZoomLevel = 4;   // 32 x 16 tiles
+    private static final int WriteZoomLevel = 12; // Room for 2^25 inserts
+    private static final int TileDimension = 256;
+    private static final int ViewportColumns = 5;
+    private static final int ViewportRows = 4;
+}
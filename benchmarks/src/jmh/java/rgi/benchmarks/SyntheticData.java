@@ -0,0 +1,256 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.benchmarks;
+
+import rgi.geopackage.features.GeometryType;
+import rgi.geopackage.features.geometry.Geometry;
+import rgi.geopackage.features.geometry.xy.Coordinate;
+import rgi.geopackage.features.geometry.xy.LinearRing;
+import rgi.geopackage.features.geometry.xy.WkbGeometry;
+import rgi.geopackage.features.geometry.xy.WkbGeometryCollection;
+import rgi.geopackage.features.geometry.xy.WkbLineString;
+import rgi.geopackage.features.geometry.xy.WkbMultiLineString;
+import rgi.geopackage.features.geometry.xy.WkbMultiPoint;
+import rgi.geopackage.features.geometry.xy.WkbMultiPolygon;
+import rgi.geopackage.features.geometry.xy.WkbPoint;
+import rgi.geopackage.features.geometry.xy.WkbPolygon;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generators for the synthetic data sets used by the
+ * benchmarks. Every generator takes its own {@link Random} so that data sets
+ * are reproducible between runs when created with {@link #Seed}.
+ *
+ * @author Luke Lambert
+ */
+final class SyntheticData {
+    private SyntheticData() {
+
+    }
+
+    /**
+     * Creates an XY geometry of the requested type
+     *
+     * @param geometryType One of the seven core geometry types, excluding
+     *                     {@link GeometryType#Geometry}
+     * @param vertexCount  Total number of vertices in the geometry, shared
+     *                     between its parts
+     * @param random       Source of coordinate values
+     * @return a geometry of the requested type
+     */
+    static Geometry createGeometry(final GeometryType geometryType,
+                                   final int vertexCount,
+                                   final Random random) {
+        if (geometryType == null) {
+            throw new IllegalArgumentException("Geometry type may not be null");
+        }
+
+        if (vertexCount < 1) {
+            throw new IllegalArgumentException("Vertex count must be greater than 0");
+        }
+
+        if (random == null) {
+            throw new IllegalArgumentException("Random may not be null");
+        }
+
+        final int partCount = Math.max(1, Math.min(PartsPerMultiGeometry, vertexCount / MinimumRingSize));
+        final int verticesPerPart = Math.max(MinimumRingSize, vertexCount / partCount);
+
+        switch (geometryType) {
+            case Point:
+                return new WkbPoint(createCoordinate(random));
+
+            case LineString:
+                return createLineString(Math.max(2, vertexCount), random);
+
+            case Polygon:
+                return createPolygon(Math.max(MinimumRingSize, vertexCount), random);
+
+            case MultiPoint: {
+                final List<WkbPoint> points = new ArrayList<>(vertexCount);
+
+                for (int index = 0; index < vertexCount; ++index) {
+                    points.add(new WkbPoint(createCoordinate(random)));
+                }
+
+                return new WkbMultiPoint(points);
+            }
+
+            case MultiLineString: {
+                final List<WkbLineString> lineStrings = new ArrayList<>(partCount);
+
+                for (int index = 0; index < partCount; ++index) {
+                    lineStrings.add(createLineString(verticesPerPart, random));
+                }
+
+                return new WkbMultiLineString(lineStrings);
+            }
+
+            case MultiPolygon: {
+                final List<WkbPolygon> polygons = new ArrayList<>(partCount);
+
+                for (int index = 0; index < partCount; ++index) {
+                    polygons.add(createPolygon(verticesPerPart, random));
+                }
+
+                return new WkbMultiPolygon(polygons);
+            }
+
+            case GeometryCollection: {
+                final List<WkbGeometry> geometries = new ArrayList<>(partCount + 1);
+
+                geometries.add(new WkbPoint(createCoordinate(random)));
+
+                for (int index = 0; index < partCount; ++index) {
+                    geometries.add(index % 2 == 0 ? createPolygon(verticesPerPart, random)
+                            : createLineString(verticesPerPart, random));
+                }
+
+                return new WkbGeometryCollection<>(geometries);
+            }
+
+            default:
+                throw new IllegalArgumentException("Unsupported geometry type: " + geometryType);
+        }
+    }
+
+    /**
+     * Creates interleaved longitude/latitude pairs, within the latitude range
+     * that all of the supported mercator projections can represent
+     *
+     * @param count  Number of coordinates
+     * @param random Source of coordinate values
+     * @return an array of 2 * count doubles
+     */
+    static double[] createGeodeticCoordinates(final int count,
+                                              final Random random) {
+        final double[] coordinates = new double[2 * count];
+
+        for (int index = 0; index < coordinates.length; index += 2) {
+            coordinates[index] = random.nextDouble() * 360.0 - 180.0;
+            coordinates[index + 1] = random.nextDouble() * 2 * MaximumLatitude - MaximumLatitude;
+        }
+
+        return coordinates;
+    }
+
+    /**
+     * Creates random bytes to stand in for encoded tile images. Random data
+     * doesn't compress, much like PNG or JPEG data.
+     *
+     * @param byteCount Size of the image data
+     * @param random    Source of the bytes
+     * @return an array of byteCount random bytes
+     */
+    static byte[] createTileData(final int byteCount,
+                                 final Random random) {
+        final byte[] data = new byte[byteCount];
+
+        random.nextBytes(data);
+
+        return data;
+    }
+
+    /**
+     * Creates a path for a temporary GeoPackage. The file itself is not
+     * created, since a GeoPackage can only be created in place of a missing
+     * file.
+     *
+     * @param prefix Prefix of the file name
+     * @return a path in the temporary directory that does not exist
+     * @throws IOException if the temporary file cannot be created or deleted
+     */
+    static File createTemporaryGeoPackageFile(final String prefix) throws IOException {
+        final File file = File.createTempFile(prefix, ".gpkg");
+
+        if (!file.delete()) {
+            throw new IOException("Unable to delete temporary file " + file);
+        }
+
+        file.deleteOnExit();
+
+        return file;
+    }
+
+    private static Coordinate createCoordinate(final Random random) {
+        return new Coordinate(random.nextDouble() * 360.0 - 180.0,
+                random.nextDouble() * 180.0 - 90.0);
+    }
+
+    private static WkbLineString createLineString(final int vertexCount,
+                                                  final Random random) {
+        final List<Coordinate> coordinates = new ArrayList<>(vertexCount);
+
+        double x = random.nextDouble() * 300.0 - 150.0;
+        double y = random.nextDouble() * 140.0 - 70.0;
+
+        for (int index = 0; index < vertexCount; ++index) {
+            x += random.nextDouble() * 0.02 - 0.01;
+            y += random.nextDouble() * 0.02 - 0.01;
+
+            coordinates.add(new Coordinate(x, y));
+        }
+
+        return new WkbLineString(coordinates);
+    }
+
+    /**
+     * Creates a star shaped (and therefore simple) polygon by walking around
+     * a center point at increasing angles with a random radius
+     */
+    private static WkbPolygon createPolygon(final int vertexCount,
+                                            final Random random) {
+        final double centerX = random.nextDouble() * 300.0 - 150.0;
+        final double centerY = random.nextDouble() * 140.0 - 70.0;
+
+        final List<Coordinate> coordinates = new ArrayList<>(vertexCount);
+
+        for (int index = 0; index < vertexCount - 1; ++index) {
+            final double angle = 2 * Math.PI * index / (vertexCount - 1);
+            final double radius = 0.5 + random.nextDouble() * 0.5;
+
+            coordinates.add(new Coordinate(centerX + radius * Math.cos(angle),
+                    centerY + radius * Math.sin(angle)));
+        }
+
+        coordinates.add(coordinates.get(0));    // Close the ring
+
+        return new WkbPolygon(new LinearRing(coordinates));
+    }
+
+    /**
+     * Seed used for every data set, so that results are comparable between
+     * runs
+     */
+    static final long Seed = 20171130L;
+
+    private static final int MinimumRingSize = 4;
+    private static final int PartsPerMultiGeometry = 8;
+    private static final double MaximumLatitude = 85.0;
+}
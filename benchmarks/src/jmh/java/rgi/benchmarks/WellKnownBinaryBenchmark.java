@@ -0,0 +1,111 @@
+/* The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Reinventing Geospatial, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package rgi.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import rgi.geopackage.features.BinaryHeader;
+import rgi.geopackage.features.ByteOutputStream;
+import rgi.geopackage.features.GeometryType;
+import rgi.geopackage.features.WellKnownBinaryFactory;
+import rgi.geopackage.features.WellKnownBinaryFormatException;
+import rgi.geopackage.features.geometry.Geometry;
+import rgi.geopackage.features.geometry.xy.Envelope;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Well known binary parsing and serialization, GeoPackage binary header
+ * encoding, and envelope computation for each of the core XY geometry types
+ *
+ * @author Luke Lambert
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WellKnownBinaryBenchmark {
+    @Param({"Point", "LineString", "Polygon", "MultiPoint", "MultiLineString", "MultiPolygon", "GeometryCollection"})
+    public GeometryType geometryType;
+
+    @Param({"16", "1024"})
+    public int vertexCount;
+
+    @Setup
+    public void setup() {
+        this.geometry = SyntheticData.createGeometry(this.geometryType,
+                this.vertexCount,
+                new Random(SyntheticData.Seed));
+
+        try (final ByteOutputStream byteOutputStream = new ByteOutputStream()) {
+            this.geometry.writeWellKnownBinary(byteOutputStream);
+            this.wellKnownBinary = byteOutputStream.array();
+        }
+    }
+
+    @Benchmark
+    public Geometry parse() throws WellKnownBinaryFormatException {
+        return this.wellKnownBinaryFactory.createGeometry(ByteBuffer.wrap(this.wellKnownBinary));
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        try (final ByteOutputStream byteOutputStream = new ByteOutputStream(this.wellKnownBinary.length)) {
+            this.geometry.writeWellKnownBinary(byteOutputStream);
+            return byteOutputStream.array();
+        }
+    }
+
+    /**
+     * Header and geometry together, as written for each row of a feature
+     * table
+     */
+    @Benchmark
+    public byte[] serializeGeoPackageBinary() {
+        try (final ByteOutputStream byteOutputStream = new ByteOutputStream()) {
+            BinaryHeader.writeBytes(byteOutputStream, this.geometry, SpatialReferenceSystemIdentifier);
+            this.geometry.writeWellKnownBinary(byteOutputStream);
+            return byteOutputStream.array();
+        }
+    }
+
+    @Benchmark
+    public Envelope createEnvelope() {
+        return this.geometry.createEnvelope();
+    }
+
+    private final WellKnownBinaryFactory wellKnownBinaryFactory = new WellKnownBinaryFactory();
+
+    private Geometry geometry;
+    private byte[] wellKnownBinary;
+
+    private static final int SpatialReferenceSystemIdentifier = 4326;
+}